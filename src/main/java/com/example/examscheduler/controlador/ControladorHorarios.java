@@ -1,12 +1,18 @@
 package com.example.examscheduler.controlador;
 
 import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.DiccionarioInstancia;
 import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.solucionador.ExportadorHorario;
 import com.example.examscheduler.solucionador.OptimizadorHorarios;
+import com.example.examscheduler.solucionador.ProgresoBusqueda;
 import com.example.examscheduler.vista.VistaPrincipal;
 
 import javax.swing.SwingWorker;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controlador que maneja la lógica de la aplicación y coordina
@@ -14,8 +20,26 @@ import java.util.List;
  */
 public class ControladorHorarios {
 
+    /**
+     * Archivo donde se guarda periódicamente la búsqueda en curso, para
+     * poder reanudarla si la aplicación se cierra.
+     */
+    public static final Path ARCHIVO_PUNTO_CONTROL = Path.of(
+            System.getProperty("user.home"), ".examscheduler", "busqueda.ckpt");
+
+    /**
+     * Intervalo entre dos puntos de control de la búsqueda.
+     */
+    private static final long INTERVALO_PUNTO_CONTROL_MS = 60_000;
+
     private VistaPrincipal vista;
 
+    /**
+     * Indicador de cancelación de la optimización en curso; el optimizador lo
+     * consulta en cada nodo de la búsqueda.
+     */
+    private final AtomicBoolean cancelacionSolicitada = new AtomicBoolean(false);
+
     public ControladorHorarios() {
     }
 
@@ -36,9 +60,34 @@ public class ControladorHorarios {
 
     /**
      * Solicita la optimización de horarios.
-     * La ejecución se realiza en un hilo separado para no bloquear la UI.
+     * La ejecución se realiza en un hilo separado para no bloquear la UI; el
+     * progreso de la búsqueda se muestra en la vista mientras tanto.
      */
     public void solicitarOptimizacion() {
+        iniciarOptimizacion(false);
+    }
+
+    /**
+     * Solicita continuar la búsqueda guardada en el último punto de control.
+     * Los datos y el número de franjas deben ser los mismos con los que se
+     * inició.
+     */
+    public void solicitarReanudacion() {
+        if (!hayPuntoControl()) {
+            mostrarError("No hay ninguna busqueda guardada para reanudar.");
+            return;
+        }
+        iniciarOptimizacion(true);
+    }
+
+    /**
+     * Indica si existe una búsqueda guardada que pueda reanudarse.
+     */
+    public boolean hayPuntoControl() {
+        return Files.exists(ARCHIVO_PUNTO_CONTROL);
+    }
+
+    private void iniciarOptimizacion(boolean reanudar) {
         int numeroFranjas = vista.obtenerNumeroFranjas();
         List<Curso> cursos = vista.obtenerCursos();
         List<Estudiante> estudiantes = vista.obtenerEstudiantes();
@@ -58,21 +107,33 @@ public class ControladorHorarios {
             return;
         }
 
+        cancelacionSolicitada.set(false);
         vista.mostrarProgreso(true);
 
-        SwingWorker<ResultadoOptimizacion, Void> worker = new SwingWorker<>() {
+        SwingWorker<ResultadoOptimizacion, ProgresoBusqueda> worker = new SwingWorker<>() {
             @Override
-            protected ResultadoOptimizacion doInBackground() {
+            protected ResultadoOptimizacion doInBackground() throws Exception {
                 OptimizadorHorarios optimizador = new OptimizadorHorarios(
                         cursos, estudiantes, numeroFranjas);
+                optimizador.setCancelacion(cancelacionSolicitada::get);
+                optimizador.setObservadorProgreso(this::publish);
+                Files.createDirectories(ARCHIVO_PUNTO_CONTROL.getParent());
+                optimizador.setPuntoControl(ARCHIVO_PUNTO_CONTROL, INTERVALO_PUNTO_CONTROL_MS);
 
                 long tiempoInicio = System.currentTimeMillis();
-                OptimizadorHorarios.Solucion solucion = optimizador.resolver();
+                OptimizadorHorarios.Solucion solucion = reanudar
+                        ? optimizador.reanudar(ARCHIVO_PUNTO_CONTROL)
+                        : optimizador.resolver();
                 long tiempoFin = System.currentTimeMillis();
 
                 return new ResultadoOptimizacion(solucion, tiempoFin - tiempoInicio, optimizador);
             }
 
+            @Override
+            protected void process(List<ProgresoBusqueda> progresos) {
+                vista.mostrarProgresoBusqueda(progresos.get(progresos.size() - 1));
+            }
+
             @Override
             protected void done() {
                 try {
@@ -82,7 +143,8 @@ public class ControladorHorarios {
                             resultado.duracion(),
                             resultado.optimizador());
                 } catch (Exception e) {
-                    mostrarError("Error durante la optimizacion: " + e.getMessage());
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    mostrarError("Error durante la optimizacion: " + causa.getMessage());
                     e.printStackTrace();
                 } finally {
                     vista.mostrarProgreso(false);
@@ -93,6 +155,69 @@ public class ControladorHorarios {
         worker.execute();
     }
 
+    /**
+     * Solicita detener la optimización en curso. La búsqueda termina en el
+     * siguiente nodo y se muestra el mejor horario encontrado hasta entonces.
+     */
+    public void cancelarOptimizacion() {
+        cancelacionSolicitada.set(true);
+    }
+
+    /**
+     * Exporta la última solución al archivo indicado (CSV o JSON según la
+     * extensión). Se exportan los cursos y estudiantes con los que se
+     * calculó, aunque los datos de la vista hayan cambiado después. La
+     * escritura se realiza en un hilo separado e informa el progreso en la
+     * vista.
+     */
+    public void solicitarExportacion(Path destino) {
+        OptimizadorHorarios.Solucion solucion = vista.obtenerUltimaSolucion();
+        OptimizadorHorarios optimizador = vista.obtenerUltimoOptimizador();
+        if (solucion == null || solucion.horario() == null || optimizador == null) {
+            mostrarError("No hay resultados para exportar.");
+            return;
+        }
+
+        DiccionarioInstancia instancia = optimizador.getGrafoConflictos().obtenerDiccionario();
+        ExportadorHorario exportador = new ExportadorHorario(
+                instancia.cursos(), instancia.estudiantes(),
+                optimizador.getGrafoConflictos(), solucion);
+        ExportadorHorario.Formato formato = ExportadorHorario.Formato.deArchivo(destino);
+        vista.mostrarProgresoExportacion(0);
+
+        SwingWorker<List<Path>, Integer> worker = new SwingWorker<>() {
+            @Override
+            protected List<Path> doInBackground() throws Exception {
+                return exportador.exportar(destino, formato, this::publish);
+            }
+
+            @Override
+            protected void process(List<Integer> porcentajes) {
+                vista.mostrarProgresoExportacion(porcentajes.get(porcentajes.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                vista.finalizarExportacion();
+                try {
+                    List<Path> archivos = get();
+                    javax.swing.JOptionPane.showMessageDialog(
+                            vista,
+                            "Resultados exportados exitosamente:\n" + archivos.stream()
+                                    .map(Path::toString)
+                                    .reduce((a, b) -> a + "\n" + b).orElse(""),
+                            "Exportar",
+                            javax.swing.JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    mostrarError("Error al exportar: " + causa.getMessage());
+                }
+            }
+        };
+
+        worker.execute();
+    }
+
     /**
      * Cambia los datos del ejemplo seleccionado.
      */
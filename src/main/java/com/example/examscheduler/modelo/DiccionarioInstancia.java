@@ -0,0 +1,93 @@
+package com.example.examscheduler.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asigna identificadores enteros densos a los cursos (0..numeroCursos-1) y a
+ * los estudiantes (0..numeroEstudiantes-1) de una instancia.
+ *
+ * Los cursos se buscan por hash una sola vez, al construir las estructuras
+ * del solucionador; a partir de ahí todo se indexa por entero y los objetos
+ * {@link Curso} y {@link Estudiante} solo se recuperan para mostrar o exportar
+ * resultados. Los cursos repetidos conservan el identificador de su primera
+ * aparición.
+ */
+public final class DiccionarioInstancia {
+
+    private final Curso[] cursos;
+    private final Map<Curso, Integer> indiceCursos;
+    private final Estudiante[] estudiantes;
+
+    /**
+     * @param cursos      Cursos, en el orden en que reciben su identificador
+     * @param estudiantes Estudiantes, en el orden en que reciben su
+     *                    identificador
+     */
+    public DiccionarioInstancia(List<Curso> cursos, List<Estudiante> estudiantes) {
+        this.indiceCursos = new HashMap<>(cursos.size() * 2);
+        List<Curso> unicos = new ArrayList<>(cursos.size());
+        for (Curso curso : cursos) {
+            if (indiceCursos.putIfAbsent(curso, unicos.size()) == null) {
+                unicos.add(curso);
+            }
+        }
+        this.cursos = unicos.toArray(new Curso[0]);
+        this.estudiantes = estudiantes.toArray(new Estudiante[0]);
+    }
+
+    /**
+     * Obtiene el número de cursos distintos.
+     */
+    public int numeroCursos() {
+        return cursos.length;
+    }
+
+    /**
+     * Obtiene el número de estudiantes.
+     */
+    public int numeroEstudiantes() {
+        return estudiantes.length;
+    }
+
+    /**
+     * Obtiene el curso con el identificador dado.
+     */
+    public Curso curso(int id) {
+        return cursos[id];
+    }
+
+    /**
+     * Obtiene el estudiante con el identificador dado.
+     */
+    public Estudiante estudiante(int id) {
+        return estudiantes[id];
+    }
+
+    /**
+     * Obtiene el identificador de un curso, o -1 si no pertenece a la
+     * instancia.
+     */
+    public int idCurso(Curso curso) {
+        Integer id = indiceCursos.get(curso);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Obtiene los cursos ordenados por identificador.
+     */
+    public List<Curso> cursos() {
+        return Collections.unmodifiableList(Arrays.asList(cursos));
+    }
+
+    /**
+     * Obtiene los estudiantes ordenados por identificador.
+     */
+    public List<Estudiante> estudiantes() {
+        return Collections.unmodifiableList(Arrays.asList(estudiantes));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.examscheduler.modelo;
+
+/**
+ * Índice invertido de las inscripciones: para cada curso, el conjunto de
+ * estudiantes (por identificador) inscritos en él, guardado como
+ * {@link MapaBitsCompacto}.
+ *
+ * Se construye en una sola pasada sobre las {@link InscripcionesCompactas};
+ * como los estudiantes se recorren en orden creciente, cada mapa recibe sus
+ * valores ya ordenados. Los estudiantes que comparten dos cursos se obtienen
+ * intersecando sus mapas, sin volver a recorrer a todos los estudiantes.
+ */
+public final class IndiceInscripciones {
+
+    private final MapaBitsCompacto[] estudiantesPorCurso;
+
+    /**
+     * Construye el índice de las inscripciones de una instancia.
+     *
+     * @param inscripciones Inscripciones compactas
+     * @param numeroCursos  Número de cursos del diccionario
+     */
+    public IndiceInscripciones(InscripcionesCompactas inscripciones, int numeroCursos) {
+        this.estudiantesPorCurso = new MapaBitsCompacto[numeroCursos];
+        for (int c = 0; c < numeroCursos; c++) {
+            estudiantesPorCurso[c] = new MapaBitsCompacto();
+        }
+        for (int e = 0; e < inscripciones.numeroEstudiantes(); e++) {
+            for (int posicion = inscripciones.inicio(e); posicion < inscripciones.fin(e); posicion++) {
+                estudiantesPorCurso[inscripciones.curso(posicion)].agregar(e);
+            }
+        }
+        for (MapaBitsCompacto mapa : estudiantesPorCurso) {
+            mapa.compactar();
+        }
+    }
+
+    /**
+     * Obtiene el número de cursos indexados.
+     */
+    public int numeroCursos() {
+        return estudiantesPorCurso.length;
+    }
+
+    /**
+     * Obtiene los estudiantes inscritos en un curso. El mapa no debe
+     * modificarse.
+     */
+    public MapaBitsCompacto estudiantes(int curso) {
+        return estudiantesPorCurso[curso];
+    }
+
+    /**
+     * Obtiene los estudiantes inscritos en ambos cursos.
+     */
+    public MapaBitsCompacto estudiantesEnAmbos(int curso1, int curso2) {
+        return estudiantesPorCurso[curso1].interseccion(estudiantesPorCurso[curso2]);
+    }
+
+    /**
+     * Estimación de los bytes que ocupa el índice.
+     */
+    public long bytesOcupados() {
+        long total = 0;
+        for (MapaBitsCompacto mapa : estudiantesPorCurso) {
+            total += mapa.bytesOcupados();
+        }
+        return total;
+    }
+}
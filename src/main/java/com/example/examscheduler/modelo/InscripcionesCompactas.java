@@ -0,0 +1,94 @@
+package com.example.examscheduler.modelo;
+
+import java.util.Arrays;
+
+/**
+ * Inscripciones de todos los estudiantes en formato CSR (filas comprimidas):
+ * los identificadores de curso de cada estudiante, ordenados y sin repetir,
+ * van seguidos en un único arreglo, y el estudiante e ocupa las posiciones
+ * {@code inicio(e)} a {@code fin(e) - 1}.
+ *
+ * Ocupa dos arreglos de enteros en lugar de una lista de objetos por
+ * estudiante. Las inscripciones en cursos que no pertenecen al diccionario se
+ * omiten.
+ */
+public final class InscripcionesCompactas {
+
+    private final int[] inicios;
+    private final int[] cursos;
+
+    /**
+     * Construye las inscripciones a partir de los estudiantes del
+     * diccionario.
+     */
+    public InscripcionesCompactas(DiccionarioInstancia diccionario) {
+        int numeroEstudiantes = diccionario.numeroEstudiantes();
+        this.inicios = new int[numeroEstudiantes + 1];
+        int total = 0;
+        for (int e = 0; e < numeroEstudiantes; e++) {
+            total += diccionario.estudiante(e).cursos().size();
+        }
+
+        int[] datos = new int[total];
+        // Último estudiante que inscribió cada curso, para descartar repetidos.
+        int[] ultimoEstudiante = new int[diccionario.numeroCursos()];
+        Arrays.fill(ultimoEstudiante, -1);
+        int posicion = 0;
+        for (int e = 0; e < numeroEstudiantes; e++) {
+            int inicio = posicion;
+            for (Curso curso : diccionario.estudiante(e).cursos()) {
+                int id = diccionario.idCurso(curso);
+                if (id >= 0 && ultimoEstudiante[id] != e) {
+                    ultimoEstudiante[id] = e;
+                    datos[posicion++] = id;
+                }
+            }
+            Arrays.sort(datos, inicio, posicion);
+            inicios[e + 1] = posicion;
+        }
+        this.cursos = posicion == total ? datos : Arrays.copyOf(datos, posicion);
+    }
+
+    /**
+     * Obtiene el número de estudiantes.
+     */
+    public int numeroEstudiantes() {
+        return inicios.length - 1;
+    }
+
+    /**
+     * Obtiene el número total de inscripciones.
+     */
+    public int numeroInscripciones() {
+        return cursos.length;
+    }
+
+    /**
+     * Primera posición de los cursos del estudiante.
+     */
+    public int inicio(int estudiante) {
+        return inicios[estudiante];
+    }
+
+    /**
+     * Posición siguiente a la del último curso del estudiante.
+     */
+    public int fin(int estudiante) {
+        return inicios[estudiante + 1];
+    }
+
+    /**
+     * Obtiene el identificador de curso en una posición.
+     */
+    public int curso(int posicion) {
+        return cursos[posicion];
+    }
+
+    /**
+     * Obtiene el arreglo de identificadores de curso de todos los
+     * estudiantes. El arreglo no debe modificarse.
+     */
+    public int[] cursos() {
+        return cursos;
+    }
+}
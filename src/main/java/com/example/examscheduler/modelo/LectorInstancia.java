@@ -0,0 +1,170 @@
+package com.example.examscheduler.modelo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Lee instancias (cursos y estudiantes) en formato de texto, una línea por
+ * elemento:
+ * - Curso: ID, Nombre
+ * - Estudiante: ID: C1,C2,...
+ * - Líneas vacías o que empiezan con # se ignoran
+ *
+ * Los IDs se normalizan a mayúsculas y se indexan en tablas hash, así que la
+ * lectura es lineal en el tamaño de la entrada. Los estudiantes pueden
+ * referirse a cursos definidos más adelante: se resuelven al terminar de leer.
+ * Las líneas inválidas se omiten y se informan en el resultado.
+ */
+public class LectorInstancia {
+
+    /**
+     * Máximo de errores que se conservan con detalle.
+     */
+    public static final int MAX_ERRORES_DETALLADOS = 20;
+
+    private static final int LINEAS_ENTRE_AVISOS = 10_000;
+
+    /**
+     * Datos válidos leídos y errores encontrados.
+     *
+     * @param cursos       Cursos nuevos, en orden de aparición
+     * @param estudiantes  Estudiantes nuevos, en orden de aparición
+     * @param errores      Detalle de los primeros errores
+     * @param totalErrores Número total de líneas omitidas
+     */
+    public record Resultado(
+            List<Curso> cursos,
+            List<Estudiante> estudiantes,
+            List<String> errores,
+            int totalErrores) {
+    }
+
+    private final Map<String, Curso> indiceCursos;
+    private final Set<String> idsEstudiantes;
+    private final List<String> errores = new ArrayList<>();
+    private int totalErrores = 0;
+
+    /**
+     * Lector para una instancia nueva.
+     */
+    public LectorInstancia() {
+        this(Map.of(), Set.of());
+    }
+
+    /**
+     * Lector que completa datos existentes: los cursos ya definidos pueden
+     * usarse en las inscripciones, y los IDs repetidos se rechazan.
+     *
+     * @param cursosExistentes      Cursos ya definidos, por ID
+     * @param estudiantesExistentes IDs de estudiantes ya definidos
+     */
+    public LectorInstancia(Map<String, Curso> cursosExistentes, Set<String> estudiantesExistentes) {
+        this.indiceCursos = new HashMap<>(cursosExistentes);
+        this.idsEstudiantes = new HashSet<>(estudiantesExistentes);
+    }
+
+    /**
+     * Lee todas las líneas de la entrada.
+     *
+     * @param lector       Entrada de texto
+     * @param lineasLeidas Recibe periódicamente el número de líneas leídas
+     * @return Los cursos y estudiantes válidos y los errores
+     */
+    public Resultado leer(BufferedReader lector, IntConsumer lineasLeidas) throws IOException {
+        List<Curso> cursosNuevos = new ArrayList<>();
+        List<String[]> estudiantesLeidos = new ArrayList<>();
+
+        int numeroLinea = 0;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (numeroLinea % LINEAS_ENTRE_AVISOS == 0) {
+                lineasLeidas.accept(numeroLinea);
+            }
+            linea = linea.trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+
+            int dosPuntos = linea.indexOf(':');
+            if (dosPuntos >= 0) {
+                String id = linea.substring(0, dosPuntos).trim().toUpperCase();
+                String cursosTexto = linea.substring(dosPuntos + 1).trim().toUpperCase();
+                if (id.isEmpty() || cursosTexto.isEmpty()) {
+                    registrarError(numeroLinea, "estudiante incompleto");
+                } else if (!idsEstudiantes.add(id)) {
+                    registrarError(numeroLinea, "estudiante " + id + " duplicado");
+                } else {
+                    estudiantesLeidos.add(new String[] { id, cursosTexto, String.valueOf(numeroLinea) });
+                }
+                continue;
+            }
+
+            int coma = linea.indexOf(',');
+            String id = (coma >= 0 ? linea.substring(0, coma) : linea).trim().toUpperCase();
+            String nombre = coma >= 0 ? linea.substring(coma + 1).trim() : "";
+            if (id.isEmpty() || nombre.isEmpty()) {
+                registrarError(numeroLinea, "curso incompleto");
+            } else if (indiceCursos.containsKey(id)) {
+                registrarError(numeroLinea, "curso " + id + " duplicado");
+            } else {
+                Curso curso = new Curso(id, nombre);
+                indiceCursos.put(id, curso);
+                cursosNuevos.add(curso);
+            }
+        }
+
+        List<Estudiante> estudiantesNuevos = new ArrayList<>(estudiantesLeidos.size());
+        for (String[] leido : estudiantesLeidos) {
+            List<Curso> cursosEstudiante = new ArrayList<>();
+            String faltante = resolverCursos(leido[1], indiceCursos, cursosEstudiante);
+            if (faltante != null) {
+                registrarError(Integer.parseInt(leido[2]), "el curso " + faltante + " no existe");
+                idsEstudiantes.remove(leido[0]);
+            } else {
+                estudiantesNuevos.add(new Estudiante(leido[0], cursosEstudiante));
+            }
+        }
+        return new Resultado(cursosNuevos, estudiantesNuevos, List.copyOf(errores), totalErrores);
+    }
+
+    /**
+     * Resuelve una lista de IDs de cursos separados por coma usando el índice.
+     * Los IDs repetidos se ignoran.
+     *
+     * @param cursosTexto IDs separados por coma (en mayúsculas)
+     * @param indice      Índice de cursos por ID
+     * @param destino     Lista donde se agregan los cursos encontrados
+     * @return El primer ID que no existe, o null si todos existen
+     */
+    public static String resolverCursos(String cursosTexto, Map<String, Curso> indice, List<Curso> destino) {
+        Set<String> vistos = new LinkedHashSet<>();
+        for (String cursoId : cursosTexto.split(",")) {
+            cursoId = cursoId.trim();
+            if (cursoId.isEmpty() || !vistos.add(cursoId)) {
+                continue;
+            }
+            Curso curso = indice.get(cursoId);
+            if (curso == null) {
+                return cursoId;
+            }
+            destino.add(curso);
+        }
+        return null;
+    }
+
+    private void registrarError(int linea, String motivo) {
+        totalErrores++;
+        if (errores.size() < MAX_ERRORES_DETALLADOS) {
+            errores.add("Linea " + linea + ": " + motivo);
+        }
+    }
+}
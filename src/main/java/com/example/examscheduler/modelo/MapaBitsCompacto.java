@@ -0,0 +1,498 @@
+package com.example.examscheduler.modelo;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto de enteros no negativos comprimido por bloques, al estilo de los
+ * mapas de bits "roaring".
+ *
+ * Los 16 bits altos de cada valor eligen un bloque de 65.536 valores, y cada
+ * bloque se guarda en el contenedor que ocupa menos:
+ * - Arreglo: los 16 bits bajos ordenados, si el bloque tiene hasta 4.096
+ * valores (2 bytes por valor)
+ * - Mapa de bits: 1.024 palabras de 64 bits, si tiene más (8 KiB fijos)
+ *
+ * Se construye agregando valores en orden creciente (como salen de recorrer
+ * los estudiantes por identificador) y, una vez construido, no se modifica.
+ * La intersección trabaja bloque a bloque según el tipo de cada contenedor;
+ * también puede intersecarse con un mapa de bits denso, que sirve de
+ * acumulador cuando hay que combinar muchos mapas.
+ */
+public final class MapaBitsCompacto {
+
+    /** Cardinalidad máxima de un contenedor de arreglo. */
+    private static final int LIMITE_ARREGLO = 4096;
+    private static final int PALABRAS_MAPA = 1024;
+
+    private char[] claves;
+    private Contenedor[] contenedores;
+    private int numeroBloques;
+
+    private MapaBitsCompacto(char[] claves, Contenedor[] contenedores, int numeroBloques) {
+        this.claves = claves;
+        this.contenedores = contenedores;
+        this.numeroBloques = numeroBloques;
+    }
+
+    /**
+     * Crea un mapa vacío al que se le pueden agregar valores en orden
+     * creciente.
+     */
+    public MapaBitsCompacto() {
+        this(new char[2], new Contenedor[2], 0);
+    }
+
+    /**
+     * Agrega un valor mayor que todos los agregados hasta ahora.
+     *
+     * @throws IllegalArgumentException si el valor es negativo o no es
+     *                                  creciente
+     */
+    public void agregar(int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Valor negativo: " + valor);
+        }
+        char clave = (char) (valor >>> 16);
+        char bajo = (char) valor;
+        if (numeroBloques == 0 || claves[numeroBloques - 1] != clave) {
+            if (numeroBloques > 0 && claves[numeroBloques - 1] > clave) {
+                throw new IllegalArgumentException("Los valores deben agregarse en orden creciente");
+            }
+            if (numeroBloques == claves.length) {
+                claves = Arrays.copyOf(claves, numeroBloques * 2);
+                contenedores = Arrays.copyOf(contenedores, numeroBloques * 2);
+            }
+            claves[numeroBloques] = clave;
+            contenedores[numeroBloques++] = new ContenedorArreglo(new char[4], 0);
+        }
+        contenedores[numeroBloques - 1] = contenedores[numeroBloques - 1].agregarAlFinal(bajo);
+    }
+
+    /**
+     * Ajusta los arreglos internos a su tamaño final. Conviene llamarlo al
+     * terminar de agregar valores.
+     */
+    public void compactar() {
+        claves = Arrays.copyOf(claves, numeroBloques);
+        contenedores = Arrays.copyOf(contenedores, numeroBloques);
+        for (int i = 0; i < numeroBloques; i++) {
+            contenedores[i] = contenedores[i].compactar();
+        }
+    }
+
+    /**
+     * Obtiene el número de valores del mapa.
+     */
+    public int cardinalidad() {
+        int total = 0;
+        for (int i = 0; i < numeroBloques; i++) {
+            total += contenedores[i].cardinalidad();
+        }
+        return total;
+    }
+
+    /**
+     * Indica si el mapa no tiene valores.
+     */
+    public boolean estaVacio() {
+        return numeroBloques == 0;
+    }
+
+    /**
+     * Indica si el valor pertenece al mapa.
+     */
+    public boolean contiene(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        int bloque = buscarClave((char) (valor >>> 16));
+        return bloque >= 0 && contenedores[bloque].contiene((char) valor);
+    }
+
+    /**
+     * Calcula la intersección con otro mapa, en un mapa nuevo.
+     */
+    public MapaBitsCompacto interseccion(MapaBitsCompacto otro) {
+        int capacidad = Math.min(numeroBloques, otro.numeroBloques);
+        char[] nuevasClaves = new char[capacidad];
+        Contenedor[] nuevos = new Contenedor[capacidad];
+        int cantidad = 0;
+        int i = 0;
+        int j = 0;
+        while (i < numeroBloques && j < otro.numeroBloques) {
+            char a = claves[i];
+            char b = otro.claves[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                Contenedor comun = contenedores[i].interseccion(otro.contenedores[j]);
+                if (comun.cardinalidad() > 0) {
+                    nuevasClaves[cantidad] = a;
+                    nuevos[cantidad++] = comun;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new MapaBitsCompacto(nuevasClaves, nuevos, cantidad);
+    }
+
+    /**
+     * Recorre los valores en orden creciente.
+     */
+    public void recorrer(IntConsumer visitante) {
+        for (int i = 0; i < numeroBloques; i++) {
+            contenedores[i].recorrer(claves[i] << 16, visitante);
+        }
+    }
+
+    /**
+     * Recorre, en orden creciente, los valores cuyo bit está activo en un
+     * mapa de bits denso (bit v en {@code palabras[v >>> 6]}).
+     */
+    public void recorrerInterseccion(long[] palabras, IntConsumer visitante) {
+        for (int i = 0; i < numeroBloques; i++) {
+            contenedores[i].recorrerInterseccion(claves[i] << 16, palabras, visitante);
+        }
+    }
+
+    /**
+     * Activa los bits de todos los valores en un mapa de bits denso.
+     */
+    public void marcarEn(long[] palabras) {
+        for (int i = 0; i < numeroBloques; i++) {
+            contenedores[i].marcarEn(claves[i] << 16, palabras);
+        }
+    }
+
+    /**
+     * Apaga en un mapa de bits denso las palabras que contienen algún valor
+     * (deja limpio lo que dejó {@link #marcarEn(long[])}).
+     */
+    public void limpiarEn(long[] palabras) {
+        for (int i = 0; i < numeroBloques; i++) {
+            contenedores[i].limpiarEn(claves[i] << 16, palabras);
+        }
+    }
+
+    /**
+     * Obtiene los valores en orden creciente.
+     */
+    public int[] aArreglo() {
+        int[] valores = new int[cardinalidad()];
+        int[] posicion = { 0 };
+        recorrer(valor -> valores[posicion[0]++] = valor);
+        return valores;
+    }
+
+    /**
+     * Estimación de los bytes que ocupan los contenedores.
+     */
+    public long bytesOcupados() {
+        long total = numeroBloques * 2L;
+        for (int i = 0; i < numeroBloques; i++) {
+            total += contenedores[i].bytesOcupados();
+        }
+        return total;
+    }
+
+    private int buscarClave(char clave) {
+        int bajo = 0;
+        int alto = numeroBloques - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (claves[medio] < clave) {
+                bajo = medio + 1;
+            } else if (claves[medio] > clave) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== Contenedores ====================
+
+    private abstract static class Contenedor {
+
+        abstract int cardinalidad();
+
+        abstract boolean contiene(char valor);
+
+        /** Agrega un valor mayor que todos; puede devolver otro contenedor. */
+        abstract Contenedor agregarAlFinal(char valor);
+
+        abstract Contenedor compactar();
+
+        abstract Contenedor interseccion(Contenedor otro);
+
+        abstract void recorrer(int base, IntConsumer visitante);
+
+        abstract void recorrerInterseccion(int base, long[] densos, IntConsumer visitante);
+
+        abstract void marcarEn(int base, long[] densos);
+
+        abstract void limpiarEn(int base, long[] densos);
+
+        abstract long bytesOcupados();
+    }
+
+    /**
+     * Valores bajos ordenados en un arreglo de char (2 bytes por valor).
+     */
+    private static final class ContenedorArreglo extends Contenedor {
+
+        private char[] valores;
+        private int cantidad;
+
+        ContenedorArreglo(char[] valores, int cantidad) {
+            this.valores = valores;
+            this.cantidad = cantidad;
+        }
+
+        @Override
+        int cardinalidad() {
+            return cantidad;
+        }
+
+        @Override
+        boolean contiene(char valor) {
+            return Arrays.binarySearch(valores, 0, cantidad, valor) >= 0;
+        }
+
+        @Override
+        Contenedor agregarAlFinal(char valor) {
+            if (cantidad == LIMITE_ARREGLO) {
+                ContenedorMapa mapa = new ContenedorMapa(new long[PALABRAS_MAPA], 0);
+                for (int i = 0; i < cantidad; i++) {
+                    mapa.poner(valores[i]);
+                }
+                mapa.poner(valor);
+                return mapa;
+            }
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(LIMITE_ARREGLO, cantidad * 2));
+            }
+            valores[cantidad++] = valor;
+            return this;
+        }
+
+        @Override
+        Contenedor compactar() {
+            if (valores.length != cantidad) {
+                valores = Arrays.copyOf(valores, cantidad);
+            }
+            return this;
+        }
+
+        @Override
+        Contenedor interseccion(Contenedor otro) {
+            if (otro instanceof ContenedorMapa mapa) {
+                char[] comunes = new char[cantidad];
+                int n = 0;
+                for (int i = 0; i < cantidad; i++) {
+                    if (mapa.contiene(valores[i])) {
+                        comunes[n++] = valores[i];
+                    }
+                }
+                return new ContenedorArreglo(comunes, n);
+            }
+            ContenedorArreglo arreglo = (ContenedorArreglo) otro;
+            ContenedorArreglo menor = cantidad <= arreglo.cantidad ? this : arreglo;
+            ContenedorArreglo mayor = menor == this ? arreglo : this;
+            char[] comunes = new char[menor.cantidad];
+            int n = 0;
+            if (menor.cantidad * 32 < mayor.cantidad) {
+                // Muy desbalanceados: búsqueda binaria en el mayor.
+                int desde = 0;
+                for (int i = 0; i < menor.cantidad && desde < mayor.cantidad; i++) {
+                    int posicion = Arrays.binarySearch(mayor.valores, desde, mayor.cantidad, menor.valores[i]);
+                    if (posicion >= 0) {
+                        comunes[n++] = menor.valores[i];
+                        desde = posicion + 1;
+                    } else {
+                        desde = -posicion - 1;
+                    }
+                }
+            } else {
+                int i = 0;
+                int j = 0;
+                while (i < menor.cantidad && j < mayor.cantidad) {
+                    char a = menor.valores[i];
+                    char b = mayor.valores[j];
+                    if (a < b) {
+                        i++;
+                    } else if (a > b) {
+                        j++;
+                    } else {
+                        comunes[n++] = a;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new ContenedorArreglo(comunes, n);
+        }
+
+        @Override
+        void recorrer(int base, IntConsumer visitante) {
+            for (int i = 0; i < cantidad; i++) {
+                visitante.accept(base | valores[i]);
+            }
+        }
+
+        @Override
+        void recorrerInterseccion(int base, long[] densos, IntConsumer visitante) {
+            for (int i = 0; i < cantidad; i++) {
+                int valor = base | valores[i];
+                if ((densos[valor >>> 6] & (1L << valor)) != 0) {
+                    visitante.accept(valor);
+                }
+            }
+        }
+
+        @Override
+        void marcarEn(int base, long[] densos) {
+            for (int i = 0; i < cantidad; i++) {
+                int valor = base | valores[i];
+                densos[valor >>> 6] |= 1L << valor;
+            }
+        }
+
+        @Override
+        void limpiarEn(int base, long[] densos) {
+            for (int i = 0; i < cantidad; i++) {
+                densos[(base | valores[i]) >>> 6] = 0;
+            }
+        }
+
+        @Override
+        long bytesOcupados() {
+            return valores.length * 2L;
+        }
+    }
+
+    /**
+     * Mapa de bits de 65.536 bits para bloques densos.
+     */
+    private static final class ContenedorMapa extends Contenedor {
+
+        private final long[] palabras;
+        private int cantidad;
+
+        ContenedorMapa(long[] palabras, int cantidad) {
+            this.palabras = palabras;
+            this.cantidad = cantidad;
+        }
+
+        void poner(char valor) {
+            long bit = 1L << valor;
+            int indice = valor >>> 6;
+            if ((palabras[indice] & bit) == 0) {
+                palabras[indice] |= bit;
+                cantidad++;
+            }
+        }
+
+        @Override
+        int cardinalidad() {
+            return cantidad;
+        }
+
+        @Override
+        boolean contiene(char valor) {
+            return (palabras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override
+        Contenedor agregarAlFinal(char valor) {
+            poner(valor);
+            return this;
+        }
+
+        @Override
+        Contenedor compactar() {
+            return this;
+        }
+
+        @Override
+        Contenedor interseccion(Contenedor otro) {
+            if (otro instanceof ContenedorArreglo) {
+                return otro.interseccion(this);
+            }
+            long[] otras = ((ContenedorMapa) otro).palabras;
+            long[] comunes = new long[PALABRAS_MAPA];
+            int n = 0;
+            for (int i = 0; i < PALABRAS_MAPA; i++) {
+                comunes[i] = palabras[i] & otras[i];
+                n += Long.bitCount(comunes[i]);
+            }
+            if (n > LIMITE_ARREGLO) {
+                return new ContenedorMapa(comunes, n);
+            }
+            char[] valores = new char[n];
+            int k = 0;
+            for (int i = 0; i < PALABRAS_MAPA; i++) {
+                long palabra = comunes[i];
+                while (palabra != 0) {
+                    valores[k++] = (char) ((i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+            return new ContenedorArreglo(valores, n);
+        }
+
+        @Override
+        void recorrer(int base, IntConsumer visitante) {
+            for (int i = 0; i < PALABRAS_MAPA; i++) {
+                long palabra = palabras[i];
+                while (palabra != 0) {
+                    visitante.accept(base | (i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+        }
+
+        @Override
+        void recorrerInterseccion(int base, long[] densos, IntConsumer visitante) {
+            int desplazamiento = base >>> 6;
+            int limite = Math.min(PALABRAS_MAPA, densos.length - desplazamiento);
+            for (int i = 0; i < limite; i++) {
+                long palabra = palabras[i] & densos[desplazamiento + i];
+                while (palabra != 0) {
+                    visitante.accept(base | (i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+        }
+
+        @Override
+        void marcarEn(int base, long[] densos) {
+            int desplazamiento = base >>> 6;
+            int limite = Math.min(PALABRAS_MAPA, densos.length - desplazamiento);
+            for (int i = 0; i < limite; i++) {
+                densos[desplazamiento + i] |= palabras[i];
+            }
+        }
+
+        @Override
+        void limpiarEn(int base, long[] densos) {
+            int desplazamiento = base >>> 6;
+            int limite = Math.min(PALABRAS_MAPA, densos.length - desplazamiento);
+            for (int i = 0; i < limite; i++) {
+                if (palabras[i] != 0) {
+                    densos[desplazamiento + i] = 0;
+                }
+            }
+        }
+
+        @Override
+        long bytesOcupados() {
+            return PALABRAS_MAPA * 8L;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.examscheduler.modelo;
+
+import java.util.Arrays;
+
+/**
+ * Agrupa a los estudiantes que tienen exactamente el mismo conjunto de cursos
+ * (por ejemplo, una cohorte de una carrera) en patrones con su número de
+ * estudiantes.
+ *
+ * Los conjuntos ya están ordenados en las {@link InscripcionesCompactas}, así
+ * que se comparan como tramos de enteros en una tabla hash de direccionamiento
+ * abierto, sin crear objetos por estudiante. Cada patrón se representa por el
+ * primer estudiante que lo tiene.
+ */
+public final class PatronesInscripcion {
+
+    private final InscripcionesCompactas inscripciones;
+    private final int[] representantes;
+    private final int[] cantidades;
+
+    /**
+     * Agrupa las inscripciones en patrones, en orden de primera aparición.
+     */
+    public PatronesInscripcion(InscripcionesCompactas inscripciones) {
+        this.inscripciones = inscripciones;
+        int numeroEstudiantes = inscripciones.numeroEstudiantes();
+        int capacidad = Integer.highestOneBit(Math.max(4, numeroEstudiantes * 2 - 1)) << 1;
+        int mascara = capacidad - 1;
+        // Patrón (índice + 1) en cada casilla; 0 si está libre.
+        int[] tabla = new int[capacidad];
+
+        int[] representantesTemporales = new int[numeroEstudiantes];
+        int[] cantidadesTemporales = new int[numeroEstudiantes];
+        int numeroPatrones = 0;
+        int[] cursos = inscripciones.cursos();
+        for (int e = 0; e < numeroEstudiantes; e++) {
+            int inicio = inscripciones.inicio(e);
+            int fin = inscripciones.fin(e);
+            int hash = 1;
+            for (int posicion = inicio; posicion < fin; posicion++) {
+                hash = 31 * hash + cursos[posicion];
+            }
+            int casilla = (hash ^ (hash >>> 16)) & mascara;
+            while (true) {
+                int patron = tabla[casilla] - 1;
+                if (patron < 0) {
+                    tabla[casilla] = numeroPatrones + 1;
+                    representantesTemporales[numeroPatrones] = e;
+                    cantidadesTemporales[numeroPatrones] = 1;
+                    numeroPatrones++;
+                    break;
+                }
+                int otro = representantesTemporales[patron];
+                if (Arrays.equals(cursos, inicio, fin,
+                        cursos, inscripciones.inicio(otro), inscripciones.fin(otro))) {
+                    cantidadesTemporales[patron]++;
+                    break;
+                }
+                casilla = (casilla + 1) & mascara;
+            }
+        }
+        this.representantes = Arrays.copyOf(representantesTemporales, numeroPatrones);
+        this.cantidades = Arrays.copyOf(cantidadesTemporales, numeroPatrones);
+    }
+
+    /**
+     * Obtiene el número de patrones distintos.
+     */
+    public int numeroPatrones() {
+        return representantes.length;
+    }
+
+    /**
+     * Obtiene el número de estudiantes que comparten el patrón.
+     */
+    public int cantidad(int patron) {
+        return cantidades[patron];
+    }
+
+    /**
+     * Primera posición de los cursos del patrón en las inscripciones.
+     */
+    public int inicio(int patron) {
+        return inscripciones.inicio(representantes[patron]);
+    }
+
+    /**
+     * Posición siguiente a la del último curso del patrón.
+     */
+    public int fin(int patron) {
+        return inscripciones.fin(representantes[patron]);
+    }
+
+    /**
+     * Obtiene el identificador de curso en una posición de las inscripciones.
+     */
+    public int curso(int posicion) {
+        return inscripciones.curso(posicion);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.modelo.LectorInstancia;
+import com.example.examscheduler.solucionador.EstadisticasBusqueda;
+import com.example.examscheduler.solucionador.OptimizadorHorarios;
+import com.example.examscheduler.solucionador.PoliticaBusqueda;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Resuelve una instancia con cada política de selección de nodos y muestra,
+ * por política, el tiempo hasta el primer horario, el tiempo total, los
+ * estados explorados y podados, las cotas calculadas y el pico de nodos en
+ * memoria. La programación dinámica sobre la descomposición en árbol se
+ * desactiva, para que todas las instancias pasen por el Branch & Bound.
+ */
+public final class CompararPoliticas {
+
+    private static final long LIMITE_POR_DEFECTO_SEGUNDOS = 60;
+
+    private CompararPoliticas() {
+    }
+
+    /**
+     * Argumentos: archivo de la instancia (formato de {@link LectorInstancia}),
+     * número de franjas y, opcionalmente, el límite de tiempo por política en
+     * segundos (60 por defecto) y las opciones "perezosa" (evaluación
+     * perezosa de los nodos), "empaquetada" (frontera fuera del montón) y
+     * "contiguas=N" (peso N por estudiante con exámenes en franjas
+     * consecutivas). Una política que llega al límite se cancela y se marca
+     * en la tabla.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: CompararPoliticas <instancia> <franjas> [segundos por politica] [perezosa] [empaquetada] [contiguas=N]");
+            return;
+        }
+        LectorInstancia.Resultado instancia;
+        try (BufferedReader lector = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            instancia = new LectorInstancia().leer(lector, lineas -> {
+            });
+        }
+        int franjas = Integer.parseInt(args[1]);
+        long limite = (args.length > 2 ? Long.parseLong(args[2]) : LIMITE_POR_DEFECTO_SEGUNDOS) * 1_000_000_000L;
+        boolean perezosa = false;
+        boolean empaquetada = false;
+        int pesoContigua = 0;
+        for (int i = 3; i < args.length; i++) {
+            perezosa |= args[i].equalsIgnoreCase("perezosa");
+            empaquetada |= args[i].equalsIgnoreCase("empaquetada");
+            if (args[i].toLowerCase().startsWith("contiguas=")) {
+                pesoContigua = Integer.parseInt(args[i].substring("contiguas=".length()));
+            }
+        }
+
+        System.out.printf("%-30s %10s %12s %12s %12s %12s %12s %12s %12s%n", "Politica",
+                pesoContigua == 0 ? "Conflictos" : "Costo",
+                "1a sol. (ms)", "Total (ms)", "Explorados", "Podados", "Cotas", "Pico nodos", "Pico KB");
+        for (PoliticaBusqueda politica : PoliticaBusqueda.values()) {
+            OptimizadorHorarios optimizador = new OptimizadorHorarios(
+                    instancia.cursos(), instancia.estudiantes(), franjas);
+            optimizador.setPoliticaBusqueda(politica);
+            optimizador.setEvaluacionPerezosa(perezosa);
+            optimizador.setFronteraEmpaquetada(empaquetada);
+            optimizador.setPesosObjetivo(1, pesoContigua);
+            optimizador.setProgramacionDinamica(false);
+            long fin = System.nanoTime() + limite;
+            optimizador.setCancelacion(() -> System.nanoTime() > fin);
+
+            OptimizadorHorarios.Solucion solucion = optimizador.resolver();
+            EstadisticasBusqueda estadisticas = optimizador.obtenerEstadisticasBusqueda();
+            String conflictos = solucion.horario() == null ? "-"
+                    : solucion.conflictos() + (optimizador.fueCancelado() ? "*" : "");
+            String primera = estadisticas.encontroSolucion()
+                    ? String.valueOf(estadisticas.nanosHastaPrimeraSolucion() / 1_000_000) : "-";
+            System.out.printf("%-30s %10s %12s %12d %12d %12d %12d %12d %12d%n", politica, conflictos, primera,
+                    estadisticas.nanosTotales() / 1_000_000, estadisticas.explorados(), estadisticas.podados(),
+                    estadisticas.cotasCalculadas(), estadisticas.picoNodosEnMemoria(),
+                    estadisticas.picoBytesEstimados() / 1024);
+        }
+        System.out.println("* cancelada al llegar al limite de tiempo (el horario puede no ser optimo)");
+    }
+}
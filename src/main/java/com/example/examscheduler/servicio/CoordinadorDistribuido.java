@@ -0,0 +1,448 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.modelo.LectorInstancia;
+import com.example.examscheduler.solucionador.OptimizadorHorarios;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinador de la búsqueda Branch & Bound distribuida.
+ *
+ * Reduce la instancia, divide el núcleo en subproblemas (ver
+ * {@link OptimizadorHorarios#dividirNucleo}) y los reparte entre los
+ * {@link TrabajadorDistribuido} que se conectan por TCP, uno a la vez por
+ * trabajador y de menor a mayor costo. Cada mejora que informa un trabajador
+ * se reenvía a los demás como nueva cota global, y los subproblemas cuyo costo
+ * ya alcanza la cota se descartan sin enviarse.
+ *
+ * Si un trabajador se desconecta, o pasa más de
+ * {@link ProtocoloDistribuido#TIEMPO_MAXIMO_SILENCIO_MS} sin dar señales, su
+ * subproblema vuelve al principio de la cola para otro trabajador. Las mejoras
+ * que ya había informado se conservan.
+ */
+public class CoordinadorDistribuido {
+
+    /**
+     * Subproblemas que se generan, como mínimo, por defecto.
+     */
+    public static final int SUBPROBLEMAS_POR_DEFECTO = 512;
+
+    private final List<Curso> cursos;
+    private final List<Estudiante> estudiantes;
+    private final int numeroFranjas;
+    private final OptimizadorHorarios optimizador;
+
+    private final Deque<Integer> pendientes = new ArrayDeque<>();
+    private List<OptimizadorHorarios.Subproblema> subproblemas;
+    private OptimizadorHorarios.ResultadoNucleo mejorResultado;
+    private int cotaGlobal = Integer.MAX_VALUE;
+    private int cotaInferiorGlobal;
+    private int enEjecucion = 0;
+    private boolean terminado = false;
+
+    private int subproblemasResueltos = 0;
+    private int subproblemasDescartados = 0;
+    private int subproblemasReasignados = 0;
+    private long estadosExplorados = 0;
+
+    private final List<Conexion> conexiones = new CopyOnWriteArrayList<>();
+    private ServerSocket servidor;
+    private ExecutorService hilosConexion;
+
+    /**
+     * @param cursos        Cursos de la instancia
+     * @param estudiantes   Estudiantes con sus inscripciones
+     * @param numeroFranjas Número de franjas horarias
+     */
+    public CoordinadorDistribuido(List<Curso> cursos, List<Estudiante> estudiantes, int numeroFranjas) {
+        this.cursos = List.copyOf(cursos);
+        this.estudiantes = List.copyOf(estudiantes);
+        this.numeroFranjas = numeroFranjas;
+        this.optimizador = new OptimizadorHorarios(cursos, estudiantes, numeroFranjas);
+    }
+
+    /**
+     * Prepara los subproblemas y empieza a aceptar trabajadores.
+     *
+     * @param puerto          Puerto TCP en el que escuchar (0 para uno libre)
+     * @param cantidadMinima  Número mínimo de subproblemas
+     */
+    public void iniciar(int puerto, int cantidadMinima) throws IOException {
+        OptimizadorHorarios.ResultadoNucleo coloreado = optimizador.prepararNucleo();
+        synchronized (this) {
+            if (coloreado != null) {
+                // El núcleo admite un horario sin conflictos: no hace falta buscar.
+                mejorResultado = coloreado;
+                cotaGlobal = 0;
+                terminado = true;
+                subproblemas = List.of();
+                return;
+            }
+            cotaInferiorGlobal = optimizador.obtenerCotaInferiorGlobal();
+            subproblemas = optimizador.dividirNucleo(cantidadMinima);
+            for (int id = 0; id < subproblemas.size(); id++) {
+                pendientes.addLast(id);
+            }
+        }
+
+        servidor = new ServerSocket(puerto);
+        AtomicInteger numeroHilo = new AtomicInteger(1);
+        hilosConexion = Executors.newCachedThreadPool(tarea -> {
+            Thread hilo = new Thread(tarea, "coordinador-" + numeroHilo.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        hilosConexion.execute(this::aceptarConexiones);
+    }
+
+    private void aceptarConexiones() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                hilosConexion.execute(() -> atender(socket));
+            } catch (IOException e) {
+                // El servidor se cerró al terminar.
+            }
+        }
+    }
+
+    /**
+     * Espera a que se resuelvan todos los subproblemas y devuelve el mejor
+     * horario. Deja de aceptar trabajadores; los conectados reciben FIN al
+     * pedir el siguiente subproblema.
+     */
+    public OptimizadorHorarios.Solucion esperarSolucion() throws InterruptedException {
+        OptimizadorHorarios.ResultadoNucleo resultado;
+        synchronized (this) {
+            while (!terminado) {
+                wait();
+            }
+            resultado = mejorResultado;
+        }
+        cerrarServidor();
+        return optimizador.construirSolucion(resultado);
+    }
+
+    private void cerrarServidor() {
+        try {
+            if (servidor != null) {
+                servidor.close();
+            }
+        } catch (IOException e) {
+            // Ya estaba cerrado.
+        }
+        if (hilosConexion != null) {
+            hilosConexion.shutdown();
+        }
+    }
+
+    /**
+     * Deja de aceptar trabajadores y cierra las conexiones.
+     */
+    public void detener() {
+        cerrarServidor();
+        for (Conexion conexion : conexiones) {
+            conexion.cerrar();
+        }
+    }
+
+    /**
+     * Atiende a un trabajador hasta que termina la búsqueda o se pierde la
+     * conexión.
+     */
+    private void atender(Socket socket) {
+        Conexion conexion;
+        try {
+            socket.setSoTimeout(ProtocoloDistribuido.TIEMPO_MAXIMO_SILENCIO_MS);
+            socket.setTcpNoDelay(true);
+            conexion = new Conexion(socket);
+        } catch (IOException e) {
+            cerrar(socket);
+            return;
+        }
+        conexiones.add(conexion);
+
+        try {
+            synchronized (conexion.salida) {
+                ProtocoloDistribuido.escribirInstancia(conexion.salida, cursos, estudiantes, numeroFranjas,
+                        optimizador.obtenerHuellaNucleo());
+                conexion.salida.flush();
+            }
+
+            while (true) {
+                byte tipo = conexion.entrada.readByte();
+                switch (tipo) {
+                    case ProtocoloDistribuido.PULSO -> {
+                    }
+                    case ProtocoloDistribuido.MEJORA -> {
+                        int costo = conexion.entrada.readInt();
+                        int[] franjas = ProtocoloDistribuido.leerEnteros(conexion.entrada);
+                        if (registrarMejora(franjas, costo)) {
+                            for (Conexion otra : conexiones) {
+                                if (otra != conexion) {
+                                    otra.enviarCota(costo);
+                                }
+                            }
+                        }
+                    }
+                    case ProtocoloDistribuido.LISTO -> {
+                        int id = conexion.entrada.readInt();
+                        int explorados = conexion.entrada.readInt();
+                        registrarTerminado(conexion, id, explorados);
+                        if (!asignarSiguiente(conexion)) {
+                            return;
+                        }
+                    }
+                    default -> throw new IOException("Mensaje desconocido: " + tipo);
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // Trabajador caído, colgado o desconectado.
+        } finally {
+            liberar(conexion);
+            conexiones.remove(conexion);
+            conexion.cerrar();
+        }
+    }
+
+    /**
+     * Registra un horario informado por un trabajador.
+     *
+     * @return true si mejora la cota global
+     */
+    private synchronized boolean registrarMejora(int[] franjas, int costo) throws IOException {
+        if (franjas.length != optimizador.obtenerCursosEnNucleo()) {
+            throw new IOException("Horario de tamano incorrecto");
+        }
+        if (costo >= cotaGlobal) {
+            return false;
+        }
+        cotaGlobal = costo;
+        mejorResultado = new OptimizadorHorarios.ResultadoNucleo(franjas, costo);
+        if (cotaGlobal <= cotaInferiorGlobal) {
+            // Óptimo demostrado: lo que queda en cola no puede mejorarlo.
+            subproblemasDescartados += pendientes.size();
+            pendientes.clear();
+        }
+        return true;
+    }
+
+    private synchronized void registrarTerminado(Conexion conexion, int id, int explorados) {
+        if (id >= 0 && conexion.asignado == id) {
+            conexion.asignado = -1;
+            enEjecucion--;
+            subproblemasResueltos++;
+            estadosExplorados += explorados;
+            comprobarFin();
+        }
+    }
+
+    /**
+     * Envía al trabajador el siguiente subproblema que aún puede mejorar la
+     * cota, esperando si la cola está vacía pero otros trabajadores siguen
+     * ocupados (sus subproblemas pueden volver a la cola).
+     *
+     * @return false si la búsqueda terminó y se despidió al trabajador
+     */
+    private boolean asignarSiguiente(Conexion conexion) throws IOException, InterruptedException {
+        OptimizadorHorarios.Subproblema subproblema = null;
+        int id = -1;
+        int cota;
+        synchronized (this) {
+            while (!terminado && id < 0) {
+                Integer siguiente = pendientes.pollFirst();
+                if (siguiente == null) {
+                    wait();
+                } else if (subproblemas.get(siguiente).costo() >= cotaGlobal) {
+                    subproblemasDescartados++;
+                    comprobarFin();
+                } else {
+                    id = siguiente;
+                    subproblema = subproblemas.get(id);
+                    conexion.asignado = id;
+                    enEjecucion++;
+                }
+            }
+            cota = cotaGlobal;
+        }
+
+        synchronized (conexion.salida) {
+            if (subproblema == null) {
+                conexion.salida.writeByte(ProtocoloDistribuido.FIN);
+            } else {
+                conexion.salida.writeByte(ProtocoloDistribuido.SUBPROBLEMA);
+                conexion.salida.writeInt(id);
+                conexion.salida.writeInt(cota);
+                ProtocoloDistribuido.escribirEnteros(conexion.salida, subproblema.prefijo());
+            }
+            conexion.salida.flush();
+        }
+        return subproblema != null;
+    }
+
+    /**
+     * Devuelve a la cola el subproblema de un trabajador perdido.
+     */
+    private synchronized void liberar(Conexion conexion) {
+        if (conexion.asignado >= 0) {
+            pendientes.addFirst(conexion.asignado);
+            conexion.asignado = -1;
+            enEjecucion--;
+            subproblemasReasignados++;
+            notifyAll();
+        }
+    }
+
+    private void comprobarFin() {
+        if (pendientes.isEmpty() && enEjecucion == 0) {
+            terminado = true;
+            notifyAll();
+        }
+    }
+
+    private static void cerrar(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nada que hacer.
+        }
+    }
+
+    public int obtenerPuerto() {
+        return servidor != null ? servidor.getLocalPort() : -1;
+    }
+
+    public synchronized int obtenerSubproblemas() {
+        return subproblemas.size();
+    }
+
+    public synchronized int obtenerSubproblemasResueltos() {
+        return subproblemasResueltos;
+    }
+
+    /**
+     * Subproblemas descartados sin enviarse porque su costo ya alcanzaba la
+     * cota global.
+     */
+    public synchronized int obtenerSubproblemasDescartados() {
+        return subproblemasDescartados;
+    }
+
+    /**
+     * Veces que un subproblema volvió a la cola por perderse su trabajador.
+     */
+    public synchronized int obtenerSubproblemasReasignados() {
+        return subproblemasReasignados;
+    }
+
+    /**
+     * Suma de los estados explorados por los trabajadores en los subproblemas
+     * terminados.
+     */
+    public synchronized long obtenerEstadosExplorados() {
+        return estadosExplorados;
+    }
+
+    public int obtenerTrabajadoresConectados() {
+        return conexiones.size();
+    }
+
+    /**
+     * Conexión con un trabajador y el subproblema que tiene asignado.
+     */
+    private static final class Conexion {
+        final Socket socket;
+        final DataInputStream entrada;
+        final DataOutputStream salida;
+        int asignado = -1;
+
+        Conexion(Socket socket) throws IOException {
+            this.socket = socket;
+            this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void enviarCota(int cota) {
+            synchronized (salida) {
+                try {
+                    salida.writeByte(ProtocoloDistribuido.COTA);
+                    salida.writeInt(cota);
+                    salida.flush();
+                } catch (IOException e) {
+                    // La pérdida se detecta al leer.
+                    cerrar();
+                }
+            }
+        }
+
+        void cerrar() {
+            CoordinadorDistribuido.cerrar(socket);
+        }
+    }
+
+    /**
+     * Arranca un coordinador de forma independiente.
+     *
+     * Argumentos: archivo de la instancia (formato de {@link LectorInstancia}),
+     * número de franjas y, opcionalmente, puerto y número mínimo de
+     * subproblemas. Los trabajadores se lanzan aparte con
+     * {@link TrabajadorDistribuido#main}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Uso: CoordinadorDistribuido <instancia> <franjas> [puerto] [subproblemas]");
+            return;
+        }
+        LectorInstancia.Resultado instancia;
+        try (BufferedReader lector = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            instancia = new LectorInstancia().leer(lector, lineas -> {
+            });
+        }
+        int franjas = Integer.parseInt(args[1]);
+        int puerto = args.length > 2 ? Integer.parseInt(args[2]) : 9090;
+        int cantidad = args.length > 3 ? Integer.parseInt(args[3]) : SUBPROBLEMAS_POR_DEFECTO;
+
+        CoordinadorDistribuido coordinador = new CoordinadorDistribuido(
+                instancia.cursos(), instancia.estudiantes(), franjas);
+        long inicio = System.currentTimeMillis();
+        coordinador.iniciar(puerto, cantidad);
+        System.out.println("Coordinador escuchando en el puerto " + coordinador.obtenerPuerto()
+                + " con " + coordinador.obtenerSubproblemas() + " subproblema(s)");
+
+        OptimizadorHorarios.Solucion solucion = coordinador.esperarSolucion();
+        System.out.println("Tiempo: " + (System.currentTimeMillis() - inicio) + " ms");
+        System.out.println("Subproblemas resueltos: " + coordinador.obtenerSubproblemasResueltos()
+                + ", descartados: " + coordinador.obtenerSubproblemasDescartados()
+                + ", reasignados: " + coordinador.obtenerSubproblemasReasignados());
+        System.out.println("Estados explorados: " + coordinador.obtenerEstadosExplorados());
+        if (solucion.horario() == null) {
+            System.out.println("No se encontro una solucion valida.");
+            return;
+        }
+        System.out.println("Conflictos: " + solucion.conflictos());
+        Map<String, Integer> ordenado = new TreeMap<>();
+        solucion.horario().forEach((curso, franja) -> ordenado.put(curso.id(), franja + 1));
+        ordenado.forEach((curso, franja) -> System.out.println(curso + " -> Franja " + franja));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.solucionador.ProgramacionDinamicaArbol;
+
+/**
+ * Estimación del costo de resolver una instancia, usada por el
+ * {@link PlanificadorTrabajos} para admitir y ordenar trabajos.
+ *
+ * Memoria:
+ * - Grafo: vértices y aristas del grafo de conflictos (JGraphT y la copia
+ * compacta), que se construye al empezar a resolver el trabajo, más las
+ * tablas de n x k enteros del optimizador (costos acumulados y por franja de
+ * cada curso, pilas de la búsqueda en profundidad, coloreo); se reserva desde
+ * que se admite
+ * - Frontera: cada estado de la búsqueda guarda la franja de cada curso, el
+ * conjunto de pendientes y, con evaluación perezosa, el incremento de la cota
+ * por franja, así que ocupa del orden de 4(n + k) bytes; la frontera se
+ * limita a lo que cabe en la reserva del trabajo. Las tablas de la
+ * programación dinámica usan la misma reserva, ya que se calculan antes de
+ * empezar a ramificar (y si el núcleo se resuelve así no se ramifica)
+ *
+ * CPU: evaluar un nodo recorre los cursos y las aristas para cada franja, y la
+ * profundidad del árbol es n; el producto sirve para ordenar trabajos de menor
+ * a mayor, no como predicción de tiempo.
+ *
+ * @param bytesGrafo       Memoria estimada del grafo
+ * @param bytesPorEstado   Memoria estimada de un estado de la frontera
+ * @param limiteFrontera   Estados que el trabajo puede tener en su frontera
+ * @param costoCpu         Costo relativo de CPU
+ */
+public record EstimacionCosto(long bytesGrafo, long bytesPorEstado, int limiteFrontera, double costoCpu) {
+
+    private static final long BYTES_POR_VERTICE = 256;
+    private static final long BYTES_POR_ARISTA = 192;
+    private static final long BYTES_POR_CURSO_Y_FRANJA = 24;
+    private static final long BYTES_FIJOS_POR_ESTADO = 128;
+
+    /**
+     * Frontera máxima concedida a un trabajo, aunque sobre memoria.
+     */
+    public static final int FRONTERA_MAXIMA = 2_000_000;
+
+    /**
+     * Frontera mínima con la que vale la pena empezar un trabajo.
+     */
+    public static final int FRONTERA_MINIMA = 10_000;
+
+    /**
+     * Estima el costo a partir de las estadísticas del grafo.
+     *
+     * @param cursos           Número de cursos
+     * @param aristas          Número de aristas del grafo de conflictos
+     * @param franjas          Número de franjas
+     * @param memoriaPorTrabajo Memoria que se desea conceder como máximo a un
+     *                         trabajo
+     */
+    public static EstimacionCosto estimar(int cursos, int aristas, int franjas, long memoriaPorTrabajo) {
+        long bytesGrafo = BYTES_POR_VERTICE * cursos + BYTES_POR_ARISTA * aristas
+                + BYTES_POR_CURSO_Y_FRANJA * cursos * franjas;
+        long bytesPorEstado = BYTES_FIJOS_POR_ESTADO + 4L * cursos + cursos / 8 + 8 + 4L * franjas + 16;
+        long disponible = Math.max(0, memoriaPorTrabajo - bytesGrafo);
+        int limiteFrontera = (int) Math.max(FRONTERA_MINIMA,
+                Math.min(FRONTERA_MAXIMA, disponible / bytesPorEstado));
+
+        double densidad = cursos < 2 ? 0 : 2.0 * aristas / ((double) cursos * (cursos - 1));
+        double costoCpu = (double) cursos * (cursos + aristas) * franjas * (1 + densidad);
+        return new EstimacionCosto(bytesGrafo, bytesPorEstado, limiteFrontera, costoCpu);
+    }
+
+    /**
+     * Memoria que debe reservarse mientras el trabajo se resuelve.
+     */
+    public long bytesFrontera() {
+        return bytesPorEstado * limiteFrontera;
+    }
+
+    /**
+     * Entradas de las tablas de la programación dinámica que caben en la
+     * reserva de la frontera.
+     */
+    public long limiteEstadosProgramacionDinamica() {
+        return Math.min(ProgramacionDinamicaArbol.LIMITE_ESTADOS_POR_DEFECTO,
+                bytesFrontera() / ProgramacionDinamicaArbol.BYTES_POR_ESTADO);
+    }
+}
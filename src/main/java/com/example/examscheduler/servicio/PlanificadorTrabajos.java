@@ -0,0 +1,195 @@
+package com.example.examscheduler.servicio;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Planificador de trabajos de resolución con control de admisión.
+ *
+ * Cada trabajo se estima al recibirlo, antes de construir su grafo, con una
+ * cota de sus aristas (ver {@link EstimacionCosto}), y reserva
+ * memoria de un presupuesto global, dividido en dos mitades:
+ * - Grafos: al admitir un trabajo se reserva la memoria de su grafo hasta que
+ * termina; si no cabe en su mitad, o la cola está llena, se rechaza
+ * - Fronteras: al ejecutarlo se reserva la de su frontera, que el optimizador
+ * no puede superar; cada hilo dispone de una parte igual y, si no cabe,
+ * el trabajo espera
+ *
+ * Los trabajos en cola se ejecutan de menor a mayor costo estimado, hasta
+ * tantos a la vez como hilos de resolución. Un trabajo que espera más de
+ * {@link #ESPERA_MAXIMA_NANOS} pasa delante de todos y ya no se le adelantan
+ * trabajos más pequeños, así que los grandes no esperan indefinidamente.
+ */
+public class PlanificadorTrabajos {
+
+    /**
+     * Espera a partir de la cual un trabajo deja de ceder el turno.
+     */
+    public static final long ESPERA_MAXIMA_NANOS = 30_000_000_000L;
+
+    /**
+     * Máximo de trabajos en cola; por encima se rechazan.
+     */
+    public static final int MAX_TRABAJOS_EN_COLA = 10_000;
+
+    private final int hilos;
+    private final long presupuestoMemoria;
+    private final ExecutorService ejecutor;
+    private final BiConsumer<TrabajoResolucion, Boolean> alTerminar;
+
+    private final List<TrabajoResolucion> cola = new ArrayList<>();
+    private long memoriaGrafos = 0;
+    private long memoriaFronteras = 0;
+    private int enEjecucion = 0;
+    private long rechazados = 0;
+
+    /**
+     * @param hilos              Máximo de resoluciones simultáneas
+     * @param presupuestoMemoria Memoria total (bytes) que pueden reservar los
+     *                           trabajos
+     * @param alTerminar         Recibe cada trabajo al terminar, e indica si
+     *                           llegó a resolverse (false si se canceló en
+     *                           cola)
+     */
+    public PlanificadorTrabajos(int hilos, long presupuestoMemoria,
+            BiConsumer<TrabajoResolucion, Boolean> alTerminar) {
+        this.hilos = hilos;
+        this.presupuestoMemoria = presupuestoMemoria;
+        this.alTerminar = alTerminar;
+        AtomicInteger numeroHilo = new AtomicInteger(1);
+        this.ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "resolucion-" + numeroHilo.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Estima el trabajo y lo encola si cabe en el presupuesto.
+     *
+     * @return false si el trabajo se rechaza por falta de capacidad
+     */
+    public synchronized boolean admitir(TrabajoResolucion trabajo) {
+        EstimacionCosto estimacion = EstimacionCosto.estimar(
+                trabajo.getNumeroCursos(),
+                trabajo.getAristasMaximas(),
+                trabajo.getNumeroFranjas(),
+                presupuestoMemoria / 2 / hilos);
+        if (cola.size() >= MAX_TRABAJOS_EN_COLA
+                || memoriaGrafos + estimacion.bytesGrafo() > presupuestoMemoria / 2
+                || estimacion.bytesFrontera() > presupuestoMemoria / 2) {
+            rechazados++;
+            return false;
+        }
+
+        trabajo.setEstimacion(estimacion);
+        memoriaGrafos += estimacion.bytesGrafo();
+        cola.add(trabajo);
+        despachar();
+        return true;
+    }
+
+    /**
+     * Cancela un trabajo; si seguía en cola se retira y libera su reserva.
+     */
+    public void cancelar(TrabajoResolucion trabajo) {
+        trabajo.cancelar();
+        boolean retirado;
+        synchronized (this) {
+            retirado = cola.remove(trabajo);
+            if (retirado) {
+                memoriaGrafos -= trabajo.getEstimacion().bytesGrafo();
+            }
+        }
+        if (retirado) {
+            alTerminar.accept(trabajo, false);
+        }
+    }
+
+    /**
+     * Lanza los trabajos en cola que quepan en los hilos y la memoria libres,
+     * en orden de prioridad.
+     */
+    private synchronized void despachar() {
+        if (cola.isEmpty() || enEjecucion >= hilos) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        cola.sort(Comparator
+                .comparing((TrabajoResolucion t) -> !esAntiguo(t, ahora))
+                .thenComparingDouble(t -> esAntiguo(t, ahora)
+                        ? t.getInstanteCreacion()
+                        : t.getEstimacion().costoCpu()));
+
+        Iterator<TrabajoResolucion> iterador = cola.iterator();
+        while (enEjecucion < hilos && iterador.hasNext()) {
+            TrabajoResolucion trabajo = iterador.next();
+            long frontera = trabajo.getEstimacion().bytesFrontera();
+            if (enEjecucion == 0 || memoriaFronteras + frontera <= presupuestoMemoria / 2) {
+                iterador.remove();
+                memoriaFronteras += frontera;
+                enEjecucion++;
+                ejecutor.execute(() -> ejecutar(trabajo));
+            } else if (esAntiguo(trabajo, ahora)) {
+                // No se adelantan trabajos pequeños a uno que ya esperó demasiado.
+                break;
+            }
+        }
+    }
+
+    private void ejecutar(TrabajoResolucion trabajo) {
+        boolean resuelto = false;
+        try {
+            resuelto = trabajo.ejecutar();
+        } finally {
+            synchronized (this) {
+                memoriaGrafos -= trabajo.getEstimacion().bytesGrafo();
+                memoriaFronteras -= trabajo.getEstimacion().bytesFrontera();
+                enEjecucion--;
+            }
+            alTerminar.accept(trabajo, resuelto);
+            despachar();
+        }
+    }
+
+    private static boolean esAntiguo(TrabajoResolucion trabajo, long ahora) {
+        return ahora - trabajo.getInstanteCreacion() > ESPERA_MAXIMA_NANOS;
+    }
+
+    /**
+     * Detiene los hilos de resolución.
+     */
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    public synchronized int obtenerTrabajosEnCola() {
+        return cola.size();
+    }
+
+    public synchronized int obtenerTrabajosEnEjecucion() {
+        return enEjecucion;
+    }
+
+    public synchronized long obtenerMemoriaReservada() {
+        return memoriaGrafos + memoriaFronteras;
+    }
+
+    public long obtenerPresupuestoMemoria() {
+        return presupuestoMemoria;
+    }
+
+    public synchronized long obtenerRechazados() {
+        return rechazados;
+    }
+
+    public int obtenerHilos() {
+        return hilos;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.Estudiante;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mensajes entre el {@link CoordinadorDistribuido} y los
+ * {@link TrabajadorDistribuido}. Cada mensaje empieza con un byte de tipo.
+ *
+ * Del coordinador al trabajador:
+ * - INSTANCIA: franjas, huella del núcleo, cursos y estudiantes (con sus
+ * cursos por índice)
+ * - SUBPROBLEMA: ID, cota global y franjas de los primeros cursos del núcleo
+ * - COTA: nueva cota global
+ * - FIN: no quedan subproblemas
+ *
+ * Del trabajador al coordinador:
+ * - LISTO: ID del subproblema terminado (-1 al empezar) y estados explorados;
+ * pide el siguiente
+ * - MEJORA: costo y franjas de un horario del núcleo
+ * - PULSO: el trabajador sigue vivo
+ */
+final class ProtocoloDistribuido {
+
+    static final byte INSTANCIA = 1;
+    static final byte SUBPROBLEMA = 2;
+    static final byte COTA = 3;
+    static final byte FIN = 4;
+    static final byte LISTO = 5;
+    static final byte MEJORA = 6;
+    static final byte PULSO = 7;
+
+    /**
+     * Intervalo entre pulsos de un trabajador.
+     */
+    static final int INTERVALO_PULSO_MS = 5_000;
+
+    /**
+     * Tiempo sin recibir nada de un trabajador tras el cual se lo da por
+     * muerto.
+     */
+    static final int TIEMPO_MAXIMO_SILENCIO_MS = 6 * INTERVALO_PULSO_MS;
+
+    /**
+     * Instancia recibida por un trabajador.
+     */
+    record Instancia(List<Curso> cursos, List<Estudiante> estudiantes, int franjas, long huella) {
+    }
+
+    private ProtocoloDistribuido() {
+    }
+
+    static void escribirInstancia(DataOutputStream salida, List<Curso> cursos, List<Estudiante> estudiantes,
+            int franjas, long huella) throws IOException {
+        salida.writeByte(INSTANCIA);
+        salida.writeInt(franjas);
+        salida.writeLong(huella);
+        salida.writeInt(cursos.size());
+        Map<Curso, Integer> indices = new HashMap<>();
+        for (Curso curso : cursos) {
+            indices.put(curso, indices.size());
+            salida.writeUTF(curso.id());
+            salida.writeUTF(curso.nombre());
+        }
+        salida.writeInt(estudiantes.size());
+        for (Estudiante estudiante : estudiantes) {
+            salida.writeUTF(estudiante.id());
+            salida.writeInt(estudiante.cursos().size());
+            for (Curso curso : estudiante.cursos()) {
+                salida.writeInt(indices.get(curso));
+            }
+        }
+    }
+
+    /**
+     * Lee el cuerpo de un mensaje INSTANCIA (tras el byte de tipo).
+     */
+    static Instancia leerInstancia(DataInputStream entrada) throws IOException {
+        int franjas = entrada.readInt();
+        long huella = entrada.readLong();
+        int numeroCursos = entrada.readInt();
+        List<Curso> cursos = new ArrayList<>(numeroCursos);
+        for (int i = 0; i < numeroCursos; i++) {
+            cursos.add(new Curso(entrada.readUTF(), entrada.readUTF()));
+        }
+        int numeroEstudiantes = entrada.readInt();
+        List<Estudiante> estudiantes = new ArrayList<>(numeroEstudiantes);
+        for (int e = 0; e < numeroEstudiantes; e++) {
+            String id = entrada.readUTF();
+            int inscritos = entrada.readInt();
+            List<Curso> cursosEstudiante = new ArrayList<>(inscritos);
+            for (int c = 0; c < inscritos; c++) {
+                cursosEstudiante.add(cursos.get(entrada.readInt()));
+            }
+            estudiantes.add(new Estudiante(id, cursosEstudiante));
+        }
+        return new Instancia(cursos, estudiantes, franjas, huella);
+    }
+
+    static void escribirEnteros(DataOutputStream salida, int[] valores) throws IOException {
+        salida.writeInt(valores.length);
+        for (int valor : valores) {
+            salida.writeInt(valor);
+        }
+    }
+
+    static int[] leerEnteros(DataInputStream entrada) throws IOException {
+        int[] valores = new int[entrada.readInt()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = entrada.readInt();
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,443 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.modelo.LectorInstancia;
+import com.example.examscheduler.solucionador.ExportadorHorario;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servicio HTTP local para resolver instancias sin la interfaz gráfica.
+ *
+ * Endpoints:
+ * - POST /trabajos?franjas=k: encola una instancia (cuerpo en el formato de
+ * {@link LectorInstancia}, hasta {@link #MAX_BYTES_INSTANCIA} bytes) y
+ * devuelve su ID; k debe estar entre 1 y el número de cursos
+ * - GET /trabajos/{id}: estado del trabajo y sus tiempos de espera y
+ * resolución; un trabajo que agota la memoria de su frontera termina en
+ * LIMITE_MEMORIA en lugar de TERMINADO, porque su horario puede no ser
+ * óptimo
+ * - GET /trabajos/{id}/resultado: horario, pares en conflicto y choques por
+ * estudiante en JSON (ver {@link ExportadorHorario})
+ * - DELETE /trabajos/{id}: cancela el trabajo (si ya se está resolviendo,
+ * conserva el mejor horario encontrado)
+ * - GET /estadisticas: contadores y latencias agregadas
+ *
+ * Las peticiones se atienden en hilos virtuales cuando la JVM los ofrece
+ * (Java 21 o superior) y en un grupo de hilos en caché en otro caso. Las
+ * resoluciones, que usan CPU de forma intensiva, se ejecutan en un grupo
+ * acotado de hilos de plataforma gobernado por un {@link PlanificadorTrabajos}:
+ * los trabajos se admiten según un presupuesto de memoria (si no caben se
+ * responde 503) y se ejecutan primero los más pequeños.
+ */
+public class ServicioSolucionador {
+
+    /**
+     * Puerto por defecto del servicio.
+     */
+    public static final int PUERTO_POR_DEFECTO = 8080;
+
+    /**
+     * Número de trabajos terminados que se conservan para consultar su
+     * resultado; los más antiguos se descartan.
+     */
+    public static final int MAX_TRABAJOS_RETENIDOS = 1_000;
+
+    /**
+     * Fracción de la memoria máxima de la JVM que se concede por defecto a
+     * los trabajos.
+     */
+    public static final double FRACCION_MEMORIA_POR_DEFECTO = 0.7;
+
+    /**
+     * Tamaño máximo del cuerpo de una instancia; por encima se responde 413
+     * sin terminar de leerlo.
+     */
+    public static final long MAX_BYTES_INSTANCIA = 32L << 20;
+
+    private final int puerto;
+    private final int hilosResolucion;
+    private final long presupuestoMemoria;
+    private final Map<String, TrabajoResolucion> trabajos = new ConcurrentHashMap<>();
+    private final Queue<String> trabajosTerminados = new ConcurrentLinkedQueue<>();
+    private final AtomicLong siguienteId = new AtomicLong(1);
+
+    private final LongAdder trabajosRecibidos = new LongAdder();
+    private final LongAdder trabajosCompletados = new LongAdder();
+    private final LongAdder esperaTotalMs = new LongAdder();
+    private final LongAdder resolucionTotalMs = new LongAdder();
+    private final LongAccumulator esperaMaximaMs = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator resolucionMaximaMs = new LongAccumulator(Math::max, 0);
+
+    private HttpServer servidor;
+    private ExecutorService ejecutorPeticiones;
+    private PlanificadorTrabajos planificador;
+    private long instanteInicio;
+
+    /**
+     * @param puerto          Puerto TCP en el que escuchar (0 para uno libre)
+     * @param hilosResolucion Número máximo de resoluciones simultáneas
+     */
+    public ServicioSolucionador(int puerto, int hilosResolucion) {
+        this(puerto, hilosResolucion,
+                (long) (Runtime.getRuntime().maxMemory() * FRACCION_MEMORIA_POR_DEFECTO));
+    }
+
+    /**
+     * @param puerto             Puerto TCP en el que escuchar (0 para uno libre)
+     * @param hilosResolucion    Número máximo de resoluciones simultáneas
+     * @param presupuestoMemoria Memoria (bytes) que pueden reservar los trabajos
+     */
+    public ServicioSolucionador(int puerto, int hilosResolucion, long presupuestoMemoria) {
+        this.puerto = puerto;
+        this.hilosResolucion = hilosResolucion;
+        this.presupuestoMemoria = presupuestoMemoria;
+    }
+
+    /**
+     * Arranca el servidor.
+     */
+    public void iniciar() throws IOException {
+        ejecutorPeticiones = crearEjecutorPeticiones();
+        planificador = new PlanificadorTrabajos(hilosResolucion, presupuestoMemoria, this::registrarTerminado);
+
+        servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        servidor.createContext("/trabajos", this::atenderTrabajos);
+        servidor.createContext("/estadisticas", this::atenderEstadisticas);
+        servidor.setExecutor(ejecutorPeticiones);
+        servidor.start();
+        instanteInicio = System.nanoTime();
+    }
+
+    /**
+     * Detiene el servidor y cancela los trabajos pendientes.
+     */
+    public void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+        }
+        if (planificador != null) {
+            trabajos.values().forEach(planificador::cancelar);
+            planificador.detener();
+        }
+        if (ejecutorPeticiones != null) {
+            ejecutorPeticiones.shutdown();
+        }
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor.
+     */
+    public int obtenerPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Usa un hilo virtual por petición si la JVM lo permite. Se busca por
+     * reflexión para seguir compilando con Java 17.
+     */
+    private static ExecutorService crearEjecutorPeticiones() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // ==================== Endpoints ====================
+
+    private void atenderTrabajos(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            String[] partes = intercambio.getRequestURI().getPath().split("/");
+            String metodo = intercambio.getRequestMethod();
+
+            if (partes.length == 2 && metodo.equals("POST")) {
+                crearTrabajo(intercambio);
+                return;
+            }
+            if (partes.length < 3 || partes.length > 4) {
+                responder(intercambio, 404, error("Ruta desconocida"));
+                return;
+            }
+
+            TrabajoResolucion trabajo = trabajos.get(partes[2]);
+            if (trabajo == null) {
+                responder(intercambio, 404, error("Trabajo desconocido"));
+            } else if (partes.length == 4 && partes[3].equals("resultado") && metodo.equals("GET")) {
+                enviarResultado(intercambio, trabajo);
+            } else if (partes.length == 3 && metodo.equals("GET")) {
+                responder(intercambio, 200, describir(trabajo));
+            } else if (partes.length == 3 && metodo.equals("DELETE")) {
+                planificador.cancelar(trabajo);
+                responder(intercambio, 202, describir(trabajo));
+            } else {
+                responder(intercambio, 405, error("Metodo no permitido"));
+            }
+        }
+    }
+
+    private void crearTrabajo(HttpExchange intercambio) throws IOException {
+        OptionalInt parametroFranjas = leerParametroEntero(intercambio.getRequestURI(), "franjas", 3);
+        if (parametroFranjas.isEmpty()) {
+            responder(intercambio, 400, error("franjas debe ser un entero"));
+            return;
+        }
+        int franjas = parametroFranjas.getAsInt();
+        if (franjas < 1) {
+            responder(intercambio, 400, error("Debe haber al menos una franja horaria"));
+            return;
+        }
+
+        String longitud = intercambio.getRequestHeaders().getFirst("Content-Length");
+        if (longitud != null && longitud.matches("\\d{1,18}") && Long.parseLong(longitud) > MAX_BYTES_INSTANCIA) {
+            responder(intercambio, 413, error("La instancia supera " + (MAX_BYTES_INSTANCIA >> 20) + " MB"));
+            return;
+        }
+
+        LectorInstancia.Resultado instancia;
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(
+                new EntradaLimitada(intercambio.getRequestBody(), MAX_BYTES_INSTANCIA), StandardCharsets.UTF_8))) {
+            instancia = new LectorInstancia().leer(lector, lineas -> {
+            });
+        } catch (CuerpoDemasiadoGrande e) {
+            responder(intercambio, 413, error("La instancia supera " + (MAX_BYTES_INSTANCIA >> 20) + " MB"));
+            return;
+        }
+        if (instancia.cursos().isEmpty() || instancia.estudiantes().isEmpty()) {
+            responder(intercambio, 400, error("La instancia debe tener cursos y estudiantes ("
+                    + instancia.totalErrores() + " linea(s) invalida(s))"));
+            return;
+        }
+        if (franjas > instancia.cursos().size()) {
+            // Con una franja por curso ya no hay conflictos: más franjas solo
+            // agrandarían las tablas del optimizador.
+            responder(intercambio, 400, error("franjas no puede superar el numero de cursos ("
+                    + instancia.cursos().size() + ")"));
+            return;
+        }
+
+        String id = String.valueOf(siguienteId.getAndIncrement());
+        TrabajoResolucion trabajo = new TrabajoResolucion(
+                id, instancia.cursos(), instancia.estudiantes(), franjas);
+        trabajosRecibidos.increment();
+        trabajos.put(id, trabajo);
+        if (!planificador.admitir(trabajo)) {
+            trabajos.remove(id);
+            responder(intercambio, 503, error("Sin capacidad para el trabajo; reintentar mas tarde"));
+            return;
+        }
+
+        responder(intercambio, 202, "{\"id\": " + json(id)
+                + ", \"estado\": \"" + trabajo.getEstado()
+                + "\", \"lineasOmitidas\": " + instancia.totalErrores() + "}");
+    }
+
+    private void enviarResultado(HttpExchange intercambio, TrabajoResolucion trabajo) throws IOException {
+        if (trabajo.getSolucion() == null || trabajo.getSolucion().horario() == null) {
+            int codigo = trabajo.getEstado().esFinal() ? 410 : 409;
+            responder(intercambio, codigo, describir(trabajo));
+            return;
+        }
+
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(200, 0);
+        Writer salida = new BufferedWriter(
+                new OutputStreamWriter(intercambio.getResponseBody(), StandardCharsets.UTF_8), 1 << 16);
+        new ExportadorHorario(trabajo.getCursos(), trabajo.getEstudiantes(),
+                trabajo.getOptimizador().getGrafoConflictos(), trabajo.getSolucion()).exportarJson(salida);
+    }
+
+    private void atenderEstadisticas(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            long completados = trabajosCompletados.sum();
+            double segundos = Math.max(1e-9, (System.nanoTime() - instanteInicio) / 1e9);
+            responder(intercambio, 200, String.format(Locale.ROOT,
+                    "{\"recibidos\": %d, \"rechazados\": %d, \"enCola\": %d, \"resolviendo\": %d, "
+                            + "\"completados\": %d, \"hilosResolucion\": %d, "
+                            + "\"memoriaReservadaMb\": %d, \"presupuestoMemoriaMb\": %d, "
+                            + "\"esperaPromedioMs\": %.1f, \"esperaMaximaMs\": %d, "
+                            + "\"resolucionPromedioMs\": %.1f, \"resolucionMaximaMs\": %d, "
+                            + "\"trabajosPorSegundo\": %.3f}",
+                    trabajosRecibidos.sum(), planificador.obtenerRechazados(),
+                    planificador.obtenerTrabajosEnCola(), planificador.obtenerTrabajosEnEjecucion(),
+                    completados, hilosResolucion,
+                    planificador.obtenerMemoriaReservada() >> 20, presupuestoMemoria >> 20,
+                    completados == 0 ? 0.0 : (double) esperaTotalMs.sum() / completados, esperaMaximaMs.get(),
+                    completados == 0 ? 0.0 : (double) resolucionTotalMs.sum() / completados,
+                    resolucionMaximaMs.get(), completados / segundos));
+        }
+    }
+
+    // ==================== Utilidades ====================
+
+    /**
+     * Acumula las latencias del trabajo (si llegó a resolverse) y descarta los
+     * trabajos terminados más antiguos si se supera el máximo retenido.
+     */
+    private void registrarTerminado(TrabajoResolucion trabajo, boolean resuelto) {
+        if (resuelto) {
+            trabajosCompletados.increment();
+            esperaTotalMs.add(trabajo.getEsperaMs());
+            resolucionTotalMs.add(trabajo.getResolucionMs());
+            esperaMaximaMs.accumulate(trabajo.getEsperaMs());
+            resolucionMaximaMs.accumulate(trabajo.getResolucionMs());
+        }
+
+        trabajosTerminados.add(trabajo.getId());
+        while (trabajosTerminados.size() > MAX_TRABAJOS_RETENIDOS) {
+            String antiguo = trabajosTerminados.poll();
+            if (antiguo != null) {
+                trabajos.remove(antiguo);
+            }
+        }
+    }
+
+    private static String describir(TrabajoResolucion trabajo) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"id\": ").append(json(trabajo.getId()));
+        sb.append(", \"estado\": \"").append(trabajo.getEstado()).append('"');
+        sb.append(", \"cursos\": ").append(trabajo.getNumeroCursos());
+        sb.append(", \"estudiantes\": ").append(trabajo.getNumeroEstudiantes());
+        sb.append(", \"franjas\": ").append(trabajo.getNumeroFranjas());
+        sb.append(", \"esperaMs\": ").append(trabajo.getEsperaMs());
+        sb.append(", \"resolucionMs\": ").append(trabajo.getResolucionMs());
+        if (trabajo.getEstimacion() != null) {
+            sb.append(", \"limiteFrontera\": ").append(trabajo.getEstimacion().limiteFrontera());
+        }
+        if (trabajo.getSolucion() != null) {
+            sb.append(", \"conflictos\": ").append(trabajo.getSolucion().conflictos());
+            sb.append(", \"estadosExplorados\": ").append(trabajo.getOptimizador().obtenerEstadosExplorados());
+            sb.append(", \"limiteFronteraAlcanzado\": ")
+                    .append(trabajo.getOptimizador().alcanzoLimiteFrontera());
+        }
+        if (trabajo.getMensajeError() != null) {
+            sb.append(", \"error\": ").append(json(trabajo.getMensajeError()));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Lee un parámetro entero de la consulta.
+     *
+     * @return Su valor, el valor por defecto si no aparece, o vacío si no es
+     *         un entero
+     */
+    private static OptionalInt leerParametroEntero(URI uri, String nombre, int valorPorDefecto) {
+        String consulta = uri.getRawQuery();
+        if (consulta == null) {
+            return OptionalInt.of(valorPorDefecto);
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0 && par.substring(0, igual).equals(nombre)) {
+                try {
+                    return OptionalInt.of(Integer.parseInt(par.substring(igual + 1)));
+                } catch (NumberFormatException e) {
+                    return OptionalInt.empty();
+                }
+            }
+        }
+        return OptionalInt.of(valorPorDefecto);
+    }
+
+    private static void responder(HttpExchange intercambio, int codigo, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(codigo, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    /**
+     * Señala que el cuerpo de la petición supera el máximo permitido.
+     */
+    private static final class CuerpoDemasiadoGrande extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Flujo que lanza {@link CuerpoDemasiadoGrande} en cuanto se leen más
+     * bytes de los permitidos, aunque la petición no declare su longitud.
+     */
+    private static final class EntradaLimitada extends FilterInputStream {
+
+        private long restantes;
+
+        EntradaLimitada(InputStream entrada, long limite) {
+            super(entrada);
+            this.restantes = limite;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && --restantes < 0) {
+                throw new CuerpoDemasiadoGrande();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int longitud) throws IOException {
+            int leidos = super.read(destino, desde, longitud);
+            if (leidos > 0 && (restantes -= leidos) < 0) {
+                throw new CuerpoDemasiadoGrande();
+            }
+            return leidos;
+        }
+    }
+
+    private static String error(String mensaje) {
+        return "{\"error\": " + json(mensaje) + "}";
+    }
+
+    private static String json(String valor) {
+        return '"' + valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + '"';
+    }
+
+    /**
+     * Arranca el servicio de forma independiente.
+     *
+     * Argumentos opcionales: puerto, número de hilos de resolución (por
+     * defecto, el número de procesadores) y presupuesto de memoria en MB (por
+     * defecto, el 70% de la memoria máxima de la JVM).
+     */
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_POR_DEFECTO;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long memoria = args.length > 2
+                ? Long.parseLong(args[2]) << 20
+                : (long) (Runtime.getRuntime().maxMemory() * FRACCION_MEMORIA_POR_DEFECTO);
+        ServicioSolucionador servicio = new ServicioSolucionador(puerto, hilos, memoria);
+        servicio.iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(servicio::detener));
+        System.out.println("Servicio de resolucion escuchando en el puerto " + servicio.obtenerPuerto()
+                + " con " + hilos + " hilo(s) de resolucion");
+    }
+}
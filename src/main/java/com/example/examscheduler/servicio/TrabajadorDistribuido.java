@@ -0,0 +1,212 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.solucionador.OptimizadorHorarios;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trabajador de la búsqueda Branch & Bound distribuida.
+ *
+ * Se conecta al {@link CoordinadorDistribuido}, recibe la instancia, la
+ * reduce igual que el coordinador (comprobando que la huella del núcleo
+ * coincide) y resuelve subproblemas hasta recibir FIN. Cada subproblema se
+ * poda con la cota global, que un hilo lector actualiza en cuanto llega una
+ * mejora de otro trabajador; las mejoras propias se informan al coordinador
+ * en cuanto se encuentran. Otro hilo envía un pulso periódico para que el
+ * coordinador distinga un trabajador ocupado de uno colgado.
+ */
+public class TrabajadorDistribuido {
+
+    private static final int[] MENSAJE_FIN = new int[0];
+
+    private final String host;
+    private final int puerto;
+
+    private final AtomicInteger cotaGlobal = new AtomicInteger(Integer.MAX_VALUE);
+    private final BlockingQueue<int[]> subproblemas = new LinkedBlockingQueue<>();
+    private volatile boolean conexionPerdida = false;
+    private DataOutputStream salida;
+    private int subproblemasResueltos = 0;
+
+    /**
+     * @param host   Dirección del coordinador
+     * @param puerto Puerto del coordinador
+     */
+    public TrabajadorDistribuido(String host, int puerto) {
+        this.host = host;
+        this.puerto = puerto;
+    }
+
+    /**
+     * Resuelve subproblemas hasta que el coordinador indica el fin.
+     *
+     * @throws IOException si se pierde la conexión o la instancia no coincide
+     */
+    public void ejecutar() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, puerto)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            if (entrada.readByte() != ProtocoloDistribuido.INSTANCIA) {
+                throw new IOException("Se esperaba la instancia");
+            }
+            ProtocoloDistribuido.Instancia instancia = ProtocoloDistribuido.leerInstancia(entrada);
+            OptimizadorHorarios optimizador = new OptimizadorHorarios(
+                    instancia.cursos(), instancia.estudiantes(), instancia.franjas());
+            optimizador.prepararNucleo();
+            if (optimizador.obtenerHuellaNucleo() != instancia.huella()) {
+                throw new IOException("El nucleo no coincide con el del coordinador");
+            }
+            optimizador.setCancelacion(() -> conexionPerdida);
+
+            Thread lector = new Thread(() -> leerMensajes(entrada), "trabajador-lector");
+            lector.setDaemon(true);
+            lector.start();
+            Thread pulso = new Thread(this::enviarPulsos, "trabajador-pulso");
+            pulso.setDaemon(true);
+            pulso.start();
+
+            enviarListo(-1, 0);
+            while (true) {
+                int[] mensaje = subproblemas.take();
+                if (mensaje == MENSAJE_FIN) {
+                    break;
+                }
+                if (conexionPerdida) {
+                    throw new IOException("Conexion con el coordinador perdida");
+                }
+                int id = mensaje[0];
+                cotaGlobal.accumulateAndGet(mensaje[1], Math::min);
+                int[] prefijo = new int[mensaje.length - 2];
+                System.arraycopy(mensaje, 2, prefijo, 0, prefijo.length);
+
+                optimizador.resolverSubproblema(prefijo, cotaGlobal::get, this::informarMejora);
+                if (conexionPerdida) {
+                    throw new IOException("Conexion con el coordinador perdida");
+                }
+                subproblemasResueltos++;
+                enviarListo(id, optimizador.obtenerEstadosExplorados());
+            }
+            pulso.interrupt();
+        }
+    }
+
+    /**
+     * Lee los mensajes del coordinador: las cotas se aplican de inmediato y
+     * los subproblemas se encolan para el hilo de búsqueda.
+     */
+    private void leerMensajes(DataInputStream entrada) {
+        try {
+            while (true) {
+                byte tipo = entrada.readByte();
+                switch (tipo) {
+                    case ProtocoloDistribuido.COTA -> cotaGlobal.accumulateAndGet(entrada.readInt(), Math::min);
+                    case ProtocoloDistribuido.SUBPROBLEMA -> {
+                        int id = entrada.readInt();
+                        int cota = entrada.readInt();
+                        int[] prefijo = ProtocoloDistribuido.leerEnteros(entrada);
+                        int[] mensaje = new int[prefijo.length + 2];
+                        mensaje[0] = id;
+                        mensaje[1] = cota;
+                        System.arraycopy(prefijo, 0, mensaje, 2, prefijo.length);
+                        subproblemas.add(mensaje);
+                    }
+                    case ProtocoloDistribuido.FIN -> {
+                        subproblemas.add(MENSAJE_FIN);
+                        return;
+                    }
+                    default -> throw new IOException("Mensaje desconocido: " + tipo);
+                }
+            }
+        } catch (IOException e) {
+            conexionPerdida = true;
+            subproblemas.add(MENSAJE_FIN);
+        }
+    }
+
+    private void enviarPulsos() {
+        try {
+            while (!conexionPerdida) {
+                Thread.sleep(ProtocoloDistribuido.INTERVALO_PULSO_MS);
+                synchronized (salida) {
+                    salida.writeByte(ProtocoloDistribuido.PULSO);
+                    salida.flush();
+                }
+            }
+        } catch (InterruptedException | IOException e) {
+            // Fin del trabajo o conexión perdida.
+        }
+    }
+
+    private void informarMejora(OptimizadorHorarios.ResultadoNucleo mejora) {
+        if (cotaGlobal.accumulateAndGet(mejora.conflictos(), Math::min) != mejora.conflictos()) {
+            return;
+        }
+        try {
+            synchronized (salida) {
+                salida.writeByte(ProtocoloDistribuido.MEJORA);
+                salida.writeInt(mejora.conflictos());
+                ProtocoloDistribuido.escribirEnteros(salida, mejora.franjas());
+                salida.flush();
+            }
+        } catch (IOException e) {
+            conexionPerdida = true;
+        }
+    }
+
+    private void enviarListo(int id, int explorados) throws IOException {
+        synchronized (salida) {
+            salida.writeByte(ProtocoloDistribuido.LISTO);
+            salida.writeInt(id);
+            salida.writeInt(explorados);
+            salida.flush();
+        }
+    }
+
+    public int obtenerSubproblemasResueltos() {
+        return subproblemasResueltos;
+    }
+
+    /**
+     * Arranca uno o varios trabajadores en esta JVM, cada uno con su propia
+     * conexión y su propio hilo de búsqueda.
+     *
+     * Argumentos opcionales: dirección y puerto del coordinador, y número de
+     * trabajadores (por defecto, uno).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 9090;
+        int cantidad = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Thread hilo = new Thread(() -> {
+                TrabajadorDistribuido trabajador = new TrabajadorDistribuido(host, puerto);
+                try {
+                    trabajador.ejecutar();
+                    System.out.println(Thread.currentThread().getName() + ": "
+                            + trabajador.obtenerSubproblemasResueltos() + " subproblema(s) resuelto(s)");
+                } catch (IOException | InterruptedException e) {
+                    System.out.println(Thread.currentThread().getName() + ": " + e.getMessage());
+                }
+            }, "trabajador-" + (i + 1));
+            hilo.start();
+            hilos.add(hilo);
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.solucionador.OptimizadorHorarios;
+
+import java.util.List;
+
+/**
+ * Trabajo de resolución enviado al {@link ServicioSolucionador}.
+ *
+ * Al crearlo solo se cuentan los cursos y una cota de las aristas (los pares
+ * de cursos de cada estudiante), con los que el {@link PlanificadorTrabajos}
+ * estima su costo antes de admitirlo. El optimizador y su grafo de conflictos
+ * se construyen al empezar a resolverlo, así que un trabajo rechazado o en
+ * cola no ocupa esa memoria.
+ *
+ * Guarda la instancia, el estado del trabajo y sus tiempos:
+ * - Espera: desde que se recibe hasta que un hilo de resolución lo toma
+ * - Resolución: desde que se toma hasta que termina
+ *
+ * El estado puede consultarse desde cualquier hilo mientras otro lo resuelve.
+ */
+public class TrabajoResolucion {
+
+    /**
+     * Estados posibles de un trabajo.
+     */
+    public enum Estado {
+        EN_COLA, RESOLVIENDO,
+        /** Terminó con un horario óptimo. */
+        TERMINADO,
+        /**
+         * La frontera superó el límite de memoria del trabajo: el horario es
+         * el mejor encontrado, sin garantía de ser óptimo.
+         */
+        LIMITE_MEMORIA,
+        CANCELADO, ERROR;
+
+        /**
+         * Indica si el trabajo ya no cambiará de estado.
+         */
+        public boolean esFinal() {
+            return this != EN_COLA && this != RESOLVIENDO;
+        }
+    }
+
+    private final String id;
+    private final List<Curso> cursos;
+    private final List<Estudiante> estudiantes;
+    private final int numeroFranjas;
+    private final int aristasMaximas;
+    private final long instanteCreacion = System.nanoTime();
+
+    private volatile Estado estado = Estado.EN_COLA;
+    private volatile boolean cancelacionSolicitada = false;
+    private volatile long instanteInicio;
+    private volatile long instanteFin;
+    private volatile OptimizadorHorarios optimizador;
+    private volatile EstimacionCosto estimacion;
+    private volatile OptimizadorHorarios.Solucion solucion;
+    private volatile String mensajeError;
+
+    public TrabajoResolucion(String id, List<Curso> cursos, List<Estudiante> estudiantes, int numeroFranjas) {
+        this.id = id;
+        this.cursos = cursos;
+        this.estudiantes = estudiantes;
+        this.numeroFranjas = numeroFranjas;
+        this.aristasMaximas = contarAristasMaximas(cursos.size(), estudiantes);
+    }
+
+    /**
+     * Cota del número de aristas del grafo de conflictos: los pares de cursos
+     * de cada estudiante, sin superar el grafo completo.
+     */
+    private static int contarAristasMaximas(int cursos, List<Estudiante> estudiantes) {
+        long completo = (long) cursos * (cursos - 1) / 2;
+        long pares = 0;
+        for (Estudiante estudiante : estudiantes) {
+            long m = estudiante.cursos().size();
+            pares += m * (m - 1) / 2;
+            if (pares >= completo) {
+                break;
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.min(pares, completo));
+    }
+
+    /**
+     * Resuelve la instancia en el hilo actual.
+     *
+     * @return false si el trabajo se canceló antes de empezar
+     */
+    boolean ejecutar() {
+        synchronized (this) {
+            if (estado != Estado.EN_COLA) {
+                return false;
+            }
+            instanteInicio = System.nanoTime();
+            estado = Estado.RESOLVIENDO;
+        }
+        try {
+            OptimizadorHorarios nuevo = new OptimizadorHorarios(cursos, estudiantes, numeroFranjas);
+            nuevo.setCancelacion(() -> cancelacionSolicitada);
+            if (estimacion != null) {
+                nuevo.setLimiteFrontera(estimacion.limiteFrontera());
+                nuevo.setLimiteEstadosProgramacionDinamica(estimacion.limiteEstadosProgramacionDinamica());
+            }
+            optimizador = nuevo;
+            solucion = nuevo.resolver();
+            terminar(nuevo.fueCancelado() ? Estado.CANCELADO
+                    : nuevo.alcanzoLimiteFrontera() ? Estado.LIMITE_MEMORIA
+                            : Estado.TERMINADO);
+        } catch (RuntimeException e) {
+            mensajeError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            terminar(Estado.ERROR);
+        }
+        return true;
+    }
+
+    /**
+     * Solicita la cancelación. Si el trabajo aún está en cola no llega a
+     * ejecutarse; si se está resolviendo, conserva el mejor horario encontrado.
+     */
+    void cancelar() {
+        cancelacionSolicitada = true;
+        synchronized (this) {
+            if (estado == Estado.EN_COLA) {
+                instanteInicio = System.nanoTime();
+                terminar(Estado.CANCELADO);
+            }
+        }
+    }
+
+    private synchronized void terminar(Estado estadoFinal) {
+        instanteFin = System.nanoTime();
+        estado = estadoFinal;
+    }
+
+    void setEstimacion(EstimacionCosto estimacion) {
+        this.estimacion = estimacion;
+    }
+
+    /**
+     * Obtiene la estimación de costo (null si aún no se admitió).
+     */
+    public EstimacionCosto getEstimacion() {
+        return estimacion;
+    }
+
+    long getInstanteCreacion() {
+        return instanteCreacion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public int getNumeroCursos() {
+        return cursos.size();
+    }
+
+    public int getNumeroEstudiantes() {
+        return estudiantes.size();
+    }
+
+    /**
+     * Obtiene la cota del número de aristas usada para estimar el trabajo.
+     */
+    public int getAristasMaximas() {
+        return aristasMaximas;
+    }
+
+    public int getNumeroFranjas() {
+        return numeroFranjas;
+    }
+
+    public List<Curso> getCursos() {
+        return cursos;
+    }
+
+    public List<Estudiante> getEstudiantes() {
+        return estudiantes;
+    }
+
+    /**
+     * Obtiene la solución (null si el trabajo no terminó o falló).
+     */
+    public OptimizadorHorarios.Solucion getSolucion() {
+        return solucion;
+    }
+
+    /**
+     * Obtiene el optimizador del trabajo (null si aún no empezó; sus
+     * estadísticas solo son válidas una vez terminado).
+     */
+    public OptimizadorHorarios getOptimizador() {
+        return optimizador;
+    }
+
+    public String getMensajeError() {
+        return mensajeError;
+    }
+
+    /**
+     * Tiempo en cola en milisegundos (hasta ahora, si sigue en cola).
+     */
+    public long getEsperaMs() {
+        long inicio = estado == Estado.EN_COLA ? System.nanoTime() : instanteInicio;
+        return (inicio - instanteCreacion) / 1_000_000;
+    }
+
+    /**
+     * Tiempo de resolución en milisegundos (hasta ahora, si sigue
+     * resolviéndose; 0 si no empezó).
+     */
+    public long getResolucionMs() {
+        return switch (estado) {
+            case EN_COLA -> 0;
+            case RESOLVIENDO -> (System.nanoTime() - instanteInicio) / 1_000_000;
+            default -> (instanteFin - instanteInicio) / 1_000_000;
+        };
+    }
+}
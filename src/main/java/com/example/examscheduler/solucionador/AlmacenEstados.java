@@ -0,0 +1,24 @@
+package com.example.examscheduler.solucionador;
+
+/**
+ * Almacén de los estados de una {@link FronteraCubetas}. La frontera solo
+ * organiza índices enteros en sus cubetas; el almacén decide cómo se guarda
+ * cada estado (como objeto en el montón o empaquetado fuera de él).
+ */
+interface AlmacenEstados {
+
+    /**
+     * Guarda un estado y devuelve su índice, válido hasta liberarlo.
+     */
+    int guardar(EstadoSolucion estado);
+
+    /**
+     * Obtiene el estado guardado en un índice.
+     */
+    EstadoSolucion leer(int indice);
+
+    /**
+     * Libera un índice para que se reutilice.
+     */
+    void liberar(int indice);
+}
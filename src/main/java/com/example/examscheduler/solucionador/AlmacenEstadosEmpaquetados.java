@@ -0,0 +1,145 @@
+package com.example.examscheduler.solucionador;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Almacén que empaqueta cada estado en un registro de ancho fijo dentro de
+ * arenas de memoria directa (fuera del montón), para fronteras de cientos de
+ * millones de estados sin presión sobre el recolector de basura.
+ *
+ * Registro: costo, cota inferior, curso siguiente y nivel (4 bytes cada uno),
+ * seguidos de la franja de cada curso más uno (0 si no está asignado) con los
+ * bits justos para el número de franjas: 4 bits hasta 15 franjas, sin partir
+ * un curso entre dos palabras de 64 bits. Los pendientes se reconstruyen a
+ * partir de las franjas sin asignar, como en {@link PuntoControlBusqueda}.
+ *
+ * Los registros liberados forman una lista enlazada dentro de las propias
+ * arenas (el primer entero apunta al siguiente libre), así que reutilizar
+ * memoria no crea objetos. La memoria directa se reserva por arenas y no se
+ * devuelve hasta descartar el almacén; su máximo lo fija
+ * -XX:MaxDirectMemorySize.
+ *
+ * Los datos de la evaluación perezosa guardados en un estado
+ * ({@link EstadoSolucion#incrementos}) no se conservan: el estado se vuelve a
+ * evaluar al extraerlo.
+ */
+final class AlmacenEstadosEmpaquetados implements AlmacenEstados {
+
+    private static final int BYTES_POR_ARENA = 1 << 26;
+    private static final int CABECERA = 16;
+
+    private final int numeroCursos;
+    private final int bitsPorCurso;
+    private final int cursosPorPalabra;
+    private final int bytesPorRegistro;
+    private final int registrosPorArena;
+    private final List<ByteBuffer> arenas = new ArrayList<>();
+
+    private int siguienteNuevo;
+    private int primerLibre = -1;
+
+    /**
+     * @param numeroCursos  Cursos del grafo de búsqueda
+     * @param numeroFranjas Franjas disponibles
+     */
+    AlmacenEstadosEmpaquetados(int numeroCursos, int numeroFranjas) {
+        this.numeroCursos = numeroCursos;
+        this.bitsPorCurso = bitsPorCurso(numeroFranjas);
+        this.cursosPorPalabra = 64 / bitsPorCurso;
+        this.bytesPorRegistro = bytesPorRegistro(numeroCursos, numeroFranjas);
+        this.registrosPorArena = Math.max(1, BYTES_POR_ARENA / bytesPorRegistro);
+    }
+
+    /**
+     * Bytes de cada registro empaquetado.
+     */
+    static int bytesPorRegistro(int numeroCursos, int numeroFranjas) {
+        int cursosPorPalabra = 64 / bitsPorCurso(numeroFranjas);
+        return CABECERA + 8 * ((numeroCursos + cursosPorPalabra - 1) / cursosPorPalabra);
+    }
+
+    private static int bitsPorCurso(int numeroFranjas) {
+        // Valores de 0 (sin asignar) a numeroFranjas.
+        return 32 - Integer.numberOfLeadingZeros(numeroFranjas);
+    }
+
+    @Override
+    public int guardar(EstadoSolucion estado) {
+        int indice;
+        if (primerLibre >= 0) {
+            indice = primerLibre;
+            primerLibre = arena(indice).getInt(desplazamiento(indice));
+        } else {
+            if (siguienteNuevo == Integer.MAX_VALUE) {
+                throw new IllegalStateException("La frontera empaquetada no admite mas estados");
+            }
+            indice = siguienteNuevo++;
+            if (indice / registrosPorArena == arenas.size()) {
+                arenas.add(ByteBuffer.allocateDirect(registrosPorArena * bytesPorRegistro)
+                        .order(ByteOrder.nativeOrder()));
+            }
+        }
+
+        ByteBuffer arena = arena(indice);
+        int base = desplazamiento(indice);
+        arena.putInt(base, estado.costo);
+        arena.putInt(base + 4, estado.cotaInferior);
+        arena.putInt(base + 8, estado.cursoSiguiente);
+        arena.putInt(base + 12, estado.nivel);
+        int posicion = base + CABECERA;
+        int[] franjas = estado.franjas;
+        for (int inicio = 0; inicio < numeroCursos; inicio += cursosPorPalabra) {
+            int fin = Math.min(numeroCursos, inicio + cursosPorPalabra);
+            long palabra = 0;
+            for (int curso = inicio, bit = 0; curso < fin; curso++, bit += bitsPorCurso) {
+                palabra |= (long) (franjas[curso] + 1) << bit;
+            }
+            arena.putLong(posicion, palabra);
+            posicion += 8;
+        }
+        return indice;
+    }
+
+    @Override
+    public EstadoSolucion leer(int indice) {
+        ByteBuffer arena = arena(indice);
+        int base = desplazamiento(indice);
+        int[] franjas = new int[numeroCursos];
+        BitSet pendientes = new BitSet(numeroCursos);
+        long mascara = (1L << bitsPorCurso) - 1;
+        int posicion = base + CABECERA;
+        for (int inicio = 0; inicio < numeroCursos; inicio += cursosPorPalabra) {
+            int fin = Math.min(numeroCursos, inicio + cursosPorPalabra);
+            long palabra = arena.getLong(posicion);
+            for (int curso = inicio; curso < fin; curso++) {
+                int franja = (int) (palabra & mascara) - 1;
+                franjas[curso] = franja;
+                if (franja < 0) {
+                    pendientes.set(curso);
+                }
+                palabra >>>= bitsPorCurso;
+            }
+            posicion += 8;
+        }
+        return new EstadoSolucion(franjas, pendientes, arena.getInt(base), arena.getInt(base + 12),
+                arena.getInt(base + 4), arena.getInt(base + 8));
+    }
+
+    @Override
+    public void liberar(int indice) {
+        arena(indice).putInt(desplazamiento(indice), primerLibre);
+        primerLibre = indice;
+    }
+
+    private ByteBuffer arena(int indice) {
+        return arenas.get(indice / registrosPorArena);
+    }
+
+    private int desplazamiento(int indice) {
+        return (indice % registrosPorArena) * bytesPorRegistro;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.examscheduler.solucionador;
+
+import java.util.Arrays;
+
+/**
+ * Almacén que conserva los estados como objetos en un arreglo, reutilizando
+ * las posiciones liberadas.
+ */
+final class AlmacenEstadosObjetos implements AlmacenEstados {
+
+    private EstadoSolucion[] estados = new EstadoSolucion[64];
+    private int siguienteNuevo;
+    /** Posiciones liberadas, como pila. */
+    private int[] libres = new int[16];
+    private int numeroLibres;
+
+    @Override
+    public int guardar(EstadoSolucion estado) {
+        int indice;
+        if (numeroLibres > 0) {
+            indice = libres[--numeroLibres];
+        } else {
+            if (siguienteNuevo == estados.length) {
+                estados = Arrays.copyOf(estados, estados.length * 2);
+            }
+            indice = siguienteNuevo++;
+        }
+        estados[indice] = estado;
+        return indice;
+    }
+
+    @Override
+    public EstadoSolucion leer(int indice) {
+        return estados[indice];
+    }
+
+    @Override
+    public void liberar(int indice) {
+        estados[indice] = null;
+        if (numeroLibres == libres.length) {
+            libres = Arrays.copyOf(libres, numeroLibres * 2);
+        }
+        libres[numeroLibres++] = indice;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.examscheduler.solucionador;
+
+/**
+ * Calcula de una vez el costo de cada franja para un curso: la suma de los
+ * pesos de sus vecinos asignados a esa franja. Es el cálculo interno de la
+ * cota inferior (las dos pasadas) y del orden de las franjas al ramificar.
+ *
+ * Hay una versión escalar y otra con la Vector API
+ * (jdk.incubator.vector); {@link #crear(int)} usa la vectorial solo si el
+ * módulo está cargado (la JVM se lanzó con
+ * --add-modules jdk.incubator.vector), y si no, la escalar.
+ */
+interface CalculadorCostosFranja {
+
+    /**
+     * Propiedad del sistema para forzar la versión escalar ("false").
+     */
+    String PROPIEDAD_VECTORIAL = "examscheduler.vectorial";
+
+    /**
+     * Escribe en costos[desde + f], para cada franja f, la suma de los pesos
+     * de los vecinos con franjas[vecino] == f (los vecinos sin franja, -1, no
+     * cuentan).
+     *
+     * @param vecinos Vecinos del curso
+     * @param pesos   Peso de la arista con cada vecino
+     * @param franjas Franja de cada curso, o -1
+     * @param costos  Destino
+     * @param desde   Posición del costo de la franja 0
+     */
+    void calcular(int[] vecinos, int[] pesos, int[] franjas, int[] costos, int desde);
+
+    /**
+     * Como {@link #calcular}, pero cada peso se limita al tope del vecino y
+     * se suma a lo que ya hay: costos[desde + f] += min(pesos[j],
+     * topes[vecino]) por cada vecino con franja f.
+     */
+    void sumarAcotado(int[] vecinos, int[] pesos, int[] franjas, int[] topes, int[] costos, int desde);
+
+    /**
+     * Indica si el cálculo usa la Vector API.
+     */
+    boolean esVectorial();
+
+    /**
+     * Crea el calculador más rápido disponible para un número de franjas.
+     */
+    static CalculadorCostosFranja crear(int numeroFranjas) {
+        if (vectorialDisponible() && !"false".equalsIgnoreCase(System.getProperty(PROPIEDAD_VECTORIAL))) {
+            try {
+                // Por reflexión: sin el módulo, la clase vectorial no se llega a cargar.
+                return (CalculadorCostosFranja) Class
+                        .forName("com.example.examscheduler.solucionador.CalculadorCostosFranjaVectorial")
+                        .getDeclaredConstructor(int.class)
+                        .newInstance(numeroFranjas);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Se sigue con la versión escalar.
+            }
+        }
+        return new CalculadorCostosFranjaEscalar(numeroFranjas);
+    }
+
+    /**
+     * Indica si el módulo de la Vector API está cargado en esta JVM.
+     */
+    static boolean vectorialDisponible() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.examscheduler.solucionador;
+
+import java.util.Arrays;
+
+/**
+ * Costos por franja con un solo recorrido de los vecinos, sumando cada peso
+ * en la franja del vecino.
+ */
+final class CalculadorCostosFranjaEscalar implements CalculadorCostosFranja {
+
+    private final int numeroFranjas;
+
+    CalculadorCostosFranjaEscalar(int numeroFranjas) {
+        this.numeroFranjas = numeroFranjas;
+    }
+
+    @Override
+    public void calcular(int[] vecinos, int[] pesos, int[] franjas, int[] costos, int desde) {
+        Arrays.fill(costos, desde, desde + numeroFranjas, 0);
+        for (int j = 0; j < vecinos.length; j++) {
+            int franja = franjas[vecinos[j]];
+            if (franja >= 0) {
+                costos[desde + franja] += pesos[j];
+            }
+        }
+    }
+
+    @Override
+    public void sumarAcotado(int[] vecinos, int[] pesos, int[] franjas, int[] topes, int[] costos, int desde) {
+        for (int j = 0; j < vecinos.length; j++) {
+            int vecino = vecinos[j];
+            int franja = franjas[vecino];
+            if (franja >= 0) {
+                costos[desde + franja] += Math.min(pesos[j], topes[vecino]);
+            }
+        }
+    }
+
+    @Override
+    public boolean esVectorial() {
+        return false;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.examscheduler.solucionador;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Costos por franja con la Vector API. Primero se reúnen (gather) las
+ * franjas de los vecinos en un arreglo contiguo; después, por cada franja, se
+ * suman los pesos de los carriles cuya franja coincide (suma con máscara) y
+ * se reduce el vector. Los restos usan el camino escalar.
+ *
+ * Son k pasadas de grado / carriles operaciones más la reunión, frente a un
+ * recorrido escalar del grado, así que solo compensa con filas largas: las
+ * de grado menor que max(4 carriles, 8 k) van enteras por el camino escalar
+ * (umbral medido con {@link ComparativaCostosFranja}).
+ *
+ * Solo se carga si el módulo jdk.incubator.vector está disponible (ver
+ * {@link CalculadorCostosFranja#crear(int)}).
+ */
+final class CalculadorCostosFranjaVectorial implements CalculadorCostosFranja {
+
+    private static final VectorSpecies<Integer> ESPECIE = IntVector.SPECIES_PREFERRED;
+
+    private final int numeroFranjas;
+    private final int gradoMinimo;
+    /** Franjas y pesos de los vecinos de la fila actual. */
+    private int[] franjasVecinos = new int[64];
+    private int[] pesosVecinos = new int[64];
+    private final int[] sumasFranja;
+
+    CalculadorCostosFranjaVectorial(int numeroFranjas) {
+        this.numeroFranjas = numeroFranjas;
+        this.gradoMinimo = Math.max(4 * ESPECIE.length(), 8 * numeroFranjas);
+        this.sumasFranja = new int[numeroFranjas];
+    }
+
+    @Override
+    public void calcular(int[] vecinos, int[] pesos, int[] franjas, int[] costos, int desde) {
+        int grado = vecinos.length;
+        if (grado < gradoMinimo) {
+            calcularEscalar(vecinos, pesos, franjas, costos, desde);
+            return;
+        }
+        asegurarCapacidad(grado);
+        int limite = ESPECIE.loopBound(grado);
+        int[] reunidas = franjasVecinos;
+        int j = 0;
+        for (; j < limite; j += ESPECIE.length()) {
+            IntVector.fromArray(ESPECIE, franjas, 0, vecinos, j).intoArray(reunidas, j);
+        }
+        for (; j < grado; j++) {
+            reunidas[j] = franjas[vecinos[j]];
+        }
+        sumarPorFranja(reunidas, pesos, grado, costos, desde);
+    }
+
+    @Override
+    public void sumarAcotado(int[] vecinos, int[] pesos, int[] franjas, int[] topes, int[] costos, int desde) {
+        int grado = vecinos.length;
+        if (grado < gradoMinimo) {
+            for (int j = 0; j < grado; j++) {
+                int vecino = vecinos[j];
+                int franja = franjas[vecino];
+                if (franja >= 0) {
+                    costos[desde + franja] += Math.min(pesos[j], topes[vecino]);
+                }
+            }
+            return;
+        }
+        asegurarCapacidad(grado);
+        int limite = ESPECIE.loopBound(grado);
+        int[] reunidas = franjasVecinos;
+        int[] acotados = pesosVecinos;
+        int j = 0;
+        for (; j < limite; j += ESPECIE.length()) {
+            IntVector.fromArray(ESPECIE, franjas, 0, vecinos, j).intoArray(reunidas, j);
+            IntVector.fromArray(ESPECIE, pesos, j)
+                    .min(IntVector.fromArray(ESPECIE, topes, 0, vecinos, j))
+                    .intoArray(acotados, j);
+        }
+        for (; j < grado; j++) {
+            reunidas[j] = franjas[vecinos[j]];
+            acotados[j] = Math.min(pesos[j], topes[vecinos[j]]);
+        }
+        int[] sumas = sumasFranja;
+        sumarPorFranja(reunidas, acotados, grado, sumas, 0);
+        for (int franja = 0; franja < numeroFranjas; franja++) {
+            costos[desde + franja] += sumas[franja];
+        }
+    }
+
+    private void asegurarCapacidad(int grado) {
+        if (franjasVecinos.length < grado) {
+            int capacidad = Math.max(grado, franjasVecinos.length * 2);
+            franjasVecinos = new int[capacidad];
+            pesosVecinos = new int[capacidad];
+        }
+    }
+
+    /**
+     * Suma con máscara, franja por franja, los pesos de los carriles con esa
+     * franja.
+     */
+    private void sumarPorFranja(int[] reunidas, int[] pesos, int grado, int[] costos, int desde) {
+        int limite = ESPECIE.loopBound(grado);
+        int j;
+        for (int franja = 0; franja < numeroFranjas; franja++) {
+            IntVector suma = IntVector.zero(ESPECIE);
+            for (j = 0; j < limite; j += ESPECIE.length()) {
+                IntVector franjasVector = IntVector.fromArray(ESPECIE, reunidas, j);
+                IntVector pesosVector = IntVector.fromArray(ESPECIE, pesos, j);
+                suma = suma.add(pesosVector, franjasVector.eq(franja));
+            }
+            int costo = suma.reduceLanes(VectorOperators.ADD);
+            for (j = limite; j < grado; j++) {
+                if (reunidas[j] == franja) {
+                    costo += pesos[j];
+                }
+            }
+            costos[desde + franja] = costo;
+        }
+    }
+
+    private void calcularEscalar(int[] vecinos, int[] pesos, int[] franjas, int[] costos, int desde) {
+        for (int franja = 0; franja < numeroFranjas; franja++) {
+            costos[desde + franja] = 0;
+        }
+        for (int j = 0; j < vecinos.length; j++) {
+            int franja = franjas[vecinos[j]];
+            if (franja >= 0) {
+                costos[desde + franja] += pesos[j];
+            }
+        }
+    }
+
+    @Override
+    public boolean esVectorial() {
+        return true;
+    }
+}
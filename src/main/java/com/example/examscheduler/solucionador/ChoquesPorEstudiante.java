@@ -0,0 +1,246 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.DiccionarioInstancia;
+import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.modelo.IndiceInscripciones;
+import com.example.examscheduler.modelo.InscripcionesCompactas;
+import com.example.examscheduler.modelo.MapaBitsCompacto;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Choques de un horario por estudiante: cada franja en la que un estudiante
+ * tiene dos o más exámenes, con esos cursos.
+ *
+ * Solo intervienen los cursos con alguna arista del grafo en conflicto (un
+ * estudiante que choca está en dos cursos vecinos de la misma franja). En
+ * cada franja se recorren esos cursos intersecando el mapa de estudiantes de
+ * cada uno (ver {@link IndiceInscripciones}) con la unión de los anteriores:
+ * lo que queda son los estudiantes que chocan. Después, los cursos del choque
+ * salen de las inscripciones compactas de cada afectado. El costo depende de
+ * las inscripciones de los cursos en conflicto y de los estudiantes
+ * afectados, no del total de estudiantes.
+ *
+ * Los choques quedan ordenados por estudiante y franja, con los cursos de
+ * cada choque en formato CSR como en {@link InscripcionesCompactas}.
+ */
+public final class ChoquesPorEstudiante {
+
+    /**
+     * Choque de un estudiante en una franja (los cursos, por código).
+     */
+    public record Choque(Estudiante estudiante, int franja, List<Curso> cursos) {
+    }
+
+    private final DiccionarioInstancia diccionario;
+    private final int[] estudiantes;
+    private final int[] franjas;
+    private final int[] inicios;
+    private final int[] cursos;
+    private final int estudiantesAfectados;
+
+    /**
+     * Calcula los choques de un horario.
+     *
+     * @param grafo         Grafo de conflictos del problema
+     * @param franjasPorId  Franja de cada curso por identificador (-1 si no
+     *                      tiene)
+     */
+    public ChoquesPorEstudiante(GrafoConflictos grafo, int[] franjasPorId) {
+        this.diccionario = grafo.obtenerDiccionario();
+        IndiceInscripciones indice = grafo.obtenerIndiceInscripciones();
+
+        // Cursos con alguna arista en conflicto, agrupados por franja.
+        int numeroCursos = franjasPorId.length;
+        boolean[] enConflicto = new boolean[numeroCursos];
+        int numeroFranjas = 0;
+        for (int a = 0; a < numeroCursos; a++) {
+            int franja = franjasPorId[a];
+            if (franja < 0) {
+                continue;
+            }
+            for (int b : grafo.vecinos(a)) {
+                if (franjasPorId[b] == franja) {
+                    enConflicto[a] = true;
+                    numeroFranjas = Math.max(numeroFranjas, franja + 1);
+                    break;
+                }
+            }
+        }
+        int[] iniciosFranja = new int[numeroFranjas + 1];
+        for (int c = 0; c < numeroCursos; c++) {
+            if (enConflicto[c]) {
+                iniciosFranja[franjasPorId[c] + 1]++;
+            }
+        }
+        for (int f = 0; f < numeroFranjas; f++) {
+            iniciosFranja[f + 1] += iniciosFranja[f];
+        }
+        int[] cursosPorFranja = new int[iniciosFranja[numeroFranjas]];
+        int[] siguiente = Arrays.copyOf(iniciosFranja, numeroFranjas);
+        for (int c = 0; c < numeroCursos; c++) {
+            if (enConflicto[c]) {
+                cursosPorFranja[siguiente[franjasPorId[c]]++] = c;
+            }
+        }
+
+        // En cada franja, los estudiantes de un curso que ya estaban en la
+        // unión de los cursos anteriores tienen un choque. La unión se
+        // acumula en un mapa de bits denso que se limpia al cambiar de franja.
+        long[] union = new long[(diccionario.numeroEstudiantes() + 63) >>> 6];
+        Recolector recolector = new Recolector(diccionario.numeroEstudiantes());
+        for (int f = 0; f < numeroFranjas; f++) {
+            recolector.franja = f;
+            for (int i = iniciosFranja[f]; i < iniciosFranja[f + 1]; i++) {
+                MapaBitsCompacto estudiantesCurso = indice.estudiantes(cursosPorFranja[i]);
+                estudiantesCurso.recorrerInterseccion(union, recolector::agregar);
+                estudiantesCurso.marcarEn(union);
+            }
+            for (int i = iniciosFranja[f]; i < iniciosFranja[f + 1]; i++) {
+                indice.estudiantes(cursosPorFranja[i]).limpiarEn(union);
+            }
+        }
+        long[] claves = Arrays.copyOf(recolector.claves, recolector.cantidad);
+        Arrays.sort(claves);
+
+        InscripcionesCompactas inscripciones = grafo.obtenerInscripciones();
+        this.estudiantes = new int[claves.length];
+        this.franjas = new int[claves.length];
+        this.inicios = new int[claves.length + 1];
+        int[] cursosTemporales = new int[Math.max(4, claves.length * 2)];
+        int posicion = 0;
+        int afectados = 0;
+        for (int i = 0; i < claves.length; i++) {
+            int e = (int) (claves[i] >>> 32);
+            int franja = (int) claves[i];
+            estudiantes[i] = e;
+            franjas[i] = franja;
+            if (i == 0 || estudiantes[i - 1] != e) {
+                afectados++;
+            }
+            for (int p = inscripciones.inicio(e); p < inscripciones.fin(e); p++) {
+                int curso = inscripciones.curso(p);
+                if (franjasPorId[curso] == franja) {
+                    if (posicion == cursosTemporales.length) {
+                        cursosTemporales = Arrays.copyOf(cursosTemporales, posicion * 2);
+                    }
+                    cursosTemporales[posicion++] = curso;
+                }
+            }
+            inicios[i + 1] = posicion;
+        }
+        this.cursos = Arrays.copyOf(cursosTemporales, posicion);
+        this.estudiantesAfectados = afectados;
+    }
+
+    /**
+     * Obtiene el número de choques (pares estudiante-franja).
+     */
+    public int numeroChoques() {
+        return estudiantes.length;
+    }
+
+    /**
+     * Obtiene el número de estudiantes distintos con al menos un choque.
+     */
+    public int numeroEstudiantesAfectados() {
+        return estudiantesAfectados;
+    }
+
+    /**
+     * Identificador del estudiante del choque.
+     */
+    public int estudiante(int choque) {
+        return estudiantes[choque];
+    }
+
+    /**
+     * Franja del choque.
+     */
+    public int franja(int choque) {
+        return franjas[choque];
+    }
+
+    /**
+     * Primera posición de los cursos del choque.
+     */
+    public int inicio(int choque) {
+        return inicios[choque];
+    }
+
+    /**
+     * Posición siguiente a la del último curso del choque.
+     */
+    public int fin(int choque) {
+        return inicios[choque + 1];
+    }
+
+    /**
+     * Identificador de curso en una posición.
+     */
+    public int curso(int posicion) {
+        return cursos[posicion];
+    }
+
+    /**
+     * Obtiene un choque con sus objetos, con los cursos ordenados por código.
+     */
+    public Choque choque(int indice) {
+        List<Curso> cursosChoque = new ArrayList<>(fin(indice) - inicio(indice));
+        for (int p = inicio(indice); p < fin(indice); p++) {
+            cursosChoque.add(diccionario.curso(cursos[p]));
+        }
+        cursosChoque.sort(Comparator.comparing(Curso::id));
+        return new Choque(diccionario.estudiante(estudiantes[indice]), franjas[indice], cursosChoque);
+    }
+
+    /**
+     * Vista de solo lectura de los choques; cada elemento se crea al pedirlo.
+     */
+    public List<Choque> comoLista() {
+        return new AbstractList<>() {
+            @Override
+            public Choque get(int indice) {
+                return choque(indice);
+            }
+
+            @Override
+            public int size() {
+                return numeroChoques();
+            }
+        };
+    }
+
+    /**
+     * Acumula claves (estudiante, franja) descartando las ya vistas en la
+     * franja actual; las franjas se recorren de una en una.
+     */
+    private static final class Recolector {
+
+        private final int[] ultimaFranja;
+        private long[] claves = new long[16];
+        private int cantidad;
+        private int franja;
+
+        Recolector(int numeroEstudiantes) {
+            this.ultimaFranja = new int[numeroEstudiantes];
+            Arrays.fill(ultimaFranja, -1);
+        }
+
+        void agregar(int estudiante) {
+            if (ultimaFranja[estudiante] == franja) {
+                return;
+            }
+            ultimaFranja[estudiante] = franja;
+            if (cantidad == claves.length) {
+                claves = Arrays.copyOf(claves, cantidad * 2);
+            }
+            claves[cantidad++] = ((long) estudiante << 32) | franja;
+        }
+    }
+}
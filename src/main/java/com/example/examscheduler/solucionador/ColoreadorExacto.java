@@ -0,0 +1,301 @@
+package com.example.examscheduler.solucionador;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decide si el grafo de conflictos puede colorearse con k franjas (es decir,
+ * si existe un horario sin ningún conflicto) usando Ramificación y Poda con
+ * la heurística DSatur.
+ *
+ * Características principales:
+ * - Dominios de franjas representados como máscaras de bits (k <= 64)
+ * - Selección del curso más saturado (más franjas prohibidas por sus vecinos)
+ * - Ruptura de simetría: un curso solo puede abrir la siguiente franja sin usar
+ * - Pruebas rápidas previas: coloreo voraz y cota por clique
+ * - Límite de nodos para no bloquear la búsqueda ponderada posterior
+ * - Cancelación cooperativa: si se cancela, el resultado es indeterminado
+ */
+public class ColoreadorExacto {
+
+    /**
+     * Límite de nodos por defecto antes de declarar el resultado indeterminado.
+     */
+    public static final long LIMITE_NODOS_POR_DEFECTO = 1_000_000L;
+
+    private static final int MAX_FRANJAS_CON_BITS = 64;
+
+    /**
+     * Veredicto de la prueba de k-coloreabilidad.
+     */
+    public enum Veredicto {
+        COLOREABLE, NO_COLOREABLE, INDETERMINADO
+    }
+
+    /**
+     * Resultado de la prueba.
+     *
+     * @param veredicto Veredicto de la prueba
+     * @param colores   Franja asignada a cada índice de curso (solo si es
+     *                  coloreable, null en otro caso)
+     * @param nodos     Nodos explorados por la búsqueda exacta
+     */
+    public record Resultado(Veredicto veredicto, int[] colores, long nodos) {
+
+        public boolean esColoreable() {
+            return veredicto == Veredicto.COLOREABLE;
+        }
+    }
+
+    private final GrafoCompacto grafo;
+    private final int numeroFranjas;
+    private final long limiteNodos;
+    private final BooleanSupplier cancelacion;
+
+    public ColoreadorExacto(GrafoCompacto grafo, int numeroFranjas) {
+        this(grafo, numeroFranjas, LIMITE_NODOS_POR_DEFECTO);
+    }
+
+    public ColoreadorExacto(GrafoCompacto grafo, int numeroFranjas, long limiteNodos) {
+        this(grafo, numeroFranjas, limiteNodos, () -> false);
+    }
+
+    public ColoreadorExacto(GrafoCompacto grafo, int numeroFranjas, long limiteNodos,
+            BooleanSupplier cancelacion) {
+        this.grafo = grafo;
+        this.numeroFranjas = numeroFranjas;
+        this.limiteNodos = limiteNodos;
+        this.cancelacion = cancelacion;
+    }
+
+    /**
+     * Decide si el grafo es k-coloreable.
+     */
+    public Resultado resolver() {
+        int n = grafo.tamano();
+        if (n == 0) {
+            return new Resultado(Veredicto.COLOREABLE, new int[0], 0);
+        }
+        if (numeroFranjas < 1) {
+            return new Resultado(Veredicto.NO_COLOREABLE, null, 0);
+        }
+
+        int[] voraz = colorearVoraz();
+        if (voraz != null) {
+            return new Resultado(Veredicto.COLOREABLE, voraz, 0);
+        }
+
+        if (tamanoCliqueVoraz() > numeroFranjas) {
+            return new Resultado(Veredicto.NO_COLOREABLE, null, 0);
+        }
+
+        if (numeroFranjas > MAX_FRANJAS_CON_BITS) {
+            return new Resultado(Veredicto.INDETERMINADO, null, 0);
+        }
+
+        return buscarDSatur();
+    }
+
+    /**
+     * Coloreo voraz en orden de grado descendente. Si el grado máximo es menor
+     * que k siempre tiene éxito.
+     *
+     * @return Los colores encontrados, o null si se necesitan más de k franjas
+     */
+    private int[] colorearVoraz() {
+        int n = grafo.tamano();
+        Integer[] orden = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> Integer.compare(grafo.grado(b), grafo.grado(a)));
+
+        int[] colores = new int[n];
+        Arrays.fill(colores, -1);
+        int[] marcaUsado = new int[numeroFranjas];
+        int marca = 0;
+
+        for (int v : orden) {
+            marca++;
+            for (int u : grafo.vecinos(v)) {
+                int c = colores[u];
+                if (c >= 0) {
+                    marcaUsado[c] = marca;
+                }
+            }
+            int libre = -1;
+            for (int c = 0; c < numeroFranjas; c++) {
+                if (marcaUsado[c] != marca) {
+                    libre = c;
+                    break;
+                }
+            }
+            if (libre < 0) {
+                return null;
+            }
+            colores[v] = libre;
+        }
+        return colores;
+    }
+
+    /**
+     * Busca de forma voraz una clique grande partiendo de los cursos de mayor
+     * grado. Una clique de tamaño mayor que k demuestra que no hay coloreo.
+     */
+    private int tamanoCliqueVoraz() {
+        int n = grafo.tamano();
+        Integer[] orden = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> Integer.compare(grafo.grado(b), grafo.grado(a)));
+
+        int[] marcas = new int[n];
+        int[] ronda = new int[n];
+        int mejor = 1;
+        int semillas = Math.min(n, 16);
+
+        for (int s = 0; s < semillas; s++) {
+            int semilla = orden[s];
+            if (grafo.grado(semilla) < mejor) {
+                break;
+            }
+            int idRonda = s + 1;
+            int[] candidatos = grafo.vecinos(semilla).clone();
+            Integer[] candidatosOrdenados = Arrays.stream(candidatos).boxed().toArray(Integer[]::new);
+            Arrays.sort(candidatosOrdenados, (a, b) -> Integer.compare(grafo.grado(b), grafo.grado(a)));
+
+            int tamano = 1;
+            marcarVecinos(semilla, idRonda, tamano, marcas, ronda);
+            for (int u : candidatosOrdenados) {
+                if (ronda[u] == idRonda && marcas[u] == tamano) {
+                    tamano++;
+                    marcarVecinos(u, idRonda, tamano, marcas, ronda);
+                }
+            }
+            mejor = Math.max(mejor, tamano);
+        }
+        return mejor;
+    }
+
+    /**
+     * Registra que los vecinos de v son adyacentes a un miembro más de la
+     * clique en construcción.
+     */
+    private void marcarVecinos(int v, int idRonda, int tamano, int[] marcas, int[] ronda) {
+        for (int u : grafo.vecinos(v)) {
+            if (ronda[u] != idRonda) {
+                ronda[u] = idRonda;
+                marcas[u] = 0;
+            }
+            if (marcas[u] == tamano - 1) {
+                marcas[u] = tamano;
+            }
+        }
+    }
+
+    /**
+     * Ramificación y Poda DSatur iterativa (sin recursión, para soportar miles
+     * de cursos sin desbordar la pila).
+     */
+    private Resultado buscarDSatur() {
+        int n = grafo.tamano();
+        int k = numeroFranjas;
+        long mascaraCompleta = k == MAX_FRANJAS_CON_BITS ? -1L : (1L << k) - 1;
+
+        int[] colores = new int[n];
+        Arrays.fill(colores, -1);
+        int[] cuenta = new int[n * k];
+        long[] prohibidos = new long[n];
+
+        int[] vertice = new int[n];
+        long[] restantes = new long[n];
+        int[] usadosAntes = new int[n];
+        int usados = 0;
+
+        long nodos = 0;
+        int profundidad = 0;
+        boolean bajar = true;
+
+        while (true) {
+            if (bajar) {
+                if (profundidad == n) {
+                    return new Resultado(Veredicto.COLOREABLE, colores, nodos);
+                }
+                if (++nodos > limiteNodos || cancelacion.getAsBoolean()) {
+                    return new Resultado(Veredicto.INDETERMINADO, null, nodos);
+                }
+                int v = seleccionarMasSaturado(colores, prohibidos);
+                // Las usadas más una nueva; con k = 64, 1L << 64 sería 1L << 0.
+                long abiertas = usados + 1 >= k ? mascaraCompleta : (1L << (usados + 1)) - 1;
+                vertice[profundidad] = v;
+                restantes[profundidad] = ~prohibidos[v] & mascaraCompleta & abiertas;
+                usadosAntes[profundidad] = usados;
+            } else {
+                descolorear(vertice[profundidad], colores, cuenta, prohibidos);
+                usados = usadosAntes[profundidad];
+            }
+
+            long r = restantes[profundidad];
+            if (r == 0) {
+                if (profundidad == 0) {
+                    return new Resultado(Veredicto.NO_COLOREABLE, null, nodos);
+                }
+                profundidad--;
+                bajar = false;
+                continue;
+            }
+
+            int c = Long.numberOfTrailingZeros(r);
+            restantes[profundidad] = r & (r - 1);
+            colorear(vertice[profundidad], c, colores, cuenta, prohibidos);
+            if (c == usados) {
+                usados++;
+            }
+            profundidad++;
+            bajar = true;
+        }
+    }
+
+    /**
+     * Selecciona el curso sin franja con mayor saturación; en caso de empate,
+     * el de mayor grado.
+     */
+    private int seleccionarMasSaturado(int[] colores, long[] prohibidos) {
+        int mejor = -1;
+        int mejorSaturacion = -1;
+        int mejorGrado = -1;
+        for (int v = 0; v < colores.length; v++) {
+            if (colores[v] >= 0) {
+                continue;
+            }
+            int saturacion = Long.bitCount(prohibidos[v]);
+            int grado = grafo.grado(v);
+            if (saturacion > mejorSaturacion || (saturacion == mejorSaturacion && grado > mejorGrado)) {
+                mejor = v;
+                mejorSaturacion = saturacion;
+                mejorGrado = grado;
+            }
+        }
+        return mejor;
+    }
+
+    private void colorear(int v, int c, int[] colores, int[] cuenta, long[] prohibidos) {
+        colores[v] = c;
+        for (int u : grafo.vecinos(v)) {
+            if (cuenta[u * numeroFranjas + c]++ == 0) {
+                prohibidos[u] |= 1L << c;
+            }
+        }
+    }
+
+    private void descolorear(int v, int[] colores, int[] cuenta, long[] prohibidos) {
+        int c = colores[v];
+        colores[v] = -1;
+        for (int u : grafo.vecinos(v)) {
+            if (--cuenta[u * numeroFranjas + c] == 0) {
+                prohibidos[u] &= ~(1L << c);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.modelo.LectorInstancia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compara el cálculo escalar y el vectorial de los costos por franja (ver
+ * {@link CalculadorCostosFranja}).
+ *
+ * Sin argumentos mide el tiempo por fila con grados y números de franjas
+ * crecientes, sobre filas y asignaciones aleatorias. Con una instancia y un
+ * número de franjas, además resuelve la instancia con cada versión (con un
+ * límite de tiempo) y muestra el tiempo medio por nodo explorado.
+ *
+ * La versión vectorial necesita lanzar la JVM con
+ * --add-modules jdk.incubator.vector; sin el módulo solo se mide la escalar.
+ */
+public final class ComparativaCostosFranja {
+
+    private static final int[] GRADOS = {8, 16, 32, 64, 128, 256, 1024};
+    private static final int[] FRANJAS = {4, 8, 16};
+    private static final int CURSOS = 4096;
+    private static final int FILAS = 256;
+    private static final int REPETICIONES = 7;
+
+    private ComparativaCostosFranja() {
+    }
+
+    /**
+     * Argumentos opcionales: archivo de la instancia (formato de
+     * {@link LectorInstancia}), número de franjas y límite de tiempo por
+     * versión en segundos (30 por defecto).
+     */
+    public static void main(String[] args) throws IOException {
+        boolean vectorial = CalculadorCostosFranja.vectorialDisponible();
+        if (!vectorial) {
+            System.out.println("Modulo jdk.incubator.vector no disponible: solo se mide la version escalar.");
+        }
+        compararFilas(vectorial);
+        if (args.length >= 2) {
+            compararNodos(Path.of(args[0]), Integer.parseInt(args[1]),
+                    args.length > 2 ? Long.parseLong(args[2]) : 30, vectorial);
+        }
+    }
+
+    private static void compararFilas(boolean vectorial) {
+        System.out.printf("%8s %8s %14s %14s %10s%n", "Franjas", "Grado", "Escalar (ns)", "Vectorial (ns)", "Mejora");
+        Random aleatorio = new Random(1);
+        for (int k : FRANJAS) {
+            int[] franjas = new int[CURSOS];
+            for (int c = 0; c < CURSOS; c++) {
+                franjas[c] = aleatorio.nextInt(4) == 0 ? -1 : aleatorio.nextInt(k);
+            }
+            CalculadorCostosFranja escalar = new CalculadorCostosFranjaEscalar(k);
+            CalculadorCostosFranja vector = vectorial ? CalculadorCostosFranja.crear(k) : null;
+            int[] costos = new int[k];
+            for (int grado : GRADOS) {
+                int[][] vecinos = new int[FILAS][grado];
+                int[][] pesos = new int[FILAS][grado];
+                for (int f = 0; f < FILAS; f++) {
+                    for (int j = 0; j < grado; j++) {
+                        vecinos[f][j] = aleatorio.nextInt(CURSOS);
+                        pesos[f][j] = 1 + aleatorio.nextInt(5);
+                    }
+                }
+                int vueltas = Math.max(20, 200_000 / grado);
+                double nanosEscalar = medirFilas(escalar, vecinos, pesos, franjas, costos, vueltas);
+                if (vector == null) {
+                    System.out.printf("%8d %8d %14.1f %14s %10s%n", k, grado, nanosEscalar, "-", "-");
+                } else {
+                    double nanosVector = medirFilas(vector, vecinos, pesos, franjas, costos, vueltas);
+                    System.out.printf("%8d %8d %14.1f %14.1f %9.2fx%n", k, grado, nanosEscalar, nanosVector,
+                            nanosEscalar / nanosVector);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mejor tiempo por fila de varias repeticiones.
+     */
+    private static double medirFilas(CalculadorCostosFranja calculador, int[][] vecinos, int[][] pesos,
+            int[] franjas, int[] costos, int vueltas) {
+        long mejor = Long.MAX_VALUE;
+        for (int r = 0; r < REPETICIONES; r++) {
+            long inicio = System.nanoTime();
+            for (int v = 0; v < vueltas; v++) {
+                for (int f = 0; f < vecinos.length; f++) {
+                    calculador.calcular(vecinos[f], pesos[f], franjas, costos, 0);
+                }
+            }
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return (double) mejor / ((long) vueltas * vecinos.length);
+    }
+
+    private static void compararNodos(Path archivo, int franjas, long segundos, boolean vectorial)
+            throws IOException {
+        LectorInstancia.Resultado instancia;
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            instancia = new LectorInstancia().leer(lector, lineas -> {
+            });
+        }
+        System.out.println();
+        System.out.printf("%-10s %10s %12s %12s %12s%n", "Version", "Conflictos", "Explorados", "Total (ms)",
+                "ns por nodo");
+        String anterior = System.getProperty(CalculadorCostosFranja.PROPIEDAD_VECTORIAL);
+        try {
+            for (boolean usarVector : vectorial ? new boolean[] {false, true} : new boolean[] {false}) {
+                System.setProperty(CalculadorCostosFranja.PROPIEDAD_VECTORIAL, String.valueOf(usarVector));
+                OptimizadorHorarios optimizador = new OptimizadorHorarios(
+                        instancia.cursos(), instancia.estudiantes(), franjas);
+                long fin = System.nanoTime() + segundos * 1_000_000_000L;
+                optimizador.setCancelacion(() -> System.nanoTime() > fin);
+                optimizador.setProgramacionDinamica(false);
+                OptimizadorHorarios.Solucion solucion = optimizador.resolver();
+                EstadisticasBusqueda estadisticas = optimizador.obtenerEstadisticasBusqueda();
+                long nanosPorNodo = estadisticas.explorados() == 0 ? 0
+                        : estadisticas.nanosTotales() / estadisticas.explorados();
+                System.out.printf("%-10s %10s %12d %12d %12d%n", usarVector ? "Vectorial" : "Escalar",
+                        solucion.conflictos() + (optimizador.fueCancelado() ? "*" : ""), estadisticas.explorados(),
+                        estadisticas.nanosTotales() / 1_000_000, nanosPorNodo);
+            }
+        } finally {
+            if (anterior == null) {
+                System.clearProperty(CalculadorCostosFranja.PROPIEDAD_VECTORIAL);
+            } else {
+                System.setProperty(CalculadorCostosFranja.PROPIEDAD_VECTORIAL, anterior);
+            }
+        }
+    }
+}
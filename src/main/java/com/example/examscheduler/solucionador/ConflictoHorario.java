@@ -0,0 +1,40 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.modelo.Curso;
+
+import java.util.Comparator;
+
+/**
+ * Par de cursos en conflicto programados en la misma franja de un horario.
+ *
+ * El orden natural es por franja y después por los códigos de los cursos
+ * ({@code curso1} siempre tiene el código menor), así que una lista ordenada
+ * sale agrupada por franja. El texto que se muestra queda a cargo de quien
+ * lo usa.
+ *
+ * @param franja      Franja (desde 0) que comparten los dos cursos
+ * @param curso1      Curso de código menor
+ * @param curso2      Curso de código mayor
+ * @param estudiantes Estudiantes inscritos en ambos cursos
+ */
+public record ConflictoHorario(int franja, Curso curso1, Curso curso2, int estudiantes)
+        implements Comparable<ConflictoHorario> {
+
+    /**
+     * Orden por número de estudiantes afectados, de mayor a menor, y después
+     * por el orden natural.
+     */
+    public static final Comparator<ConflictoHorario> POR_ESTUDIANTES = Comparator
+            .comparingInt(ConflictoHorario::estudiantes).reversed()
+            .thenComparing(Comparator.naturalOrder());
+
+    private static final Comparator<ConflictoHorario> ORDEN_NATURAL = Comparator
+            .comparingInt(ConflictoHorario::franja)
+            .thenComparing(conflicto -> conflicto.curso1().id())
+            .thenComparing(conflicto -> conflicto.curso2().id());
+
+    @Override
+    public int compareTo(ConflictoHorario otro) {
+        return ORDEN_NATURAL.compare(this, otro);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.examscheduler.solucionador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Descomposición en árbol de un grafo, obtenida con un orden de eliminación
+ * voraz: en cada paso se elimina el curso cuyo vecindario necesita menos
+ * aristas nuevas para volverse una clique (mínimo relleno; a igualdad, el de
+ * menor grado).
+ *
+ * Al eliminar un curso, sus vecinos restantes (su separador) se unen entre
+ * sí. El curso y su separador forman una bolsa, cuyo padre es la bolsa del
+ * primer curso del separador que se elimina; una bolsa con separador vacío es
+ * la raíz de una componente. El ancho es el mayor separador (el tamaño de
+ * bolsa menos uno).
+ *
+ * Las bolsas se indexan por su posición en el orden de eliminación, así que
+ * cada hija tiene un índice menor que su padre.
+ */
+final class DescomposicionArbol {
+
+    /** Curso eliminado en cada paso. */
+    final int[] orden;
+    /** Paso en que se elimina cada curso. */
+    final int[] posicion;
+    /** Separador de cada bolsa, ordenado por paso de eliminación. */
+    final int[][] separadores;
+    /** Bolsa padre de cada bolsa, o -1 si es raíz. */
+    final int[] padre;
+    final int ancho;
+    /** Suma de k elevado al tamaño de cada separador. */
+    final long estados;
+
+    private DescomposicionArbol(int[] orden, int[] posicion, int[][] separadores, int[] padre, int ancho,
+            long estados) {
+        this.orden = orden;
+        this.posicion = posicion;
+        this.separadores = separadores;
+        this.padre = padre;
+        this.ancho = ancho;
+        this.estados = estados;
+    }
+
+    /**
+     * Calcula la descomposición de un grafo para una programación dinámica
+     * con k estados por curso, o null si alguna bolsa tiene más de
+     * limiteBolsa estados (k^|separador|) o todas juntas más de limiteEstados
+     * (en ese caso se abandona en cuanto se sabe).
+     *
+     * @param grafo         Grafo a descomponer
+     * @param numeroFranjas Franjas por curso (k)
+     * @param limiteBolsa   Máximo de estados de una tabla
+     * @param limiteEstados Máximo de estados de todas las tablas juntas
+     */
+    static DescomposicionArbol calcular(GrafoCompacto grafo, int numeroFranjas, long limiteBolsa,
+            long limiteEstados) {
+        int n = grafo.tamano();
+        List<Set<Integer>> adyacencia = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Set<Integer> fila = new HashSet<>();
+            for (int vecino : grafo.vecinos(i)) {
+                fila.add(vecino);
+            }
+            adyacencia.add(fila);
+        }
+
+        // Separadores mayores que este no caben en el límite.
+        int anchoMaximo = 0;
+        for (long potencia = numeroFranjas; potencia <= limiteBolsa && anchoMaximo < n;
+                potencia *= numeroFranjas) {
+            anchoMaximo++;
+        }
+
+        int[] relleno = new int[n];
+        for (int i = 0; i < n; i++) {
+            relleno[i] = calcularRelleno(adyacencia, i, anchoMaximo);
+        }
+        boolean[] eliminado = new boolean[n];
+        int[] orden = new int[n];
+        int[] posicion = new int[n];
+        int[][] separadores = new int[n][];
+        long estados = 0;
+        int ancho = 0;
+
+        for (int paso = 0; paso < n; paso++) {
+            int elegido = -1;
+            for (int i = 0; i < n; i++) {
+                if (!eliminado[i] && relleno[i] != Integer.MAX_VALUE && (elegido < 0
+                        || relleno[i] < relleno[elegido]
+                        || (relleno[i] == relleno[elegido]
+                                && adyacencia.get(i).size() < adyacencia.get(elegido).size()))) {
+                    elegido = i;
+                }
+            }
+            if (elegido < 0) {
+                return null;
+            }
+            Set<Integer> vecinos = adyacencia.get(elegido);
+            long estadosBolsa = 1;
+            for (int j = 0; j < vecinos.size(); j++) {
+                estadosBolsa *= numeroFranjas;
+            }
+            estados += estadosBolsa;
+            if (estados > limiteEstados) {
+                return null;
+            }
+            ancho = Math.max(ancho, vecinos.size());
+
+            int[] separador = vecinos.stream().mapToInt(Integer::intValue).toArray();
+            for (int a : separador) {
+                Set<Integer> filaVecino = adyacencia.get(a);
+                filaVecino.remove(elegido);
+                for (int b : separador) {
+                    if (b != a) {
+                        filaVecino.add(b);
+                    }
+                }
+            }
+            eliminado[elegido] = true;
+            orden[paso] = elegido;
+            posicion[elegido] = paso;
+            separadores[paso] = separador;
+
+            // El relleno solo cambia para los vecinos del eliminado y los vecinos de estos.
+            Set<Integer> afectados = new HashSet<>();
+            for (int a : separador) {
+                afectados.add(a);
+                afectados.addAll(adyacencia.get(a));
+            }
+            for (int x : afectados) {
+                relleno[x] = calcularRelleno(adyacencia, x, anchoMaximo);
+            }
+        }
+
+        int[] padre = new int[n];
+        for (int paso = 0; paso < n; paso++) {
+            int[] separador = separadores[paso];
+            Integer[] porPaso = Arrays.stream(separador).boxed().toArray(Integer[]::new);
+            Arrays.sort(porPaso, (a, b) -> Integer.compare(posicion[a], posicion[b]));
+            for (int j = 0; j < separador.length; j++) {
+                separador[j] = porPaso[j];
+            }
+            padre[paso] = separador.length == 0 ? -1 : posicion[separador[0]];
+        }
+        return new DescomposicionArbol(orden, posicion, separadores, padre, ancho, estados);
+    }
+
+    /**
+     * Aristas que faltan para que los vecinos de un curso formen una clique,
+     * o Integer.MAX_VALUE si su grado ya supera el ancho máximo.
+     */
+    private static int calcularRelleno(List<Set<Integer>> adyacencia, int curso, int anchoMaximo) {
+        Set<Integer> vecinos = adyacencia.get(curso);
+        if (vecinos.size() > anchoMaximo) {
+            return Integer.MAX_VALUE;
+        }
+        int[] lista = vecinos.stream().mapToInt(Integer::intValue).toArray();
+        int faltantes = 0;
+        for (int a = 0; a < lista.length; a++) {
+            Set<Integer> filaA = adyacencia.get(lista[a]);
+            for (int b = a + 1; b < lista.length; b++) {
+                if (!filaA.contains(lista[b])) {
+                    faltantes++;
+                }
+            }
+        }
+        return faltantes;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.examscheduler.solucionador;
+
+/**
+ * Estadísticas de la última búsqueda Branch & Bound de un
+ * {@link OptimizadorHorarios}, para comparar políticas de selección de nodos
+ * (ver {@link PoliticaBusqueda}).
+ *
+ * @param politica                  Política usada
+ * @param nanosHastaPrimeraSolucion Tiempo hasta el primer horario completo de
+ *                                  la búsqueda, o -1 si no encontró ninguno
+ * @param nanosTotales              Duración de la búsqueda
+ * @param explorados                Nodos explorados
+ * @param podados                   Nodos podados
+ * @param cotasCalculadas           Cotas inferiores calculadas
+ * @param reinsertados              Nodos devueltos a la frontera porque su
+ *                                  cota calculada superó la provisional
+ *                                  (evaluación perezosa)
+ * @param picoNodosEnMemoria        Máximo de nodos guardados a la vez (estados
+ *                                  de la frontera, o niveles de la pila en
+ *                                  profundidad)
+ * @param picoBytesEstimados        Estimación de la memoria de esos nodos en
+ *                                  su máximo
+ */
+public record EstadisticasBusqueda(
+        PoliticaBusqueda politica,
+        long nanosHastaPrimeraSolucion,
+        long nanosTotales,
+        int explorados,
+        int podados,
+        long cotasCalculadas,
+        int reinsertados,
+        int picoNodosEnMemoria,
+        long picoBytesEstimados) {
+
+    /**
+     * Indica si la búsqueda encontró algún horario completo.
+     */
+    public boolean encontroSolucion() {
+        return nanosHastaPrimeraSolucion >= 0;
+    }
+}
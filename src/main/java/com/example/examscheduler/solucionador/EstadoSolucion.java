@@ -1,50 +1,91 @@
 package com.example.examscheduler.solucionador;
 
-import com.example.examscheduler.modelo.Curso;
-import java.util.Map;
+import java.util.BitSet;
 
 /**
  * Representa un estado parcial en el árbol de búsqueda del algoritmo Branch &
  * Bound.
  * Cada estado contiene:
- * - horario: asignaciones parciales de cursos a franjas horarias
- * - costo: número de conflictos acumulados hasta este estado
+ * - franjas: franja asignada a cada curso (por índice), -1 si no está asignado
+ * - pendientes: cursos que aún no tienen franja
+ * - costo: costo acumulado hasta este estado (cada conflicto por su peso más
+ *   la penalización de franjas contiguas; con los pesos por defecto, el
+ *   número de conflictos)
  * - nivel: número de cursos ya asignados
  * - cotaInferior: estimación del costo mínimo adicional necesario
+ * - cursoSiguiente: curso elegido para ramificar desde este estado, o
+ *   {@link #SIN_EVALUAR} si la cota aún es la provisional heredada del padre
+ *   (evaluación perezosa)
+ * - sumaMinimos e incrementos: si la evaluación perezosa ya calculó la cota,
+ *   lo necesario para acotar los hijos sin volver a evaluar (null si no)
+ *
+ * Como el orden de asignación es dinámico, dos estados del mismo nivel pueden
+ * haber asignado cursos distintos; por eso cada estado lleva sus pendientes.
  */
 public class EstadoSolucion implements Comparable<EstadoSolucion> {
 
-    final Map<Curso, Integer> horario;
+    /**
+     * Curso siguiente de un estado cuya cota todavía no se ha calculado.
+     */
+    static final int SIN_EVALUAR = -2;
+
+    final int[] franjas;
+    final BitSet pendientes;
     final int costo;
     final int nivel;
     final int cotaInferior;
+    final int cursoSiguiente;
+    final int sumaMinimos;
+    final int[] incrementos;
 
     /**
-     * Constructor principal con cota inferior.
+     * Constructor principal.
      */
-    public EstadoSolucion(Map<Curso, Integer> horario, int costo, int nivel, int cotaInferior) {
-        this.horario = horario;
-        this.costo = costo;
-        this.nivel = nivel;
-        this.cotaInferior = cotaInferior;
+    public EstadoSolucion(int[] franjas, BitSet pendientes, int costo, int nivel, int cotaInferior,
+            int cursoSiguiente) {
+        this(franjas, pendientes, costo, nivel, cotaInferior, cursoSiguiente, 0, null);
     }
 
     /**
-     * Constructor de compatibilidad (sin cota inferior).
+     * Estado evaluado que conserva la suma de mínimos de sus pendientes y el
+     * incremento de la cota por franja de su curso siguiente.
      */
-    public EstadoSolucion(Map<Curso, Integer> horario, int costo, int nivel) {
-        this(horario, costo, nivel, 0);
+    EstadoSolucion(int[] franjas, BitSet pendientes, int costo, int nivel, int cotaInferior,
+            int cursoSiguiente, int sumaMinimos, int[] incrementos) {
+        this.franjas = franjas;
+        this.pendientes = pendientes;
+        this.costo = costo;
+        this.nivel = nivel;
+        this.cotaInferior = cotaInferior;
+        this.cursoSiguiente = cursoSiguiente;
+        this.sumaMinimos = sumaMinimos;
+        this.incrementos = incrementos;
     }
 
     /**
      * Obtiene el costo total estimado (f = g + h).
-     * g = costo actual (conflictos acumulados)
-     * h = cota inferior (estimación de conflictos adicionales mínimos)
+     * g = costo actual (ponderado, ver arriba)
+     * h = cota inferior (estimación del costo adicional mínimo)
      */
     public int getCostoEstimado() {
         return costo + cotaInferior;
     }
 
+    /**
+     * Indica si la cota del estado ya se calculó (si no, es una cota válida
+     * pero más débil, y falta elegir el curso siguiente).
+     */
+    public boolean estaEvaluado() {
+        return cursoSiguiente != SIN_EVALUAR;
+    }
+
+    /**
+     * Indica si todos los cursos tienen franja asignada.
+     */
+    public boolean esCompleto() {
+        return pendientes.isEmpty();
+    }
+
     /**
      * Compara estados por su costo estimado (para la cola de prioridad).
      * Prioriza estados con menor costo estimado total.
@@ -62,7 +103,7 @@ public class EstadoSolucion implements Comparable<EstadoSolucion> {
 
     @Override
     public String toString() {
-        return String.format("Estado[nivel=%d, costo=%d, cotaInf=%d, estimado=%d]",
-                nivel, costo, cotaInferior, getCostoEstimado());
+        return String.format("Estado[nivel=%d, costo=%d, cotaInf=%d, estimado=%d, siguiente=%d]",
+                nivel, costo, cotaInferior, getCostoEstimado(), cursoSiguiente);
     }
 }
@@ -0,0 +1,382 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.DiccionarioInstancia;
+import com.example.examscheduler.modelo.Estudiante;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Exporta una solución en formatos estructurados (CSV o JSON) escribiendo
+ * directamente desde el horario y el grafo de conflictos, sin pasar por el
+ * texto de la interfaz.
+ *
+ * Contenido exportado:
+ * - Horario: franja de cada curso
+ * - Conflictos: cada par de cursos en la misma franja que comparte estudiantes
+ * - Choques por estudiante: franjas en las que un estudiante tiene más de un
+ * examen
+ *
+ * Todo se escribe en flujo, registro a registro, sobre un canal de archivo con
+ * búfer: nunca se construye el documento completo en memoria. El horario se
+ * traduce una vez a franjas por identificador de curso; los conflictos se
+ * obtienen recorriendo las aristas del grafo y los choques intersecando los
+ * estudiantes de los cursos en conflicto (ver {@link ChoquesPorEstudiante}),
+ * así que su costo depende de las aristas y de los estudiantes afectados.
+ */
+public class ExportadorHorario {
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /**
+     * Formatos de exportación soportados.
+     */
+    public enum Formato {
+        CSV, JSON;
+
+        /**
+         * Deduce el formato a partir de la extensión del archivo (JSON por
+         * defecto).
+         */
+        public static Formato deArchivo(Path archivo) {
+            String nombre = archivo.getFileName().toString().toLowerCase();
+            return nombre.endsWith(".csv") ? CSV : JSON;
+        }
+    }
+
+    private final List<Curso> cursos;
+    private final List<Estudiante> estudiantes;
+    private final GrafoConflictos grafoConflictos;
+    private final OptimizadorHorarios.Solucion solucion;
+
+    private IntConsumer progreso;
+    private long unidadesTotales;
+    private long unidadesHechas;
+    private int ultimoPorcentaje;
+
+    /**
+     * @param cursos          Cursos del problema
+     * @param estudiantes     Estudiantes con sus inscripciones
+     * @param grafoConflictos Grafo de conflictos del problema
+     * @param solucion        Solución a exportar (con horario)
+     */
+    public ExportadorHorario(List<Curso> cursos, List<Estudiante> estudiantes,
+            GrafoConflictos grafoConflictos, OptimizadorHorarios.Solucion solucion) {
+        this.cursos = cursos;
+        this.estudiantes = estudiantes;
+        this.grafoConflictos = grafoConflictos;
+        this.solucion = solucion;
+    }
+
+    /**
+     * Exporta la solución.
+     *
+     * En JSON se escribe un único documento. En CSV cada sección va en su
+     * propio archivo: el horario en el archivo indicado, y los conflictos y
+     * los choques por estudiante en archivos hermanos con los sufijos
+     * "-conflictos" y "-estudiantes".
+     *
+     * @param destino  Archivo de destino
+     * @param formato  Formato de exportación
+     * @param progreso Recibe el porcentaje completado (0-100) cada vez que
+     *                 cambia; puede llamarse desde cualquier hilo
+     * @return Los archivos escritos
+     */
+    public List<Path> exportar(Path destino, Formato formato, IntConsumer progreso) throws IOException {
+        iniciarProgreso(progreso);
+
+        List<Path> archivos = new ArrayList<>();
+        if (formato == Formato.JSON) {
+            try (Writer salida = abrir(destino)) {
+                escribirJson(salida);
+            }
+            archivos.add(destino);
+        } else {
+            Path conflictos = archivoHermano(destino, "-conflictos");
+            Path choques = archivoHermano(destino, "-estudiantes");
+            try (Writer salida = abrir(destino)) {
+                escribirHorarioCsv(salida);
+            }
+            try (Writer salida = abrir(conflictos)) {
+                escribirConflictosCsv(salida);
+            }
+            try (Writer salida = abrir(choques)) {
+                escribirChoquesCsv(salida);
+            }
+            archivos.add(destino);
+            archivos.add(conflictos);
+            archivos.add(choques);
+        }
+        return archivos;
+    }
+
+    /**
+     * Escribe la solución en JSON sobre una salida ya abierta (por ejemplo,
+     * el cuerpo de una respuesta HTTP). No cierra la salida.
+     */
+    public void exportarJson(Writer salida) throws IOException {
+        iniciarProgreso(porcentaje -> {
+        });
+        escribirJson(salida);
+        salida.flush();
+    }
+
+    private void iniciarProgreso(IntConsumer progreso) {
+        this.progreso = progreso;
+        this.unidadesTotales = Math.max(1L,
+                cursos.size() + grafoConflictos.obtenerNumeroDeAristas() + estudiantes.size());
+        this.unidadesHechas = 0;
+        this.ultimoPorcentaje = -1;
+        avanzar(0);
+    }
+
+    // ==================== CSV ====================
+
+    private void escribirHorarioCsv(Writer salida) throws IOException {
+        salida.write("curso,nombre,franja\n");
+        recorrerHorario((curso, franja) -> {
+            salida.write(csv(curso.id()));
+            salida.write(',');
+            salida.write(csv(curso.nombre()));
+            salida.write(',');
+            salida.write(franja != null ? Integer.toString(franja + 1) : "");
+            salida.write('\n');
+        });
+    }
+
+    private void escribirConflictosCsv(Writer salida) throws IOException {
+        salida.write("franja,curso1,curso2,estudiantes\n");
+        recorrerConflictos((franja, c1, c2, peso) -> {
+            salida.write(Integer.toString(franja + 1));
+            salida.write(',');
+            salida.write(csv(c1.id()));
+            salida.write(',');
+            salida.write(csv(c2.id()));
+            salida.write(',');
+            salida.write(Integer.toString(peso));
+            salida.write('\n');
+        });
+    }
+
+    private void escribirChoquesCsv(Writer salida) throws IOException {
+        salida.write("estudiante,franja,cursos\n");
+        recorrerChoques((estudiante, franja, cursosEnFranja) -> {
+            salida.write(csv(estudiante.id()));
+            salida.write(',');
+            salida.write(Integer.toString(franja + 1));
+            salida.write(',');
+            StringBuilder ids = new StringBuilder();
+            for (Curso curso : cursosEnFranja) {
+                if (ids.length() > 0) {
+                    ids.append(';');
+                }
+                ids.append(curso.id());
+            }
+            salida.write(csv(ids.toString()));
+            salida.write('\n');
+        });
+    }
+
+    // ==================== JSON ====================
+
+    private void escribirJson(Writer salida) throws IOException {
+        salida.write("{\n  \"conflictos\": ");
+        salida.write(Integer.toString(solucion.conflictos()));
+
+        salida.write(",\n  \"horario\": [");
+        boolean[] primero = { true };
+        recorrerHorario((curso, franja) -> {
+            salida.write(primero[0] ? "\n    " : ",\n    ");
+            primero[0] = false;
+            salida.write("{\"curso\": ");
+            salida.write(json(curso.id()));
+            salida.write(", \"nombre\": ");
+            salida.write(json(curso.nombre()));
+            salida.write(", \"franja\": ");
+            salida.write(franja != null ? Integer.toString(franja + 1) : "null");
+            salida.write('}');
+        });
+
+        salida.write("\n  ],\n  \"paresEnConflicto\": [");
+        primero[0] = true;
+        recorrerConflictos((franja, c1, c2, peso) -> {
+            salida.write(primero[0] ? "\n    " : ",\n    ");
+            primero[0] = false;
+            salida.write("{\"franja\": ");
+            salida.write(Integer.toString(franja + 1));
+            salida.write(", \"curso1\": ");
+            salida.write(json(c1.id()));
+            salida.write(", \"curso2\": ");
+            salida.write(json(c2.id()));
+            salida.write(", \"estudiantes\": ");
+            salida.write(Integer.toString(peso));
+            salida.write('}');
+        });
+
+        salida.write("\n  ],\n  \"choquesPorEstudiante\": [");
+        primero[0] = true;
+        recorrerChoques((estudiante, franja, cursosEnFranja) -> {
+            salida.write(primero[0] ? "\n    " : ",\n    ");
+            primero[0] = false;
+            salida.write("{\"estudiante\": ");
+            salida.write(json(estudiante.id()));
+            salida.write(", \"franja\": ");
+            salida.write(Integer.toString(franja + 1));
+            salida.write(", \"cursos\": [");
+            for (int i = 0; i < cursosEnFranja.size(); i++) {
+                if (i > 0) {
+                    salida.write(", ");
+                }
+                salida.write(json(cursosEnFranja.get(i).id()));
+            }
+            salida.write("]}");
+        });
+        salida.write("\n  ]\n}\n");
+    }
+
+    // ==================== Recorridos ====================
+
+    /**
+     * Recorre los cursos en el orden del problema con su franja.
+     */
+    private void recorrerHorario(VisitanteHorario visitante) throws IOException {
+        Map<Curso, Integer> horario = solucion.horario();
+        for (Curso curso : cursos) {
+            visitante.visitar(curso, horario.get(curso));
+            avanzar(1);
+        }
+    }
+
+    private int[] franjasPorId() {
+        return grafoConflictos.franjasPorId(solucion.horario());
+    }
+
+    /**
+     * Recorre las aristas del grafo cuyos extremos comparten franja.
+     */
+    private void recorrerConflictos(VisitanteConflicto visitante) throws IOException {
+        DiccionarioInstancia diccionario = grafoConflictos.obtenerDiccionario();
+        int[] franjas = franjasPorId();
+        for (int a = 0; a < franjas.length; a++) {
+            int[] vecinos = grafoConflictos.vecinos(a);
+            int[] pesos = grafoConflictos.pesos(a);
+            for (int j = 0; j < vecinos.length; j++) {
+                int b = vecinos[j];
+                if (b <= a) {
+                    continue;
+                }
+                if (franjas[a] >= 0 && franjas[a] == franjas[b]) {
+                    visitante.visitar(franjas[a], diccionario.curso(a), diccionario.curso(b), pesos[j]);
+                }
+                avanzar(1);
+            }
+        }
+    }
+
+    /**
+     * Recorre, para cada estudiante, las franjas en las que tiene dos o más
+     * exámenes (ver {@link ChoquesPorEstudiante}).
+     */
+    private void recorrerChoques(VisitanteChoque visitante) throws IOException {
+        ChoquesPorEstudiante choques = new ChoquesPorEstudiante(grafoConflictos, franjasPorId());
+        int estudiantesRecorridos = 0;
+        for (int i = 0; i < choques.numeroChoques(); i++) {
+            ChoquesPorEstudiante.Choque choque = choques.choque(i);
+            visitante.visitar(choque.estudiante(), choque.franja(), choque.cursos());
+            avanzar(choques.estudiante(i) - estudiantesRecorridos);
+            estudiantesRecorridos = choques.estudiante(i);
+        }
+        avanzar(estudiantes.size() - estudiantesRecorridos);
+    }
+
+    @FunctionalInterface
+    private interface VisitanteHorario {
+        void visitar(Curso curso, Integer franja) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface VisitanteConflicto {
+        void visitar(int franja, Curso curso1, Curso curso2, int peso) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface VisitanteChoque {
+        void visitar(Estudiante estudiante, int franja, List<Curso> cursos) throws IOException;
+    }
+
+    // ==================== Utilidades ====================
+
+    private static Writer abrir(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8), TAMANO_BUFFER);
+    }
+
+    private static Path archivoHermano(Path archivo, String sufijo) {
+        String nombre = archivo.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        String base = punto > 0 ? nombre.substring(0, punto) : nombre;
+        String extension = punto > 0 ? nombre.substring(punto) : ".csv";
+        return archivo.resolveSibling(base + sufijo + extension);
+    }
+
+    /**
+     * Notifica el progreso solo cuando cambia el porcentaje entero.
+     */
+    private void avanzar(int unidades) {
+        unidadesHechas += unidades;
+        int porcentaje = (int) (100 * Math.min(unidadesHechas, unidadesTotales) / unidadesTotales);
+        if (porcentaje != ultimoPorcentaje) {
+            ultimoPorcentaje = porcentaje;
+            progreso.accept(porcentaje);
+        }
+    }
+
+    /**
+     * Escapa un campo CSV (RFC 4180) solo cuando hace falta.
+     */
+    private static String csv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Convierte un texto en una cadena JSON entre comillas.
+     */
+    private static String json(String valor) {
+        StringBuilder sb = new StringBuilder(valor.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.examscheduler.solucionador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Frontera de la búsqueda best-first organizada en cubetas de dos niveles:
+ * primero por costo estimado (f = g + h) y, dentro de cada costo, por nivel.
+ *
+ * Sigue el mismo orden que {@link EstadoSolucion#compareTo}: menor costo
+ * estimado primero y, a igual costo, el estado más profundo. Como ambos son
+ * enteros pequeños y acotados, insertar es O(1) y extraer el mínimo es O(1)
+ * amortizado (los cursores solo retroceden al insertar por debajo de ellos),
+ * sin comparaciones entre objetos. Los estados con el mismo costo y nivel
+ * salen en orden LIFO.
+ *
+ * Cuando mejora el incumbente, {@link #descartarDesde(int)} elimina de una
+ * vez todas las cubetas con costo estimado mayor o igual a la nueva cota, en
+ * lugar de ir extrayendo y descartando los estados podados uno por uno.
+ *
+ * La clave del primer nivel puede ser otra prioridad entera no negativa (por
+ * ejemplo, una estimación del costo final); en ese caso no hay que usar
+ * {@link #descartarDesde(int)}, porque la clave ya no es la cota del estado.
+ *
+ * Las cubetas guardan índices enteros; los estados viven en un
+ * {@link AlmacenEstados}, como objetos o empaquetados fuera del montón.
+ */
+final class FronteraCubetas {
+
+    private final int nivelMaximo;
+    private final ToIntFunction<EstadoSolucion> prioridad;
+    private final AlmacenEstados almacen;
+
+    /** Cubetas por costo estimado; cada una, pilas de índices por nivel (null si vacía). */
+    private Pila[][] cubetas = new Pila[16][];
+    /** Número de estados por costo estimado. */
+    private int[] cantidades = new int[16];
+    /** Nivel más profundo que puede tener estados en cada costo. */
+    private int[] nivelesSuperiores = new int[16];
+
+    /** Costo más bajo que puede tener estados. */
+    private int costoMinimo = 0;
+    /** Un costo mayor que el de cualquier estado de la frontera. */
+    private int costoLimite = 0;
+    private int tamano = 0;
+
+    /**
+     * @param nivelMaximo Nivel más profundo posible (número de cursos del
+     *                    grafo de búsqueda)
+     */
+    FronteraCubetas(int nivelMaximo) {
+        this(nivelMaximo, EstadoSolucion::getCostoEstimado, new AlmacenEstadosObjetos());
+    }
+
+    /**
+     * @param nivelMaximo Nivel más profundo posible
+     * @param prioridad   Clave del primer nivel (menor sale antes), que se
+     *                    calcula una vez al agregar cada estado
+     * @param almacen     Dónde se guardan los estados
+     */
+    FronteraCubetas(int nivelMaximo, ToIntFunction<EstadoSolucion> prioridad, AlmacenEstados almacen) {
+        this.nivelMaximo = nivelMaximo;
+        this.prioridad = prioridad;
+        this.almacen = almacen;
+    }
+
+    /**
+     * Agrega un estado a la cubeta de su costo estimado (o prioridad) y nivel.
+     */
+    void agregar(EstadoSolucion estado) {
+        int costo = prioridad.applyAsInt(estado);
+        int nivel = estado.nivel;
+        if (costo >= cubetas.length) {
+            int capacidad = Math.max(costo + 1, cubetas.length * 2);
+            cubetas = Arrays.copyOf(cubetas, capacidad);
+            cantidades = Arrays.copyOf(cantidades, capacidad);
+            nivelesSuperiores = Arrays.copyOf(nivelesSuperiores, capacidad);
+        }
+        Pila[] porNivel = cubetas[costo];
+        if (porNivel == null) {
+            porNivel = new Pila[nivelMaximo + 1];
+            cubetas[costo] = porNivel;
+        }
+        Pila pila = porNivel[nivel];
+        if (pila == null) {
+            pila = new Pila();
+            porNivel[nivel] = pila;
+        }
+        pila.apilar(almacen.guardar(estado));
+
+        if (cantidades[costo]++ == 0 || nivel > nivelesSuperiores[costo]) {
+            nivelesSuperiores[costo] = nivel;
+        }
+        if (tamano++ == 0 || costo < costoMinimo) {
+            costoMinimo = costo;
+        }
+        costoLimite = Math.max(costoLimite, costo + 1);
+    }
+
+    /**
+     * Agrega varios estados.
+     */
+    void agregarTodos(Collection<EstadoSolucion> estados) {
+        for (EstadoSolucion estado : estados) {
+            agregar(estado);
+        }
+    }
+
+    /**
+     * Extrae el estado de menor costo estimado (y, a igual costo, el más
+     * profundo), o null si la frontera está vacía.
+     */
+    EstadoSolucion extraer() {
+        if (tamano == 0) {
+            return null;
+        }
+        int costo = buscarCostoMinimo();
+        Pila[] porNivel = cubetas[costo];
+        int nivel = buscarNivelSuperior(costo);
+        int indice = porNivel[nivel].desapilar();
+        EstadoSolucion estado = almacen.leer(indice);
+        almacen.liberar(indice);
+        cantidades[costo]--;
+        tamano--;
+        return estado;
+    }
+
+    /**
+     * Obtiene, sin extraerlo, el estado que devolvería {@link #extraer()}.
+     */
+    EstadoSolucion consultar() {
+        if (tamano == 0) {
+            return null;
+        }
+        int costo = buscarCostoMinimo();
+        return almacen.leer(cubetas[costo][buscarNivelSuperior(costo)].cima());
+    }
+
+    /**
+     * Elimina todos los estados con costo estimado mayor o igual a una cota.
+     *
+     * @return El número de estados eliminados
+     */
+    int descartarDesde(int cota) {
+        int desde = Math.max(cota, 0);
+        int descartados = 0;
+        for (int costo = desde; costo < costoLimite; costo++) {
+            if (cantidades[costo] > 0) {
+                descartados += cantidades[costo];
+                cantidades[costo] = 0;
+                for (Pila pila : cubetas[costo]) {
+                    for (int i = pila == null ? 0 : pila.tamano; i > 0; i--) {
+                        almacen.liberar(pila.elementos[i - 1]);
+                    }
+                }
+                // Se suelta la cubeta entera: sus pilas no se reutilizan.
+                cubetas[costo] = null;
+            }
+        }
+        costoLimite = Math.min(costoLimite, desde);
+        tamano -= descartados;
+        return descartados;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    /**
+     * Copia las referencias a todos los estados (para los puntos de
+     * control), en orden de extracción.
+     */
+    List<EstadoSolucion> aLista() {
+        List<EstadoSolucion> estados = new ArrayList<>(tamano);
+        for (int costo = costoMinimo; costo < costoLimite; costo++) {
+            Pila[] porNivel = cubetas[costo];
+            if (cantidades[costo] == 0) {
+                continue;
+            }
+            for (int nivel = nivelesSuperiores[costo]; nivel >= 0; nivel--) {
+                Pila pila = porNivel[nivel];
+                for (int i = pila == null ? -1 : pila.tamano - 1; i >= 0; i--) {
+                    estados.add(almacen.leer(pila.elementos[i]));
+                }
+            }
+        }
+        return estados;
+    }
+
+    private int buscarCostoMinimo() {
+        while (cantidades[costoMinimo] == 0) {
+            costoMinimo++;
+        }
+        return costoMinimo;
+    }
+
+    private int buscarNivelSuperior(int costo) {
+        Pila[] porNivel = cubetas[costo];
+        int nivel = nivelesSuperiores[costo];
+        while (porNivel[nivel] == null || porNivel[nivel].tamano == 0) {
+            nivel--;
+        }
+        nivelesSuperiores[costo] = nivel;
+        return nivel;
+    }
+
+    /**
+     * Pila de índices de estados con el mismo costo estimado y nivel.
+     */
+    private static final class Pila {
+
+        private int[] elementos = new int[4];
+        private int tamano;
+
+        void apilar(int indice) {
+            if (tamano == elementos.length) {
+                elementos = Arrays.copyOf(elementos, tamano * 2);
+            }
+            elementos[tamano++] = indice;
+        }
+
+        int desapilar() {
+            return elementos[--tamano];
+        }
+
+        int cima() {
+            return elementos[tamano - 1];
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.DiccionarioInstancia;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vista indexada e inmutable del grafo de conflictos.
+ *
+ * Cada curso recibe un índice denso (0..n-1) y sus conflictos se guardan en
+ * listas de adyacencia con arreglos primitivos:
+ * - vecinos[i]: índices de los cursos en conflicto con el curso i
+ * - pesos[i]: número de estudiantes compartidos con cada vecino
+ *
+ * Los motores de búsqueda trabajan sobre esta vista, reordenada según el
+ * orden de ramificación, en lugar de sobre los identificadores del
+ * diccionario.
+ */
+public final class GrafoCompacto {
+
+    private final Curso[] cursos;
+    private final Map<Curso, Integer> indices;
+    private final int[][] vecinos;
+    private final int[][] pesos;
+    private final int[] pesosTotales;
+
+    /**
+     * Construye la vista indexada respetando el orden de cursos indicado.
+     *
+     * @param grafoConflictos Grafo de conflictos original
+     * @param orden           Cursos en el orden en que recibirán sus índices
+     */
+    public GrafoCompacto(GrafoConflictos grafoConflictos, List<Curso> orden) {
+        this.cursos = orden.toArray(new Curso[0]);
+        this.indices = new HashMap<>();
+        for (int i = 0; i < cursos.length; i++) {
+            indices.put(cursos[i], i);
+        }
+
+        // Traducción de identificador del diccionario a índice de esta vista.
+        DiccionarioInstancia diccionario = grafoConflictos.obtenerDiccionario();
+        int[] indicePorId = new int[diccionario.numeroCursos()];
+        Arrays.fill(indicePorId, -1);
+        int[] idPorIndice = new int[cursos.length];
+        for (int i = 0; i < cursos.length; i++) {
+            idPorIndice[i] = diccionario.idCurso(cursos[i]);
+            if (idPorIndice[i] >= 0) {
+                indicePorId[idPorIndice[i]] = i;
+            }
+        }
+
+        this.vecinos = new int[cursos.length][];
+        this.pesos = new int[cursos.length][];
+        for (int i = 0; i < cursos.length; i++) {
+            if (idPorIndice[i] < 0) {
+                vecinos[i] = new int[0];
+                pesos[i] = new int[0];
+                continue;
+            }
+            int[] vecinosId = grafoConflictos.vecinos(idPorIndice[i]);
+            int[] pesosId = grafoConflictos.pesos(idPorIndice[i]);
+            int[] v = new int[vecinosId.length];
+            int[] w = new int[v.length];
+            int cantidad = 0;
+            for (int j = 0; j < vecinosId.length; j++) {
+                int indice = indicePorId[vecinosId[j]];
+                if (indice >= 0) {
+                    v[cantidad] = indice;
+                    w[cantidad] = pesosId[j];
+                    cantidad++;
+                }
+            }
+            vecinos[i] = cantidad == v.length ? v : Arrays.copyOf(v, cantidad);
+            pesos[i] = cantidad == w.length ? w : Arrays.copyOf(w, cantidad);
+        }
+        this.pesosTotales = sumarPesos(pesos);
+    }
+
+    /**
+     * Construye la vista a partir de listas de adyacencia ya calculadas.
+     * Los arreglos se adoptan sin copiarse.
+     */
+    GrafoCompacto(Curso[] cursos, int[][] vecinos, int[][] pesos) {
+        this.cursos = cursos;
+        this.vecinos = vecinos;
+        this.pesos = pesos;
+        this.pesosTotales = sumarPesos(pesos);
+        this.indices = new HashMap<>();
+        for (int i = 0; i < cursos.length; i++) {
+            indices.put(cursos[i], i);
+        }
+    }
+
+    private static int[] sumarPesos(int[][] pesos) {
+        int[] totales = new int[pesos.length];
+        for (int i = 0; i < pesos.length; i++) {
+            for (int peso : pesos[i]) {
+                totales[i] += peso;
+            }
+        }
+        return totales;
+    }
+
+    /**
+     * Obtiene el número de cursos (vértices).
+     */
+    public int tamano() {
+        return cursos.length;
+    }
+
+    /**
+     * Obtiene el curso asociado a un índice.
+     */
+    public Curso curso(int indice) {
+        return cursos[indice];
+    }
+
+    /**
+     * Obtiene el índice de un curso, o -1 si no pertenece a la vista.
+     */
+    public int indiceDe(Curso curso) {
+        Integer indice = indices.get(curso);
+        return indice != null ? indice : -1;
+    }
+
+    /**
+     * Obtiene los índices de los cursos en conflicto con el curso dado.
+     * El arreglo no debe modificarse.
+     */
+    public int[] vecinos(int indice) {
+        return vecinos[indice];
+    }
+
+    /**
+     * Obtiene los pesos de conflicto alineados con {@link #vecinos(int)}.
+     * El arreglo no debe modificarse.
+     */
+    public int[] pesos(int indice) {
+        return pesos[indice];
+    }
+
+    /**
+     * Obtiene el grado (número de cursos en conflicto) de un curso.
+     */
+    public int grado(int indice) {
+        return vecinos[indice].length;
+    }
+
+    /**
+     * Obtiene la suma de pesos de conflicto de un curso.
+     */
+    public int pesoTotal(int indice) {
+        return pesosTotales[indice];
+    }
+
+    /**
+     * Obtiene el menor peso de arista del grafo, o 0 si no hay aristas.
+     */
+    public int pesoMinimo() {
+        int minimo = Integer.MAX_VALUE;
+        for (int[] fila : pesos) {
+            for (int peso : fila) {
+                minimo = Math.min(minimo, peso);
+            }
+        }
+        return minimo == Integer.MAX_VALUE ? 0 : minimo;
+    }
+}
@@ -1,97 +1,359 @@
 package com.example.examscheduler.solucionador;
 
 import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.DiccionarioInstancia;
 import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.modelo.IndiceInscripciones;
+import com.example.examscheduler.modelo.InscripcionesCompactas;
+import com.example.examscheduler.modelo.PatronesInscripcion;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Representa el grafo de conflictos entre cursos.
- * 
+ *
  * En este grafo:
  * - Cada vértice representa un curso
  * - Cada arista representa un conflicto potencial entre dos cursos
  * - El peso de cada arista indica el número de estudiantes inscritos en ambos
  * cursos
- * 
+ *
  * Si dos cursos tienen una arista entre ellos, programarlos en la misma
  * franja horaria causará conflictos para los estudiantes que tienen ambos.
+ *
+ * El grafo se guarda por identificador de curso (ver
+ * {@link DiccionarioInstancia}) en listas de adyacencia ordenadas, y se
+ * construye a partir de las {@link InscripcionesCompactas} sin tocar objetos.
+ * La versión JGraphT, que usa la interfaz para dibujarlo, y el índice de
+ * estudiantes por curso, que usan los informes de choques, se crean solo si
+ * se piden, una única vez por grafo.
  */
 public class GrafoConflictos {
 
-    private final Graph<Curso, DefaultWeightedEdge> grafo;
+    private final DiccionarioInstancia diccionario;
+    private final InscripcionesCompactas inscripciones;
+    private final int[][] vecinos;
+    private final int[][] pesos;
+    private final int numeroAristas;
+    private Graph<Curso, DefaultWeightedEdge> grafo;
+    private IndiceInscripciones indice;
+    private int[] rangos;
 
     /**
      * Construye el grafo de conflictos a partir de la lista de cursos y
      * estudiantes.
-     * 
+     *
      * @param cursos      Lista de cursos
      * @param estudiantes Lista de estudiantes con sus inscripciones
      */
     public GrafoConflictos(List<Curso> cursos, List<Estudiante> estudiantes) {
-        this.grafo = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
-        construir(cursos, estudiantes);
+        this(new DiccionarioInstancia(cursos, estudiantes));
     }
 
     /**
-     * Construye el grafo añadiendo vértices (cursos) y aristas (conflictos).
+     * Construye el grafo de conflictos de una instancia ya indexada.
      */
-    private void construir(List<Curso> cursos, List<Estudiante> estudiantes) {
-        for (Curso curso : cursos) {
-            grafo.addVertex(curso);
-        }
+    public GrafoConflictos(DiccionarioInstancia diccionario) {
+        this.diccionario = diccionario;
+        this.inscripciones = new InscripcionesCompactas(diccionario);
+        int n = diccionario.numeroCursos();
+        this.vecinos = new int[n][];
+        this.pesos = new int[n][];
+        this.numeroAristas = construir();
+    }
 
-        for (Estudiante estudiante : estudiantes) {
-            List<Curso> cursosDelEstudiante = estudiante.cursos().stream()
-                    .filter(grafo::containsVertex)
-                    .collect(Collectors.toList());
+    /**
+     * Construye las listas de adyacencia.
+     *
+     * Primero se agrupan los estudiantes con el mismo conjunto de cursos (ver
+     * {@link PatronesInscripcion}) y se invierten los patrones (patrones de
+     * cada curso). Luego, para cada curso a, se acumula en un arreglo denso el
+     * número de estudiantes de los patrones que comparte con cada curso b > a,
+     * y finalmente cada arista se copia en la lista de ambos extremos. El
+     * tiempo es proporcional a la suma de los cuadrados de las cargas de los
+     * patrones distintos, no de los estudiantes, y no usa tablas hash de
+     * objetos.
+     *
+     * @return El número de aristas
+     */
+    private int construir() {
+        int n = diccionario.numeroCursos();
+        PatronesInscripcion patrones = new PatronesInscripcion(inscripciones);
+        int numeroPatrones = patrones.numeroPatrones();
 
-            for (int i = 0; i < cursosDelEstudiante.size(); i++) {
-                for (int j = i + 1; j < cursosDelEstudiante.size(); j++) {
-                    Curso c1 = cursosDelEstudiante.get(i);
-                    Curso c2 = cursosDelEstudiante.get(j);
+        int[] iniciosCurso = new int[n + 1];
+        for (int p = 0; p < numeroPatrones; p++) {
+            for (int posicion = patrones.inicio(p); posicion < patrones.fin(p); posicion++) {
+                iniciosCurso[patrones.curso(posicion) + 1]++;
+            }
+        }
+        for (int c = 0; c < n; c++) {
+            iniciosCurso[c + 1] += iniciosCurso[c];
+        }
+        int[] patronesPorCurso = new int[iniciosCurso[n]];
+        int[] siguiente = Arrays.copyOf(iniciosCurso, n);
+        for (int p = 0; p < numeroPatrones; p++) {
+            for (int posicion = patrones.inicio(p); posicion < patrones.fin(p); posicion++) {
+                patronesPorCurso[siguiente[patrones.curso(posicion)]++] = p;
+            }
+        }
 
-                    DefaultWeightedEdge arista = grafo.getEdge(c1, c2);
-                    if (arista == null) {
-                        arista = grafo.addEdge(c1, c2);
-                        grafo.setEdgeWeight(arista, 1);
-                    } else {
-                        double pesoActual = grafo.getEdgeWeight(arista);
-                        grafo.setEdgeWeight(arista, pesoActual + 1);
+        int[][] superiores = new int[n][];
+        int[][] pesosSuperiores = new int[n][];
+        int[] grados = new int[n];
+        int[] acumulado = new int[n];
+        int[] tocados = new int[n];
+        int aristas = 0;
+        for (int a = 0; a < n; a++) {
+            int cantidad = 0;
+            for (int i = iniciosCurso[a]; i < iniciosCurso[a + 1]; i++) {
+                int p = patronesPorCurso[i];
+                int estudiantes = patrones.cantidad(p);
+                for (int posicion = patrones.fin(p) - 1; posicion >= patrones.inicio(p); posicion--) {
+                    int b = patrones.curso(posicion);
+                    if (b <= a) {
+                        break;
+                    }
+                    if (acumulado[b] == 0) {
+                        tocados[cantidad++] = b;
                     }
+                    acumulado[b] += estudiantes;
                 }
             }
+            Arrays.sort(tocados, 0, cantidad);
+            superiores[a] = Arrays.copyOf(tocados, cantidad);
+            pesosSuperiores[a] = new int[cantidad];
+            for (int j = 0; j < cantidad; j++) {
+                int b = tocados[j];
+                pesosSuperiores[a][j] = acumulado[b];
+                acumulado[b] = 0;
+                grados[b]++;
+            }
+            grados[a] += cantidad;
+            aristas += cantidad;
+        }
+
+        // Vecinos menores (en orden creciente al recorrer a) y después mayores.
+        int[] llenos = new int[n];
+        for (int c = 0; c < n; c++) {
+            vecinos[c] = new int[grados[c]];
+            pesos[c] = new int[grados[c]];
+        }
+        for (int a = 0; a < n; a++) {
+            for (int j = 0; j < superiores[a].length; j++) {
+                int b = superiores[a][j];
+                vecinos[b][llenos[b]] = a;
+                pesos[b][llenos[b]++] = pesosSuperiores[a][j];
+            }
+        }
+        for (int a = 0; a < n; a++) {
+            System.arraycopy(superiores[a], 0, vecinos[a], llenos[a], superiores[a].length);
+            System.arraycopy(pesosSuperiores[a], 0, pesos[a], llenos[a], superiores[a].length);
+        }
+        return aristas;
+    }
+
+    /**
+     * Obtiene el diccionario de cursos y estudiantes del grafo.
+     */
+    public DiccionarioInstancia obtenerDiccionario() {
+        return diccionario;
+    }
+
+    /**
+     * Obtiene las inscripciones por identificador de curso.
+     */
+    public InscripcionesCompactas obtenerInscripciones() {
+        return inscripciones;
+    }
+
+    /**
+     * Obtiene el índice de estudiantes por curso. Se construye la primera vez
+     * que se pide.
+     */
+    public synchronized IndiceInscripciones obtenerIndiceInscripciones() {
+        if (indice == null) {
+            indice = new IndiceInscripciones(inscripciones, diccionario.numeroCursos());
         }
+        return indice;
+    }
+
+    /**
+     * Obtiene los identificadores de los cursos en conflicto con un curso, en
+     * orden creciente. El arreglo no debe modificarse.
+     */
+    public int[] vecinos(int curso) {
+        return vecinos[curso];
+    }
+
+    /**
+     * Obtiene los pesos de conflicto alineados con {@link #vecinos(int)}. El
+     * arreglo no debe modificarse.
+     */
+    public int[] pesos(int curso) {
+        return pesos[curso];
     }
 
     /**
-     * Obtiene el grafo JGraphT subyacente.
+     * Obtiene el peso de la arista entre dos cursos por identificador, o 0 si
+     * no hay conflicto.
      */
-    public Graph<Curso, DefaultWeightedEdge> obtenerGrafo() {
+    public int peso(int curso1, int curso2) {
+        int posicion = Arrays.binarySearch(vecinos[curso1], curso2);
+        return posicion >= 0 ? pesos[curso1][posicion] : 0;
+    }
+
+    /**
+     * Traduce un horario a la franja de cada curso por identificador (-1 si
+     * no tiene).
+     */
+    public int[] franjasPorId(Map<Curso, Integer> horario) {
+        int[] franjas = new int[diccionario.numeroCursos()];
+        for (int c = 0; c < franjas.length; c++) {
+            Integer franja = horario.get(diccionario.curso(c));
+            franjas[c] = franja != null ? franja : -1;
+        }
+        return franjas;
+    }
+
+    /**
+     * Obtiene los pares de cursos en conflicto que un horario pone en la
+     * misma franja, en su orden natural.
+     *
+     * Recorre cada arista una vez y se queda con las que tienen ambos
+     * extremos en la misma franja, así que el costo es lineal en el número de
+     * aristas y no depende de cuántos cursos comparten franja. Los pares se
+     * ordenan como claves enteras (franja y posición de cada curso en el
+     * orden de códigos), sin comparar textos.
+     *
+     * @param franjasPorId Franja de cada curso por identificador (-1 si no
+     *                     tiene), ver {@link #franjasPorId(Map)}
+     */
+    public List<ConflictoHorario> conflictosEnHorario(int[] franjasPorId) {
+        int[] rangos = rangosPorCodigo();
+        int numeroFranjas = 0;
+        int cantidad = 0;
+        for (int a = 0; a < vecinos.length; a++) {
+            int franja = franjasPorId[a];
+            for (int j = vecinos[a].length - 1; franja >= 0 && j >= 0 && vecinos[a][j] > a; j--) {
+                if (franjasPorId[vecinos[a][j]] == franja) {
+                    numeroFranjas = Math.max(numeroFranjas, franja + 1);
+                    cantidad++;
+                }
+            }
+        }
+
+        // Cada par se guarda como (rango menor, rango mayor) en un long, en
+        // el tramo de su franja; al ordenar cada tramo queda en orden natural.
+        int[] iniciosFranja = new int[numeroFranjas + 1];
+        long[] claves = new long[cantidad];
+        int[] franjas = new int[cantidad];
+        int posicion = 0;
+        for (int a = 0; a < vecinos.length; a++) {
+            int franja = franjasPorId[a];
+            for (int j = vecinos[a].length - 1; franja >= 0 && j >= 0 && vecinos[a][j] > a; j--) {
+                int b = vecinos[a][j];
+                if (franjasPorId[b] == franja) {
+                    int menor = Math.min(rangos[a], rangos[b]);
+                    int mayor = Math.max(rangos[a], rangos[b]);
+                    claves[posicion] = ((long) menor << 32) | mayor;
+                    franjas[posicion++] = franja;
+                    iniciosFranja[franja + 1]++;
+                }
+            }
+        }
+        for (int f = 0; f < numeroFranjas; f++) {
+            iniciosFranja[f + 1] += iniciosFranja[f];
+        }
+        long[] ordenadas = new long[cantidad];
+        int[] siguiente = Arrays.copyOf(iniciosFranja, numeroFranjas);
+        for (int i = 0; i < cantidad; i++) {
+            ordenadas[siguiente[franjas[i]]++] = claves[i];
+        }
+
+        int[] idPorRango = new int[rangos.length];
+        for (int c = 0; c < rangos.length; c++) {
+            idPorRango[rangos[c]] = c;
+        }
+        List<ConflictoHorario> conflictos = new ArrayList<>(cantidad);
+        for (int f = 0; f < numeroFranjas; f++) {
+            Arrays.sort(ordenadas, iniciosFranja[f], iniciosFranja[f + 1]);
+            for (int i = iniciosFranja[f]; i < iniciosFranja[f + 1]; i++) {
+                int id1 = idPorRango[(int) (ordenadas[i] >>> 32)];
+                int id2 = idPorRango[(int) ordenadas[i]];
+                conflictos.add(new ConflictoHorario(f, diccionario.curso(id1), diccionario.curso(id2),
+                        peso(id1, id2)));
+            }
+        }
+        return conflictos;
+    }
+
+    /**
+     * Obtiene la posición de cada curso (por identificador) en el orden de
+     * sus códigos. Se calcula la primera vez que se pide.
+     */
+    private synchronized int[] rangosPorCodigo() {
+        if (rangos == null) {
+            int n = diccionario.numeroCursos();
+            Integer[] orden = new Integer[n];
+            for (int c = 0; c < n; c++) {
+                orden[c] = c;
+            }
+            Arrays.sort(orden, Comparator.comparing(c -> diccionario.curso(c).id()));
+            int[] nuevos = new int[n];
+            for (int r = 0; r < n; r++) {
+                nuevos[orden[r]] = r;
+            }
+            rangos = nuevos;
+        }
+        return rangos;
+    }
+
+    /**
+     * Obtiene el grafo JGraphT equivalente (para dibujarlo). Se construye la
+     * primera vez que se pide.
+     */
+    public synchronized Graph<Curso, DefaultWeightedEdge> obtenerGrafo() {
+        if (grafo == null) {
+            Graph<Curso, DefaultWeightedEdge> nuevo = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+            for (int c = 0; c < diccionario.numeroCursos(); c++) {
+                nuevo.addVertex(diccionario.curso(c));
+            }
+            for (int a = 0; a < vecinos.length; a++) {
+                for (int j = 0; j < vecinos[a].length; j++) {
+                    int b = vecinos[a][j];
+                    if (b > a) {
+                        DefaultWeightedEdge arista = nuevo.addEdge(diccionario.curso(a), diccionario.curso(b));
+                        nuevo.setEdgeWeight(arista, pesos[a][j]);
+                    }
+                }
+            }
+            grafo = nuevo;
+        }
         return grafo;
     }
 
     /**
      * Obtiene el número de conflictos (estudiantes compartidos) entre dos cursos.
-     * 
+     *
      * @return Número de estudiantes que tienen ambos cursos, o 0 si no hay
      *         conflicto
      */
     public int obtenerConflictos(Curso curso1, Curso curso2) {
-        if (curso1.equals(curso2))
+        int id1 = diccionario.idCurso(curso1);
+        int id2 = diccionario.idCurso(curso2);
+        if (id1 < 0 || id2 < 0 || id1 == id2)
             return 0;
-
-        DefaultWeightedEdge arista = grafo.getEdge(curso1, curso2);
-        if (arista != null) {
-            return (int) grafo.getEdgeWeight(arista);
-        }
-        return 0;
+        return peso(id1, id2);
     }
 
     /**
@@ -99,9 +361,8 @@ public class GrafoConflictos {
      * conflicta).
      */
     public int obtenerGradoDeConflicto(Curso curso) {
-        if (!grafo.containsVertex(curso))
-            return 0;
-        return grafo.degreeOf(curso);
+        int id = diccionario.idCurso(curso);
+        return id < 0 ? 0 : vecinos[id].length;
     }
 
     /**
@@ -109,12 +370,13 @@ public class GrafoConflictos {
      * (Más preciso que el grado para priorizar cursos problemáticos)
      */
     public int obtenerPesoTotalDeConflictos(Curso curso) {
-        if (!grafo.containsVertex(curso))
+        int id = diccionario.idCurso(curso);
+        if (id < 0)
             return 0;
 
         int pesoTotal = 0;
-        for (DefaultWeightedEdge arista : grafo.edgesOf(curso)) {
-            pesoTotal += (int) grafo.getEdgeWeight(arista);
+        for (int peso : pesos[id]) {
+            pesoTotal += peso;
         }
         return pesoTotal;
     }
@@ -124,13 +386,12 @@ public class GrafoConflictos {
      */
     public List<Curso> obtenerCursosEnConflicto(Curso curso) {
         List<Curso> cursosEnConflicto = new ArrayList<>();
-        if (!grafo.containsVertex(curso))
+        int id = diccionario.idCurso(curso);
+        if (id < 0)
             return cursosEnConflicto;
 
-        for (DefaultWeightedEdge arista : grafo.edgesOf(curso)) {
-            Curso fuente = grafo.getEdgeSource(arista);
-            Curso destino = grafo.getEdgeTarget(arista);
-            cursosEnConflicto.add(fuente.equals(curso) ? destino : fuente);
+        for (int vecino : vecinos[id]) {
+            cursosEnConflicto.add(diccionario.curso(vecino));
         }
         return cursosEnConflicto;
     }
@@ -139,7 +400,7 @@ public class GrafoConflictos {
      * Obtiene el número total de aristas (pares de cursos en conflicto).
      */
     public int obtenerNumeroDeAristas() {
-        return grafo.edgeSet().size();
+        return numeroAristas;
     }
 
     /**
@@ -147,23 +408,25 @@ public class GrafoConflictos {
      */
     public int obtenerTotalConflictosPotenciales() {
         int total = 0;
-        for (DefaultWeightedEdge arista : grafo.edgeSet()) {
-            total += (int) grafo.getEdgeWeight(arista);
+        for (int[] fila : pesos) {
+            for (int peso : fila) {
+                total += peso;
+            }
         }
-        return total;
+        return total / 2;
     }
 
     /**
      * Verifica si el grafo está vacío (sin conflictos).
      */
     public boolean estaVacio() {
-        return grafo.edgeSet().isEmpty();
+        return numeroAristas == 0;
     }
 
     /**
      * Obtiene todos los cursos del grafo.
      */
     public Set<Curso> obtenerCursos() {
-        return grafo.vertexSet();
+        return new LinkedHashSet<>(diccionario.cursos());
     }
 }
@@ -0,0 +1,672 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.solucionador.OptimizadorHorarios.EvaluacionNodo;
+import com.example.examscheduler.solucionador.OptimizadorHorarios.ResultadoNucleo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Motor de la búsqueda Branch & Bound de un {@link OptimizadorHorarios}:
+ * recorre el árbol desde unos estados iniciales con la política de selección
+ * de nodos configurada.
+ *
+ * - Con frontera (mejor primero, con inmersiones o mejor estimación): los
+ * estados pendientes se guardan en una {@link FronteraCubetas}
+ * - En profundidad: un único horario parcial que se modifica al bajar y se
+ * deshace al retroceder, con memoria proporcional a la profundidad
+ *
+ * La evaluación de los nodos (cotas, acumuladores, costos por franja), los
+ * contadores, el incumbente, la cancelación y los puntos de control son del
+ * optimizador; el motor solo decide qué nodo explorar y lleva las
+ * estadísticas propias de la política (pico de nodos, reinserciones,
+ * aumento medio de la cota). Se crea uno por búsqueda.
+ */
+final class MotorBusqueda {
+
+    /**
+     * Con {@link PoliticaBusqueda#MEJOR_PRIMERO_CON_INMERSIONES}, cada cuántos
+     * nodos extraídos de la frontera empieza una inmersión una vez encontrado
+     * el primer horario.
+     */
+    private static final int NODOS_ENTRE_INMERSIONES = 1000;
+
+    private final OptimizadorHorarios optimizador;
+    private final PoliticaBusqueda politica;
+    private final int n;
+    private final int k;
+    private final boolean evaluacionPerezosa;
+
+    private int picoNodos;
+    private int reinsertados;
+    /** Suma y número de aumentos de cota de padre a hijo (pseudocosto). */
+    private long sumaAumentosCota;
+    private long aumentosCota;
+
+    /**
+     * Prepara la búsqueda sobre el grafo de búsqueda actual del optimizador.
+     */
+    MotorBusqueda(OptimizadorHorarios optimizador) {
+        this.optimizador = optimizador;
+        this.politica = optimizador.getPoliticaBusqueda();
+        this.n = optimizador.grafoBusqueda.tamano();
+        this.k = optimizador.numeroFranjasHorarias;
+        this.evaluacionPerezosa = optimizador.isEvaluacionPerezosa();
+    }
+
+    /**
+     * Explora desde los estados iniciales con la política configurada.
+     *
+     * @param iniciales          Estados desde los que empezar (la raíz, o la
+     *                           frontera de un punto de control)
+     * @param cotaSuperior       Umbral de poda inicial
+     * @param mejorSolucion      Incumbente inicial, o null
+     * @param cotaInferiorGlobal Costo mínimo demostrado; la búsqueda se
+     *                           detiene al alcanzarlo
+     * @param mejorCota          Mejor cota inferior demostrada hasta ahora
+     * @return El mejor horario encontrado, o null si ninguno mejora la cota
+     */
+    ResultadoNucleo buscar(List<EstadoSolucion> iniciales, int cotaSuperior,
+            ResultadoNucleo mejorSolucion, int cotaInferiorGlobal, int mejorCota) {
+        if (politica == PoliticaBusqueda.PROFUNDIDAD) {
+            return explorarEnProfundidad(new ArrayDeque<>(iniciales), cotaSuperior, mejorSolucion,
+                    cotaInferiorGlobal, mejorCota);
+        }
+        FronteraCubetas frontera = new FronteraCubetas(n,
+                politica == PoliticaBusqueda.MEJOR_ESTIMACION
+                        ? this::estimarCostoFinal : EstadoSolucion::getCostoEstimado,
+                optimizador.isFronteraEmpaquetada()
+                        ? new AlmacenEstadosEmpaquetados(n, k) : new AlmacenEstadosObjetos());
+        frontera.agregarTodos(iniciales);
+        return explorar(frontera, cotaSuperior, mejorSolucion, cotaInferiorGlobal, mejorCota);
+    }
+
+    /**
+     * Máximo de nodos en memoria a la vez: estados de la frontera (más el de
+     * la inmersión en curso) o niveles de la búsqueda en profundidad.
+     */
+    int getPicoNodos() {
+        return picoNodos;
+    }
+
+    /**
+     * Estados que volvieron a la frontera porque su cota real era peor que la
+     * provisional.
+     */
+    int getReinsertados() {
+        return reinsertados;
+    }
+
+    /**
+     * Estimación de la memoria en el pico de nodos.
+     */
+    long picoBytesEstimados() {
+        return politica == PoliticaBusqueda.PROFUNDIDAD
+                ? bytesPorEstado() + picoNodos * bytesPorNivelProfundidad()
+                : picoNodos * bytesPorEstado();
+    }
+
+    /**
+     * Bucle principal de la búsqueda con frontera: extrae el estado más
+     * prometedor y lo ramifica, hasta vaciarla, alcanzar la cota global,
+     * cancelar o superar el límite de la frontera. Si la frontera está
+     * ordenada por cota, cada vez que baja la cota superior se descartan de
+     * una vez los estados que ya no pueden mejorarla.
+     *
+     * Con inmersiones, el mejor hijo del nodo actual se explora enseguida en
+     * lugar de ir a la frontera, hasta llegar a una hoja o a un nodo sin hijos
+     * prometedores. La mejor cota demostrada solo se actualiza con nodos
+     * extraídos de una frontera ordenada por cota.
+     *
+     * Un estado sin evaluar (o cualquiera, con evaluación perezosa) se evalúa
+     * al extraerlo; si su cota real es peor que la provisional con la que
+     * entró, vuelve a la frontera con la nueva cota en lugar de ramificarse.
+     */
+    private ResultadoNucleo explorar(FronteraCubetas frontera, int cotaSuperior,
+            ResultadoNucleo mejorSolucion, int cotaInferiorGlobal, int mejorCota) {
+        boolean ordenPorCota = politica != PoliticaBusqueda.MEJOR_ESTIMACION;
+        boolean conInmersiones = politica == PoliticaBusqueda.MEJOR_PRIMERO_CON_INMERSIONES;
+        List<EstadoSolucion> hijos = new ArrayList<>(k);
+        EstadoSolucion inmersion = null;
+        boolean buceando = false;
+        int nodosDesdeInmersion = 0;
+
+        while (inmersion != null || !frontera.estaVacia()) {
+            int enMemoria = frontera.tamano() + (inmersion != null ? 1 : 0);
+            picoNodos = Math.max(picoNodos, enMemoria);
+            boolean cancelar = optimizador.cancelacion.getAsBoolean();
+            if (cancelar || enMemoria > optimizador.limiteFrontera) {
+                optimizador.cancelado = cancelar;
+                optimizador.limiteFronteraAlcanzado = !cancelar;
+                if (mejorSolucion == null) {
+                    mejorSolucion = optimizador.completarVoraz(
+                            inmersion != null ? inmersion : frontera.consultar());
+                }
+                if (optimizador.archivoPuntoControl != null) {
+                    optimizador.guardarPuntoControl(fronteraConInmersion(frontera, inmersion), mejorSolucion,
+                            cotaInferiorGlobal, mejorCota, true);
+                }
+                return mejorSolucion;
+            }
+            int cotaConocida = optimizador.cotaExterna.getAsInt();
+            if (cotaConocida < cotaSuperior) {
+                cotaSuperior = cotaConocida;
+                if (cotaSuperior <= cotaInferiorGlobal) {
+                    break;
+                }
+                if (ordenPorCota) {
+                    optimizador.estadosPodados += frontera.descartarDesde(cotaSuperior);
+                }
+            }
+            if (optimizador.archivoPuntoControl != null && tocaConsultarReloj()) {
+                optimizador.guardarPuntoControl(fronteraConInmersion(frontera, inmersion), mejorSolucion,
+                        cotaInferiorGlobal, mejorCota, false);
+            }
+
+            EstadoSolucion estadoActual;
+            boolean deInmersion = inmersion != null;
+            if (deInmersion) {
+                estadoActual = inmersion;
+                inmersion = null;
+            } else {
+                estadoActual = frontera.extraer();
+                if (ordenPorCota) {
+                    // El estado extraído tiene la menor estimación de la frontera.
+                    mejorCota = Math.max(mejorCota, Math.min(estadoActual.getCostoEstimado(), cotaSuperior));
+                }
+                buceando = conInmersiones
+                        && (mejorSolucion == null || ++nodosDesdeInmersion >= NODOS_ENTRE_INMERSIONES);
+                if (buceando) {
+                    nodosDesdeInmersion = 0;
+                }
+            }
+            optimizador.estadosExplorados++;
+
+            if (optimizador.observadorProgreso != null && tocaConsultarReloj()) {
+                optimizador.notificarProgreso(frontera.tamano(), cotaSuperior, mejorCota);
+            }
+
+            if (estadoActual.getCostoEstimado() >= cotaSuperior) {
+                optimizador.estadosPodados++;
+                continue;
+            }
+
+            int cursoParaAsignar = estadoActual.cursoSiguiente;
+            int sumaMinimosPadre = 0;
+            int[] incrementosPadre = null;
+            if (evaluacionPerezosa && estadoActual.incrementos != null) {
+                sumaMinimosPadre = estadoActual.sumaMinimos;
+                incrementosPadre = estadoActual.incrementos;
+            } else if (!estadoActual.esCompleto() && (evaluacionPerezosa || !estadoActual.estaEvaluado())) {
+                EvaluacionNodo evaluacion = optimizador.evaluarNodo(estadoActual.franjas, estadoActual.pendientes);
+                if (deInmersion && estadoActual.costo + evaluacion.cotaInferior() >= cotaSuperior) {
+                    optimizador.estadosPodados++;
+                    continue;
+                }
+                // En una inmersión no hace falta respetar el orden de la frontera.
+                if (!deInmersion && evaluacion.cotaInferior() > estadoActual.cotaInferior) {
+                    // La cota provisional era optimista: vuelve a su lugar en la frontera.
+                    reinsertados++;
+                    EstadoSolucion reevaluado = evaluacionPerezosa
+                            ? new EstadoSolucion(estadoActual.franjas, estadoActual.pendientes, estadoActual.costo,
+                                    estadoActual.nivel, evaluacion.cotaInferior(), evaluacion.cursoSiguiente(),
+                                    evaluacion.sumaMinimos(), evaluacion.incrementos())
+                            : new EstadoSolucion(estadoActual.franjas, estadoActual.pendientes, estadoActual.costo,
+                                    estadoActual.nivel, evaluacion.cotaInferior(), evaluacion.cursoSiguiente());
+                    if (reevaluado.getCostoEstimado() < cotaSuperior) {
+                        frontera.agregar(reevaluado);
+                    } else {
+                        optimizador.estadosPodados++;
+                    }
+                    continue;
+                }
+                cursoParaAsignar = evaluacion.cursoSiguiente();
+                if (evaluacionPerezosa) {
+                    sumaMinimosPadre = evaluacion.sumaMinimos();
+                    incrementosPadre = evaluacion.incrementos();
+                }
+            }
+
+            if (estadoActual.esCompleto()) {
+                if (estadoActual.costo < cotaSuperior) {
+                    // En la enumeración, un empate con el mejor no es una mejora.
+                    if (mejorSolucion == null || estadoActual.costo < mejorSolucion.conflictos()) {
+                        mejorSolucion = new ResultadoNucleo(estadoActual.franjas, estadoActual.costo);
+                        optimizador.registrarMejora(mejorSolucion);
+                    }
+                    cotaSuperior = optimizador.enumerando
+                            ? optimizador.registrarOptimo(estadoActual.franjas, estadoActual.costo)
+                            : estadoActual.costo;
+
+                    if (cotaSuperior <= cotaInferiorGlobal) {
+                        break;
+                    }
+                    if (ordenPorCota) {
+                        optimizador.estadosPodados += frontera.descartarDesde(cotaSuperior);
+                    }
+                }
+                continue;
+            }
+
+            generarHijos(estadoActual, cursoParaAsignar, sumaMinimosPadre, incrementosPadre, cotaSuperior, hijos);
+            EstadoSolucion mejorHijo = null;
+            if (buceando) {
+                for (EstadoSolucion hijo : hijos) {
+                    if (mejorHijo == null || hijo.getCostoEstimado() < mejorHijo.getCostoEstimado()) {
+                        mejorHijo = hijo;
+                    }
+                }
+                inmersion = mejorHijo;
+            }
+            for (EstadoSolucion hijo : hijos) {
+                if (hijo != mejorHijo) {
+                    frontera.agregar(hijo);
+                }
+            }
+        }
+
+        optimizador.terminarPuntoControl();
+        return mejorSolucion;
+    }
+
+    /**
+     * Genera los hijos de un estado que pueden mejorar la cota superior,
+     * asignando un curso a cada franja (de menos a más conflictos).
+     *
+     * Con los incrementos del padre (evaluación perezosa), la cota de cada
+     * hijo no se calcula: se usa la suma de mínimos del padre más el
+     * incremento d(f) de su franja, que ya incluye el costo de la asignación.
+     * Es admisible por el mismo argumento que la cota del padre, y nunca menor
+     * que ella.
+     *
+     * Sin ellos, los hijos se evalúan sobre los acumuladores del padre, a los
+     * que solo se suma (y después se resta) la asignación del hijo.
+     */
+    private void generarHijos(EstadoSolucion estadoActual, int cursoParaAsignar, int sumaMinimosPadre,
+            int[] incrementosPadre, int cotaSuperior, List<EstadoSolucion> hijos) {
+        hijos.clear();
+
+        optimizador.calcularCostosCurso(cursoParaAsignar, estadoActual.franjas);
+        optimizador.marcarFranjasPermitidas(estadoActual.franjas);
+        List<FranjaConflicto> franjasOrdenadas = new ArrayList<>();
+        for (int franja = 0; franja < k; franja++) {
+            if (optimizador.franjaPermitida[franja]) {
+                franjasOrdenadas.add(new FranjaConflicto(franja, optimizador.costosCurso[franja]));
+            }
+        }
+        franjasOrdenadas.sort(Comparator.comparingInt(fc -> fc.conflictos));
+
+        BitSet nuevosPendientes = (BitSet) estadoActual.pendientes.clone();
+        nuevosPendientes.clear(cursoParaAsignar);
+        boolean acumuladosCargados = false;
+
+        for (FranjaConflicto fc : franjasOrdenadas) {
+            int nuevoCosto = estadoActual.costo + fc.conflictos;
+
+            if (nuevoCosto >= cotaSuperior) {
+                optimizador.estadosPodados++;
+                continue;
+            }
+
+            int[] nuevasFranjas = estadoActual.franjas.clone();
+            nuevasFranjas[cursoParaAsignar] = fc.franja;
+
+            int cotaHijo;
+            int cursoSiguienteHijo;
+            if (incrementosPadre == null) {
+                if (!acumuladosCargados) {
+                    optimizador.cargarAcumulados(estadoActual.franjas, nuevosPendientes);
+                    acumuladosCargados = true;
+                }
+                optimizador.moverEnAcumulados(cursoParaAsignar, fc.franja, 1);
+                EvaluacionNodo evaluacion = optimizador.evaluarNodo(nuevasFranjas, nuevosPendientes,
+                        optimizador.acumulados);
+                optimizador.moverEnAcumulados(cursoParaAsignar, fc.franja, -1);
+                cotaHijo = evaluacion.cotaInferior();
+                cursoSiguienteHijo = evaluacion.cursoSiguiente();
+            } else if (nuevosPendientes.isEmpty()) {
+                cotaHijo = 0;
+                cursoSiguienteHijo = -1;
+            } else {
+                cotaHijo = estadoActual.costo + sumaMinimosPadre + incrementosPadre[fc.franja] - nuevoCosto;
+                cursoSiguienteHijo = EstadoSolucion.SIN_EVALUAR;
+            }
+            int estimado = nuevoCosto + cotaHijo;
+            sumaAumentosCota += Math.max(0, estimado - estadoActual.getCostoEstimado());
+            aumentosCota++;
+
+            if (estimado < cotaSuperior) {
+                hijos.add(new EstadoSolucion(
+                        nuevasFranjas, nuevosPendientes, nuevoCosto, estadoActual.nivel + 1,
+                        cotaHijo, cursoSiguienteHijo));
+            } else {
+                optimizador.estadosPodados++;
+            }
+        }
+    }
+
+    /**
+     * Búsqueda en profundidad desde cada estado inicial, en orden, sobre un
+     * único horario parcial que se modifica al bajar y se deshace al
+     * retroceder. Por cada nivel solo se guardan el curso, su costo y sus
+     * franjas ordenadas, así que la memoria es proporcional a la
+     * profundidad. Los acumuladores siguen al horario compartido.
+     *
+     * Al cancelar o guardar un punto de control, los hermanos pendientes de
+     * cada nivel se convierten en estados normales, de modo que la búsqueda
+     * puede reanudarse con cualquier política.
+     */
+    private ResultadoNucleo explorarEnProfundidad(Deque<EstadoSolucion> raices, int cotaSuperior,
+            ResultadoNucleo mejorSolucion, int cotaInferiorGlobal, int mejorCota) {
+        PilaProfundidad pila = new PilaProfundidad(n, k);
+
+        busqueda: while (!raices.isEmpty()) {
+            EstadoSolucion raiz = raices.pollFirst();
+            optimizador.estadosExplorados++;
+            if (!raiz.esCompleto() && !raiz.estaEvaluado()) {
+                EvaluacionNodo evaluacion = optimizador.evaluarNodo(raiz.franjas, raiz.pendientes);
+                raiz = new EstadoSolucion(raiz.franjas, raiz.pendientes, raiz.costo, raiz.nivel,
+                        Math.max(raiz.cotaInferior, evaluacion.cotaInferior()), evaluacion.cursoSiguiente());
+            }
+            if (raiz.getCostoEstimado() >= cotaSuperior) {
+                optimizador.estadosPodados++;
+                continue;
+            }
+            if (raiz.esCompleto()) {
+                if (mejorSolucion == null || raiz.costo < mejorSolucion.conflictos()) {
+                    mejorSolucion = new ResultadoNucleo(raiz.franjas, raiz.costo);
+                    optimizador.registrarMejora(mejorSolucion);
+                }
+                cotaSuperior = optimizador.enumerando
+                        ? optimizador.registrarOptimo(raiz.franjas, raiz.costo)
+                        : raiz.costo;
+                if (cotaSuperior <= cotaInferiorGlobal) {
+                    break;
+                }
+                continue;
+            }
+
+            pila.iniciar(raiz);
+            while (pila.profundidad >= 0) {
+                picoNodos = Math.max(picoNodos, pila.profundidad + 1);
+                if (optimizador.cancelacion.getAsBoolean()) {
+                    optimizador.cancelado = true;
+                    if (mejorSolucion == null) {
+                        mejorSolucion = optimizador.completarVoraz(pila.estadoDelNivel(pila.profundidad));
+                    }
+                    if (optimizador.archivoPuntoControl != null) {
+                        int cota = cotaSuperior;
+                        optimizador.guardarPuntoControl(() -> pila.fronteraPendiente(raices, cota), mejorSolucion,
+                                cotaInferiorGlobal, mejorCota, true);
+                    }
+                    return mejorSolucion;
+                }
+                int cotaConocida = optimizador.cotaExterna.getAsInt();
+                if (cotaConocida < cotaSuperior) {
+                    cotaSuperior = cotaConocida;
+                    if (cotaSuperior <= cotaInferiorGlobal) {
+                        break busqueda;
+                    }
+                }
+                if (optimizador.archivoPuntoControl != null && tocaConsultarReloj()) {
+                    int cota = cotaSuperior;
+                    optimizador.guardarPuntoControl(() -> pila.fronteraPendiente(raices, cota), mejorSolucion,
+                            cotaInferiorGlobal, mejorCota, false);
+                }
+
+                int d = pila.profundidad;
+                if (pila.siguienteHijo[d] == pila.numeroHijos[d]) {
+                    pila.retroceder();
+                    continue;
+                }
+                int indice = pila.siguienteHijo[d]++;
+                int nuevoCosto = pila.costo[d] + pila.conflictos[d][indice];
+                if (nuevoCosto >= cotaSuperior) {
+                    // Las franjas van de menos a más conflictos: el resto también se poda.
+                    optimizador.estadosPodados += pila.numeroHijos[d] - indice;
+                    pila.siguienteHijo[d] = pila.numeroHijos[d];
+                    continue;
+                }
+                pila.asignar(d, pila.orden[d][indice]);
+                optimizador.estadosExplorados++;
+                if (optimizador.observadorProgreso != null && tocaConsultarReloj()) {
+                    optimizador.notificarProgreso(d + 1, cotaSuperior, mejorCota);
+                }
+
+                if (pila.pendientes.isEmpty()) {
+                    if (mejorSolucion == null || nuevoCosto < mejorSolucion.conflictos()) {
+                        mejorSolucion = new ResultadoNucleo(pila.franjas.clone(), nuevoCosto);
+                        optimizador.registrarMejora(mejorSolucion);
+                    }
+                    cotaSuperior = optimizador.enumerando
+                            ? optimizador.registrarOptimo(pila.franjas, nuevoCosto)
+                            : nuevoCosto;
+                    if (cotaSuperior <= cotaInferiorGlobal) {
+                        break busqueda;
+                    }
+                    continue;
+                }
+                EvaluacionNodo evaluacion = optimizador.evaluarNodo(pila.franjas, pila.pendientes,
+                        optimizador.acumulados);
+                if (nuevoCosto + evaluacion.cotaInferior() >= cotaSuperior) {
+                    optimizador.estadosPodados++;
+                    continue;
+                }
+                pila.avanzar(evaluacion.cursoSiguiente(), nuevoCosto);
+            }
+        }
+
+        optimizador.terminarPuntoControl();
+        return mejorSolucion;
+    }
+
+    /**
+     * Niveles de la búsqueda en profundidad: el horario parcial compartido y,
+     * por nivel, el curso que se ramifica, el costo antes de asignarlo, sus
+     * franjas de menos a más conflictos y el siguiente hijo por probar.
+     */
+    private final class PilaProfundidad {
+
+        final int[] curso;
+        final int[] costo;
+        final int[][] orden;
+        final int[][] conflictos;
+        final int[] siguienteHijo;
+        /** Franjas permitidas del curso de cada nivel (ver {@link OptimizadorHorarios#marcarFranjasPermitidas}). */
+        final int[] numeroHijos;
+        int[] franjas;
+        BitSet pendientes;
+        int nivelRaiz;
+        int profundidad = -1;
+
+        PilaProfundidad(int n, int k) {
+            curso = new int[n + 1];
+            costo = new int[n + 1];
+            orden = new int[n + 1][k];
+            conflictos = new int[n + 1][k];
+            siguienteHijo = new int[n + 1];
+            numeroHijos = new int[n + 1];
+        }
+
+        void iniciar(EstadoSolucion raiz) {
+            franjas = raiz.franjas.clone();
+            pendientes = (BitSet) raiz.pendientes.clone();
+            nivelRaiz = raiz.nivel;
+            profundidad = -1;
+            optimizador.cargarAcumulados(franjas, null);
+            avanzar(raiz.cursoSiguiente, raiz.costo);
+        }
+
+        /**
+         * Abre un nivel para ramificar un curso, con sus franjas ordenadas de
+         * menos a más conflictos (a igual costo, por número de franja).
+         */
+        void avanzar(int cursoSiguiente, int costoActual) {
+            int d = ++profundidad;
+            curso[d] = cursoSiguiente;
+            costo[d] = costoActual;
+            siguienteHijo[d] = 0;
+            pendientes.clear(cursoSiguiente);
+            int[] ordenNivel = orden[d];
+            int[] conflictosNivel = conflictos[d];
+            optimizador.aplicarPesos(optimizador.acumulados, cursoSiguiente * ordenNivel.length,
+                    optimizador.costosCurso, 0);
+            optimizador.marcarFranjasPermitidas(franjas);
+            int hijos = 0;
+            for (int franja = 0; franja < ordenNivel.length; franja++) {
+                if (!optimizador.franjaPermitida[franja]) {
+                    continue;
+                }
+                int valor = optimizador.costosCurso[franja];
+                int j = hijos++;
+                while (j > 0 && conflictosNivel[j - 1] > valor) {
+                    conflictosNivel[j] = conflictosNivel[j - 1];
+                    ordenNivel[j] = ordenNivel[j - 1];
+                    j--;
+                }
+                conflictosNivel[j] = valor;
+                ordenNivel[j] = franja;
+            }
+            numeroHijos[d] = hijos;
+        }
+
+        /**
+         * Asigna el curso de un nivel a otra franja (la de su siguiente hijo).
+         */
+        void asignar(int d, int franja) {
+            int c = curso[d];
+            if (franjas[c] >= 0) {
+                optimizador.moverEnAcumulados(c, franjas[c], -1);
+            }
+            franjas[c] = franja;
+            optimizador.moverEnAcumulados(c, franja, 1);
+        }
+
+        /**
+         * Cierra el nivel actual deshaciendo la asignación de su curso.
+         */
+        void retroceder() {
+            int d = profundidad--;
+            int c = curso[d];
+            if (franjas[c] >= 0) {
+                optimizador.moverEnAcumulados(c, franjas[c], -1);
+            }
+            franjas[c] = -1;
+            pendientes.set(c);
+        }
+
+        /**
+         * Reconstruye como estado el nodo que abrió un nivel (antes de
+         * asignar su curso).
+         */
+        EstadoSolucion estadoDelNivel(int nivel) {
+            int[] franjasNivel = franjas.clone();
+            BitSet pendientesNivel = (BitSet) pendientes.clone();
+            for (int d = nivel; d <= profundidad; d++) {
+                franjasNivel[curso[d]] = -1;
+                pendientesNivel.set(curso[d]);
+            }
+            EvaluacionNodo evaluacion = optimizador.evaluarNodo(franjasNivel, pendientesNivel);
+            return new EstadoSolucion(franjasNivel, pendientesNivel, costo[nivel], nivelRaiz + nivel,
+                    evaluacion.cotaInferior(), evaluacion.cursoSiguiente());
+        }
+
+        /**
+         * Convierte en estados los hijos que faltan por probar en cada nivel
+         * (los que aún pueden mejorar la cota) y los agrega, antes de las
+         * raíces pendientes, a la frontera de un punto de control.
+         */
+        List<EstadoSolucion> fronteraPendiente(Deque<EstadoSolucion> raices, int cotaSuperior) {
+            List<EstadoSolucion> frontera = new ArrayList<>();
+            for (int d = profundidad; d >= 0; d--) {
+                int[] franjasNivel = franjas.clone();
+                BitSet pendientesNivel = (BitSet) pendientes.clone();
+                for (int j = d + 1; j <= profundidad; j++) {
+                    franjasNivel[curso[j]] = -1;
+                    pendientesNivel.set(curso[j]);
+                }
+                for (int indice = siguienteHijo[d]; indice < numeroHijos[d]; indice++) {
+                    int nuevoCosto = costo[d] + conflictos[d][indice];
+                    if (nuevoCosto >= cotaSuperior) {
+                        break;
+                    }
+                    int[] franjasHijo = franjasNivel.clone();
+                    franjasHijo[curso[d]] = orden[d][indice];
+                    EvaluacionNodo evaluacion = optimizador.evaluarNodo(franjasHijo, pendientesNivel);
+                    if (nuevoCosto + evaluacion.cotaInferior() < cotaSuperior) {
+                        frontera.add(new EstadoSolucion(franjasHijo, pendientesNivel, nuevoCosto,
+                                nivelRaiz + d + 1, evaluacion.cotaInferior(), evaluacion.cursoSiguiente()));
+                    }
+                }
+            }
+            frontera.addAll(raices);
+            return frontera;
+        }
+    }
+
+    /**
+     * Frontera de un punto de control, incluido el nodo de la inmersión en
+     * curso (si hay).
+     */
+    private static Supplier<List<EstadoSolucion>> fronteraConInmersion(FronteraCubetas frontera,
+            EstadoSolucion inmersion) {
+        return () -> {
+            List<EstadoSolucion> estados = frontera.aLista();
+            if (inmersion != null) {
+                estados.add(0, inmersion);
+            }
+            return estados;
+        };
+    }
+
+
+    /**
+     * Indica si toca consultar el reloj (progreso y puntos de control).
+     */
+    private boolean tocaConsultarReloj() {
+        return optimizador.estadosExplorados % OptimizadorHorarios.NODOS_ENTRE_CONSULTAS_RELOJ == 0;
+    }
+
+    /**
+     * Estimación del costo final de un estado para
+     * {@link PoliticaBusqueda#MEJOR_ESTIMACION}: su cota más el aumento medio
+     * de la cota por curso asignado, por cada curso pendiente.
+     */
+    private int estimarCostoFinal(EstadoSolucion estado) {
+        int pendientes = n - estado.nivel;
+        double aumentoMedio = aumentosCota == 0 ? 0 : (double) sumaAumentosCota / aumentosCota;
+        long estimacion = estado.getCostoEstimado() + Math.round(aumentoMedio * pendientes);
+        return (int) Math.min(estimacion, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Estimación de los bytes de un estado de la frontera: el objeto, sus
+     * franjas y el conjunto de pendientes (o su registro empaquetado), más
+     * su índice en las cubetas.
+     */
+    private long bytesPorEstado() {
+        if (optimizador.isFronteraEmpaquetada() && politica != PoliticaBusqueda.PROFUNDIDAD) {
+            return AlmacenEstadosEmpaquetados.bytesPorRegistro(n, k) + 4;
+        }
+        return 40 + (16 + 4L * n) + (40 + 8L * ((n + 63) / 64)) + 8;
+    }
+
+    /**
+     * Bytes de un nivel de la búsqueda en profundidad: dos arreglos de k
+     * franjas y tres enteros.
+     */
+    private long bytesPorNivelProfundidad() {
+        return 2 * (16 + 4L * k) + 12;
+    }
+
+    /**
+     * Clase auxiliar para ordenar franjas por conflicto.
+     */
+    private record FranjaConflicto(int franja, int conflictos) {
+    }
+}
@@ -1,9 +1,21 @@
 package com.example.examscheduler.solucionador;
 
 import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.DiccionarioInstancia;
 import com.example.examscheduler.modelo.Estudiante;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 /**
  * Optimizador de horarios de exámenes usando el algoritmo de Ramificación y
@@ -11,23 +23,156 @@ import java.util.*;
  * 
  * Características principales:
  * - Ramificación por asignación de curso a franja horaria
+ * - Objetivo ponderado: conflictos en la misma franja y, opcionalmente,
+ * exámenes en franjas contiguas (ver {@link #setPesosObjetivo})
  * - Cota inferior basada en conflictos mínimos restantes (heurística)
  * - Poda cuando el costo estimado supera la mejor solución conocida
- * - Ordenamiento de cursos por grado de conflicto (más conflictivos primero)
+ * - Varias políticas de selección de nodos (ver {@link PoliticaBusqueda}),
+ * recorridas por un {@link MotorBusqueda}
+ * - Selección dinámica del curso a ramificar en cada nodo (el más
+ * restringido: el que más encarece la solución incluso en su mejor franja),
+ * cuyo costo mínimo refuerza además la cota
+ * - Reducción previa del grafo (cursos aislados, de grado menor que k y
+ * gemelos) para ramificar solo sobre el núcleo
+ * - Prueba exacta previa de k-coloreabilidad (DSatur): si existe un horario sin
+ * conflictos se devuelve de inmediato; si no, la búsqueda ponderada parte
+ * de una cota inferior global de al menos 1
+ * - Núcleos de ancho de árbol pequeño resueltos en tiempo polinómico por
+ * programación dinámica sobre una descomposición en árbol (ver
+ * {@link ProgramacionDinamicaArbol}), sin ramificar
+ * - Cancelación cooperativa comprobada en cada nodo: al cancelar se devuelve
+ * el mejor horario encontrado hasta el momento
+ * - Publicación periódica del progreso (ver {@link ProgresoBusqueda})
+ * - Límite opcional del tamaño de la frontera, para acotar la memoria: al
+ * superarlo la búsqueda se detiene igual que al cancelar
+ * - Puntos de control opcionales: la frontera, el mejor horario y los
+ * contadores se guardan periódicamente en un archivo (ver
+ * {@link #setPuntoControl}) y {@link #reanudar} continúa la búsqueda exacta
+ * desde el último guardado
+ * - Enumeración de horarios óptimos alternativos, distintos salvo renombrar
+ * las franjas (ver {@link #enumerarOptimos})
+ * - División del núcleo en subproblemas para resolverlos en varios procesos
+ * (ver {@link #dividirNucleo} y {@link #resolverSubproblema}), con una cota
+ * global que puede bajar durante la búsqueda
  */
 public class OptimizadorHorarios {
 
     /**
      * Record que representa una solución encontrada.
+     *
+     * @param horario    Franja de cada curso
+     * @param conflictos Costo del horario: cada estudiante con dos exámenes en
+     *                   la misma franja por el peso de conflicto, más los de
+     *                   franjas contiguas por su peso (ver
+     *                   {@link #setPesosObjetivo}); con los pesos por defecto
+     *                   es el número de conflictos
      */
     public record Solucion(Map<Curso, Integer> horario, int conflictos) {
     }
 
+    /**
+     * Intervalo mínimo entre dos notificaciones de progreso.
+     */
+    private static final long INTERVALO_PROGRESO_NANOS = 100_000_000L;
+
+    /**
+     * Cada cuántos nodos se consulta el reloj para decidir si notificar.
+     */
+    static final int NODOS_ENTRE_CONSULTAS_RELOJ = 256;
+
     private final List<Curso> cursos;
-    private final int numeroFranjasHorarias;
+    final int numeroFranjasHorarias;
     private final GrafoConflictos grafoConflictos;
-    private int estadosExplorados = 0;
-    private int estadosPodados = 0;
+    int estadosExplorados = 0;
+    int estadosPodados = 0;
+    private long nodosColoreo = 0;
+    private int cursosEnNucleo = 0;
+    private int anchoDescomposicion = -1;
+    GrafoCompacto grafoBusqueda;
+
+    BooleanSupplier cancelacion = () -> false;
+    Consumer<ProgresoBusqueda> observadorProgreso;
+    private long ultimaNotificacion;
+    boolean cancelado = false;
+    int limiteFrontera = Integer.MAX_VALUE;
+    boolean limiteFronteraAlcanzado = false;
+
+    private int pesoConflicto = 1;
+    private int pesoContigua = 0;
+    private boolean programacionDinamica = true;
+    private long limiteEstadosProgramacionDinamica = ProgramacionDinamicaArbol.LIMITE_ESTADOS_POR_DEFECTO;
+
+    /**
+     * Estado de {@link #enumerarOptimos}: los horarios del núcleo con el menor
+     * costo encontrado, sus formas canónicas y cuántos se piden. Mientras
+     * faltan horarios, el umbral de poda es ese costo más uno, así que la
+     * búsqueda sigue por los nodos que lo empatan.
+     */
+    boolean enumerando = false;
+    private final List<int[]> optimos = new ArrayList<>();
+    private final Set<HorarioCanonico> optimosCanonicos = new HashSet<>();
+    private int costoOptimos;
+    private int limiteOptimos;
+    /** Franjas que puede tomar el curso que se ramifica (ver {@link #marcarFranjasPermitidas}). */
+    final boolean[] franjaPermitida;
+    /** Pesos del grafo de búsqueda multiplicados por cada término del objetivo. */
+    private int[][] pesosConflictoBusqueda;
+    private int[][] pesosContiguaBusqueda;
+
+    private PoliticaBusqueda politica = PoliticaBusqueda.MEJOR_PRIMERO;
+    private boolean evaluacionPerezosa = false;
+    private boolean fronteraEmpaquetada = false;
+    private long cotasCalculadas;
+    private int reinsertados;
+    private long inicioBusqueda;
+    private long nanosPrimeraSolucion = -1;
+    private long nanosBusqueda;
+    private int picoNodos;
+    private long picoBytesEstimados;
+
+    private GrafoCompacto grafoCompleto;
+    private ReductorGrafo reductor;
+    private GrafoCompacto nucleo;
+    private int cotaInferiorGlobal;
+
+    private static final IntSupplier SIN_COTA_EXTERNA = () -> Integer.MAX_VALUE;
+    IntSupplier cotaExterna = SIN_COTA_EXTERNA;
+    private Consumer<ResultadoNucleo> observadorMejoras;
+
+    Path archivoPuntoControl;
+    private long intervaloPuntoControlNanos;
+    private long ultimoPuntoControl;
+    private long huellaNucleo;
+    private ExecutorService escritorPuntoControl;
+    private Future<?> escrituraEnCurso;
+    private volatile IOException errorPuntoControl;
+
+    /**
+     * Memoria de trabajo reutilizada por {@link #evaluarNodo}: costo de cada
+     * franja por curso pendiente, su mínimo, la franja que lo alcanza (única)
+     * y la diferencia con la segunda mejor franja.
+     */
+    private int[] costosFranja;
+    private int[] minimoFranja;
+    private int[] franjaMinima;
+    private int[] holguraFranja;
+
+    /**
+     * Acumuladores de un horario parcial: por curso y franja, la suma de los
+     * pesos de sus vecinos asignados a esa franja. Se actualizan al asignar o
+     * desasignar un curso (solo cambian las filas de sus vecinos), así que
+     * evaluar un hijo no recorre de nuevo el horario del padre.
+     */
+    int[] acumulados;
+    /** Fila de pesos por franja antes de aplicar el objetivo. */
+    private final int[] filaPesos;
+    /** Incremento de la segunda pasada por vecinos en franjas contiguas. */
+    private final int[] incrementoContiguo;
+
+    /** Costos por franja de un curso (ver {@link CalculadorCostosFranja}). */
+    private final CalculadorCostosFranja calculadorCostos;
+    /** Costos por franja del curso que se ramifica o se completa. */
+    final int[] costosCurso;
 
     /**
      * Constructor del optimizador.
@@ -38,132 +183,1052 @@ public class OptimizadorHorarios {
      */
     public OptimizadorHorarios(List<Curso> cursos, List<Estudiante> estudiantes, int numeroFranjasHorarias) {
         this.grafoConflictos = new GrafoConflictos(cursos, estudiantes);
-        this.cursos = new ArrayList<>(cursos);
         this.numeroFranjasHorarias = numeroFranjasHorarias;
-        this.cursos.sort(Comparator.comparingInt(grafoConflictos::obtenerGradoDeConflicto).reversed());
+        this.calculadorCostos = CalculadorCostosFranja.crear(numeroFranjasHorarias);
+        this.costosCurso = new int[numeroFranjasHorarias];
+        this.filaPesos = new int[numeroFranjasHorarias];
+        this.incrementoContiguo = new int[numeroFranjasHorarias];
+        this.franjaPermitida = new boolean[numeroFranjasHorarias];
+
+        // Cursos de mayor a menor grado, con un ordenamiento estable por
+        // conteo sobre la clave n - 1 - grado.
+        DiccionarioInstancia diccionario = grafoConflictos.obtenerDiccionario();
+        int n = diccionario.numeroCursos();
+        int[] inicioPorClave = new int[n + 1];
+        for (int c = 0; c < n; c++) {
+            inicioPorClave[n - grafoConflictos.vecinos(c).length]++;
+        }
+        for (int clave = 0; clave < n; clave++) {
+            inicioPorClave[clave + 1] += inicioPorClave[clave];
+        }
+        Curso[] ordenados = new Curso[n];
+        for (int c = 0; c < n; c++) {
+            ordenados[inicioPorClave[n - 1 - grafoConflictos.vecinos(c).length]++] = diccionario.curso(c);
+        }
+        this.cursos = new ArrayList<>(Arrays.asList(ordenados));
+    }
+
+    /**
+     * Establece la condición de cancelación, que se consulta en cada nodo de
+     * la búsqueda (y puede cambiar desde otro hilo).
+     */
+    public void setCancelacion(BooleanSupplier cancelacion) {
+        this.cancelacion = cancelacion;
+    }
+
+    /**
+     * Establece el observador que recibe el progreso de la búsqueda, como
+     * máximo unas diez veces por segundo. Se invoca desde el hilo que ejecuta
+     * {@link #resolver()}.
+     */
+    public void setObservadorProgreso(Consumer<ProgresoBusqueda> observadorProgreso) {
+        this.observadorProgreso = observadorProgreso;
+    }
+
+    /**
+     * Limita el número de estados pendientes en la frontera de búsqueda. Si se
+     * supera, la búsqueda se detiene y devuelve el mejor horario encontrado
+     * (ver {@link #alcanzoLimiteFrontera()}).
+     */
+    public void setLimiteFrontera(int limiteFrontera) {
+        this.limiteFrontera = limiteFrontera;
+    }
+
+    /**
+     * Elige la política de selección de nodos de la búsqueda Branch & Bound
+     * (por defecto, {@link PoliticaBusqueda#MEJOR_PRIMERO}). El límite de la
+     * frontera no se aplica en profundidad, que no guarda frontera.
+     */
+    public void setPoliticaBusqueda(PoliticaBusqueda politica) {
+        this.politica = politica;
+    }
+
+    public PoliticaBusqueda getPoliticaBusqueda() {
+        return politica;
+    }
+
+    /**
+     * Establece los pesos del objetivo: el costo de un horario es
+     * pesoConflicto por cada estudiante con dos exámenes en la misma franja
+     * más pesoContigua por cada estudiante con exámenes en dos franjas
+     * consecutivas. Por defecto (1, 0) solo cuentan los conflictos.
+     *
+     * Con pesoContigua mayor que 0 no se prueba antes el coloreo (un horario
+     * sin conflictos puede tener franjas contiguas) y la reducción solo retira
+     * los cursos de grado menor que k / 3.
+     *
+     * @throws IllegalArgumentException si pesoConflicto es menor que 1 o
+     *                                  pesoContigua es negativo
+     */
+    public void setPesosObjetivo(int pesoConflicto, int pesoContigua) {
+        if (pesoConflicto < 1 || pesoContigua < 0) {
+            throw new IllegalArgumentException("Pesos del objetivo no validos: " + pesoConflicto + ", " + pesoContigua);
+        }
+        this.pesoConflicto = pesoConflicto;
+        this.pesoContigua = pesoContigua;
+    }
+
+    public int getPesoConflicto() {
+        return pesoConflicto;
+    }
+
+    public int getPesoContigua() {
+        return pesoContigua;
+    }
+
+    /**
+     * Permite resolver el núcleo por programación dinámica sobre una
+     * descomposición en árbol cuando su ancho es pequeño (activado por
+     * defecto): se usa si las tablas suman como mucho
+     * {@link #setLimiteEstadosProgramacionDinamica} entradas, y si no, el
+     * Branch & Bound. No se usa al reanudar un punto de control.
+     */
+    public void setProgramacionDinamica(boolean programacionDinamica) {
+        this.programacionDinamica = programacionDinamica;
+    }
+
+    public boolean isProgramacionDinamica() {
+        return programacionDinamica;
+    }
+
+    /**
+     * Limita la suma de las entradas de las tablas de la programación
+     * dinámica (por defecto
+     * {@link ProgramacionDinamicaArbol#LIMITE_ESTADOS_POR_DEFECTO}); cada
+     * una ocupa hasta {@link ProgramacionDinamicaArbol#BYTES_POR_ESTADO}
+     * bytes.
+     */
+    public void setLimiteEstadosProgramacionDinamica(long limiteEstadosProgramacionDinamica) {
+        this.limiteEstadosProgramacionDinamica = limiteEstadosProgramacionDinamica;
+    }
+
+    public long getLimiteEstadosProgramacionDinamica() {
+        return limiteEstadosProgramacionDinamica;
+    }
+
+    /**
+     * Activa la evaluación perezosa de los nodos: los hijos entran en la
+     * frontera con una cota provisional derivada de la del padre y de su
+     * propia asignación, y la cota completa solo se calcula cuando el nodo
+     * sale de la frontera (si empeora, vuelve a entrar). Ahorra las cotas de
+     * los hijos que se descartan sin llegar a extraerse. No afecta a la
+     * búsqueda en profundidad, que ya evalúa cada nodo al visitarlo.
+     */
+    public void setEvaluacionPerezosa(boolean evaluacionPerezosa) {
+        this.evaluacionPerezosa = evaluacionPerezosa;
+    }
+
+    public boolean isEvaluacionPerezosa() {
+        return evaluacionPerezosa;
+    }
+
+    /**
+     * Guarda la frontera empaquetada en memoria directa, fuera del montón
+     * (ver {@link AlmacenEstadosEmpaquetados}), en lugar de como objetos. Para
+     * búsquedas con fronteras enormes: la memoria por estado es fija y
+     * predecible, y la frontera no genera trabajo al recolector de basura, a
+     * cambio de desempaquetar cada estado al extraerlo.
+     */
+    public void setFronteraEmpaquetada(boolean fronteraEmpaquetada) {
+        this.fronteraEmpaquetada = fronteraEmpaquetada;
+    }
+
+    public boolean isFronteraEmpaquetada() {
+        return fronteraEmpaquetada;
+    }
+
+    /**
+     * Activa los puntos de control de la búsqueda Branch & Bound (null los
+     * desactiva).
+     *
+     * Cada intervalo se copia la frontera (solo las referencias a los estados,
+     * que no cambian una vez creados) y se escribe en segundo plano, sin
+     * detener la búsqueda; si la escritura anterior no terminó, se espera al
+     * siguiente intervalo. Al cancelar o superar el límite de la frontera se
+     * guarda un último punto de control, y al terminar la búsqueda se borra el
+     * archivo.
+     *
+     * @param archivo    Archivo donde se guarda el punto de control
+     * @param intervaloMs Tiempo mínimo entre dos puntos de control
+     */
+    public void setPuntoControl(Path archivo, long intervaloMs) {
+        this.archivoPuntoControl = archivo;
+        this.intervaloPuntoControlNanos = intervaloMs * 1_000_000L;
     }
 
     /**
      * Resuelve el problema de asignación de horarios usando Branch & Bound.
      * 
+     * Antes de ramificar se reduce el grafo (ver {@link ReductorGrafo}) y la
+     * búsqueda se ejecuta solo sobre el núcleo restante; el horario del núcleo
+     * se traduce después a todos los cursos.
+     * 
      * @return La mejor solución encontrada
      */
     public Solucion resolver() {
-        PriorityQueue<EstadoSolucion> colaPrioridad = new PriorityQueue<>();
-        int cotaSuperior = Integer.MAX_VALUE;
-        Solucion mejorSolucion = new Solucion(null, cotaSuperior);
-        estadosExplorados = 0;
-        estadosPodados = 0;
+        return resolver(null);
+    }
+
+    /**
+     * Continúa una búsqueda desde un punto de control guardado por
+     * {@link #setPuntoControl}. La instancia debe ser la misma (cursos en el
+     * mismo orden, estudiantes y número de franjas), porque la reducción se
+     * recalcula y el punto de control se refiere a los índices del núcleo.
+     *
+     * La búsqueda sigue siendo exacta: parte de la frontera y el mejor horario
+     * guardados, y los contadores continúan desde sus valores.
+     *
+     * @param archivo Punto de control a reanudar
+     * @return La mejor solución encontrada
+     * @throws IOException              si el archivo no puede leerse
+     * @throws IllegalArgumentException si el punto de control corresponde a
+     *                                  otra instancia
+     */
+    public Solucion reanudar(Path archivo) throws IOException {
+        return resolver(PuntoControlBusqueda.leer(archivo));
+    }
 
-        int cotaInicial = calcularCotaInferior(new HashMap<>(), 0);
-        colaPrioridad.add(new EstadoSolucion(new HashMap<>(), 0, 0, cotaInicial));
+    /**
+     * Busca hasta un límite de horarios óptimos distintos. Dos horarios que
+     * solo difieren en los nombres de las franjas cuentan como uno (con
+     * franjas contiguas penalizadas, solo se identifican un horario y su
+     * inverso).
+     *
+     * Comparte toda la poda de {@link #resolver()}: tras el primer horario,
+     * el umbral de poda pasa a ser su costo más uno en lugar de su costo, así
+     * que solo se recorren además los nodos cuya cota empata con el óptimo; al
+     * llegar al límite vuelve a exigir mejoras estrictas. Sin franjas
+     * contiguas, cada curso solo puede abrir la menor franja sin usar, de modo
+     * que de cada horario se visita una sola de sus renombradas; con ellas, el
+     * primer curso solo toma franjas de la primera mitad, de modo que de cada
+     * par horario-inverso se visita al menos uno. Si el grafo es coloreable o
+     * se resuelve por programación dinámica, ese resultado fija el costo
+     * óptimo desde el principio.
+     *
+     * La reducción del grafo se desactiva (ver {@link ReductorGrafo}): retirar
+     * o fusionar cursos conserva el costo óptimo pero no todos los horarios
+     * óptimos. Por eso la búsqueda recorre el grafo completo y puede tardar
+     * bastante más que {@link #resolver()} en instancias grandes. No usa
+     * puntos de control.
+     *
+     * @param limite Máximo de horarios a devolver
+     * @return Los horarios, todos del mismo costo (óptimo, salvo que la
+     *         búsqueda se cancele o supere el límite de la frontera)
+     * @throws IllegalArgumentException si el límite es menor que 1
+     */
+    public List<Solucion> enumerarOptimos(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("El limite debe ser al menos 1: " + limite);
+        }
+        ultimoPuntoControl = System.nanoTime();
+        optimos.clear();
+        optimosCanonicos.clear();
+        limiteOptimos = limite;
+        enumerando = true;
+        Path archivo = archivoPuntoControl;
+        archivoPuntoControl = null;
+        try {
+            ResultadoNucleo exacto = prepararNucleo(true);
+            if (exacto == null && programacionDinamica) {
+                exacto = resolverPorDescomposicion();
+            }
+            int cotaSuperior = Integer.MAX_VALUE;
+            if (exacto != null) {
+                cotaInferiorGlobal = exacto.conflictos();
+                cotaSuperior = registrarOptimo(exacto.franjas(), exacto.conflictos());
+            }
+            ResultadoNucleo resultado = ramificarYPodar(nucleo, cotaInferiorGlobal, null, cotaSuperior);
+
+            List<Solucion> soluciones = new ArrayList<>();
+            for (int[] franjas : optimos) {
+                soluciones.add(construirSolucion(new ResultadoNucleo(franjas, costoOptimos)));
+            }
+            if (soluciones.isEmpty() && resultado != null) {
+                soluciones.add(construirSolucion(resultado));
+            }
+            return soluciones;
+        } finally {
+            enumerando = false;
+            archivoPuntoControl = archivo;
+            optimos.clear();
+            optimosCanonicos.clear();
+        }
+    }
 
-        while (!colaPrioridad.isEmpty()) {
-            EstadoSolucion estadoActual = colaPrioridad.poll();
-            estadosExplorados++;
+    private Solucion resolver(PuntoControlBusqueda puntoControl) {
+        ultimoPuntoControl = System.nanoTime();
 
-            if (estadoActual.getCostoEstimado() >= cotaSuperior) {
-                estadosPodados++;
-                continue;
+        // Al reanudar, el coloreo ya se intentó antes de guardar la búsqueda.
+        ResultadoNucleo coloreado = prepararNucleo(puntoControl == null);
+        if (puntoControl != null) {
+            if (puntoControl.huella != huellaNucleo
+                    || puntoControl.tamanoNucleo != nucleo.tamano()
+                    || puntoControl.numeroFranjas != numeroFranjasHorarias) {
+                throw new IllegalArgumentException("El punto de control corresponde a otra instancia");
             }
+            cotaInferiorGlobal = puntoControl.cotaInferiorGlobal;
+        }
+
+        ResultadoNucleo resultado = coloreado;
+        if (resultado == null && puntoControl == null && programacionDinamica) {
+            resultado = resolverPorDescomposicion();
+        }
+        if (resultado == null) {
+            resultado = ramificarYPodar(nucleo, cotaInferiorGlobal, puntoControl, Integer.MAX_VALUE);
+        }
+        return construirSolucion(resultado);
+    }
+
+    /**
+     * Resuelve el núcleo por programación dinámica si su descomposición en
+     * árbol cabe en el límite de estados.
+     *
+     * @return Un horario óptimo del núcleo, o null si hay que ramificar (o se
+     *         canceló)
+     */
+    private ResultadoNucleo resolverPorDescomposicion() {
+        ProgramacionDinamicaArbol programacion = new ProgramacionDinamicaArbol(nucleo, numeroFranjasHorarias,
+                pesoConflicto, pesoContigua, limiteEstadosProgramacionDinamica, cancelacion);
+        anchoDescomposicion = programacion.obtenerAncho();
+        return programacion.resolver();
+    }
 
-            if (estadoActual.nivel == cursos.size()) {
-                if (estadoActual.costo < cotaSuperior) {
-                    cotaSuperior = estadoActual.costo;
-                    mejorSolucion = new Solucion(
-                            new HashMap<>(estadoActual.horario),
-                            estadoActual.costo);
+    /**
+     * Reduce el grafo y prueba si el núcleo es k-coloreable, como paso previo
+     * a {@link #resolverSubproblema} (la búsqueda distribuida divide el núcleo
+     * entre varios procesos). Reinicia las estadísticas.
+     *
+     * @return Un horario del núcleo sin conflictos, o null si hay que buscarlo
+     */
+    public ResultadoNucleo prepararNucleo() {
+        return prepararNucleo(true);
+    }
+
+    private ResultadoNucleo prepararNucleo(boolean probarColoreo) {
+        estadosExplorados = 0;
+        estadosPodados = 0;
+        nodosColoreo = 0;
+        anchoDescomposicion = -1;
+        cancelado = false;
+        limiteFronteraAlcanzado = false;
+        errorPuntoControl = null;
+        ultimaNotificacion = System.nanoTime();
+        nanosPrimeraSolucion = -1;
+        nanosBusqueda = 0;
+        picoNodos = 0;
+        picoBytesEstimados = 0;
+        cotasCalculadas = 0;
+        reinsertados = 0;
+
+        grafoCompleto = new GrafoCompacto(grafoConflictos, cursos);
+        reductor = new ReductorGrafo(grafoCompleto, numeroFranjasHorarias, pesoConflicto, pesoContigua,
+                !enumerando);
+        nucleo = reductor.obtenerNucleo();
+        cursosEnNucleo = nucleo.tamano();
+        huellaNucleo = PuntoControlBusqueda.huella(nucleo, numeroFranjasHorarias, pesoConflicto, pesoContigua);
+        cotaInferiorGlobal = 0;
+        if (!probarColoreo || pesoContigua > 0) {
+            return null;
+        }
+
+        ColoreadorExacto.Resultado coloreo = new ColoreadorExacto(
+                nucleo, numeroFranjasHorarias, ColoreadorExacto.LIMITE_NODOS_POR_DEFECTO, cancelacion).resolver();
+        nodosColoreo = coloreo.nodos();
+        if (coloreo.esColoreable()) {
+            return new ResultadoNucleo(coloreo.colores(), 0);
+        }
+        // Sin coloreo válido, cualquier horario viola al menos una arista.
+        if (coloreo.veredicto() == ColoreadorExacto.Veredicto.NO_COLOREABLE) {
+            cotaInferiorGlobal = pesoConflicto * Math.max(1, nucleo.pesoMinimo());
+        }
+        return null;
+    }
+
+    /**
+     * Divide la búsqueda sobre el núcleo en subproblemas: todas las
+     * asignaciones de franjas a los primeros cursos del núcleo (en el orden de
+     * los cursos), con tantos cursos fijados como hagan falta para llegar a la
+     * cantidad pedida. Requiere {@link #prepararNucleo()}.
+     *
+     * @param cantidadMinima Número de subproblemas deseado como mínimo
+     * @return Los subproblemas, de menor a mayor costo de su asignación
+     */
+    public List<Subproblema> dividirNucleo(int cantidadMinima) {
+        int n = nucleo.tamano();
+        int k = numeroFranjasHorarias;
+        int profundidad = 0;
+        long cantidad = 1;
+        while (profundidad < n && cantidad < cantidadMinima) {
+            cantidad *= k;
+            profundidad++;
+        }
 
-                    if (cotaSuperior == 0) {
-                        break;
+        List<Subproblema> subproblemas = new ArrayList<>((int) cantidad);
+        int[] prefijo = new int[profundidad];
+        for (long s = 0; s < cantidad; s++) {
+            int costo = 0;
+            for (int i = 0; i < profundidad; i++) {
+                int[] vecinos = nucleo.vecinos(i);
+                int[] pesos = nucleo.pesos(i);
+                for (int j = 0; j < vecinos.length; j++) {
+                    if (vecinos[j] < i) {
+                        costo += costoArista(prefijo[vecinos[j]], prefijo[i], pesos[j]);
                     }
                 }
-                continue;
             }
+            subproblemas.add(new Subproblema(prefijo.clone(), costo));
 
-            Curso cursoParaAsignar = cursos.get(estadoActual.nivel);
+            // Siguiente asignación, como un contador en base k.
+            for (int i = profundidad - 1; i >= 0 && ++prefijo[i] == k; i--) {
+                prefijo[i] = 0;
+            }
+        }
+        subproblemas.sort(Comparator.comparingInt(Subproblema::costo));
+        return subproblemas;
+    }
 
-            List<FranjaConflicto> franjasOrdenadas = new ArrayList<>();
-            for (int franja = 0; franja < numeroFranjasHorarias; franja++) {
-                int conflictosConFranja = calcularConflictosConFranja(
-                        cursoParaAsignar, franja, estadoActual.horario);
-                franjasOrdenadas.add(new FranjaConflicto(franja, conflictosConFranja));
+    /**
+     * Busca el mejor horario del núcleo que respeta las franjas fijadas por un
+     * subproblema. Requiere {@link #prepararNucleo()}.
+     *
+     * La cota global se consulta en cada nodo, así que puede bajar durante la
+     * búsqueda (por mejoras encontradas en otros procesos); solo se buscan
+     * horarios de costo estrictamente menor.
+     *
+     * @param prefijo    Franjas de los primeros cursos del núcleo
+     * @param cotaGlobal Costo del mejor horario conocido
+     * @param alMejorar  Recibe cada horario que mejora el mejor de este
+     *                   subproblema, en el hilo de la búsqueda
+     * @return El mejor horario encontrado en el subproblema, o null si ninguno
+     *         mejora la cota
+     */
+    public ResultadoNucleo resolverSubproblema(int[] prefijo, IntSupplier cotaGlobal,
+            Consumer<ResultadoNucleo> alMejorar) {
+        estadosExplorados = 0;
+        estadosPodados = 0;
+        usarGrafoBusqueda(nucleo);
+        int n = nucleo.tamano();
+
+        int[] franjas = new int[n];
+        Arrays.fill(franjas, -1);
+        BitSet pendientes = new BitSet(n);
+        pendientes.set(0, n);
+        int costo = 0;
+        for (int i = 0; i < prefijo.length; i++) {
+            costo += calcularConflictosConFranja(i, prefijo[i], franjas);
+            franjas[i] = prefijo[i];
+            pendientes.clear(i);
+        }
+        EvaluacionNodo evaluacion = evaluarNodo(franjas, pendientes);
+        EstadoSolucion inicial = new EstadoSolucion(franjas, pendientes, costo, prefijo.length,
+                evaluacion.cotaInferior(), evaluacion.cursoSiguiente());
+
+        cotaExterna = cotaGlobal;
+        observadorMejoras = alMejorar;
+        try {
+            return buscar(List.of(inicial), Integer.MAX_VALUE, null, cotaInferiorGlobal, cotaInferiorGlobal);
+        } finally {
+            cotaExterna = SIN_COTA_EXTERNA;
+            observadorMejoras = null;
+        }
+    }
+
+    /**
+     * Traduce un horario del núcleo a todos los cursos. Requiere
+     * {@link #prepararNucleo()}.
+     *
+     * @param resultado Horario del núcleo, o null si no se encontró ninguno
+     */
+    public Solucion construirSolucion(ResultadoNucleo resultado) {
+        if (resultado == null) {
+            return new Solucion(null, Integer.MAX_VALUE);
+        }
+        int[] franjas = reductor.reconstruir(resultado.franjas());
+        Map<Curso, Integer> horario = new HashMap<>();
+        for (int i = 0; i < grafoCompleto.tamano(); i++) {
+            horario.put(grafoCompleto.curso(i), franjas[i]);
+        }
+        return new Solucion(horario, resultado.conflictos());
+    }
+
+    /**
+     * Ejecuta la búsqueda Branch & Bound sobre el núcleo reducido.
+     * 
+     * @param nucleo             Grafo (posiblemente con cursos fusionados) a
+     *                           resolver
+     * @param cotaInferiorGlobal Costo mínimo demostrado de cualquier horario; la
+     *                           búsqueda se detiene al alcanzarlo
+     * @param puntoControl       Búsqueda guardada desde la que continuar, o
+     *                           null para empezar desde la raíz
+     * @param cotaSuperior       Umbral de poda inicial (Integer.MAX_VALUE si
+     *                           no se conoce ningún horario)
+     * @return El mejor horario del núcleo, o null si no se encontró ninguno;
+     *         si se cancela (o se supera el límite de la frontera) antes de
+     *         encontrar uno, se completa de forma voraz el estado más
+     *         prometedor de la frontera
+     */
+    private ResultadoNucleo ramificarYPodar(GrafoCompacto nucleo, int cotaInferiorGlobal,
+            PuntoControlBusqueda puntoControl, int cotaSuperior) {
+        usarGrafoBusqueda(nucleo);
+        int n = nucleo.tamano();
+
+        List<EstadoSolucion> iniciales = new ArrayList<>();
+        ResultadoNucleo mejorSolucion = null;
+        int mejorCota = cotaInferiorGlobal;
+
+        if (puntoControl == null) {
+            int[] franjasIniciales = new int[n];
+            Arrays.fill(franjasIniciales, -1);
+            BitSet pendientesIniciales = new BitSet(n);
+            pendientesIniciales.set(0, n);
+            EvaluacionNodo evaluacionInicial = evaluarNodo(franjasIniciales, pendientesIniciales);
+            iniciales.add(new EstadoSolucion(franjasIniciales, pendientesIniciales, 0, 0,
+                    evaluacionInicial.cotaInferior(), evaluacionInicial.cursoSiguiente()));
+        } else {
+            iniciales.addAll(puntoControl.frontera);
+            if (puntoControl.franjasIncumbente != null) {
+                cotaSuperior = puntoControl.costoIncumbente;
+                mejorSolucion = new ResultadoNucleo(puntoControl.franjasIncumbente, cotaSuperior);
             }
-            franjasOrdenadas.sort(Comparator.comparingInt(fc -> fc.conflictos));
+            mejorCota = Math.max(mejorCota, puntoControl.mejorCota);
+            estadosExplorados = puntoControl.estadosExplorados;
+            estadosPodados = puntoControl.estadosPodados;
+        }
 
-            for (FranjaConflicto fc : franjasOrdenadas) {
-                int nuevoCosto = estadoActual.costo + fc.conflictos;
+        if (archivoPuntoControl != null) {
+            escritorPuntoControl = Executors.newSingleThreadExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "punto-control");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        try {
+            mejorSolucion = buscar(iniciales, cotaSuperior, mejorSolucion, cotaInferiorGlobal, mejorCota);
+        } finally {
+            if (escritorPuntoControl != null) {
+                escritorPuntoControl.shutdown();
+                escritorPuntoControl = null;
+                escrituraEnCurso = null;
+            }
+        }
+        return mejorSolucion;
+    }
 
-                if (nuevoCosto >= cotaSuperior) {
-                    estadosPodados++;
-                    continue;
+    /**
+     * Explora desde los estados iniciales con un {@link MotorBusqueda} y
+     * registra sus estadísticas.
+     */
+    private ResultadoNucleo buscar(List<EstadoSolucion> iniciales, int cotaSuperior,
+            ResultadoNucleo mejorSolucion, int cotaInferiorGlobal, int mejorCota) {
+        inicioBusqueda = System.nanoTime();
+        nanosPrimeraSolucion = -1;
+        cotasCalculadas = 0;
+        MotorBusqueda motor = new MotorBusqueda(this);
+        try {
+            return motor.buscar(iniciales, cotaSuperior, mejorSolucion, cotaInferiorGlobal, mejorCota);
+        } finally {
+            nanosBusqueda = System.nanoTime() - inicioBusqueda;
+            picoNodos = motor.getPicoNodos();
+            reinsertados = motor.getReinsertados();
+            picoBytesEstimados = motor.picoBytesEstimados();
+        }
+    }
+
+    /**
+     * Anota el primer horario de la búsqueda y avisa al observador de
+     * mejoras.
+     */
+    void registrarMejora(ResultadoNucleo mejora) {
+        if (nanosPrimeraSolucion < 0) {
+            nanosPrimeraSolucion = System.nanoTime() - inicioBusqueda;
+        }
+        if (observadorMejoras != null) {
+            observadorMejoras.accept(mejora);
+        }
+    }
+
+    /**
+     * Guarda en la enumeración un horario completo del núcleo que no supera el
+     * umbral de poda (si su forma canónica es nueva) y devuelve el umbral
+     * siguiente: su costo más uno mientras falten horarios, y su costo
+     * después.
+     */
+    int registrarOptimo(int[] franjas, int costo) {
+        if (optimos.isEmpty() || costo < costoOptimos) {
+            optimos.clear();
+            optimosCanonicos.clear();
+            costoOptimos = costo;
+        }
+        if (optimos.size() < limiteOptimos && optimosCanonicos.add(new HorarioCanonico(canonico(franjas)))) {
+            optimos.add(franjas.clone());
+        }
+        return optimos.size() < limiteOptimos ? costo + 1 : costo;
+    }
+
+    /**
+     * Forma canónica de un horario frente a los cambios de nombre de las
+     * franjas que conservan su costo. Sin franjas contiguas penalizadas, las
+     * franjas se renumeran por orden de primera aparición; con ellas, solo
+     * invertir el orden de las franjas conserva el costo, y se elige el menor
+     * (lexicográficamente) entre el horario y su inverso.
+     */
+    private int[] canonico(int[] franjas) {
+        int k = numeroFranjasHorarias;
+        int[] resultado = new int[franjas.length];
+        if (pesoContigua == 0) {
+            int[] nombre = new int[k];
+            Arrays.fill(nombre, -1);
+            int siguiente = 0;
+            for (int i = 0; i < franjas.length; i++) {
+                if (nombre[franjas[i]] < 0) {
+                    nombre[franjas[i]] = siguiente++;
+                }
+                resultado[i] = nombre[franjas[i]];
+            }
+            return resultado;
+        }
+        for (int i = 0; i < franjas.length; i++) {
+            resultado[i] = k - 1 - franjas[i];
+        }
+        return Arrays.compare(resultado, franjas) < 0 ? resultado : franjas.clone();
+    }
+
+    /**
+     * Marca en {@link #franjaPermitida} las franjas que puede tomar el curso
+     * que se ramifica. En la enumeración sin franjas contiguas penalizadas,
+     * las franjas que ningún curso asignado usa son intercambiables, así que
+     * solo se permite la menor de ellas además de las usadas. Con franjas
+     * contiguas, el primer curso solo toma franjas hasta (k - 1) / 2: un
+     * horario o su inverso lo coloca ahí. En otro caso, todas.
+     */
+    void marcarFranjasPermitidas(int[] franjas) {
+        boolean[] permitida = franjaPermitida;
+        if (!enumerando) {
+            Arrays.fill(permitida, true);
+            return;
+        }
+        if (pesoContigua != 0) {
+            boolean primero = true;
+            for (int franja : franjas) {
+                if (franja >= 0) {
+                    primero = false;
+                    break;
                 }
+            }
+            for (int franja = 0; franja < permitida.length; franja++) {
+                permitida[franja] = !primero || franja <= (permitida.length - 1) / 2;
+            }
+            return;
+        }
+        Arrays.fill(permitida, false);
+        for (int franja : franjas) {
+            if (franja >= 0) {
+                permitida[franja] = true;
+            }
+        }
+        for (int franja = 0; franja < permitida.length; franja++) {
+            if (!permitida[franja]) {
+                permitida[franja] = true;
+                break;
+            }
+        }
+    }
+
+    /**
+     * La búsqueda terminó: el punto de control ya no sirve para reanudar.
+     */
+    void terminarPuntoControl() {
+        if (archivoPuntoControl != null) {
+            esperarEscrituraPuntoControl();
+            try {
+                Files.deleteIfExists(archivoPuntoControl);
+            } catch (IOException e) {
+                errorPuntoControl = e;
+            }
+        }
+    }
 
-                Map<Curso, Integer> nuevoHorario = new HashMap<>(estadoActual.horario);
-                nuevoHorario.put(cursoParaAsignar, fc.franja);
+    /**
+     * Guarda un punto de control con la frontera actual.
+     *
+     * @param frontera Copia la frontera; solo se llama si de verdad se
+     *                 escribe
+     * @param sincrono Si es true se escribe en este hilo (tras esperar la
+     *                 escritura en curso); si no, se escribe en segundo plano
+     *                 solo si pasó el intervalo y no hay otra escritura en
+     *                 curso
+     */
+    void guardarPuntoControl(Supplier<List<EstadoSolucion>> frontera, ResultadoNucleo mejorSolucion,
+            int cotaInferiorGlobal, int mejorCota, boolean sincrono) {
+        long ahora = System.nanoTime();
+        if (!sincrono && (ahora - ultimoPuntoControl < intervaloPuntoControlNanos
+                || (escrituraEnCurso != null && !escrituraEnCurso.isDone()))) {
+            return;
+        }
+        ultimoPuntoControl = ahora;
+
+        PuntoControlBusqueda punto = new PuntoControlBusqueda(
+                huellaNucleo, numeroFranjasHorarias, grafoBusqueda.tamano(), cotaInferiorGlobal, mejorCota,
+                estadosExplorados, estadosPodados,
+                mejorSolucion != null ? mejorSolucion.franjas() : null,
+                mejorSolucion != null ? mejorSolucion.conflictos() : Integer.MAX_VALUE,
+                frontera.get());
+        Path archivo = archivoPuntoControl;
+        Runnable escritura = () -> {
+            try {
+                punto.escribir(archivo);
+            } catch (IOException e) {
+                errorPuntoControl = e;
+            }
+        };
+
+        if (sincrono) {
+            esperarEscrituraPuntoControl();
+            escritura.run();
+        } else {
+            escrituraEnCurso = escritorPuntoControl.submit(escritura);
+        }
+    }
 
-                int nuevaCotaInferior = calcularCotaInferior(nuevoHorario, estadoActual.nivel + 1);
+    private void esperarEscrituraPuntoControl() {
+        if (escrituraEnCurso == null) {
+            return;
+        }
+        try {
+            escrituraEnCurso.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            errorPuntoControl = new IOException(e.getCause());
+        }
+    }
 
-                if (nuevoCosto + nuevaCotaInferior < cotaSuperior) {
-                    colaPrioridad.add(new EstadoSolucion(
-                            nuevoHorario, nuevoCosto, estadoActual.nivel + 1, nuevaCotaInferior));
-                } else {
-                    estadosPodados++;
+    /**
+     * Completa un estado parcial asignando cada curso pendiente a su franja de
+     * menor costo en ese momento.
+     */
+    ResultadoNucleo completarVoraz(EstadoSolucion estado) {
+        int[] franjas = estado.franjas.clone();
+        int costo = estado.costo;
+        for (int curso = estado.pendientes.nextSetBit(0); curso >= 0;
+                curso = estado.pendientes.nextSetBit(curso + 1)) {
+            int mejorFranja = 0;
+            int mejorConflictos = Integer.MAX_VALUE;
+            calcularCostosCurso(curso, franjas);
+            for (int franja = 0; franja < numeroFranjasHorarias; franja++) {
+                int conflictos = costosCurso[franja];
+                if (conflictos < mejorConflictos) {
+                    mejorConflictos = conflictos;
+                    mejorFranja = franja;
                 }
             }
+            franjas[curso] = mejorFranja;
+            costo += mejorConflictos;
         }
+        return new ResultadoNucleo(franjas, costo);
+    }
 
-        return mejorSolucion;
+    /**
+     * Publica el progreso si pasó el intervalo mínimo desde la última vez.
+     */
+    void notificarProgreso(int frontera, int mejorCosto, int mejorCota) {
+        long ahora = System.nanoTime();
+        if (ahora - ultimaNotificacion >= INTERVALO_PROGRESO_NANOS) {
+            ultimaNotificacion = ahora;
+            observadorProgreso.accept(new ProgresoBusqueda(
+                    estadosExplorados, estadosPodados, frontera, mejorCosto, mejorCota));
+        }
     }
 
     /**
-     * Calcula los conflictos que genera asignar un curso a una franja específica.
+     * Calcula en {@link #costosCurso} el costo que generaría asignar un curso a
+     * cada franja, con un solo recorrido de sus vecinos.
      */
-    private int calcularConflictosConFranja(Curso curso, int franja, Map<Curso, Integer> horarioActual) {
+    void calcularCostosCurso(int curso, int[] franjas) {
+        calculadorCostos.calcular(grafoBusqueda.vecinos(curso), grafoBusqueda.pesos(curso), franjas, costosCurso, 0);
+        aplicarPesos(costosCurso, 0, costosCurso, 0);
+    }
+
+    /**
+     * Calcula el costo que genera asignar un curso a una franja específica.
+     * Solo recorre los vecinos del curso en el grafo de búsqueda.
+     */
+    private int calcularConflictosConFranja(int curso, int franja, int[] franjas) {
+        int[] vecinos = grafoBusqueda.vecinos(curso);
+        int[] pesos = grafoBusqueda.pesos(curso);
         int conflictos = 0;
-        for (Map.Entry<Curso, Integer> asignacion : horarioActual.entrySet()) {
-            if (asignacion.getValue() == franja) {
-                conflictos += grafoConflictos.obtenerConflictos(curso, asignacion.getKey());
+        for (int j = 0; j < vecinos.length; j++) {
+            if (franjas[vecinos[j]] >= 0) {
+                conflictos += costoArista(franjas[vecinos[j]], franja, pesos[j]);
             }
         }
         return conflictos;
     }
 
     /**
-     * Calcula una cota inferior (heurística) para el número mínimo de conflictos
-     * adicionales.
-     * Esta estimación nunca sobreestima el costo real (admisible).
+     * Costo de una arista con cada extremo asignado a una franja: pesoConflicto
+     * por estudiante en la misma franja y pesoContigua en franjas consecutivas.
+     */
+    private int costoArista(int franja, int otraFranja, int peso) {
+        int distancia = Math.abs(franja - otraFranja);
+        return distancia == 0 ? pesoConflicto * peso : distancia == 1 ? pesoContigua * peso : 0;
+    }
+
+    /**
+     * Convierte una fila de pesos por franja (la suma de los pesos de los
+     * vecinos asignados a cada franja) en el costo de cada franja según el
+     * objetivo. Origen y destino pueden ser la misma fila.
+     */
+    void aplicarPesos(int[] origen, int desde, int[] destino, int hasta) {
+        int k = numeroFranjasHorarias;
+        if (pesoContigua == 0) {
+            for (int franja = 0; franja < k; franja++) {
+                destino[hasta + franja] = pesoConflicto * origen[desde + franja];
+            }
+            return;
+        }
+        int[] fila = filaPesos;
+        System.arraycopy(origen, desde, fila, 0, k);
+        for (int franja = 0; franja < k; franja++) {
+            int contiguas = (franja > 0 ? fila[franja - 1] : 0) + (franja + 1 < k ? fila[franja + 1] : 0);
+            destino[hasta + franja] = pesoConflicto * fila[franja] + pesoContigua * contiguas;
+        }
+    }
+
+    /**
+     * Fija el grafo de la búsqueda y sus pesos por término del objetivo.
+     */
+    private void usarGrafoBusqueda(GrafoCompacto grafo) {
+        grafoBusqueda = grafo;
+        int n = grafo.tamano();
+        pesosConflictoBusqueda = new int[n][];
+        pesosContiguaBusqueda = pesoContigua == 0 ? null : new int[n][];
+        for (int i = 0; i < n; i++) {
+            pesosConflictoBusqueda[i] = multiplicar(grafo.pesos(i), pesoConflicto);
+            if (pesosContiguaBusqueda != null) {
+                pesosContiguaBusqueda[i] = multiplicar(grafo.pesos(i), pesoContigua);
+            }
+        }
+    }
+
+    private static int[] multiplicar(int[] pesos, int factor) {
+        if (factor == 1) {
+            return pesos;
+        }
+        int[] resultado = new int[pesos.length];
+        for (int j = 0; j < pesos.length; j++) {
+            resultado[j] = factor * pesos[j];
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula en {@link #acumulados} las filas de unos cursos (de todos, si es
+     * null) para un horario parcial.
+     */
+    void cargarAcumulados(int[] franjas, BitSet filas) {
+        int k = numeroFranjasHorarias;
+        int n = franjas.length;
+        if (acumulados == null || acumulados.length < n * k) {
+            acumulados = new int[n * k];
+        }
+        if (filas == null) {
+            for (int i = 0; i < n; i++) {
+                calculadorCostos.calcular(grafoBusqueda.vecinos(i), grafoBusqueda.pesos(i), franjas, acumulados, i * k);
+            }
+            return;
+        }
+        for (int i = filas.nextSetBit(0); i >= 0; i = filas.nextSetBit(i + 1)) {
+            calculadorCostos.calcular(grafoBusqueda.vecinos(i), grafoBusqueda.pesos(i), franjas, acumulados, i * k);
+        }
+    }
+
+    /**
+     * Suma (signo 1) o resta (signo -1) en los acumuladores la asignación de
+     * un curso a una franja: solo cambia la fila de cada vecino.
+     */
+    void moverEnAcumulados(int curso, int franja, int signo) {
+        int k = numeroFranjasHorarias;
+        int[] vecinos = grafoBusqueda.vecinos(curso);
+        int[] pesos = grafoBusqueda.pesos(curso);
+        for (int j = 0; j < vecinos.length; j++) {
+            acumulados[vecinos[j] * k + franja] += signo * pesos[j];
+        }
+    }
+
+    /**
+     * Calcula la cota inferior del nodo y elige el curso por el que conviene
+     * ramificar (selección dinámica de variable).
      * 
-     * Estrategia: Para cada curso no asignado, calcula el mínimo de conflictos
-     * que tendría con los cursos ya asignados en cualquier franja.
+     * Primera pasada, para cada curso pendiente j: costo c_j(f) de cada franja
+     * frente a los cursos ya asignados. La suma de los mínimos es la cota
+     * clásica (admisible).
+     * 
+     * Segunda pasada, para cada curso pendiente i y franja f: incremento
+     * d_i(f) de la cota si i se asignara a f, contando su propio costo extra y
+     * el de sus vecinos pendientes cuya única franja mínima sea f. El curso
+     * elegido es el de mayor mínimo de d_i (el más restringido: incluso su
+     * mejor franja encarece más la solución). Ese mínimo también es admisible,
+     * porque i terminará en alguna franja, así que se suma a la cota.
+     * 
+     * Con franjas contiguas penalizadas, cada vecino pendiente cuya única
+     * franja mínima es contigua a f también suma, con su peso por ese término.
+     * 
+     * Desempates: mayor peso total de conflicto, mayor peso hacia cursos ya
+     * asignados y más franjas distintas ocupadas por sus vecinos.
      */
-    private int calcularCotaInferior(Map<Curso, Integer> horarioActual, int nivelActual) {
+    EvaluacionNodo evaluarNodo(int[] franjas, BitSet pendientes) {
+        return evaluarNodo(franjas, pendientes, null);
+    }
+
+    /**
+     * Como {@link #evaluarNodo(int[], BitSet)}, pero con los costos frente a
+     * los asignados tomados de unos acumuladores al día (ver
+     * {@link #acumulados}), o recorriendo los vecinos si es null.
+     */
+    EvaluacionNodo evaluarNodo(int[] franjas, BitSet pendientes, int[] acumuladosNodo) {
+        cotasCalculadas++;
+        int k = numeroFranjasHorarias;
+        int n = franjas.length;
+        if (costosFranja == null || costosFranja.length < n * k) {
+            costosFranja = new int[n * k];
+            minimoFranja = new int[n];
+            franjaMinima = new int[n];
+            holguraFranja = new int[n];
+        }
+
         int cotaInferior = 0;
+        for (int i = pendientes.nextSetBit(0); i >= 0; i = pendientes.nextSetBit(i + 1)) {
+            int base = i * k;
+            if (acumuladosNodo != null) {
+                aplicarPesos(acumuladosNodo, base, costosFranja, base);
+            } else {
+                calculadorCostos.calcular(grafoBusqueda.vecinos(i), grafoBusqueda.pesos(i), franjas, costosFranja, base);
+                if (pesoConflicto != 1 || pesoContigua != 0) {
+                    aplicarPesos(costosFranja, base, costosFranja, base);
+                }
+            }
 
-        for (int i = nivelActual; i < cursos.size(); i++) {
-            Curso cursoNoAsignado = cursos.get(i);
-            int minConflicto = Integer.MAX_VALUE;
+            int minimo = Integer.MAX_VALUE;
+            int segundo = Integer.MAX_VALUE;
+            int franjaDelMinimo = -1;
+            for (int franja = 0; franja < k; franja++) {
+                int costo = costosFranja[base + franja];
+                if (costo < minimo) {
+                    segundo = minimo;
+                    minimo = costo;
+                    franjaDelMinimo = franja;
+                } else if (costo < segundo) {
+                    segundo = costo;
+                }
+            }
+            cotaInferior += minimo;
+            minimoFranja[i] = minimo;
+            // Con empate en el mínimo, ninguna franja sola puede encarecer al curso.
+            franjaMinima[i] = segundo == minimo ? -1 : franjaDelMinimo;
+            holguraFranja[i] = segundo == Integer.MAX_VALUE ? Integer.MAX_VALUE : segundo - minimo;
+        }
 
-            for (int franja = 0; franja < numeroFranjasHorarias; franja++) {
-                int conflictosFranja = 0;
-                for (Map.Entry<Curso, Integer> asignacion : horarioActual.entrySet()) {
-                    if (asignacion.getValue() == franja) {
-                        conflictosFranja += grafoConflictos.obtenerConflictos(
-                                cursoNoAsignado, asignacion.getKey());
-                    }
+        // Los cursos asignados no tienen franja mínima: así la segunda pasada
+        // solo cuenta vecinos pendientes.
+        for (int c = 0; c < n; c++) {
+            if (franjas[c] >= 0) {
+                franjaMinima[c] = -1;
+            }
+        }
+
+        int[] incremento = new int[k];
+        int[] incrementoMejor = new int[k];
+        int mejorCurso = -1;
+        int mejorIncremento = -1;
+        int mejorSaturacion = -1;
+        int mejorPesoAsignado = -1;
+        int mejorPesoTotal = -1;
+
+        for (int i = pendientes.nextSetBit(0); i >= 0; i = pendientes.nextSetBit(i + 1)) {
+            int base = i * k;
+            int saturacion = 0;
+            int pesoAsignado = 0;
+            for (int franja = 0; franja < k; franja++) {
+                int costo = costosFranja[base + franja];
+                incremento[franja] = costo - minimoFranja[i];
+                pesoAsignado += costo;
+                if (costo > 0) {
+                    saturacion++;
                 }
-                minConflicto = Math.min(minConflicto, conflictosFranja);
+            }
 
-                if (minConflicto == 0)
-                    break;
+            calculadorCostos.sumarAcotado(grafoBusqueda.vecinos(i), pesosConflictoBusqueda[i], franjaMinima,
+                    holguraFranja, incremento, 0);
+            if (pesosContiguaBusqueda != null) {
+                Arrays.fill(incrementoContiguo, 0);
+                calculadorCostos.sumarAcotado(grafoBusqueda.vecinos(i), pesosContiguaBusqueda[i], franjaMinima,
+                        holguraFranja, incrementoContiguo, 0);
+                for (int franja = 0; franja < k; franja++) {
+                    incremento[franja] += (franja > 0 ? incrementoContiguo[franja - 1] : 0)
+                            + (franja + 1 < k ? incrementoContiguo[franja + 1] : 0);
+                }
+            }
+
+            int minIncremento = Integer.MAX_VALUE;
+            for (int franja = 0; franja < k; franja++) {
+                minIncremento = Math.min(minIncremento, incremento[franja]);
             }
 
-            if (minConflicto != Integer.MAX_VALUE) {
-                cotaInferior += minConflicto;
+            int pesoTotal = grafoBusqueda.pesoTotal(i);
+            if (minIncremento > mejorIncremento
+                    || (minIncremento == mejorIncremento && (pesoTotal > mejorPesoTotal
+                            || (pesoTotal == mejorPesoTotal && (pesoAsignado > mejorPesoAsignado
+                                    || (pesoAsignado == mejorPesoAsignado && saturacion > mejorSaturacion)))))) {
+                mejorCurso = i;
+                mejorIncremento = minIncremento;
+                mejorSaturacion = saturacion;
+                mejorPesoAsignado = pesoAsignado;
+                mejorPesoTotal = pesoTotal;
+                int[] intercambio = incrementoMejor;
+                incrementoMejor = incremento;
+                incremento = intercambio;
             }
         }
 
-        return cotaInferior;
+        if (mejorCurso < 0) {
+            return new EvaluacionNodo(cotaInferior, -1, cotaInferior, incrementoMejor);
+        }
+        return new EvaluacionNodo(cotaInferior + mejorIncremento, mejorCurso, cotaInferior, incrementoMejor);
+    }
+
+    /**
+     * Obtiene las estadísticas de la última búsqueda Branch & Bound (ceros si
+     * el núcleo se resolvió sin ramificar).
+     */
+    public EstadisticasBusqueda obtenerEstadisticasBusqueda() {
+        return new EstadisticasBusqueda(politica, nanosPrimeraSolucion, nanosBusqueda,
+                estadosExplorados, estadosPodados, cotasCalculadas, reinsertados, picoNodos, picoBytesEstimados);
+    }
+
+    /**
+     * Indica si la última ejecución se detuvo por cancelación (la solución
+     * devuelta puede no ser óptima).
+     */
+    public boolean fueCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Obtiene el último error al escribir o borrar un punto de control en la
+     * última ejecución (null si no hubo); la búsqueda no se interrumpe por
+     * estos errores.
+     */
+    public IOException obtenerErrorPuntoControl() {
+        return errorPuntoControl;
+    }
+
+    /**
+     * Indica si la última ejecución se detuvo por superar el límite de la
+     * frontera (la solución devuelta puede no ser óptima).
+     */
+    public boolean alcanzoLimiteFrontera() {
+        return limiteFronteraAlcanzado;
     }
 
     /**
@@ -181,40 +1246,82 @@ public class OptimizadorHorarios {
     }
 
     /**
-     * Obtiene los detalles de los conflictos en un horario dado.
+     * Obtiene el número de nodos explorados por la prueba de k-coloreabilidad
+     * en la última ejecución.
+     */
+    public long obtenerNodosColoreo() {
+        return nodosColoreo;
+    }
+
+    /**
+     * Obtiene el número de cursos que quedaron en el núcleo tras la reducción
+     * del grafo en la última ejecución.
+     */
+    public int obtenerCursosEnNucleo() {
+        return cursosEnNucleo;
+    }
+
+    /**
+     * Obtiene el ancho de la descomposición en árbol del núcleo en la última
+     * ejecución, o -1 si no se calculó o superaba el límite de estados (el
+     * núcleo se resolvió entonces con el Branch & Bound).
+     */
+    public int obtenerAnchoDescomposicion() {
+        return anchoDescomposicion;
+    }
+
+    /**
+     * Obtiene el costo mínimo demostrado de cualquier horario en la última
+     * ejecución (0 si no se pudo demostrar ninguno).
+     */
+    public int obtenerCotaInferiorGlobal() {
+        return cotaInferiorGlobal;
+    }
+
+    /**
+     * Obtiene la huella del núcleo de la última ejecución, que identifica la
+     * instancia reducida (dos procesos con la misma huella ramifican sobre el
+     * mismo núcleo).
+     */
+    public long obtenerHuellaNucleo() {
+        return huellaNucleo;
+    }
+
+    /**
+     * Obtiene los pares de cursos en conflicto que comparten franja en un
+     * horario, ordenados por franja y curso (ver
+     * {@link GrafoConflictos#conflictosEnHorario(int[])}).
+     */
+    public List<ConflictoHorario> obtenerConflictosDelHorario(Map<Curso, Integer> horario) {
+        if (horario == null)
+            return new ArrayList<>();
+        return grafoConflictos.conflictosEnHorario(grafoConflictos.franjasPorId(horario));
+    }
+
+    /**
+     * Obtiene los detalles de los conflictos en un horario dado, como texto.
      */
     public List<String> obtenerDetallesDeConflictos(Map<Curso, Integer> horario) {
         List<String> detalles = new ArrayList<>();
-        if (horario == null)
-            return detalles;
-
-        Map<Integer, List<Curso>> franjaACursos = new HashMap<>();
-        for (Map.Entry<Curso, Integer> asignacion : horario.entrySet()) {
-            franjaACursos.computeIfAbsent(asignacion.getValue(), k -> new ArrayList<>())
-                    .add(asignacion.getKey());
-        }
-
-        for (Map.Entry<Integer, List<Curso>> entrada : franjaACursos.entrySet()) {
-            List<Curso> cursosEnFranja = entrada.getValue();
-            for (int i = 0; i < cursosEnFranja.size(); i++) {
-                for (int j = i + 1; j < cursosEnFranja.size(); j++) {
-                    Curso c1 = cursosEnFranja.get(i);
-                    Curso c2 = cursosEnFranja.get(j);
-                    int conflictos = grafoConflictos.obtenerConflictos(c1, c2);
-                    if (conflictos > 0) {
-                        detalles.add(String.format(
-                                "Franja %d: %s (%s) y %s (%s) - %d estudiante(s) afectado(s)",
-                                entrada.getKey() + 1,
-                                c1.id(), c1.nombre(),
-                                c2.id(), c2.nombre(),
-                                conflictos));
-                    }
-                }
-            }
+        for (ConflictoHorario conflicto : obtenerConflictosDelHorario(horario)) {
+            detalles.add(String.format(
+                    "Franja %d: %s (%s) y %s (%s) - %d estudiante(s) afectado(s)",
+                    conflicto.franja() + 1,
+                    conflicto.curso1().id(), conflicto.curso1().nombre(),
+                    conflicto.curso2().id(), conflicto.curso2().nombre(),
+                    conflicto.estudiantes()));
         }
         return detalles;
     }
 
+    /**
+     * Obtiene, para cada estudiante, las franjas de un horario en las que
+     * tiene dos o más exámenes.
+     */
+    public ChoquesPorEstudiante obtenerChoquesPorEstudiante(Map<Curso, Integer> horario) {
+        return new ChoquesPorEstudiante(grafoConflictos, grafoConflictos.franjasPorId(horario));
+    }
+
     /**
      * Obtiene el grafo de conflictos.
      */
@@ -223,8 +1330,41 @@ public class OptimizadorHorarios {
     }
 
     /**
-     * Clase auxiliar para ordenar franjas por conflicto.
+     * Resultado de evaluar un nodo: su cota inferior y el curso a ramificar,
+     * más lo necesario para acotar sus hijos sin evaluarlos (la suma de los
+     * mínimos de los pendientes y el incremento d(f) del curso elegido en
+     * cada franja).
      */
-    private record FranjaConflicto(int franja, int conflictos) {
+    record EvaluacionNodo(int cotaInferior, int cursoSiguiente, int sumaMinimos, int[] incrementos) {
+    }
+
+    /**
+     * Horario del núcleo, por índice de curso del núcleo, y su costo.
+     */
+    public record ResultadoNucleo(int[] franjas, int conflictos) {
+    }
+
+    /**
+     * Subproblema de la búsqueda distribuida: franjas fijadas para los
+     * primeros cursos del núcleo y los conflictos que ya generan entre sí.
+     */
+    public record Subproblema(int[] prefijo, int costo) {
+    }
+
+    /**
+     * Forma canónica de un horario óptimo (ver {@link #canonico}), como clave
+     * para no repetir horarios en la enumeración.
+     */
+    private record HorarioCanonico(int[] franjas) {
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof HorarioCanonico horario && Arrays.equals(franjas, horario.franjas);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(franjas);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.examscheduler.solucionador;
+
+/**
+ * Política de selección de nodos de la búsqueda Branch & Bound (ver
+ * {@link OptimizadorHorarios#setPoliticaBusqueda}).
+ *
+ * Todas son exactas: solo cambian el orden en que se exploran los nodos y,
+ * con ello, cuándo aparece el primer horario, cuánto se poda y cuánta memoria
+ * ocupa la búsqueda. Las estadísticas de cada ejecución se obtienen con
+ * {@link OptimizadorHorarios#obtenerEstadisticasBusqueda()}.
+ */
+public enum PoliticaBusqueda {
+
+    /**
+     * Primero el nodo de menor cota (y, a igual cota, el más profundo). Es la
+     * que menos nodos explora para demostrar el óptimo, pero tarda en
+     * encontrar el primer horario y guarda una frontera grande.
+     */
+    MEJOR_PRIMERO("Mejor primero"),
+
+    /**
+     * Profundidad primero sobre un único estado que se modifica y se deshace
+     * al retroceder: memoria proporcional a la profundidad. Encuentra horarios
+     * enseguida, pero puede explorar muchos nodos que la cota no poda.
+     */
+    PROFUNDIDAD("Profundidad"),
+
+    /**
+     * Mejor primero con inmersiones periódicas en profundidad: mientras no
+     * hay horario, y después cada cierto número de nodos, se baja por el
+     * mejor hijo hasta una hoja, dejando sus hermanos en la frontera.
+     */
+    MEJOR_PRIMERO_CON_INMERSIONES("Mejor primero con inmersiones"),
+
+    /**
+     * Primero el nodo con mejor estimación del costo final: su cota más el
+     * aumento medio de la cota por curso asignado observado hasta el momento
+     * (un pseudocosto global) por cada curso pendiente. Favorece los nodos
+     * profundos sin abandonar el orden por calidad.
+     */
+    MEJOR_ESTIMACION("Mejor estimacion");
+
+    private final String nombre;
+
+    PoliticaBusqueda(String nombre) {
+        this.nombre = nombre;
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
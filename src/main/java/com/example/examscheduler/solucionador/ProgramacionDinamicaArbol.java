@@ -0,0 +1,272 @@
+package com.example.examscheduler.solucionador;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Resuelve de forma exacta el horario de un grafo de ancho de árbol pequeño
+ * con programación dinámica sobre una descomposición en árbol (ver
+ * {@link DescomposicionArbol}).
+ *
+ * Las bolsas se recorren de las hojas a las raíces. La tabla de cada bolsa
+ * tiene k^|separador| entradas: para cada asignación de franjas a su
+ * separador, el menor costo posible de su curso y de todos los cursos de sus
+ * bolsas descendientes (las aristas de cada curso hacia cursos que se
+ * eliminan después, más las tablas de las bolsas hijas). El costo total es la
+ * suma de las tablas raíz, y el horario se reconstruye de las raíces a las
+ * hojas con la mejor franja guardada para cada entrada.
+ *
+ * El tiempo es proporcional a n · k^(ancho + 1), así que solo se aplica si
+ * ninguna tabla supera {@link #ESTADOS_MAXIMOS_POR_BOLSA} entradas y todas
+ * juntas no superan un límite de estados; si no, el grafo se deja al Branch
+ * & Bound. Las tablas se liberan al usarlas en su bolsa padre; de cada
+ * entrada solo queda su mejor franja, en un byte.
+ */
+public class ProgramacionDinamicaArbol {
+
+    /**
+     * Máximo de entradas de la tabla de una bolsa.
+     */
+    public static final long ESTADOS_MAXIMOS_POR_BOLSA = 1L << 20;
+
+    /**
+     * Límite por defecto de la suma de las entradas de todas las tablas.
+     */
+    public static final long LIMITE_ESTADOS_POR_DEFECTO = 1L << 26;
+
+    /**
+     * Memoria de una entrada en el peor caso: su costo (int) y su mejor
+     * franja (byte).
+     */
+    public static final int BYTES_POR_ESTADO = 5;
+
+    private final GrafoCompacto grafo;
+    private final int numeroFranjas;
+    private final int pesoConflicto;
+    private final int pesoContigua;
+    private final BooleanSupplier cancelacion;
+    private final DescomposicionArbol descomposicion;
+
+    /**
+     * Calcula la descomposición del grafo; si no cabe en el límite de
+     * estados, {@link #esAplicable()} devuelve false.
+     *
+     * @param grafo         Grafo de conflictos (normalmente el núcleo)
+     * @param numeroFranjas Número de franjas horarias
+     * @param pesoConflicto Peso de cada estudiante con dos exámenes en la
+     *                      misma franja
+     * @param pesoContigua  Peso de cada estudiante con exámenes en franjas
+     *                      contiguas
+     * @param limiteEstados Máximo de entradas de todas las tablas juntas
+     * @param cancelacion   Se consulta entre bolsas
+     */
+    public ProgramacionDinamicaArbol(GrafoCompacto grafo, int numeroFranjas, int pesoConflicto, int pesoContigua,
+            long limiteEstados, BooleanSupplier cancelacion) {
+        this.grafo = grafo;
+        this.numeroFranjas = numeroFranjas;
+        this.pesoConflicto = pesoConflicto;
+        this.pesoContigua = pesoContigua;
+        this.cancelacion = cancelacion;
+        // La mejor franja de cada entrada se guarda en un byte.
+        this.descomposicion = numeroFranjas >= 1 && numeroFranjas <= Byte.MAX_VALUE
+                ? DescomposicionArbol.calcular(grafo, numeroFranjas, ESTADOS_MAXIMOS_POR_BOLSA, limiteEstados)
+                : null;
+    }
+
+    /**
+     * Indica si la descomposición cabe en el límite de estados.
+     */
+    public boolean esAplicable() {
+        return descomposicion != null;
+    }
+
+    /**
+     * Obtiene el ancho de la descomposición, o -1 si no es aplicable.
+     */
+    public int obtenerAncho() {
+        return descomposicion == null ? -1 : descomposicion.ancho;
+    }
+
+    /**
+     * Obtiene la suma de las entradas de todas las tablas, o -1 si no es
+     * aplicable.
+     */
+    public long obtenerEstados() {
+        return descomposicion == null ? -1 : descomposicion.estados;
+    }
+
+    /**
+     * Calcula un horario óptimo.
+     *
+     * @return El horario (por índice de curso del grafo) y su costo, o null si
+     *         no es aplicable o se canceló
+     */
+    public OptimizadorHorarios.ResultadoNucleo resolver() {
+        if (descomposicion == null) {
+            return null;
+        }
+        int n = grafo.tamano();
+        int k = numeroFranjas;
+        int[] potencias = new int[descomposicion.ancho + 1];
+        potencias[0] = 1;
+        for (int j = 1; j < potencias.length; j++) {
+            potencias[j] = potencias[j - 1] * k;
+        }
+
+        // Hijas de cada bolsa, en un solo arreglo por conteo.
+        int[] inicioHijas = new int[n + 1];
+        for (int bolsa = 0; bolsa < n; bolsa++) {
+            if (descomposicion.padre[bolsa] >= 0) {
+                inicioHijas[descomposicion.padre[bolsa] + 1]++;
+            }
+        }
+        for (int bolsa = 0; bolsa < n; bolsa++) {
+            inicioHijas[bolsa + 1] += inicioHijas[bolsa];
+        }
+        int[] hijas = new int[inicioHijas[n]];
+        int[] siguiente = Arrays.copyOf(inicioHijas, n);
+        for (int bolsa = 0; bolsa < n; bolsa++) {
+            if (descomposicion.padre[bolsa] >= 0) {
+                hijas[siguiente[descomposicion.padre[bolsa]]++] = bolsa;
+            }
+        }
+
+        int[][] tablas = new int[n][];
+        byte[][] mejores = new byte[n][];
+        int[] lugarEnSeparador = new int[n];
+        Arrays.fill(lugarEnSeparador, -1);
+        for (int bolsa = 0; bolsa < n; bolsa++) {
+            if (cancelacion.getAsBoolean()) {
+                return null;
+            }
+            calcularTabla(bolsa, hijas, inicioHijas[bolsa], inicioHijas[bolsa + 1], tablas, mejores, potencias,
+                    lugarEnSeparador);
+            for (int h = inicioHijas[bolsa]; h < inicioHijas[bolsa + 1]; h++) {
+                tablas[hijas[h]] = null;
+            }
+        }
+
+        int costo = 0;
+        for (int bolsa = 0; bolsa < n; bolsa++) {
+            if (descomposicion.padre[bolsa] < 0) {
+                costo += tablas[bolsa][0];
+            }
+        }
+        int[] franjas = new int[n];
+        for (int bolsa = n - 1; bolsa >= 0; bolsa--) {
+            int[] separador = descomposicion.separadores[bolsa];
+            int indice = 0;
+            for (int j = 0; j < separador.length; j++) {
+                indice += franjas[separador[j]] * potencias[j];
+            }
+            franjas[descomposicion.orden[bolsa]] = mejores[bolsa][indice];
+        }
+        return new OptimizadorHorarios.ResultadoNucleo(franjas, costo);
+    }
+
+    /**
+     * Llena la tabla de una bolsa: para cada asignación de su separador (en
+     * base k, la franja del j-ésimo curso del separador es la cifra j), la
+     * mejor franja de su curso con el costo de sus aristas hacia el separador
+     * más las tablas de sus hijas.
+     */
+    private void calcularTabla(int bolsa, int[] hijas, int desdeHija, int hastaHija, int[][] tablas,
+            byte[][] mejores, int[] potencias, int[] lugarEnSeparador) {
+        int k = numeroFranjas;
+        int curso = descomposicion.orden[bolsa];
+        int[] separador = descomposicion.separadores[bolsa];
+        int s = separador.length;
+        for (int j = 0; j < s; j++) {
+            lugarEnSeparador[separador[j]] = j;
+        }
+
+        // Aristas del curso hacia el separador (los vecinos que se eliminan después).
+        int[] vecinos = grafo.vecinos(curso);
+        int[] pesos = grafo.pesos(curso);
+        int[] lugarArista = new int[vecinos.length];
+        int[] pesoArista = new int[vecinos.length];
+        int aristas = 0;
+        for (int j = 0; j < vecinos.length; j++) {
+            if (descomposicion.posicion[vecinos[j]] > bolsa) {
+                lugarArista[aristas] = lugarEnSeparador[vecinos[j]];
+                pesoArista[aristas] = pesos[j];
+                aristas++;
+            }
+        }
+
+        // Por hija: su tabla, el paso de la franja del curso en su índice y,
+        // para el resto de su separador, el lugar en este separador y su paso.
+        int numeroHijas = hastaHija - desdeHija;
+        int[][] tablasHijas = new int[numeroHijas][];
+        int[] pasoCurso = new int[numeroHijas];
+        int[][] lugaresHija = new int[numeroHijas][];
+        int[][] pasosHija = new int[numeroHijas][];
+        for (int h = 0; h < numeroHijas; h++) {
+            int hija = hijas[desdeHija + h];
+            int[] separadorHija = descomposicion.separadores[hija];
+            tablasHijas[h] = tablas[hija];
+            lugaresHija[h] = new int[separadorHija.length - 1];
+            pasosHija[h] = new int[separadorHija.length - 1];
+            int otros = 0;
+            for (int j = 0; j < separadorHija.length; j++) {
+                if (separadorHija[j] == curso) {
+                    pasoCurso[h] = potencias[j];
+                } else {
+                    lugaresHija[h][otros] = lugarEnSeparador[separadorHija[j]];
+                    pasosHija[h][otros] = potencias[j];
+                    otros++;
+                }
+            }
+        }
+
+        int tamano = potencias[s];
+        int[] tabla = new int[tamano];
+        byte[] mejor = new byte[tamano];
+        int[] cifras = new int[s];
+        int[] pesoPorFranja = new int[k];
+        int[] baseHija = new int[numeroHijas];
+        for (int indice = 0; indice < tamano; indice++) {
+            Arrays.fill(pesoPorFranja, 0);
+            for (int a = 0; a < aristas; a++) {
+                pesoPorFranja[cifras[lugarArista[a]]] += pesoArista[a];
+            }
+            for (int h = 0; h < numeroHijas; h++) {
+                int base = 0;
+                int[] lugares = lugaresHija[h];
+                int[] pasos = pasosHija[h];
+                for (int j = 0; j < lugares.length; j++) {
+                    base += cifras[lugares[j]] * pasos[j];
+                }
+                baseHija[h] = base;
+            }
+
+            int mejorCosto = Integer.MAX_VALUE;
+            int mejorFranja = 0;
+            for (int franja = 0; franja < k; franja++) {
+                int contiguas = (franja > 0 ? pesoPorFranja[franja - 1] : 0)
+                        + (franja + 1 < k ? pesoPorFranja[franja + 1] : 0);
+                int costo = pesoConflicto * pesoPorFranja[franja] + pesoContigua * contiguas;
+                for (int h = 0; h < numeroHijas; h++) {
+                    costo += tablasHijas[h][baseHija[h] + franja * pasoCurso[h]];
+                }
+                if (costo < mejorCosto) {
+                    mejorCosto = costo;
+                    mejorFranja = franja;
+                }
+            }
+            tabla[indice] = mejorCosto;
+            mejor[indice] = (byte) mejorFranja;
+
+            // Siguiente asignación del separador, como un contador en base k.
+            for (int j = 0; j < s && ++cifras[j] == k; j++) {
+                cifras[j] = 0;
+            }
+        }
+
+        for (int j = 0; j < s; j++) {
+            lugarEnSeparador[separador[j]] = -1;
+        }
+        tablas[bolsa] = tabla;
+        mejores[bolsa] = mejor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.examscheduler.solucionador;
+
+/**
+ * Instantánea del avance de la búsqueda Branch & Bound, publicada
+ * periódicamente por {@link OptimizadorHorarios}.
+ *
+ * @param explorados Estados explorados hasta el momento
+ * @param podados    Estados podados hasta el momento
+ * @param frontera   Estados pendientes en la frontera de búsqueda
+ * @param mejorCosto Costo del mejor horario encontrado, o
+ *                   {@link Integer#MAX_VALUE} si aún no hay ninguno
+ * @param mejorCota  Mejor cota inferior demostrada del costo óptimo
+ */
+public record ProgresoBusqueda(int explorados, int podados, int frontera, int mejorCosto, int mejorCota) {
+
+    /**
+     * Indica si ya se encontró algún horario completo.
+     */
+    public boolean tieneSolucion() {
+        return mejorCosto != Integer.MAX_VALUE;
+    }
+}
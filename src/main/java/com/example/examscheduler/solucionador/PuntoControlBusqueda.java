@@ -0,0 +1,246 @@
+package com.example.examscheduler.solucionador;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Instantánea de una búsqueda Branch & Bound sobre el núcleo, que permite
+ * reanudarla más tarde (ver {@link OptimizadorHorarios#reanudar}).
+ *
+ * Guarda la frontera abierta, el mejor horario conocido y los contadores. Cada
+ * estado se escribe con su costo, su cota y el curso a ramificar, seguidos de
+ * las franjas empaquetadas en el mínimo de bits que admite k (la franja -1 de
+ * los pendientes se guarda como 0); los pendientes no se escriben porque son
+ * los cursos sin franja.
+ *
+ * La huella del núcleo identifica la instancia: un punto de control solo puede
+ * reanudarse sobre el mismo núcleo y el mismo número de franjas.
+ */
+final class PuntoControlBusqueda {
+
+    private static final int MAGICO = 0x45584350; // "EXCP"
+    private static final int VERSION = 1;
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    final long huella;
+    final int numeroFranjas;
+    final int tamanoNucleo;
+    final int cotaInferiorGlobal;
+    final int mejorCota;
+    final int estadosExplorados;
+    final int estadosPodados;
+    /** Franjas del mejor horario del núcleo, o null si aún no hay ninguno. */
+    final int[] franjasIncumbente;
+    final int costoIncumbente;
+    final List<EstadoSolucion> frontera;
+
+    PuntoControlBusqueda(long huella, int numeroFranjas, int tamanoNucleo, int cotaInferiorGlobal,
+            int mejorCota, int estadosExplorados, int estadosPodados,
+            int[] franjasIncumbente, int costoIncumbente, List<EstadoSolucion> frontera) {
+        this.huella = huella;
+        this.numeroFranjas = numeroFranjas;
+        this.tamanoNucleo = tamanoNucleo;
+        this.cotaInferiorGlobal = cotaInferiorGlobal;
+        this.mejorCota = mejorCota;
+        this.estadosExplorados = estadosExplorados;
+        this.estadosPodados = estadosPodados;
+        this.franjasIncumbente = franjasIncumbente;
+        this.costoIncumbente = costoIncumbente;
+        this.frontera = frontera;
+    }
+
+    /**
+     * Calcula la huella de un núcleo: sus cursos (por ID), sus aristas con
+     * pesos y el número de franjas.
+     */
+    static long huella(GrafoCompacto nucleo, int numeroFranjas) {
+        long h = 0xcbf29ce484222325L;
+        h = mezclar(h, nucleo.tamano());
+        h = mezclar(h, numeroFranjas);
+        for (int i = 0; i < nucleo.tamano(); i++) {
+            h = mezclar(h, nucleo.curso(i).id().hashCode());
+            int[] vecinos = nucleo.vecinos(i);
+            int[] pesos = nucleo.pesos(i);
+            for (int j = 0; j < vecinos.length; j++) {
+                h = mezclar(h, vecinos[j]);
+                h = mezclar(h, pesos[j]);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Huella de un núcleo resuelto con los pesos del objetivo indicados. Con
+     * los pesos por defecto (1, 0) coincide con {@link #huella(GrafoCompacto, int)}.
+     */
+    static long huella(GrafoCompacto nucleo, int numeroFranjas, int pesoConflicto, int pesoContigua) {
+        long h = huella(nucleo, numeroFranjas);
+        if (pesoConflicto != 1 || pesoContigua != 0) {
+            h = mezclar(mezclar(h, pesoConflicto), pesoContigua);
+        }
+        return h;
+    }
+
+    private static long mezclar(long h, int valor) {
+        return (h ^ valor) * 0x100000001b3L;
+    }
+
+    /**
+     * Escribe el punto de control en un archivo temporal y lo mueve sobre el
+     * destino, así que una interrupción a mitad de escritura deja intacto el
+     * punto de control anterior.
+     */
+    void escribir(Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        int bits = bitsPorFranja(numeroFranjas);
+        long[] palabras = new long[palabrasPorEstado(tamanoNucleo, bits)];
+
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), TAMANO_BUFFER))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeLong(huella);
+            salida.writeInt(numeroFranjas);
+            salida.writeInt(tamanoNucleo);
+            salida.writeInt(cotaInferiorGlobal);
+            salida.writeInt(mejorCota);
+            salida.writeInt(estadosExplorados);
+            salida.writeInt(estadosPodados);
+
+            salida.writeBoolean(franjasIncumbente != null);
+            if (franjasIncumbente != null) {
+                salida.writeInt(costoIncumbente);
+                escribirFranjas(salida, franjasIncumbente, bits, palabras);
+            }
+
+            salida.writeInt(frontera.size());
+            for (EstadoSolucion estado : frontera) {
+                salida.writeInt(estado.costo);
+                salida.writeInt(estado.cotaInferior);
+                salida.writeInt(estado.cursoSiguiente);
+                escribirFranjas(salida, estado.franjas, bits, palabras);
+            }
+        }
+
+        try {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lee un punto de control escrito por {@link #escribir}.
+     *
+     * @throws IOException si el archivo no es un punto de control válido
+     */
+    static PuntoControlBusqueda leer(Path archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), TAMANO_BUFFER))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION) {
+                throw new IOException("El archivo no es un punto de control compatible: " + archivo);
+            }
+            long huella = entrada.readLong();
+            int numeroFranjas = entrada.readInt();
+            int tamanoNucleo = entrada.readInt();
+            int cotaInferiorGlobal = entrada.readInt();
+            int mejorCota = entrada.readInt();
+            int estadosExplorados = entrada.readInt();
+            int estadosPodados = entrada.readInt();
+            if (numeroFranjas <= 0 || tamanoNucleo < 0) {
+                throw new IOException("Punto de control dañado: " + archivo);
+            }
+
+            int bits = bitsPorFranja(numeroFranjas);
+            long[] palabras = new long[palabrasPorEstado(tamanoNucleo, bits)];
+
+            int[] franjasIncumbente = null;
+            int costoIncumbente = Integer.MAX_VALUE;
+            if (entrada.readBoolean()) {
+                costoIncumbente = entrada.readInt();
+                franjasIncumbente = leerFranjas(entrada, tamanoNucleo, bits, palabras);
+            }
+
+            int tamanoFrontera = entrada.readInt();
+            List<EstadoSolucion> frontera = new ArrayList<>(tamanoFrontera);
+            for (int e = 0; e < tamanoFrontera; e++) {
+                int costo = entrada.readInt();
+                int cotaInferior = entrada.readInt();
+                int cursoSiguiente = entrada.readInt();
+                int[] franjas = leerFranjas(entrada, tamanoNucleo, bits, palabras);
+                BitSet pendientes = new BitSet(tamanoNucleo);
+                for (int i = 0; i < tamanoNucleo; i++) {
+                    if (franjas[i] < 0) {
+                        pendientes.set(i);
+                    }
+                }
+                frontera.add(new EstadoSolucion(franjas, pendientes, costo,
+                        tamanoNucleo - pendientes.cardinality(), cotaInferior, cursoSiguiente));
+            }
+            return new PuntoControlBusqueda(huella, numeroFranjas, tamanoNucleo, cotaInferiorGlobal,
+                    mejorCota, estadosExplorados, estadosPodados, franjasIncumbente, costoIncumbente, frontera);
+        }
+    }
+
+    /**
+     * Bits necesarios para guardar franja + 1 (de 0 a k).
+     */
+    private static int bitsPorFranja(int numeroFranjas) {
+        return 32 - Integer.numberOfLeadingZeros(numeroFranjas);
+    }
+
+    private static int palabrasPorEstado(int tamanoNucleo, int bits) {
+        return (int) (((long) tamanoNucleo * bits + 63) / 64);
+    }
+
+    private static void escribirFranjas(DataOutputStream salida, int[] franjas, int bits, long[] palabras)
+            throws IOException {
+        Arrays.fill(palabras, 0L);
+        long posicion = 0;
+        for (int franja : franjas) {
+            long valor = franja + 1L;
+            int palabra = (int) (posicion >>> 6);
+            int desplazamiento = (int) (posicion & 63);
+            palabras[palabra] |= valor << desplazamiento;
+            if (desplazamiento + bits > 64) {
+                palabras[palabra + 1] |= valor >>> (64 - desplazamiento);
+            }
+            posicion += bits;
+        }
+        for (long palabra : palabras) {
+            salida.writeLong(palabra);
+        }
+    }
+
+    private static int[] leerFranjas(DataInputStream entrada, int tamanoNucleo, int bits, long[] palabras)
+            throws IOException {
+        for (int p = 0; p < palabras.length; p++) {
+            palabras[p] = entrada.readLong();
+        }
+        long mascara = (1L << bits) - 1;
+        int[] franjas = new int[tamanoNucleo];
+        long posicion = 0;
+        for (int i = 0; i < tamanoNucleo; i++) {
+            int palabra = (int) (posicion >>> 6);
+            int desplazamiento = (int) (posicion & 63);
+            long valor = palabras[palabra] >>> desplazamiento;
+            if (desplazamiento + bits > 64) {
+                valor |= palabras[palabra + 1] << (64 - desplazamiento);
+            }
+            franjas[i] = (int) (valor & mascara) - 1;
+            posicion += bits;
+        }
+        return franjas;
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.examscheduler.solucionador;
+
+import com.example.examscheduler.modelo.Curso;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduce (kerneliza) el grafo de conflictos antes de la búsqueda exacta.
+ *
+ * Reglas aplicadas hasta alcanzar un punto fijo:
+ * - Cursos aislados: no tienen conflictos, se retiran del núcleo
+ * - Cursos con grado menor que k: siempre queda una franja libre de vecinos,
+ * así que se retiran y se reinsertan al final sin costo (si también se
+ * penalizan las franjas contiguas, cada vecino bloquea hasta tres franjas y
+ * el grado debe ser menor que k / 3)
+ * - Cursos gemelos (misma vecindad ponderada, no adyacentes entre sí): existe
+ * un óptimo que los coloca en la misma franja, así que se fusionan en uno
+ * solo sumando sus pesos
+ *
+ * Las tres reglas preservan el óptimo: el costo mínimo del núcleo es el costo
+ * mínimo del problema completo, y {@link #reconstruir(int[])} traduce un
+ * horario del núcleo a un horario de todos los cursos con el mismo costo.
+ */
+public class ReductorGrafo {
+
+    private static final int OPERACION_PELAR = 0;
+    private static final int OPERACION_FUSIONAR = 1;
+
+    private final GrafoCompacto original;
+    private final int numeroFranjas;
+    private final int pesoConflicto;
+    private final int pesoContigua;
+    private final GrafoCompacto nucleo;
+    private final int[] nucleoAOriginal;
+
+    /**
+     * Registro de operaciones en orden de aplicación: tipo, curso retirado y
+     * (para fusiones) el curso representante.
+     */
+    private final List<int[]> operaciones = new ArrayList<>();
+    private int cursosAislados = 0;
+    private int cursosPelados = 0;
+    private int cursosFusionados = 0;
+
+    /**
+     * Aplica las reducciones sobre el grafo indicado.
+     *
+     * @param original      Grafo completo de conflictos
+     * @param numeroFranjas Número de franjas horarias disponibles
+     */
+    public ReductorGrafo(GrafoCompacto original, int numeroFranjas) {
+        this(original, numeroFranjas, 1, 0);
+    }
+
+    /**
+     * Aplica las reducciones para un objetivo que penaliza también las
+     * franjas contiguas (ver {@link OptimizadorHorarios#setPesosObjetivo}).
+     *
+     * @param original      Grafo completo de conflictos
+     * @param numeroFranjas Número de franjas horarias disponibles
+     * @param pesoConflicto Peso de cada estudiante con dos exámenes en la
+     *                      misma franja
+     * @param pesoContigua  Peso de cada estudiante con exámenes en franjas
+     *                      contiguas
+     */
+    public ReductorGrafo(GrafoCompacto original, int numeroFranjas, int pesoConflicto, int pesoContigua) {
+        this(original, numeroFranjas, pesoConflicto, pesoContigua, true);
+    }
+
+    /**
+     * Como el anterior, pero permite no aplicar ninguna reducción: el núcleo
+     * es entonces el grafo completo. Las reducciones conservan el costo
+     * óptimo, pero no todos los horarios óptimos (un curso retirado o
+     * fusionado recibe una sola franja), así que la enumeración de óptimos
+     * las desactiva.
+     *
+     * @param reducir false para que el núcleo sea el grafo completo
+     */
+    public ReductorGrafo(GrafoCompacto original, int numeroFranjas, int pesoConflicto, int pesoContigua,
+            boolean reducir) {
+        this.original = original;
+        this.numeroFranjas = numeroFranjas;
+        this.pesoConflicto = pesoConflicto;
+        this.pesoContigua = pesoContigua;
+
+        int n = original.tamano();
+        List<Map<Integer, Integer>> adyacencia = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Map<Integer, Integer> fila = new HashMap<>();
+            int[] vecinos = original.vecinos(i);
+            int[] pesos = original.pesos(i);
+            for (int j = 0; j < vecinos.length; j++) {
+                fila.put(vecinos[j], pesos[j]);
+            }
+            adyacencia.add(fila);
+        }
+        boolean[] activo = new boolean[n];
+        Arrays.fill(activo, true);
+
+        boolean huboCambios = reducir;
+        while (huboCambios) {
+            huboCambios = pelar(adyacencia, activo);
+            huboCambios |= fusionarGemelos(adyacencia, activo);
+        }
+
+        int[] originalANucleo = new int[n];
+        Arrays.fill(originalANucleo, -1);
+        int tamanoNucleo = 0;
+        for (int i = 0; i < n; i++) {
+            if (activo[i]) {
+                originalANucleo[i] = tamanoNucleo++;
+            }
+        }
+
+        this.nucleoAOriginal = new int[tamanoNucleo];
+        Curso[] cursosNucleo = new Curso[tamanoNucleo];
+        int[][] vecinosNucleo = new int[tamanoNucleo][];
+        int[][] pesosNucleo = new int[tamanoNucleo][];
+        for (int i = 0; i < n; i++) {
+            int j = originalANucleo[i];
+            if (j < 0) {
+                continue;
+            }
+            nucleoAOriginal[j] = i;
+            cursosNucleo[j] = original.curso(i);
+            Map<Integer, Integer> fila = adyacencia.get(i);
+            vecinosNucleo[j] = new int[fila.size()];
+            pesosNucleo[j] = new int[fila.size()];
+            int posicion = 0;
+            for (Map.Entry<Integer, Integer> arista : fila.entrySet()) {
+                vecinosNucleo[j][posicion] = originalANucleo[arista.getKey()];
+                pesosNucleo[j][posicion] = arista.getValue();
+                posicion++;
+            }
+        }
+        this.nucleo = new GrafoCompacto(cursosNucleo, vecinosNucleo, pesosNucleo);
+    }
+
+    /**
+     * Indica si un curso con ese grado siempre tiene una franja sin costo,
+     * sea cual sea la franja de sus vecinos.
+     */
+    private boolean tieneFranjaLibre(int grado) {
+        return pesoContigua == 0 ? grado < numeroFranjas : 3 * grado < numeroFranjas;
+    }
+
+    /**
+     * Retira repetidamente los cursos aislados y los de grado menor que k.
+     *
+     * @return true si se retiró algún curso
+     */
+    private boolean pelar(List<Map<Integer, Integer>> adyacencia, boolean[] activo) {
+        ArrayDeque<Integer> pendientes = new ArrayDeque<>();
+        for (int i = 0; i < activo.length; i++) {
+            if (activo[i] && tieneFranjaLibre(adyacencia.get(i).size())) {
+                pendientes.add(i);
+            }
+        }
+
+        boolean huboCambios = false;
+        while (!pendientes.isEmpty()) {
+            int v = pendientes.poll();
+            if (!activo[v]) {
+                continue;
+            }
+            Map<Integer, Integer> fila = adyacencia.get(v);
+            if (fila.isEmpty()) {
+                cursosAislados++;
+            } else {
+                cursosPelados++;
+            }
+            activo[v] = false;
+            operaciones.add(new int[] { OPERACION_PELAR, v, -1 });
+            huboCambios = true;
+
+            for (int u : fila.keySet()) {
+                Map<Integer, Integer> filaVecino = adyacencia.get(u);
+                filaVecino.remove(v);
+                if (tieneFranjaLibre(filaVecino.size())) {
+                    pendientes.add(u);
+                }
+            }
+            fila.clear();
+        }
+        return huboCambios;
+    }
+
+    /**
+     * Fusiona los cursos con vecindades ponderadas idénticas. Dos cursos con la
+     * misma vecindad nunca son adyacentes entre sí (no hay lazos), así que
+     * colocarlos en la misma franja no genera conflictos entre ellos.
+     *
+     * Los grupos se calculan sobre una instantánea de las vecindades: fusionar
+     * un grupo modifica por igual las filas de todos los miembros de otro grupo
+     * (todos son vecinos de los mismos cursos), así que siguen siendo gemelos.
+     *
+     * @return true si se fusionó algún curso
+     */
+    private boolean fusionarGemelos(List<Map<Integer, Integer>> adyacencia, boolean[] activo) {
+        Map<Firma, List<Integer>> grupos = new HashMap<>();
+        for (int v = 0; v < activo.length; v++) {
+            if (activo[v] && !adyacencia.get(v).isEmpty()) {
+                grupos.computeIfAbsent(Firma.de(adyacencia.get(v)), f -> new ArrayList<>()).add(v);
+            }
+        }
+
+        boolean huboCambios = false;
+        for (List<Integer> grupo : grupos.values()) {
+            int representante = grupo.get(0);
+            Map<Integer, Integer> filaRepresentante = adyacencia.get(representante);
+            for (int g = 1; g < grupo.size(); g++) {
+                int v = grupo.get(g);
+                // Los pesos del gemelo se suman en el representante.
+                for (Map.Entry<Integer, Integer> arista : adyacencia.get(v).entrySet()) {
+                    int u = arista.getKey();
+                    int pesoNuevo = filaRepresentante.get(u) + arista.getValue();
+                    filaRepresentante.put(u, pesoNuevo);
+                    Map<Integer, Integer> filaVecino = adyacencia.get(u);
+                    filaVecino.remove(v);
+                    filaVecino.put(representante, pesoNuevo);
+                }
+                adyacencia.get(v).clear();
+                activo[v] = false;
+                operaciones.add(new int[] { OPERACION_FUSIONAR, v, representante });
+                cursosFusionados++;
+                huboCambios = true;
+            }
+        }
+        return huboCambios;
+    }
+
+    /**
+     * Obtiene el núcleo reducido sobre el que debe ejecutarse la búsqueda.
+     */
+    public GrafoCompacto obtenerNucleo() {
+        return nucleo;
+    }
+
+    /**
+     * Traduce un horario del núcleo a un horario de todos los cursos del grafo
+     * original, deshaciendo las reducciones en orden inverso.
+     *
+     * @param franjasNucleo Franja de cada curso del núcleo (por índice)
+     * @return Franja de cada curso original (por índice)
+     */
+    public int[] reconstruir(int[] franjasNucleo) {
+        int[] franjas = new int[original.tamano()];
+        Arrays.fill(franjas, -1);
+        for (int j = 0; j < nucleoAOriginal.length; j++) {
+            franjas[nucleoAOriginal[j]] = franjasNucleo[j];
+        }
+
+        int[] pesoPorFranja = new int[numeroFranjas];
+        int[] costoPorFranja = new int[numeroFranjas];
+        for (int i = operaciones.size() - 1; i >= 0; i--) {
+            int[] operacion = operaciones.get(i);
+            int v = operacion[1];
+            if (operacion[0] == OPERACION_FUSIONAR) {
+                franjas[v] = franjas[operacion[2]];
+                continue;
+            }
+
+            Arrays.fill(pesoPorFranja, 0);
+            int[] vecinos = original.vecinos(v);
+            int[] pesos = original.pesos(v);
+            for (int j = 0; j < vecinos.length; j++) {
+                int franjaVecino = franjas[vecinos[j]];
+                if (franjaVecino >= 0) {
+                    pesoPorFranja[franjaVecino] += pesos[j];
+                }
+            }
+            for (int franja = 0; franja < numeroFranjas; franja++) {
+                int contiguas = (franja > 0 ? pesoPorFranja[franja - 1] : 0)
+                        + (franja + 1 < numeroFranjas ? pesoPorFranja[franja + 1] : 0);
+                costoPorFranja[franja] = pesoConflicto * pesoPorFranja[franja] + pesoContigua * contiguas;
+            }
+            int mejor = 0;
+            for (int franja = 1; franja < numeroFranjas; franja++) {
+                if (costoPorFranja[franja] < costoPorFranja[mejor]) {
+                    mejor = franja;
+                }
+            }
+            franjas[v] = mejor;
+        }
+        return franjas;
+    }
+
+    /**
+     * Obtiene el número de cursos aislados retirados.
+     */
+    public int obtenerCursosAislados() {
+        return cursosAislados;
+    }
+
+    /**
+     * Obtiene el número de cursos retirados por tener grado menor que k.
+     */
+    public int obtenerCursosPelados() {
+        return cursosPelados;
+    }
+
+    /**
+     * Obtiene el número de cursos fusionados con un gemelo.
+     */
+    public int obtenerCursosFusionados() {
+        return cursosFusionados;
+    }
+
+    /**
+     * Vecindad ponderada ordenada de un curso, usada como clave para detectar
+     * gemelos.
+     */
+    private record Firma(int[] datos) {
+
+        static Firma de(Map<Integer, Integer> fila) {
+            int[] vecinos = fila.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int[] datos = new int[vecinos.length * 2];
+            for (int i = 0; i < vecinos.length; i++) {
+                datos[2 * i] = vecinos[i];
+                datos[2 * i + 1] = fila.get(vecinos[i]);
+            }
+            return new Firma(datos);
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Firma firma && Arrays.equals(datos, firma.datos);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(datos);
+        }
+    }
+}
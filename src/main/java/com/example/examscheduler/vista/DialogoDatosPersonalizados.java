@@ -2,28 +2,50 @@ package com.example.examscheduler.vista;
 
 import com.example.examscheduler.modelo.Curso;
 import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.modelo.LectorInstancia;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Diálogo para que el usuario ingrese sus propios datos de cursos y
  * estudiantes.
+ *
+ * Los datos pueden ingresarse uno a uno o importarse en bloque (texto pegado o
+ * archivo). Los IDs de cursos y estudiantes se indexan en tablas hash, así que
+ * validar duplicados y resolver inscripciones cuesta tiempo constante por
+ * elemento; la importación en bloque se procesa en segundo plano.
  */
 public class DialogoDatosPersonalizados extends JDialog {
 
-    private final DefaultTableModel modeloCursos;
-    private final DefaultTableModel modeloEstudiantes;
+    private final ModeloTablaPerezoso<Curso> modeloCursos;
+    private final ModeloTablaPerezoso<Estudiante> modeloEstudiantes;
+    private final List<Curso> listaCursos = new ArrayList<>();
+    private final Map<String, Curso> indiceCursos = new HashMap<>();
+    private final List<Estudiante> listaEstudiantes = new ArrayList<>();
+    private final Set<String> idsEstudiantes = new HashSet<>();
     private JTable tablaCursos;
     private JTable tablaEstudiantes;
     private JTextField campoCursoId;
     private JTextField campoCursoNombre;
     private JTextField campoEstudianteId;
     private JTextField campoEstudianteCursos;
+    private JProgressBar barraImportacion;
+    private final List<JButton> botonesEdicion = new ArrayList<>();
 
     private List<Curso> cursosResultado = null;
     private List<Estudiante> estudiantesResultado = null;
@@ -32,19 +54,17 @@ public class DialogoDatosPersonalizados extends JDialog {
     public DialogoDatosPersonalizados(Frame parent) {
         super(parent, "Ingresar Datos Personalizados", true);
 
-        modeloCursos = new DefaultTableModel(new String[] { "ID", "Nombre" }, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        modeloCursos = new ModeloTablaPerezoso<>(
+                new String[] { "ID", "Nombre" },
+                (curso, columna) -> columna == 0 ? curso.id() : curso.nombre());
+        modeloCursos.setFilas(listaCursos);
 
-        modeloEstudiantes = new DefaultTableModel(new String[] { "ID", "Cursos Inscritos" }, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        modeloEstudiantes = new ModeloTablaPerezoso<>(
+                new String[] { "ID", "Cursos Inscritos" },
+                (estudiante, columna) -> columna == 0
+                        ? estudiante.id()
+                        : estudiante.cursos().stream().map(Curso::id).collect(Collectors.joining(",")));
+        modeloEstudiantes.setFilas(listaEstudiantes);
 
         construirInterfaz();
         pack();
@@ -77,7 +97,9 @@ public class DialogoDatosPersonalizados extends JDialog {
                 "Instrucciones:\n" +
                         "1. Primero agrega los cursos (ej: C1, Calculo)\n" +
                         "2. Luego agrega estudiantes con los IDs de los cursos que toman separados por coma\n" +
-                        "   (ej: E1 toma C1,C2 significa que el estudiante E1 esta inscrito en C1 y C2)");
+                        "   (ej: E1 toma C1,C2 significa que el estudiante E1 esta inscrito en C1 y C2)\n" +
+                        "3. Para cargar muchos datos usa 'Importar': una linea por curso (C1, Calculo)\n" +
+                        "   o por estudiante (E1: C1,C2)");
         instrucciones.setEditable(false);
         instrucciones.setBackground(new Color(255, 255, 220));
         instrucciones.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -124,6 +146,8 @@ public class DialogoDatosPersonalizados extends JDialog {
 
         btnAgregarCurso.addActionListener(e -> agregarCurso());
         btnEliminarCurso.addActionListener(e -> eliminarCurso());
+        botonesEdicion.add(btnAgregarCurso);
+        botonesEdicion.add(btnEliminarCurso);
 
         panelBotonesCursos.add(btnAgregarCurso);
         panelBotonesCursos.add(btnEliminarCurso);
@@ -175,6 +199,8 @@ public class DialogoDatosPersonalizados extends JDialog {
 
         btnAgregarEstudiante.addActionListener(e -> agregarEstudiante());
         btnEliminarEstudiante.addActionListener(e -> eliminarEstudiante());
+        botonesEdicion.add(btnAgregarEstudiante);
+        botonesEdicion.add(btnEliminarEstudiante);
 
         panelBotonesEstudiantes.add(btnAgregarEstudiante);
         panelBotonesEstudiantes.add(btnEliminarEstudiante);
@@ -190,16 +216,37 @@ public class DialogoDatosPersonalizados extends JDialog {
     }
 
     private JPanel crearPanelBotones() {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-
+        JPanel panel = new JPanel(new BorderLayout(10, 0));
+
+        JPanel panelImportar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton btnPegar = new JButton("Importar texto...");
+        JButton btnArchivo = new JButton("Importar archivo...");
+        btnPegar.addActionListener(e -> importarTextoPegado());
+        btnArchivo.addActionListener(e -> importarArchivo());
+        barraImportacion = new JProgressBar();
+        barraImportacion.setStringPainted(true);
+        barraImportacion.setString("");
+        barraImportacion.setVisible(false);
+        panelImportar.add(btnPegar);
+        panelImportar.add(btnArchivo);
+        panelImportar.add(barraImportacion);
+
+        JPanel panelConfirmar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton btnConfirmar = new JButton("Usar estos datos");
         JButton btnCancelar = new JButton("Cancelar");
 
         btnConfirmar.addActionListener(e -> confirmar());
         btnCancelar.addActionListener(e -> dispose());
 
-        panel.add(btnCancelar);
-        panel.add(btnConfirmar);
+        panelConfirmar.add(btnCancelar);
+        panelConfirmar.add(btnConfirmar);
+
+        botonesEdicion.add(btnPegar);
+        botonesEdicion.add(btnArchivo);
+        botonesEdicion.add(btnConfirmar);
+
+        panel.add(panelImportar, BorderLayout.WEST);
+        panel.add(panelConfirmar, BorderLayout.EAST);
 
         return panel;
     }
@@ -215,16 +262,17 @@ public class DialogoDatosPersonalizados extends JDialog {
             return;
         }
 
-        for (int i = 0; i < modeloCursos.getRowCount(); i++) {
-            if (modeloCursos.getValueAt(i, 0).equals(id)) {
-                JOptionPane.showMessageDialog(this,
-                        "Ya existe un curso con ese ID.",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        if (indiceCursos.containsKey(id)) {
+            JOptionPane.showMessageDialog(this,
+                    "Ya existe un curso con ese ID.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
 
-        modeloCursos.addRow(new Object[] { id, nombre });
+        Curso curso = new Curso(id, nombre);
+        indiceCursos.put(id, curso);
+        listaCursos.add(curso);
+        modeloCursos.fireTableRowsInserted(listaCursos.size() - 1, listaCursos.size() - 1);
         campoCursoId.setText("");
         campoCursoNombre.setText("");
         campoCursoId.requestFocus();
@@ -233,7 +281,9 @@ public class DialogoDatosPersonalizados extends JDialog {
     private void eliminarCurso() {
         int fila = tablaCursos.getSelectedRow();
         if (fila >= 0) {
-            modeloCursos.removeRow(fila);
+            Curso curso = listaCursos.remove(fila);
+            indiceCursos.remove(curso.id());
+            modeloCursos.fireTableRowsDeleted(fila, fila);
         }
     }
 
@@ -248,34 +298,25 @@ public class DialogoDatosPersonalizados extends JDialog {
             return;
         }
 
-        for (int i = 0; i < modeloEstudiantes.getRowCount(); i++) {
-            if (modeloEstudiantes.getValueAt(i, 0).equals(id)) {
-                JOptionPane.showMessageDialog(this,
-                        "Ya existe un estudiante con ese ID.",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        if (idsEstudiantes.contains(id)) {
+            JOptionPane.showMessageDialog(this,
+                    "Ya existe un estudiante con ese ID.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
 
-        String[] cursosIds = cursosTexto.split(",");
-        for (String cursoId : cursosIds) {
-            cursoId = cursoId.trim();
-            boolean encontrado = false;
-            for (int i = 0; i < modeloCursos.getRowCount(); i++) {
-                if (modeloCursos.getValueAt(i, 0).equals(cursoId)) {
-                    encontrado = true;
-                    break;
-                }
-            }
-            if (!encontrado) {
-                JOptionPane.showMessageDialog(this,
-                        "El curso '" + cursoId + "' no existe. Agregalo primero.",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        List<Curso> cursosEstudiante = new ArrayList<>();
+        String faltante = LectorInstancia.resolverCursos(cursosTexto, indiceCursos, cursosEstudiante);
+        if (faltante != null) {
+            JOptionPane.showMessageDialog(this,
+                    "El curso '" + faltante + "' no existe. Agregalo primero.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
 
-        modeloEstudiantes.addRow(new Object[] { id, cursosTexto });
+        idsEstudiantes.add(id);
+        listaEstudiantes.add(new Estudiante(id, cursosEstudiante));
+        modeloEstudiantes.fireTableRowsInserted(listaEstudiantes.size() - 1, listaEstudiantes.size() - 1);
         campoEstudianteId.setText("");
         campoEstudianteCursos.setText("");
         campoEstudianteId.requestFocus();
@@ -284,50 +325,152 @@ public class DialogoDatosPersonalizados extends JDialog {
     private void eliminarEstudiante() {
         int fila = tablaEstudiantes.getSelectedRow();
         if (fila >= 0) {
-            modeloEstudiantes.removeRow(fila);
+            Estudiante estudiante = listaEstudiantes.remove(fila);
+            idsEstudiantes.remove(estudiante.id());
+            modeloEstudiantes.fireTableRowsDeleted(fila, fila);
+        }
+    }
+
+    // ==================== Importación en bloque ====================
+
+    /**
+     * Pide al usuario que pegue los datos en un área de texto e inicia la
+     * importación.
+     */
+    private void importarTextoPegado() {
+        JTextArea area = new JTextArea(15, 40);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        int opcion = JOptionPane.showConfirmDialog(this,
+                new JScrollPane(area),
+                "Pega una linea por curso (C1, Calculo) o estudiante (E1: C1,C2)",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (opcion == JOptionPane.OK_OPTION && !area.getText().isBlank()) {
+            String texto = area.getText();
+            iniciarImportacion(() -> new BufferedReader(new StringReader(texto)));
+        }
+    }
+
+    /**
+     * Pide un archivo de texto e inicia su importación; el archivo se lee
+     * línea a línea en segundo plano.
+     */
+    private void importarArchivo() {
+        JFileChooser selector = new JFileChooser();
+        if (selector.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File archivo = selector.getSelectedFile();
+            iniciarImportacion(() -> Files.newBufferedReader(archivo.toPath(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Procesa las líneas en un SwingWorker y, al terminar, agrega al diálogo
+     * los cursos y estudiantes válidos (ver {@link LectorInstancia} para el
+     * formato).
+     */
+    private void iniciarImportacion(FuenteLineas fuente) {
+        final LectorInstancia lectorInstancia = new LectorInstancia(indiceCursos, idsEstudiantes);
+        habilitarEdicion(false);
+        barraImportacion.setVisible(true);
+        barraImportacion.setIndeterminate(true);
+        barraImportacion.setString("Importando...");
+
+        new SwingWorker<LectorInstancia.Resultado, Integer>() {
+            @Override
+            protected LectorInstancia.Resultado doInBackground() throws IOException {
+                try (BufferedReader lector = fuente.abrir()) {
+                    return lectorInstancia.leer(lector, this::publish);
+                }
+            }
+
+            @Override
+            protected void process(List<Integer> lineas) {
+                barraImportacion.setString(String.format("Importando... %,d lineas",
+                        lineas.get(lineas.size() - 1)));
+            }
+
+            @Override
+            protected void done() {
+                barraImportacion.setIndeterminate(false);
+                barraImportacion.setVisible(false);
+                habilitarEdicion(true);
+                try {
+                    aplicarImportacion(get());
+                } catch (Exception e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(DialogoDatosPersonalizados.this,
+                            "Error al importar: " + causa.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Agrega al diálogo los datos importados y muestra un resumen.
+     */
+    private void aplicarImportacion(LectorInstancia.Resultado resultado) {
+        for (Curso curso : resultado.cursos()) {
+            indiceCursos.put(curso.id(), curso);
+        }
+        listaCursos.addAll(resultado.cursos());
+        for (Estudiante estudiante : resultado.estudiantes()) {
+            idsEstudiantes.add(estudiante.id());
+        }
+        listaEstudiantes.addAll(resultado.estudiantes());
+        modeloCursos.fireTableDataChanged();
+        modeloEstudiantes.fireTableDataChanged();
+
+        StringBuilder mensaje = new StringBuilder(String.format(
+                "Se importaron %,d curso(s) y %,d estudiante(s).",
+                resultado.cursos().size(), resultado.estudiantes().size()));
+        if (resultado.totalErrores() > 0) {
+            mensaje.append(String.format("%n%n%,d linea(s) omitida(s):", resultado.totalErrores()));
+            for (String error : resultado.errores()) {
+                mensaje.append("\n  ").append(error);
+            }
+            if (resultado.totalErrores() > resultado.errores().size()) {
+                mensaje.append("\n  ...");
+            }
+        }
+        JOptionPane.showMessageDialog(this, mensaje.toString(), "Importar",
+                resultado.totalErrores() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void habilitarEdicion(boolean habilitar) {
+        for (JButton boton : botonesEdicion) {
+            boton.setEnabled(habilitar);
         }
     }
 
     private void confirmar() {
-        if (modeloCursos.getRowCount() == 0) {
+        if (listaCursos.isEmpty()) {
             JOptionPane.showMessageDialog(this,
                     "Debes agregar al menos un curso.",
                     "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        if (modeloEstudiantes.getRowCount() == 0) {
+        if (listaEstudiantes.isEmpty()) {
             JOptionPane.showMessageDialog(this,
                     "Debes agregar al menos un estudiante.",
                     "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        cursosResultado = new ArrayList<>();
-        for (int i = 0; i < modeloCursos.getRowCount(); i++) {
-            String id = (String) modeloCursos.getValueAt(i, 0);
-            String nombre = (String) modeloCursos.getValueAt(i, 1);
-            cursosResultado.add(new Curso(id, nombre));
-        }
-
-        estudiantesResultado = new ArrayList<>();
-        for (int i = 0; i < modeloEstudiantes.getRowCount(); i++) {
-            String id = (String) modeloEstudiantes.getValueAt(i, 0);
-            String cursosTexto = (String) modeloEstudiantes.getValueAt(i, 1);
-
-            List<Curso> cursosEstudiante = new ArrayList<>();
-            String[] cursosIds = cursosTexto.split(",");
-            for (String cursoId : cursosIds) {
-                cursoId = cursoId.trim();
-                for (Curso curso : cursosResultado) {
-                    if (curso.id().equals(cursoId)) {
-                        cursosEstudiante.add(curso);
-                        break;
-                    }
+        cursosResultado = new ArrayList<>(listaCursos);
+
+        // Las inscripciones se resuelven de nuevo por ID: los cursos eliminados
+        // después de inscribir estudiantes se descartan.
+        estudiantesResultado = new ArrayList<>(listaEstudiantes.size());
+        for (Estudiante estudiante : listaEstudiantes) {
+            List<Curso> cursosEstudiante = new ArrayList<>(estudiante.cursos().size());
+            for (Curso curso : estudiante.cursos()) {
+                Curso actual = indiceCursos.get(curso.id());
+                if (actual != null) {
+                    cursosEstudiante.add(actual);
                 }
             }
-
-            estudiantesResultado.add(new Estudiante(id, cursosEstudiante));
+            estudiantesResultado.add(new Estudiante(estudiante.id(), cursosEstudiante));
         }
 
         confirmado = true;
@@ -345,4 +488,12 @@ public class DialogoDatosPersonalizados extends JDialog {
     public List<Estudiante> getEstudiantes() {
         return estudiantesResultado;
     }
+
+    /**
+     * Origen de las líneas a importar (texto pegado o archivo).
+     */
+    @FunctionalInterface
+    private interface FuenteLineas {
+        BufferedReader abrir() throws IOException;
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.examscheduler.vista;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Modelo de tabla de solo lectura respaldado por una lista de filas ya
+ * preparada (normalmente fuera del hilo de eventos).
+ *
+ * Las celdas se formatean solo cuando la tabla las pide, y JTable solo pide
+ * las de las filas visibles: mostrar decenas de miles de filas no construye
+ * ningún texto por adelantado.
+ *
+ * @param <T> Tipo de cada fila
+ */
+public class ModeloTablaPerezoso<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] columnas;
+    private final BiFunction<T, Integer, Object> valorCelda;
+    private List<T> filas = List.of();
+
+    /**
+     * @param columnas   Nombres de las columnas
+     * @param valorCelda Función que obtiene el valor de una columna para una
+     *                   fila
+     */
+    public ModeloTablaPerezoso(String[] columnas, BiFunction<T, Integer, Object> valorCelda) {
+        this.columnas = columnas;
+        this.valorCelda = valorCelda;
+    }
+
+    /**
+     * Reemplaza las filas del modelo. Debe llamarse desde el hilo de eventos.
+     */
+    public void setFilas(List<T> filas) {
+        this.filas = filas;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Obtiene las filas actuales del modelo.
+     */
+    public List<T> getFilas() {
+        return filas;
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        return valorCelda.apply(filas.get(fila), columna);
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return false;
+    }
+}
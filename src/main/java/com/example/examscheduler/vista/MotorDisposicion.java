@@ -0,0 +1,272 @@
+package com.example.examscheduler.vista;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Calcula la disposición (posiciones) de los nodos del grafo de conflictos.
+ *
+ * Las posiciones se devuelven normalizadas en el cuadrado [0, 1] x [0, 1], de
+ * modo que al redimensionar el panel basta con reescalarlas.
+ *
+ * - Pocos nodos: disposición circular
+ * - Muchos nodos: disposición dirigida por fuerzas (Fruchterman-Reingold) con
+ * repulsión aproximada por rejillas, casi lineal en el número de nodos
+ *
+ * El cálculo no toca Swing y puede ejecutarse fuera del hilo de eventos; se
+ * interrumpe en cuanto el proveedor de cancelación lo indique.
+ */
+public class MotorDisposicion {
+
+    /**
+     * Hasta este número de nodos la disposición circular sigue siendo legible.
+     */
+    public static final int UMBRAL_CIRCULAR = 20;
+
+    private static final int ITERACIONES_MAXIMAS = 300;
+    private static final int ITERACIONES_MINIMAS = 60;
+    private static final double TEMPERATURA_INICIAL = 0.1;
+    private static final int LADO_REJILLA_LEJANA = 16;
+
+    /**
+     * Posiciones normalizadas de los nodos, alineadas con los índices de la
+     * lista de adyacencia usada para calcularlas.
+     */
+    public record Posiciones(double[] x, double[] y) {
+    }
+
+    private MotorDisposicion() {
+    }
+
+    /**
+     * Elige la disposición adecuada para el tamaño del grafo.
+     *
+     * @param vecinos   Lista de adyacencia por índice de nodo
+     * @param cancelado Indica si el cálculo debe abandonarse
+     * @return Las posiciones, o null si el cálculo fue cancelado
+     */
+    public static Posiciones disponer(int[][] vecinos, BooleanSupplier cancelado) {
+        if (vecinos.length <= UMBRAL_CIRCULAR) {
+            return disponerEnCirculo(vecinos.length);
+        }
+        return disponerPorFuerzas(vecinos, cancelado);
+    }
+
+    /**
+     * Coloca los nodos equiespaciados sobre una circunferencia.
+     */
+    public static Posiciones disponerEnCirculo(int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double angulo = 2 * Math.PI * i / Math.max(n, 1) - Math.PI / 2;
+            x[i] = 0.5 + 0.5 * Math.cos(angulo);
+            y[i] = 0.5 + 0.5 * Math.sin(angulo);
+        }
+        return new Posiciones(x, y);
+    }
+
+    /**
+     * Reparte los nodos en espiral de girasol (ángulo áureo), que cubre el
+     * disco con densidad uniforme y es un buen punto de partida para la
+     * disposición por fuerzas.
+     */
+    private static Posiciones disponerEnEspiral(int n) {
+        double anguloAureo = Math.PI * (3 - Math.sqrt(5));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double radio = 0.5 * Math.sqrt((i + 0.5) / n);
+            x[i] = 0.5 + radio * Math.cos(i * anguloAureo);
+            y[i] = 0.5 + radio * Math.sin(i * anguloAureo);
+        }
+        return new Posiciones(x, y);
+    }
+
+    /**
+     * Disposición Fruchterman-Reingold partiendo de una espiral uniforme.
+     * 
+     * La repulsión se divide en dos partes:
+     * - Cercana y exacta: entre nodos de celdas vecinas de una rejilla fina de
+     * lado 2k (k = distancia ideal entre nodos)
+     * - Lejana y aproximada: cada celda de una rejilla gruesa de 16 x 16 actúa
+     * como un único nodo con la masa de todos los que contiene, situado en su
+     * centroide; evita que el grafo colapse sin calcular todos los pares. Cada
+     * nodo se descuenta de su propia celda, y las celdas cuyo centroide queda
+     * dentro del radio cercano se omiten, para no repeler dos veces a los
+     * nodos cercanos
+     */
+    public static Posiciones disponerPorFuerzas(int[][] vecinos, BooleanSupplier cancelado) {
+        int n = vecinos.length;
+        Posiciones inicial = disponerEnEspiral(n);
+        double[] x = inicial.x();
+        double[] y = inicial.y();
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+
+        double k = Math.sqrt(1.0 / n);
+        double k2 = k * k;
+        double radio = 2 * k;
+        int lado = Math.max(1, (int) Math.ceil(1.0 / radio));
+        int[] inicioCelda = new int[lado * lado + 1];
+        int[] nodosPorCelda = new int[n];
+        int[] celdaDeNodo = new int[n];
+        int celdasLejanas = LADO_REJILLA_LEJANA * LADO_REJILLA_LEJANA;
+        double[] masaLejana = new double[celdasLejanas];
+        double[] centroX = new double[celdasLejanas];
+        double[] centroY = new double[celdasLejanas];
+
+        int iteraciones = Math.max(ITERACIONES_MINIMAS, Math.min(ITERACIONES_MAXIMAS, 30_000 / n));
+        for (int iteracion = 0; iteracion < iteraciones; iteracion++) {
+            if (cancelado.getAsBoolean()) {
+                return null;
+            }
+            double temperatura = TEMPERATURA_INICIAL * (1 - (double) iteracion / iteraciones);
+            Arrays.fill(dx, 0);
+            Arrays.fill(dy, 0);
+
+            // Rejilla con ordenamiento por conteo: nodos agrupados por celda.
+            Arrays.fill(inicioCelda, 0);
+            for (int i = 0; i < n; i++) {
+                int cx = Math.min(lado - 1, (int) (x[i] / radio));
+                int cy = Math.min(lado - 1, (int) (y[i] / radio));
+                celdaDeNodo[i] = cy * lado + cx;
+                inicioCelda[celdaDeNodo[i] + 1]++;
+            }
+            for (int c = 0; c < lado * lado; c++) {
+                inicioCelda[c + 1] += inicioCelda[c];
+            }
+            int[] cursor = Arrays.copyOf(inicioCelda, inicioCelda.length);
+            for (int i = 0; i < n; i++) {
+                nodosPorCelda[cursor[celdaDeNodo[i]]++] = i;
+            }
+
+            // Repulsión lejana: masa y centroide de cada celda gruesa.
+            Arrays.fill(masaLejana, 0);
+            Arrays.fill(centroX, 0);
+            Arrays.fill(centroY, 0);
+            for (int i = 0; i < n; i++) {
+                int celda = celdaLejana(x[i], y[i]);
+                masaLejana[celda]++;
+                centroX[celda] += x[i];
+                centroY[celda] += y[i];
+            }
+            for (int c = 0; c < celdasLejanas; c++) {
+                if (masaLejana[c] > 0) {
+                    centroX[c] /= masaLejana[c];
+                    centroY[c] /= masaLejana[c];
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                int propia = celdaLejana(x[i], y[i]);
+                for (int c = 0; c < celdasLejanas; c++) {
+                    double masa = masaLejana[c];
+                    double ex = x[i] - centroX[c];
+                    double ey = y[i] - centroY[c];
+                    if (c == propia) {
+                        // El nodo no se repele a sí mismo: se quita de su celda.
+                        masa--;
+                        if (masa == 0) {
+                            continue;
+                        }
+                        ex *= (masa + 1) / masa;
+                        ey *= (masa + 1) / masa;
+                    } else if (masa == 0) {
+                        continue;
+                    }
+                    double d2 = ex * ex + ey * ey;
+                    // Las celdas con el centroide dentro del radio cercano se
+                    // omiten: sus nodos cercanos ya se repelen de forma exacta.
+                    if (d2 <= radio * radio) {
+                        continue;
+                    }
+                    double factor = masa * k2 / d2;
+                    dx[i] += ex * factor;
+                    dy[i] += ey * factor;
+                }
+            }
+
+            // Repulsión exacta entre nodos cercanos.
+            for (int i = 0; i < n; i++) {
+                int cx = celdaDeNodo[i] % lado;
+                int cy = celdaDeNodo[i] / lado;
+                for (int vy = Math.max(0, cy - 1); vy <= Math.min(lado - 1, cy + 1); vy++) {
+                    for (int vx = Math.max(0, cx - 1); vx <= Math.min(lado - 1, cx + 1); vx++) {
+                        int celda = vy * lado + vx;
+                        for (int p = inicioCelda[celda]; p < inicioCelda[celda + 1]; p++) {
+                            int j = nodosPorCelda[p];
+                            if (j == i) {
+                                continue;
+                            }
+                            double ex = x[i] - x[j];
+                            double ey = y[i] - y[j];
+                            double d2 = ex * ex + ey * ey;
+                            if (d2 > radio * radio) {
+                                continue;
+                            }
+                            if (d2 < 1e-12) {
+                                ex = 1e-4 * ((i * 31 + j) % 7 - 3);
+                                ey = 1e-4 * ((i * 17 + j) % 5 - 2);
+                                d2 = ex * ex + ey * ey;
+                            }
+                            double factor = k2 / d2;
+                            dx[i] += ex * factor;
+                            dy[i] += ey * factor;
+                        }
+                    }
+                }
+            }
+
+            // Atracción a lo largo de las aristas (cada arista se visita dos veces).
+            for (int i = 0; i < n; i++) {
+                for (int j : vecinos[i]) {
+                    double ex = x[i] - x[j];
+                    double ey = y[i] - y[j];
+                    double d = Math.sqrt(ex * ex + ey * ey);
+                    double factor = d / k;
+                    dx[i] -= ex * factor;
+                    dy[i] -= ey * factor;
+                }
+            }
+
+            // Desplazamiento limitado por la temperatura.
+            for (int i = 0; i < n; i++) {
+                double d = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+                if (d > 0) {
+                    double paso = Math.min(d, temperatura) / d;
+                    x[i] = Math.min(1, Math.max(0, x[i] + dx[i] * paso));
+                    y[i] = Math.min(1, Math.max(0, y[i] + dy[i] * paso));
+                }
+            }
+        }
+
+        normalizar(x, y);
+        return new Posiciones(x, y);
+    }
+
+    private static int celdaLejana(double x, double y) {
+        int cx = Math.min(LADO_REJILLA_LEJANA - 1, (int) (x * LADO_REJILLA_LEJANA));
+        int cy = Math.min(LADO_REJILLA_LEJANA - 1, (int) (y * LADO_REJILLA_LEJANA));
+        return cy * LADO_REJILLA_LEJANA + cx;
+    }
+
+    /**
+     * Reescala las posiciones para que ocupen todo el cuadrado unitario.
+     */
+    private static void normalizar(double[] x, double[] y) {
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double anchoX = Math.max(maxX - minX, 1e-9);
+        double anchoY = Math.max(maxY - minY, 1e-9);
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (x[i] - minX) / anchoX;
+            y[i] = (y[i] - minY) / anchoY;
+        }
+    }
+}
@@ -1,25 +1,53 @@
 package com.example.examscheduler.vista;
 
 import com.example.examscheduler.modelo.Curso;
-import com.mxgraph.layout.mxCircleLayout;
+import com.mxgraph.model.mxGeometry;
 import com.mxgraph.model.mxICell;
 import com.mxgraph.swing.mxGraphComponent;
 import com.mxgraph.util.mxConstants;
+import com.mxgraph.util.mxEvent;
 import org.jgrapht.Graph;
 import org.jgrapht.ext.JGraphXAdapter;
 import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 /**
  * Panel personalizado para visualizar el grafo de conflictos.
  * Muestra los cursos como nodos y las aristas representan conflictos
  * (estudiantes que tienen ambos cursos).
+ *
+ * Para catálogos grandes de cursos el panel:
+ * - Comparte un estilo por franja (y no uno por curso), de modo que recolorear
+ * solo toca las celdas cuya franja cambió
+ * - Agrupa las aristas en clases de peso (leve, media, fuerte) con estilos
+ * compartidos que se asignan en bloque
+ * - Con muchas aristas, solo crea celdas para las más pesadas de cada curso;
+ * el resto se agrega por curso (número de cursos y de estudiantes) y se
+ * muestra en el texto de ayuda del nodo, así que el número de celdas crece
+ * con el de cursos y no con el de conflictos
+ * - Aplica niveles de detalle según el zoom: al alejarse oculta las etiquetas
+ * y las aristas leves
+ * - Reutiliza el adaptador cuando el grafo no cambió y solo cambia el horario
+ *
+ * La disposición de los nodos se calcula en segundo plano (ver
+ * {@link MotorDisposicion}) y se guarda normalizada por topología del grafo:
+ * al redimensionar solo se reescala, y los eventos de redimensionado se
+ * agrupan con un temporizador para no recalcular mientras se arrastra.
  */
 public class PanelGrafo extends JPanel {
 
@@ -28,11 +56,75 @@ public class PanelGrafo extends JPanel {
     private static final int NODE_HEIGHT = 40;
     private static final int MIN_DIMENSION = 400;
 
+    /**
+     * A partir de este número de cursos se desactivan sombras, degradados y
+     * aristas ortogonales, que son costosos de pintar.
+     */
+    private static final int UMBRAL_GRAFO_GRANDE = 150;
+    private static final double ESCALA_SIN_ETIQUETAS_ARISTA = 0.75;
+    private static final double ESCALA_SIN_DETALLE = 0.45;
+
+    /**
+     * A partir de este número de aristas se agregan las más ligeras de cada
+     * curso.
+     */
+    private static final int UMBRAL_AGREGAR_ARISTAS = 2000;
+    /**
+     * Aristas con celda propia por curso cuando se agregan las demás.
+     */
+    private static final int ARISTAS_VISIBLES_POR_CURSO = 6;
+
+    private static final int RETARDO_REDIMENSIONADO_MS = 150;
+    private static final int CAPACIDAD_CACHE_POSICIONES = 8;
+
+    private static final int DETALLE_MINIMO = 0;
+    private static final int DETALLE_SIN_ETIQUETAS_ARISTA = 1;
+    private static final int DETALLE_COMPLETO = 2;
+
+    private static final String ESTILO_SIN_FRANJA = "FRANJA_NINGUNA";
+    private static final String PREFIJO_ESTILO_FRANJA = "FRANJA_";
+    private static final String ESTILO_ARISTA_LEVE = "ARISTA_LEVE";
+    private static final String ESTILO_ARISTA_MEDIA = "ARISTA_MEDIA";
+    private static final String ESTILO_ARISTA_FUERTE = "ARISTA_FUERTE";
+
     private JGraphXAdapter<Curso, DefaultWeightedEdge> adaptadorGrafo;
     private mxGraphComponent componenteGrafo;
     private Graph<Curso, DefaultWeightedEdge> grafoActual;
+    /**
+     * Grafo con celdas en el adaptador: el actual, o sin las aristas
+     * agregadas.
+     */
+    private Graph<Curso, DefaultWeightedEdge> grafoDibujado;
+    /**
+     * Por curso, aristas agregadas y suma de sus pesos.
+     */
+    private final Map<Curso, int[]> aristasAgregadas = new HashMap<>();
     private final Map<String, Object> estiloBaseNodo;
 
+    /**
+     * Última franja aplicada a cada curso (-1 sin franja), para recolorear
+     * solo las celdas que cambian.
+     */
+    private final Map<Curso, Integer> franjaAplicada = new HashMap<>();
+    private final List<Object> aristasLeves = new ArrayList<>();
+    private Color[] coloresRegistrados;
+    private int nivelDetalle = DETALLE_COMPLETO;
+
+    /**
+     * Posiciones normalizadas por huella de topología, con desalojo del grafo
+     * usado hace más tiempo.
+     */
+    private final Map<Long, Map<Curso, double[]>> cachePosiciones = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Map<Curso, double[]>> mayor) {
+            return size() > CAPACIDAD_CACHE_POSICIONES;
+        }
+    };
+    private long huellaActual;
+    private long huellaEnCalculo;
+    private SwingWorker<Map<Curso, double[]>, Void> tareaDisposicion;
+    private final Timer temporizadorRedimensionado;
+
     public PanelGrafo() {
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createTitledBorder("Grafo de Conflictos"));
@@ -49,11 +141,14 @@ public class PanelGrafo extends JPanel {
         estiloBaseNodo.put(mxConstants.STYLE_FONTSTYLE, mxConstants.FONT_BOLD);
         estiloBaseNodo.put(mxConstants.STYLE_SHADOW, true);
 
+        temporizadorRedimensionado = new Timer(RETARDO_REDIMENSIONADO_MS, e -> aplicarDisposicion());
+        temporizadorRedimensionado.setRepeats(false);
+
         addComponentListener(new ComponentAdapter() {
             @Override
             public void componentResized(ComponentEvent e) {
                 if (grafoActual != null && getWidth() > 0 && getHeight() > 0) {
-                    aplicarLayoutCircular();
+                    temporizadorRedimensionado.restart();
                 }
             }
         });
@@ -61,18 +156,25 @@ public class PanelGrafo extends JPanel {
 
     /**
      * Dibuja el grafo de conflictos en el panel.
+     * Si el grafo tiene los mismos cursos y conflictos que el dibujado, se
+     * conserva el adaptador actual (posiciones y estilos incluidos).
      * 
      * @param grafo El grafo JGraphT con cursos como vértices y conflictos como
      *              aristas
      */
     public void dibujarGrafo(final Graph<Curso, DefaultWeightedEdge> grafo) {
+        if (adaptadorGrafo != null && tieneMismaTopologia(grafo)) {
+            return;
+        }
         this.grafoActual = grafo;
+        final Graph<Curso, DefaultWeightedEdge> dibujado = agregarAristasLigeras(grafo);
+        this.grafoDibujado = dibujado;
 
         if (componenteGrafo != null) {
             remove(componenteGrafo);
         }
 
-        adaptadorGrafo = new JGraphXAdapter<Curso, DefaultWeightedEdge>(grafo) {
+        adaptadorGrafo = new JGraphXAdapter<Curso, DefaultWeightedEdge>(dibujado) {
             @Override
             public String getLabel(Object cell) {
                 if (cell instanceof mxICell) {
@@ -85,15 +187,29 @@ public class PanelGrafo extends JPanel {
                     } else if (mxCell.isEdge()) {
                         DefaultWeightedEdge edge = this.getCellToEdgeMap().get(cell);
                         if (edge != null) {
-                            int peso = (int) grafo.getEdgeWeight(edge);
+                            int peso = (int) dibujado.getEdgeWeight(edge);
                             return peso > 0 ? String.valueOf(peso) : "";
                         }
                     }
                 }
                 return super.getLabel(cell);
             }
+
+            @Override
+            public String getToolTipForCell(Object cell) {
+                Curso curso = this.getCellToVertexMap().get(cell);
+                int[] agregadas = curso != null ? aristasAgregadas.get(curso) : null;
+                if (agregadas != null) {
+                    return curso.id() + ": " + agregadas[0] + " conflictos leves no dibujados ("
+                            + agregadas[1] + " estudiantes)";
+                }
+                return super.getToolTipForCell(cell);
+            }
         };
 
+        franjaAplicada.clear();
+        coloresRegistrados = null;
+        nivelDetalle = DETALLE_COMPLETO;
         configurarEstilosGrafo();
 
         componenteGrafo = new mxGraphComponent(adaptadorGrafo);
@@ -102,69 +218,351 @@ public class PanelGrafo extends JPanel {
         componenteGrafo.getGraph().setCellsMovable(true);
         componenteGrafo.getGraph().setCellsResizable(false);
         componenteGrafo.setGridVisible(false);
+        componenteGrafo.setTripleBuffered(true);
+        componenteGrafo.setAntiAlias(!esGrafoGrande());
+        componenteGrafo.setToolTips(!aristasAgregadas.isEmpty());
         componenteGrafo.getViewport().setBackground(new Color(250, 250, 255));
         componenteGrafo.setBorder(BorderFactory.createEmptyBorder());
 
+        adaptadorGrafo.getView().addListener(mxEvent.SCALE, (emisor, evento) -> actualizarNivelDetalle());
+        adaptadorGrafo.getView().addListener(mxEvent.SCALE_AND_TRANSLATE,
+                (emisor, evento) -> actualizarNivelDetalle());
+        componenteGrafo.addMouseWheelListener(e -> {
+            if (e.isControlDown()) {
+                if (e.getWheelRotation() < 0) {
+                    componenteGrafo.zoomIn();
+                } else {
+                    componenteGrafo.zoomOut();
+                }
+            }
+        });
+
         add(componenteGrafo, BorderLayout.CENTER);
 
-        SwingUtilities.invokeLater(() -> {
-            aplicarLayoutCircular();
-            colorearNodos(null, null);
-        });
+        huellaActual = calcularHuella(grafo);
+        SwingUtilities.invokeLater(this::aplicarDisposicion);
 
         revalidate();
         repaint();
     }
 
     /**
-     * Configura los estilos globales del grafo (aristas, nodos por defecto)
+     * Verifica si el grafo tiene exactamente los mismos cursos y conflictos
+     * (con los mismos pesos) que el grafo dibujado.
+     */
+    private boolean tieneMismaTopologia(Graph<Curso, DefaultWeightedEdge> grafo) {
+        if (grafo == grafoActual) {
+            return true;
+        }
+        if (grafoActual == null
+                || grafo.edgeSet().size() != grafoActual.edgeSet().size()
+                || !grafo.vertexSet().equals(grafoActual.vertexSet())) {
+            return false;
+        }
+        for (DefaultWeightedEdge arista : grafo.edgeSet()) {
+            DefaultWeightedEdge existente = grafoActual.getEdge(
+                    grafo.getEdgeSource(arista), grafo.getEdgeTarget(arista));
+            if (existente == null || grafoActual.getEdgeWeight(existente) != grafo.getEdgeWeight(arista)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Si el grafo tiene más de {@link #UMBRAL_AGREGAR_ARISTAS} aristas,
+     * devuelve una copia con solo las {@link #ARISTAS_VISIBLES_POR_CURSO} más
+     * pesadas de cada curso (una arista se conserva si lo es para alguno de
+     * sus dos cursos) y anota las demás en {@link #aristasAgregadas}; si no,
+     * el mismo grafo.
+     */
+    private Graph<Curso, DefaultWeightedEdge> agregarAristasLigeras(Graph<Curso, DefaultWeightedEdge> grafo) {
+        aristasAgregadas.clear();
+        if (grafo.edgeSet().size() <= UMBRAL_AGREGAR_ARISTAS) {
+            return grafo;
+        }
+        Comparator<DefaultWeightedEdge> porPeso = Comparator.comparingDouble(grafo::getEdgeWeight);
+        Set<DefaultWeightedEdge> visibles = new HashSet<>();
+        for (Curso curso : grafo.vertexSet()) {
+            grafo.edgesOf(curso).stream()
+                    .sorted(porPeso.reversed())
+                    .limit(ARISTAS_VISIBLES_POR_CURSO)
+                    .forEach(visibles::add);
+        }
+
+        Graph<Curso, DefaultWeightedEdge> dibujado = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        for (Curso curso : grafo.vertexSet()) {
+            dibujado.addVertex(curso);
+        }
+        for (DefaultWeightedEdge arista : grafo.edgeSet()) {
+            Curso fuente = grafo.getEdgeSource(arista);
+            Curso destino = grafo.getEdgeTarget(arista);
+            int peso = (int) grafo.getEdgeWeight(arista);
+            if (visibles.contains(arista)) {
+                dibujado.setEdgeWeight(dibujado.addEdge(fuente, destino), peso);
+            } else {
+                for (Curso curso : new Curso[] { fuente, destino }) {
+                    int[] agregadas = aristasAgregadas.computeIfAbsent(curso, c -> new int[2]);
+                    agregadas[0]++;
+                    agregadas[1] += peso;
+                }
+            }
+        }
+        return dibujado;
+    }
+
+    private boolean esGrafoGrande() {
+        return grafoActual != null && grafoActual.vertexSet().size() > UMBRAL_GRAFO_GRANDE;
+    }
+
+    /**
+     * Configura los estilos globales del grafo: clases de peso para las
+     * aristas y el estilo compartido de los nodos sin franja.
      */
     private void configurarEstilosGrafo() {
+        adaptadorGrafo.getStylesheet().putCellStyle(ESTILO_ARISTA_LEVE, crearEstiloArista("#F5B7B1", 1));
+        adaptadorGrafo.getStylesheet().putCellStyle(ESTILO_ARISTA_MEDIA, crearEstiloArista("#E74C3C", 2));
+        adaptadorGrafo.getStylesheet().putCellStyle(ESTILO_ARISTA_FUERTE, crearEstiloArista("#C0392B", 3));
+        registrarEstiloNodo(ESTILO_SIN_FRANJA, "#AED6F1", "#D6EAF8");
+
+        double pesoMaximo = 0;
+        for (DefaultWeightedEdge arista : grafoDibujado.edgeSet()) {
+            pesoMaximo = Math.max(pesoMaximo, grafoDibujado.getEdgeWeight(arista));
+        }
+
+        List<Object> medias = new ArrayList<>();
+        List<Object> fuertes = new ArrayList<>();
+        aristasLeves.clear();
+        for (Map.Entry<DefaultWeightedEdge, mxICell> entrada : adaptadorGrafo.getEdgeToCellMap().entrySet()) {
+            double proporcion = grafoDibujado.getEdgeWeight(entrada.getKey()) / pesoMaximo;
+            if (pesoMaximo <= 1 || (proporcion > 1.0 / 3 && proporcion <= 2.0 / 3)) {
+                medias.add(entrada.getValue());
+            } else if (proporcion <= 1.0 / 3) {
+                aristasLeves.add(entrada.getValue());
+            } else {
+                fuertes.add(entrada.getValue());
+            }
+        }
+
+        adaptadorGrafo.getModel().beginUpdate();
+        try {
+            adaptadorGrafo.setCellStyle(ESTILO_ARISTA_LEVE, aristasLeves.toArray());
+            adaptadorGrafo.setCellStyle(ESTILO_ARISTA_MEDIA, medias.toArray());
+            adaptadorGrafo.setCellStyle(ESTILO_ARISTA_FUERTE, fuertes.toArray());
+            adaptadorGrafo.setCellStyle(ESTILO_SIN_FRANJA,
+                    adaptadorGrafo.getVertexToCellMap().values().toArray());
+        } finally {
+            adaptadorGrafo.getModel().endUpdate();
+        }
+
+        for (Curso curso : grafoActual.vertexSet()) {
+            franjaAplicada.put(curso, -1);
+        }
+    }
+
+    private Map<String, Object> crearEstiloArista(String color, int grosor) {
         Map<String, Object> estiloArista = new HashMap<>();
-        estiloArista.put(mxConstants.STYLE_STROKECOLOR, "#E74C3C");
-        estiloArista.put(mxConstants.STYLE_STROKEWIDTH, 2);
+        estiloArista.put(mxConstants.STYLE_STROKECOLOR, color);
+        estiloArista.put(mxConstants.STYLE_STROKEWIDTH, grosor);
         estiloArista.put(mxConstants.STYLE_FONTCOLOR, "#C0392B");
         estiloArista.put(mxConstants.STYLE_FONTSIZE, 10);
         estiloArista.put(mxConstants.STYLE_FONTSTYLE, mxConstants.FONT_BOLD);
         estiloArista.put(mxConstants.STYLE_LABEL_BACKGROUNDCOLOR, "#FFFFFF");
         estiloArista.put(mxConstants.STYLE_ROUNDED, true);
-        estiloArista.put(mxConstants.STYLE_EDGE, mxConstants.EDGESTYLE_ORTHOGONAL);
-        adaptadorGrafo.getStylesheet().putCellStyle("ARISTA_CONFLICTO", estiloArista);
+        if (!esGrafoGrande()) {
+            estiloArista.put(mxConstants.STYLE_EDGE, mxConstants.EDGESTYLE_ORTHOGONAL);
+        }
+        estiloArista.put(mxConstants.STYLE_NOLABEL, nivelDetalle < DETALLE_COMPLETO ? "1" : "0");
+        return estiloArista;
+    }
+
+    /**
+     * Registra (o reemplaza) un estilo de nodo compartido.
+     */
+    private void registrarEstiloNodo(String nombre, String relleno, String degradado) {
+        Map<String, Object> estilo = new HashMap<>(estiloBaseNodo);
+        estilo.put(mxConstants.STYLE_FILLCOLOR, relleno);
+        if (esGrafoGrande()) {
+            estilo.put(mxConstants.STYLE_SHADOW, false);
+        } else {
+            estilo.put(mxConstants.STYLE_GRADIENTCOLOR, degradado);
+            estilo.put(mxConstants.STYLE_GRADIENT_DIRECTION, mxConstants.DIRECTION_SOUTH);
+        }
+        estilo.put(mxConstants.STYLE_NOLABEL, nivelDetalle == DETALLE_MINIMO ? "1" : "0");
+        adaptadorGrafo.getStylesheet().putCellStyle(nombre, estilo);
+    }
 
-        adaptadorGrafo.setCellStyle("ARISTA_CONFLICTO",
-                adaptadorGrafo.getEdgeToCellMap().values().toArray());
+    /**
+     * Registra un estilo por franja con los colores indicados.
+     */
+    private void registrarEstilosFranja(Color[] colores) {
+        for (int franja = 0; franja < colores.length; franja++) {
+            registrarEstiloNodo(PREFIJO_ESTILO_FRANJA + franja,
+                    toHexString(colores[franja]), toHexString(colores[franja].brighter()));
+        }
+        coloresRegistrados = colores.clone();
     }
 
     /**
-     * Aplica el layout circular con dimensiones calculadas correctamente.
+     * Ajusta el nivel de detalle al zoom actual. Solo actúa al cruzar un umbral:
+     * cambia los estilos compartidos (no las celdas) y muestra u oculta en
+     * bloque las aristas leves.
      */
-    private void aplicarLayoutCircular() {
-        if (adaptadorGrafo == null || grafoActual == null)
+    private void actualizarNivelDetalle() {
+        if (adaptadorGrafo == null) {
             return;
+        }
+        double escala = adaptadorGrafo.getView().getScale();
+        int nivel = escala < ESCALA_SIN_DETALLE ? DETALLE_MINIMO
+                : escala < ESCALA_SIN_ETIQUETAS_ARISTA ? DETALLE_SIN_ETIQUETAS_ARISTA
+                        : DETALLE_COMPLETO;
+        if (nivel == nivelDetalle) {
+            return;
+        }
+        boolean mostrabanLeves = nivelDetalle > DETALLE_MINIMO;
+        nivelDetalle = nivel;
 
-        int numVertices = grafoActual.vertexSet().size();
-        if (numVertices == 0)
+        String etiquetasArista = nivel < DETALLE_COMPLETO ? "1" : "0";
+        String etiquetasNodo = nivel == DETALLE_MINIMO ? "1" : "0";
+        for (String nombre : new String[] { ESTILO_ARISTA_LEVE, ESTILO_ARISTA_MEDIA, ESTILO_ARISTA_FUERTE }) {
+            adaptadorGrafo.getStylesheet().getStyles().get(nombre).put(mxConstants.STYLE_NOLABEL, etiquetasArista);
+        }
+        adaptadorGrafo.getStylesheet().getStyles().get(ESTILO_SIN_FRANJA)
+                .put(mxConstants.STYLE_NOLABEL, etiquetasNodo);
+        if (coloresRegistrados != null) {
+            for (int franja = 0; franja < coloresRegistrados.length; franja++) {
+                adaptadorGrafo.getStylesheet().getStyles().get(PREFIJO_ESTILO_FRANJA + franja)
+                        .put(mxConstants.STYLE_NOLABEL, etiquetasNodo);
+            }
+        }
+
+        boolean mostrarLeves = nivel > DETALLE_MINIMO;
+        if (mostrarLeves != mostrabanLeves && !aristasLeves.isEmpty()) {
+            adaptadorGrafo.toggleCells(mostrarLeves, aristasLeves.toArray(), false);
+        }
+        adaptadorGrafo.refresh();
+    }
+
+    /**
+     * Coloca los nodos según la disposición guardada para el grafo actual,
+     * reescalada al tamaño del panel. Si aún no hay disposición, coloca los
+     * nodos en círculo y lanza el cálculo en segundo plano.
+     */
+    private void aplicarDisposicion() {
+        if (adaptadorGrafo == null || grafoActual == null || grafoActual.vertexSet().isEmpty())
             return;
 
+        Map<Curso, double[]> posiciones = cachePosiciones.get(huellaActual);
+        if (posiciones == null) {
+            if (tareaDisposicion != null && !tareaDisposicion.isDone() && huellaEnCalculo == huellaActual) {
+                return;
+            }
+            List<Curso> orden = new ArrayList<>(grafoActual.vertexSet());
+            MotorDisposicion.Posiciones circulo = MotorDisposicion.disponerEnCirculo(orden.size());
+            colocarNodos(aMapa(orden, circulo), true);
+            calcularDisposicionEnSegundoPlano(orden);
+            return;
+        }
+        colocarNodos(posiciones, posiciones.size() <= MotorDisposicion.UMBRAL_CIRCULAR);
+    }
+
+    /**
+     * Lanza (cancelando la anterior) la tarea que calcula la disposición del
+     * grafo actual fuera del hilo de eventos.
+     */
+    private void calcularDisposicionEnSegundoPlano(List<Curso> orden) {
+        if (tareaDisposicion != null) {
+            tareaDisposicion.cancel(false);
+        }
+
+        Map<Curso, Integer> indices = new HashMap<>();
+        for (int i = 0; i < orden.size(); i++) {
+            indices.put(orden.get(i), i);
+        }
+        int[][] vecinos = new int[orden.size()][];
+        for (int i = 0; i < orden.size(); i++) {
+            Curso curso = orden.get(i);
+            vecinos[i] = grafoActual.edgesOf(curso).stream()
+                    .mapToInt(arista -> {
+                        Curso fuente = grafoActual.getEdgeSource(arista);
+                        return indices.get(fuente.equals(curso) ? grafoActual.getEdgeTarget(arista) : fuente);
+                    })
+                    .toArray();
+        }
+
+        final long huella = huellaActual;
+        huellaEnCalculo = huella;
+        tareaDisposicion = new SwingWorker<>() {
+            @Override
+            protected Map<Curso, double[]> doInBackground() {
+                MotorDisposicion.Posiciones posiciones = MotorDisposicion.disponer(vecinos, this::isCancelled);
+                return posiciones != null ? aMapa(orden, posiciones) : null;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    Map<Curso, double[]> posiciones = get();
+                    if (posiciones != null) {
+                        cachePosiciones.put(huella, posiciones);
+                        if (huella == huellaActual) {
+                            colocarNodos(posiciones, orden.size() <= MotorDisposicion.UMBRAL_CIRCULAR);
+                        }
+                    }
+                } catch (CancellationException e) {
+                    // Reemplazada por una disposición más reciente.
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        tareaDisposicion.execute();
+    }
+
+    private static Map<Curso, double[]> aMapa(List<Curso> orden, MotorDisposicion.Posiciones posiciones) {
+        Map<Curso, double[]> mapa = new HashMap<>();
+        for (int i = 0; i < orden.size(); i++) {
+            mapa.put(orden.get(i), new double[] { posiciones.x()[i], posiciones.y()[i] });
+        }
+        return mapa;
+    }
+
+    /**
+     * Traslada posiciones normalizadas a coordenadas del panel.
+     * 
+     * @param posiciones Posiciones en [0, 1] por curso
+     * @param circular   Si la disposición es circular se conserva el radio
+     *                   legible de siempre; si no, el área crece con el número
+     *                   de nodos y el componente permite desplazarse
+     */
+    private void colocarNodos(Map<Curso, double[]> posiciones, boolean circular) {
+        int numVertices = grafoActual.vertexSet().size();
         int anchoDisponible = Math.max(getWidth() - 2 * PADDING, MIN_DIMENSION);
         int altoDisponible = Math.max(getHeight() - 2 * PADDING, MIN_DIMENSION);
 
-        double radioMinimo = (numVertices * NODE_WIDTH) / (2 * Math.PI);
-        double radioMaximo = Math.min(anchoDisponible, altoDisponible) / 2.0 - NODE_WIDTH;
-        double radio = Math.max(radioMinimo, Math.min(radioMaximo, 150));
+        double lado;
+        if (circular) {
+            double radioMinimo = (numVertices * NODE_WIDTH) / (2 * Math.PI);
+            double radioMaximo = Math.min(anchoDisponible, altoDisponible) / 2.0 - NODE_WIDTH;
+            lado = 2 * Math.max(radioMinimo, Math.min(radioMaximo, 150));
+        } else {
+            lado = Math.max(Math.min(anchoDisponible, altoDisponible) - NODE_WIDTH,
+                    Math.sqrt(numVertices) * NODE_WIDTH * 1.5);
+        }
+        double x0 = Math.max(PADDING, (anchoDisponible - lado) / 2.0 + PADDING);
+        double y0 = Math.max(PADDING, (altoDisponible - lado) / 2.0 + PADDING);
 
         adaptadorGrafo.getModel().beginUpdate();
         try {
-            mxCircleLayout layout = new mxCircleLayout(adaptadorGrafo);
-            layout.setX0((anchoDisponible - 2 * radio) / 2.0 + PADDING);
-            layout.setY0((altoDisponible - 2 * radio) / 2.0 + PADDING);
-            layout.setRadius(radio);
-            layout.setMoveCircle(false);
-            layout.execute(adaptadorGrafo.getDefaultParent());
-
-            for (mxICell celda : adaptadorGrafo.getVertexToCellMap().values()) {
-                adaptadorGrafo.getModel().getGeometry(celda).setWidth(NODE_WIDTH);
-                adaptadorGrafo.getModel().getGeometry(celda).setHeight(NODE_HEIGHT);
+            for (Map.Entry<Curso, mxICell> entrada : adaptadorGrafo.getVertexToCellMap().entrySet()) {
+                double[] posicion = posiciones.getOrDefault(entrada.getKey(), new double[] { 0.5, 0.5 });
+                adaptadorGrafo.getModel().setGeometry(entrada.getValue(), new mxGeometry(
+                        x0 + posicion[0] * lado - NODE_WIDTH / 2.0,
+                        y0 + posicion[1] * lado - NODE_HEIGHT / 2.0,
+                        NODE_WIDTH, NODE_HEIGHT));
             }
         } finally {
             adaptadorGrafo.getModel().endUpdate();
@@ -175,8 +573,37 @@ public class PanelGrafo extends JPanel {
         }
     }
 
+    /**
+     * Calcula una huella de la topología (cursos, aristas y pesos)
+     * independiente del orden de iteración, usada como clave de la caché de
+     * posiciones.
+     */
+    private static long calcularHuella(Graph<Curso, DefaultWeightedEdge> grafo) {
+        long huella = grafo.vertexSet().size() * 0x9E3779B97F4A7C15L;
+        for (Curso curso : grafo.vertexSet()) {
+            huella += mezclar(curso.hashCode());
+        }
+        for (DefaultWeightedEdge arista : grafo.edgeSet()) {
+            long a = mezclar(grafo.getEdgeSource(arista).hashCode());
+            long b = mezclar(grafo.getEdgeTarget(arista).hashCode());
+            huella += mezclar((a ^ b) + (long) grafo.getEdgeWeight(arista));
+        }
+        return huella;
+    }
+
+    private static long mezclar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xFF51AFD7ED558CCDL;
+        valor ^= valor >>> 33;
+        valor *= 0xC4CEB9FE1A85EC53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+
     /**
      * Colorea los nodos del grafo según el horario asignado.
+     * Solo se actualizan las celdas cuya franja cambió desde el último
+     * coloreo, agrupadas por estilo compartido.
      * 
      * @param horario Mapa de curso a franja horaria (puede ser null)
      * @param colores Array de colores para cada franja
@@ -185,39 +612,43 @@ public class PanelGrafo extends JPanel {
         if (adaptadorGrafo == null)
             return;
 
-        Map<mxICell, Curso> celdaACurso = new HashMap<>();
-        for (Map.Entry<Curso, mxICell> entry : adaptadorGrafo.getVertexToCellMap().entrySet()) {
-            celdaACurso.put(entry.getValue(), entry.getKey());
+        boolean estilosCambiaron = false;
+        if (colores != null && !Arrays.equals(colores, coloresRegistrados)) {
+            registrarEstilosFranja(colores);
+            estilosCambiaron = true;
+        }
+
+        Map<String, List<Object>> celdasPorEstilo = new HashMap<>();
+        for (Map.Entry<Curso, mxICell> entrada : adaptadorGrafo.getVertexToCellMap().entrySet()) {
+            Curso curso = entrada.getKey();
+            Integer franja = horario != null && colores != null ? horario.get(curso) : null;
+            int nuevaFranja = franja != null ? franja % colores.length : -1;
+
+            Integer anterior = franjaAplicada.put(curso, nuevaFranja);
+            if (anterior == null || anterior != nuevaFranja) {
+                String estilo = nuevaFranja < 0 ? ESTILO_SIN_FRANJA : PREFIJO_ESTILO_FRANJA + nuevaFranja;
+                celdasPorEstilo.computeIfAbsent(estilo, e -> new ArrayList<>()).add(entrada.getValue());
+            }
+        }
+
+        if (celdasPorEstilo.isEmpty()) {
+            if (estilosCambiaron) {
+                adaptadorGrafo.refresh();
+            }
+            return;
         }
 
         adaptadorGrafo.getModel().beginUpdate();
         try {
-            for (mxICell celda : adaptadorGrafo.getVertexToCellMap().values()) {
-                Curso curso = celdaACurso.get(celda);
-                Map<String, Object> nuevoEstilo = new HashMap<>(estiloBaseNodo);
-
-                if (horario != null && horario.containsKey(curso) && colores != null) {
-                    int franja = horario.get(curso);
-                    Color color = colores[franja % colores.length];
-                    nuevoEstilo.put(mxConstants.STYLE_FILLCOLOR, toHexString(color));
-                    nuevoEstilo.put(mxConstants.STYLE_GRADIENTCOLOR, toHexString(color.brighter()));
-                    nuevoEstilo.put(mxConstants.STYLE_GRADIENT_DIRECTION, mxConstants.DIRECTION_SOUTH);
-                } else {
-                    nuevoEstilo.put(mxConstants.STYLE_FILLCOLOR, "#AED6F1");
-                    nuevoEstilo.put(mxConstants.STYLE_GRADIENTCOLOR, "#D6EAF8");
-                    nuevoEstilo.put(mxConstants.STYLE_GRADIENT_DIRECTION, mxConstants.DIRECTION_SOUTH);
-                }
-
-                String nombreEstilo = "ESTILO_" + curso.id().replaceAll("[^A-Za-z0-9_]", "_");
-                adaptadorGrafo.getStylesheet().putCellStyle(nombreEstilo, nuevoEstilo);
-                adaptadorGrafo.setCellStyle(nombreEstilo, new Object[] { celda });
+            for (Map.Entry<String, List<Object>> entrada : celdasPorEstilo.entrySet()) {
+                adaptadorGrafo.setCellStyle(entrada.getKey(), entrada.getValue().toArray());
             }
         } finally {
             adaptadorGrafo.getModel().endUpdate();
         }
 
-        if (componenteGrafo != null) {
-            componenteGrafo.refresh();
+        if (estilosCambiaron) {
+            adaptadorGrafo.refresh();
         }
     }
 
@@ -3,16 +3,17 @@ package com.example.examscheduler.vista;
 import com.example.examscheduler.controlador.ControladorHorarios;
 import com.example.examscheduler.modelo.Curso;
 import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.solucionador.ChoquesPorEstudiante;
+import com.example.examscheduler.solucionador.ConflictoHorario;
 import com.example.examscheduler.solucionador.OptimizadorHorarios;
+import com.example.examscheduler.solucionador.ProgresoBusqueda;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.*;
 import java.util.List;
 
@@ -21,7 +22,9 @@ import java.util.List;
  * Implementa una interfaz gráfica con:
  * - Panel de configuración (selección de ejemplo, número de franjas)
  * - Visualización del grafo de conflictos
- * - Área de resultados con detalle de la solución
+ * - Pestañas de resultados: resumen y tablas virtualizadas (horario,
+ * inscripciones, conflictos, choques por estudiante) preparadas fuera del
+ * hilo de eventos
  * - Leyenda de colores para las franjas horarias
  */
 public class VistaPrincipal extends JFrame {
@@ -38,10 +41,17 @@ public class VistaPrincipal extends JFrame {
     private JComboBox<String> selectorEjemplos;
     private JSpinner selectorFranjas;
     private JTextArea areaResultado;
+    private JTabbedPane pestanasResultado;
+    private ModeloTablaPerezoso<FilaHorario> modeloHorario;
+    private ModeloTablaPerezoso<Estudiante> modeloInscripciones;
+    private ModeloTablaPerezoso<ConflictoHorario> modeloConflictos;
+    private ModeloTablaPerezoso<ChoquesPorEstudiante.Choque> modeloChoques;
     private JButton botonResolver;
     private JButton botonExportar;
+    private JButton botonReanudar;
     private JButton botonDatosPersonalizados;
     private JProgressBar barraProgreso;
+    private JButton botonCancelar;
     private PanelGrafo panelGrafo;
     private JPanel panelLeyenda;
 
@@ -49,6 +59,13 @@ public class VistaPrincipal extends JFrame {
     private List<Estudiante> estudiantes = new ArrayList<>();
     private final Color[] coloresFranja;
     private OptimizadorHorarios.Solucion ultimaSolucion;
+    private OptimizadorHorarios ultimoOptimizador;
+
+    /**
+     * Se incrementa con cada nueva preparación de resultados; las tareas de
+     * fondo que terminan con una generación vieja se descartan.
+     */
+    private int generacionResultados = 0;
 
     public VistaPrincipal(ControladorHorarios controlador) {
         this.controlador = controlador;
@@ -95,6 +112,7 @@ public class VistaPrincipal extends JFrame {
      */
     private void configurarAcciones() {
         botonResolver.addActionListener(e -> controlador.solicitarOptimizacion());
+        botonReanudar.addActionListener(e -> controlador.solicitarReanudacion());
         selectorEjemplos.addActionListener(e -> {
             int indice = selectorEjemplos.getSelectedIndex();
             if (indice == 3) {
@@ -120,6 +138,7 @@ public class VistaPrincipal extends JFrame {
             cursos = new ArrayList<>(dialogo.getCursos());
             estudiantes = new ArrayList<>(dialogo.getEstudiantes());
             ultimaSolucion = null;
+            ultimoOptimizador = null;
             botonExportar.setEnabled(false);
 
             selectorEjemplos.setSelectedIndex(3);
@@ -161,6 +180,9 @@ public class VistaPrincipal extends JFrame {
 
         botonResolver = crearBoton("Asignar Horarios", COLOR_PRIMARIO);
 
+        botonReanudar = crearBoton("Reanudar", new Color(52, 73, 94));
+        botonReanudar.setEnabled(controlador.hayPuntoControl());
+
         botonExportar = crearBoton("Exportar", new Color(155, 89, 182));
         botonExportar.setEnabled(false);
 
@@ -172,6 +194,7 @@ public class VistaPrincipal extends JFrame {
         panelControles.add(selectorFranjas);
         panelControles.add(Box.createHorizontalStrut(10));
         panelControles.add(botonResolver);
+        panelControles.add(botonReanudar);
         panelControles.add(botonExportar);
 
         return panelControles;
@@ -231,12 +254,49 @@ public class VistaPrincipal extends JFrame {
         areaResultado.setMargin(new Insets(10, 10, 10, 10));
         areaResultado.setText("Selecciona un ejemplo y presiona 'Asignar Horarios' para comenzar.");
 
-        JScrollPane scrollResultado = new JScrollPane(areaResultado);
-        scrollResultado.setBorder(crearBordeTitulado("Resultados y Estadisticas"));
-        scrollResultado.setBackground(COLOR_PANEL);
+        modeloHorario = new ModeloTablaPerezoso<>(
+                new String[] { "Franja", "Curso", "Nombre" },
+                (fila, columna) -> switch (columna) {
+                    case 0 -> fila.franja() != null ? "F" + (fila.franja() + 1) : "-";
+                    case 1 -> fila.curso().id();
+                    default -> fila.curso().nombre();
+                });
+        modeloInscripciones = new ModeloTablaPerezoso<>(
+                new String[] { "Estudiante", "Cursos inscritos" },
+                (estudiante, columna) -> columna == 0
+                        ? estudiante.id()
+                        : String.join(", ", estudiante.cursos().stream().map(Curso::id).toList()));
+        modeloConflictos = new ModeloTablaPerezoso<>(
+                new String[] { "Franja", "Curso 1", "Curso 2", "Estudiantes afectados" },
+                (conflicto, columna) -> switch (columna) {
+                    case 0 -> "F" + (conflicto.franja() + 1);
+                    case 1 -> conflicto.curso1().id() + " (" + conflicto.curso1().nombre() + ")";
+                    case 2 -> conflicto.curso2().id() + " (" + conflicto.curso2().nombre() + ")";
+                    default -> conflicto.estudiantes();
+                });
+        modeloChoques = new ModeloTablaPerezoso<>(
+                new String[] { "Estudiante", "Franja", "Cursos en la misma franja" },
+                (choque, columna) -> switch (columna) {
+                    case 0 -> choque.estudiante().id();
+                    case 1 -> "F" + (choque.franja() + 1);
+                    default -> String.join(", ", choque.cursos().stream().map(Curso::id).toList());
+                });
+
+        pestanasResultado = new JTabbedPane();
+        pestanasResultado.setFont(FUENTE_NORMAL);
+        pestanasResultado.addTab("Resumen", new JScrollPane(areaResultado));
+        pestanasResultado.addTab("Horario", crearScrollTabla(modeloHorario));
+        pestanasResultado.addTab("Inscripciones", crearScrollTabla(modeloInscripciones));
+        pestanasResultado.addTab("Conflictos", crearScrollTabla(modeloConflictos));
+        pestanasResultado.addTab("Choques", crearScrollTabla(modeloChoques));
+
+        JPanel panelResultados = new JPanel(new BorderLayout());
+        panelResultados.setBorder(crearBordeTitulado("Resultados y Estadisticas"));
+        panelResultados.setBackground(COLOR_PANEL);
+        panelResultados.add(pestanasResultado, BorderLayout.CENTER);
 
         JSplitPane panelDividido = new JSplitPane(
-                JSplitPane.HORIZONTAL_SPLIT, panelGrafo, scrollResultado);
+                JSplitPane.HORIZONTAL_SPLIT, panelGrafo, panelResultados);
         panelDividido.setResizeWeight(0.55);
         panelDividido.setDividerSize(8);
         panelDividido.setBorder(null);
@@ -244,6 +304,18 @@ public class VistaPrincipal extends JFrame {
         return panelDividido;
     }
 
+    /**
+     * Crea una tabla de solo lectura para un modelo perezoso.
+     */
+    private JScrollPane crearScrollTabla(ModeloTablaPerezoso<?> modelo) {
+        JTable tabla = new JTable(modelo);
+        tabla.setFont(FUENTE_NORMAL);
+        tabla.setFillsViewportHeight(true);
+        tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        tabla.getTableHeader().setReorderingAllowed(false);
+        return new JScrollPane(tabla);
+    }
+
     /**
      * Crea el panel de progreso inferior.
      */
@@ -259,7 +331,17 @@ public class VistaPrincipal extends JFrame {
         barraProgreso.setString("Listo");
         barraProgreso.setFont(FUENTE_NORMAL);
 
+        botonCancelar = new JButton("Cancelar");
+        botonCancelar.setFont(FUENTE_NORMAL);
+        botonCancelar.setEnabled(false);
+        botonCancelar.addActionListener(e -> {
+            botonCancelar.setEnabled(false);
+            barraProgreso.setString("Cancelando...");
+            controlador.cancelarOptimizacion();
+        });
+
         panelProgreso.add(barraProgreso, BorderLayout.CENTER);
+        panelProgreso.add(botonCancelar, BorderLayout.EAST);
         return panelProgreso;
     }
 
@@ -282,6 +364,7 @@ public class VistaPrincipal extends JFrame {
         cursos.clear();
         estudiantes.clear();
         ultimaSolucion = null;
+        ultimoOptimizador = null;
         botonExportar.setEnabled(false);
 
         switch (indiceEjemplo) {
@@ -339,12 +422,63 @@ public class VistaPrincipal extends JFrame {
 
     /**
      * Muestra la solución encontrada en el área de resultados.
+     * El resumen, las filas de las tablas y el detalle de conflictos se
+     * preparan en segundo plano; las tablas solo formatean las filas visibles.
      */
     public void mostrarSolucion(OptimizadorHorarios.Solucion solucion, long duracion,
             OptimizadorHorarios optimizador) {
         this.ultimaSolucion = solucion;
+        this.ultimoOptimizador = optimizador;
         actualizarGrafo(optimizador, solucion.horario());
+        botonExportar.setEnabled(false);
+
+        final int generacion = ++generacionResultados;
+        final List<Curso> cursosActuales = new ArrayList<>(cursos);
+        final List<Estudiante> estudiantesActuales = new ArrayList<>(estudiantes);
+        final int numeroFranjas = obtenerNumeroFranjas();
+
+        new SwingWorker<ResultadosPreparados, Void>() {
+            @Override
+            protected ResultadosPreparados doInBackground() {
+                List<ConflictoHorario> conflictos = optimizador.obtenerConflictosDelHorario(solucion.horario());
+                List<ChoquesPorEstudiante.Choque> choques = List.of();
+                int estudiantesAfectados = 0;
+                if (solucion.horario() != null) {
+                    ChoquesPorEstudiante choquesPorEstudiante = optimizador
+                            .obtenerChoquesPorEstudiante(solucion.horario());
+                    choques = choquesPorEstudiante.comoLista();
+                    estudiantesAfectados = choquesPorEstudiante.numeroEstudiantesAfectados();
+                }
+                String resumen = construirResumenSolucion(solucion, duracion, optimizador,
+                        conflictos.size(), estudiantesAfectados, cursosActuales.size(), numeroFranjas);
+                return new ResultadosPreparados(resumen,
+                        construirFilasHorario(cursosActuales, solucion.horario()),
+                        estudiantesActuales, conflictos, choques);
+            }
+
+            @Override
+            protected void done() {
+                if (generacion != generacionResultados) {
+                    return;
+                }
+                try {
+                    aplicarResultados(get());
+                    botonExportar.setEnabled(solucion.horario() != null);
+                } catch (Exception e) {
+                    areaResultado.setText("Error al preparar los resultados: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
 
+    /**
+     * Construye el texto del resumen de una solución (sin listados, que van en
+     * las tablas).
+     */
+    private static String construirResumenSolucion(OptimizadorHorarios.Solucion solucion, long duracion,
+            OptimizadorHorarios optimizador, int paresEnConflicto, int estudiantesAfectados, int numeroCursos,
+            int numeroFranjas) {
         StringBuilder sb = new StringBuilder();
         sb.append("═══════════════════════════════════════════════════\n");
         sb.append("                 RESULTADO DE LA OPTIMIZACIÓN\n");
@@ -353,33 +487,29 @@ public class VistaPrincipal extends JFrame {
         if (solucion.horario() == null) {
             sb.append("[X] No se encontro una solucion valida.\n");
         } else {
+            if (optimizador.fueCancelado()) {
+                sb.append("[!] Busqueda cancelada: se muestra el mejor horario encontrado\n");
+                sb.append("    hasta el momento (puede no ser optimo); puede continuarse\n");
+                sb.append("    con 'Reanudar'.\n\n");
+            }
             if (solucion.conflictos() == 0) {
                 sb.append("[OK] SOLUCION OPTIMA ENCONTRADA!\n");
                 sb.append("     No hay conflictos entre estudiantes.\n\n");
             } else {
-                sb.append(String.format("[!] Solucion encontrada con %d conflicto(s)\n\n",
-                        solucion.conflictos()));
-            }
-
-            sb.append("HORARIO DE EXAMENES:\n");
-            sb.append("───────────────────────────────────────────────────\n");
-
-            Map<Integer, List<String>> franjaACursos = new TreeMap<>();
-            solucion.horario().forEach((curso, franja) -> franjaACursos.computeIfAbsent(franja, k -> new ArrayList<>())
-                    .add(String.format("%s (%s)", curso.id(), curso.nombre())));
-
-            franjaACursos.forEach((franja, cursosEnFranja) -> {
-                cursosEnFranja.sort(String::compareTo);
-                sb.append(String.format("   Franja %d │ %s\n",
-                        franja + 1, String.join(", ", cursosEnFranja)));
-            });
-
-            List<String> detallesConflicto = optimizador.obtenerDetallesDeConflictos(solucion.horario());
-            if (!detallesConflicto.isEmpty()) {
-                sb.append("\nDETALLE DE CONFLICTOS:\n");
-                sb.append("───────────────────────────────────────────────────\n");
-                detallesConflicto.forEach(detalle -> sb.append("   • ").append(detalle).append("\n"));
+                if (optimizador.getPesoConflicto() == 1 && optimizador.getPesoContigua() == 0) {
+                    sb.append(String.format("[!] Solucion encontrada con %d conflicto(s)\n",
+                            solucion.conflictos()));
+                } else {
+                    sb.append(String.format("[!] Solucion encontrada con costo %d (conflictos x%d,"
+                            + " franjas contiguas x%d)\n", solucion.conflictos(),
+                            optimizador.getPesoConflicto(), optimizador.getPesoContigua()));
+                }
+                sb.append(String.format("    %d par(es) de cursos en conflicto (ver pestaña Conflictos)\n",
+                        paresEnConflicto));
+                sb.append(String.format("    %d estudiante(s) con examenes simultaneos (ver pestaña Choques)\n\n",
+                        estudiantesAfectados));
             }
+            sb.append("El horario completo esta en la pestaña Horario.\n");
         }
 
         sb.append("\nESTADISTICAS DEL ALGORITMO:\n");
@@ -387,15 +517,38 @@ public class VistaPrincipal extends JFrame {
         sb.append(String.format("   • Tiempo de ejecucion: %d ms\n", duracion));
         sb.append(String.format("   • Estados explorados:  %,d\n", optimizador.obtenerEstadosExplorados()));
         sb.append(String.format("   • Estados podados:     %,d\n", optimizador.obtenerEstadosPodados()));
-        sb.append(String.format("   • Cursos asignados:    %d\n", cursos.size()));
-        sb.append(String.format("   • Franjas utilizadas:  %d\n", obtenerNumeroFranjas()));
+        sb.append(String.format("   • Cursos asignados:    %d\n", numeroCursos));
+        sb.append(String.format("   • Cursos en nucleo:    %d\n", optimizador.obtenerCursosEnNucleo()));
+        sb.append(String.format("   • Franjas utilizadas:  %d\n", numeroFranjas));
 
         sb.append("\n═══════════════════════════════════════════════════\n");
+        return sb.toString();
+    }
 
-        areaResultado.setText(sb.toString());
-        areaResultado.setCaretPosition(0);
+    /**
+     * Prepara las filas de la tabla de horario, ordenadas por franja y curso.
+     */
+    private static List<FilaHorario> construirFilasHorario(List<Curso> cursos, Map<Curso, Integer> horario) {
+        List<FilaHorario> filas = new ArrayList<>(cursos.size());
+        for (Curso curso : cursos) {
+            filas.add(new FilaHorario(curso, horario != null ? horario.get(curso) : null));
+        }
+        filas.sort(Comparator
+                .comparing(FilaHorario::franja, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(fila -> fila.curso().id()));
+        return filas;
+    }
 
-        botonExportar.setEnabled(solucion.horario() != null);
+    /**
+     * Publica en la interfaz los resultados preparados en segundo plano.
+     */
+    private void aplicarResultados(ResultadosPreparados resultados) {
+        areaResultado.setText(resultados.resumen());
+        areaResultado.setCaretPosition(0);
+        modeloHorario.setFilas(resultados.filasHorario());
+        modeloInscripciones.setFilas(resultados.inscripciones());
+        modeloConflictos.setFilas(resultados.conflictos());
+        modeloChoques.setFilas(resultados.choques());
     }
 
     /**
@@ -407,31 +560,47 @@ public class VistaPrincipal extends JFrame {
     }
 
     /**
-     * Muestra los datos del problema en el área de texto.
+     * Muestra los datos del problema: un resumen y las tablas de cursos e
+     * inscripciones, preparadas en segundo plano.
      */
     private void mostrarDatosDelProblema() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("═══════════════════════════════════════════════════\n");
-        sb.append("              DATOS DEL PROBLEMA\n");
-        sb.append("═══════════════════════════════════════════════════\n\n");
-
-        sb.append(String.format("CURSOS A ASIGNAR (%d):\n", cursos.size()));
-        sb.append("───────────────────────────────────────────────────\n");
-        cursos.forEach(c -> sb.append(String.format("   • %s: %s\n", c.id(), c.nombre())));
-
-        sb.append(String.format("\nESTUDIANTES E INSCRIPCIONES (%d):\n", estudiantes.size()));
-        sb.append("───────────────────────────────────────────────────\n");
-        estudiantes.forEach(e -> {
-            List<String> ids = e.cursos().stream().map(Curso::id).toList();
-            sb.append(String.format("   • %s → %s\n", e.id(), String.join(", ", ids)));
-        });
-
-        sb.append("\n═══════════════════════════════════════════════════\n");
-        sb.append("   Presiona 'Asignar Horarios' para optimizar\n");
-        sb.append("═══════════════════════════════════════════════════\n");
+        final int generacion = ++generacionResultados;
+        final List<Curso> cursosActuales = new ArrayList<>(cursos);
+        final List<Estudiante> estudiantesActuales = new ArrayList<>(estudiantes);
+
+        new SwingWorker<ResultadosPreparados, Void>() {
+            @Override
+            protected ResultadosPreparados doInBackground() {
+                StringBuilder sb = new StringBuilder();
+                sb.append("═══════════════════════════════════════════════════\n");
+                sb.append("              DATOS DEL PROBLEMA\n");
+                sb.append("═══════════════════════════════════════════════════\n\n");
+                sb.append(String.format("   • Cursos a asignar:           %,d (pestaña Horario)\n",
+                        cursosActuales.size()));
+                sb.append(String.format("   • Estudiantes e inscripciones: %,d (pestaña Inscripciones)\n",
+                        estudiantesActuales.size()));
+                sb.append("\n═══════════════════════════════════════════════════\n");
+                sb.append("   Presiona 'Asignar Horarios' para optimizar\n");
+                sb.append("═══════════════════════════════════════════════════\n");
+
+                return new ResultadosPreparados(sb.toString(),
+                        construirFilasHorario(cursosActuales, null),
+                        estudiantesActuales, List.of(), List.of());
+            }
 
-        areaResultado.setText(sb.toString());
-        areaResultado.setCaretPosition(0);
+            @Override
+            protected void done() {
+                if (generacion != generacionResultados) {
+                    return;
+                }
+                try {
+                    aplicarResultados(get());
+                } catch (Exception e) {
+                    areaResultado.setText("Error al preparar los datos: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
     }
 
     /**
@@ -441,12 +610,62 @@ public class VistaPrincipal extends JFrame {
         barraProgreso.setIndeterminate(enProgreso);
         barraProgreso.setString(enProgreso ? "Optimizando..." : "Listo");
         botonResolver.setEnabled(!enProgreso);
+        botonReanudar.setEnabled(!enProgreso && controlador.hayPuntoControl());
         selectorEjemplos.setEnabled(!enProgreso);
         selectorFranjas.setEnabled(!enProgreso);
+        botonCancelar.setEnabled(enProgreso);
+    }
+
+    /**
+     * Muestra el avance de la búsqueda en la barra de progreso.
+     */
+    public void mostrarProgresoBusqueda(ProgresoBusqueda progreso) {
+        if (!botonCancelar.isEnabled()) {
+            return;
+        }
+        barraProgreso.setString(String.format(
+                "Explorados: %,d | Podados: %,d | Frontera: %,d | Mejor: %s | Cota: %d",
+                progreso.explorados(), progreso.podados(), progreso.frontera(),
+                progreso.tieneSolucion() ? String.valueOf(progreso.mejorCosto()) : "-",
+                progreso.mejorCota()));
+    }
+
+    /**
+     * Muestra el avance de una exportación en curso.
+     */
+    public void mostrarProgresoExportacion(int porcentaje) {
+        barraProgreso.setIndeterminate(false);
+        barraProgreso.setValue(porcentaje);
+        barraProgreso.setString("Exportando... " + porcentaje + "%");
+        botonExportar.setEnabled(false);
     }
 
     /**
-     * Exporta los resultados a un archivo de texto.
+     * Restablece la barra de progreso al terminar una exportación.
+     */
+    public void finalizarExportacion() {
+        barraProgreso.setValue(0);
+        barraProgreso.setString("Listo");
+        botonExportar.setEnabled(ultimaSolucion != null && ultimaSolucion.horario() != null);
+    }
+
+    /**
+     * Obtiene la última solución mostrada (null si no hay).
+     */
+    public OptimizadorHorarios.Solucion obtenerUltimaSolucion() {
+        return ultimaSolucion;
+    }
+
+    /**
+     * Obtiene el optimizador que produjo la última solución (null si no hay).
+     */
+    public OptimizadorHorarios obtenerUltimoOptimizador() {
+        return ultimoOptimizador;
+    }
+
+    /**
+     * Exporta los resultados a CSV o JSON. El archivo se elige aquí; la
+     * escritura la realiza el controlador en segundo plano.
      */
     private void exportarResultados() {
         if (ultimaSolucion == null || ultimaSolucion.horario() == null) {
@@ -457,19 +676,21 @@ public class VistaPrincipal extends JFrame {
         }
 
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setSelectedFile(new File("horario_examenes.txt"));
+        FileNameExtensionFilter filtroJson = new FileNameExtensionFilter("JSON (*.json)", "json");
+        FileNameExtensionFilter filtroCsv = new FileNameExtensionFilter("CSV (*.csv)", "csv");
+        fileChooser.addChoosableFileFilter(filtroJson);
+        fileChooser.addChoosableFileFilter(filtroCsv);
+        fileChooser.setFileFilter(filtroJson);
+        fileChooser.setSelectedFile(new File("horario_examenes.json"));
 
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (PrintWriter writer = new PrintWriter(new FileWriter(fileChooser.getSelectedFile()))) {
-                writer.println(areaResultado.getText());
-                JOptionPane.showMessageDialog(this,
-                        "Resultados exportados exitosamente.",
-                        "Exportar", JOptionPane.INFORMATION_MESSAGE);
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this,
-                        "Error al exportar: " + ex.getMessage(),
-                        "Error", JOptionPane.ERROR_MESSAGE);
+            File archivo = fileChooser.getSelectedFile();
+            String nombre = archivo.getName().toLowerCase();
+            if (!nombre.endsWith(".json") && !nombre.endsWith(".csv")) {
+                String extension = fileChooser.getFileFilter() == filtroCsv ? ".csv" : ".json";
+                archivo = new File(archivo.getParentFile(), archivo.getName() + extension);
             }
+            controlador.solicitarExportacion(archivo.toPath());
         }
     }
 
@@ -516,4 +737,21 @@ public class VistaPrincipal extends JFrame {
         }
         return colores;
     }
-}
\ No newline at end of file
+
+    /**
+     * Fila de la tabla de horario (franja null si aún no hay solución).
+     */
+    private record FilaHorario(Curso curso, Integer franja) {
+    }
+
+    /**
+     * Resultados preparados fuera del hilo de eventos.
+     */
+    private record ResultadosPreparados(
+            String resumen,
+            List<FilaHorario> filasHorario,
+            List<Estudiante> inscripciones,
+            List<ConflictoHorario> conflictos,
+            List<ChoquesPorEstudiante.Choque> choques) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.examscheduler.servicio;
+
+import com.example.examscheduler.modelo.Curso;
+import com.example.examscheduler.modelo.Estudiante;
+import com.example.examscheduler.solucionador.GrafoCompacto;
+import com.example.examscheduler.solucionador.GrafoConflictos;
+import com.example.examscheduler.solucionador.OptimizadorHorarios;
+import com.example.examscheduler.solucionador.PoliticaBusqueda;
+import com.example.examscheduler.solucionador.ProgramacionDinamicaArbol;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara el optimizador con una búsqueda exhaustiva sobre instancias
+ * aleatorias pequeñas (hasta 7 cursos y 5 franjas, con pesos de conflicto y
+ * de franjas contiguas aleatorios). Para cada instancia comprueba:
+ * - {@link OptimizadorHorarios#resolver()}, con cada política, con y sin
+ * evaluación perezosa, frontera empaquetada y programación dinámica: el
+ * costo devuelto es el óptimo y coincide con el del horario
+ * - {@link ProgramacionDinamicaArbol} sobre el grafo completo: lo mismo
+ * - {@link OptimizadorHorarios#enumerarOptimos(int)}: todos los horarios son
+ * óptimos, ninguno repite a otro salvo renombrar las franjas y, sin llegar
+ * al límite, están todos
+ *
+ * Escribe cada discrepancia y falla si hubo alguna. Se ejecuta con mvn test;
+ * las propiedades verificador.instancias (50 por defecto) y
+ * verificador.semilla (semilla de la primera instancia, 0 por defecto; cada
+ * instancia usa la siguiente) permiten pasadas más largas.
+ */
+class VerificadorExhaustivoTest {
+
+    private static final int INSTANCIAS_POR_DEFECTO = 50;
+    private static final int[] LIMITES_ENUMERACION = { 2, 1000 };
+
+    @Test
+    void coincideConLaBusquedaExhaustiva() {
+        int instancias = Integer.getInteger("verificador.instancias", INSTANCIAS_POR_DEFECTO);
+        long semillaInicial = Long.getLong("verificador.semilla", 0);
+
+        int fallos = 0;
+        for (long semilla = semillaInicial; semilla < semillaInicial + instancias; semilla++) {
+            fallos += verificar(semilla);
+        }
+        assertEquals(0, fallos, "Discrepancias en " + instancias + " instancias");
+    }
+
+    /**
+     * Genera y verifica la instancia de una semilla.
+     *
+     * @return Número de discrepancias
+     */
+    private static int verificar(long semilla) {
+        Random aleatorio = new Random(semilla);
+        int n = 3 + aleatorio.nextInt(5);
+        int k = 2 + aleatorio.nextInt(4);
+        int pesoConflicto = 1 + aleatorio.nextInt(3);
+        int pesoContigua = aleatorio.nextInt(3);
+        List<Curso> cursos = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            cursos.add(new Curso("C" + i, "Curso " + i));
+        }
+        List<Estudiante> estudiantes = new ArrayList<>();
+        int m = n + aleatorio.nextInt(4 * n);
+        for (int j = 0; j < m; j++) {
+            Set<Curso> inscritos = new LinkedHashSet<>();
+            int t = 2 + aleatorio.nextInt(3);
+            for (int q = 0; q < t; q++) {
+                inscritos.add(cursos.get(aleatorio.nextInt(n)));
+            }
+            estudiantes.add(new Estudiante("E" + j, new ArrayList<>(inscritos)));
+        }
+        Instancia instancia = new Instancia(cursos, estudiantes, k, pesoConflicto, pesoContigua);
+        String descripcion = "semilla " + semilla + " (n=" + n + ", k=" + k + ", pesos " + pesoConflicto + "/"
+                + pesoContigua + ")";
+
+        // Búsqueda exhaustiva: costo óptimo y horarios óptimos salvo renombrar las franjas.
+        int optimo = Integer.MAX_VALUE;
+        Set<List<Integer>> clases = new HashSet<>();
+        int[] franjas = new int[n];
+        long total = (long) Math.pow(k, n);
+        for (long codigo = 0; codigo < total; codigo++) {
+            long resto = codigo;
+            for (int i = 0; i < n; i++) {
+                franjas[i] = (int) (resto % k);
+                resto /= k;
+            }
+            int costo = instancia.costo(franjas);
+            if (costo < optimo) {
+                optimo = costo;
+                clases.clear();
+            }
+            if (costo == optimo) {
+                clases.add(instancia.canonico(franjas));
+            }
+        }
+
+        int fallos = 0;
+        for (PoliticaBusqueda politica : PoliticaBusqueda.values()) {
+            for (int variante = 0; variante < 8; variante++) {
+                OptimizadorHorarios optimizador = instancia.crearOptimizador();
+                optimizador.setPoliticaBusqueda(politica);
+                optimizador.setEvaluacionPerezosa((variante & 1) != 0);
+                optimizador.setFronteraEmpaquetada((variante & 2) != 0);
+                optimizador.setProgramacionDinamica((variante & 4) != 0);
+                OptimizadorHorarios.Solucion solucion = optimizador.resolver();
+                int real = instancia.costo(solucion.horario());
+                if (solucion.conflictos() != optimo || real != optimo) {
+                    fallos++;
+                    System.out.println("resolver " + politica + " variante " + variante + ", " + descripcion
+                            + ": costo " + solucion.conflictos() + " (real " + real + "), optimo " + optimo);
+                }
+            }
+        }
+
+        GrafoCompacto grafo = new GrafoCompacto(new GrafoConflictos(cursos, estudiantes), cursos);
+        ProgramacionDinamicaArbol programacion = new ProgramacionDinamicaArbol(grafo, k, pesoConflicto,
+                pesoContigua, ProgramacionDinamicaArbol.LIMITE_ESTADOS_POR_DEFECTO, () -> false);
+        OptimizadorHorarios.ResultadoNucleo exacto = programacion.resolver();
+        if (exacto != null) {
+            int real = instancia.costo(exacto.franjas());
+            if (exacto.conflictos() != optimo || real != optimo) {
+                fallos++;
+                System.out.println("programacion dinamica, " + descripcion + ": costo " + exacto.conflictos()
+                        + " (real " + real + "), optimo " + optimo);
+            }
+        }
+
+        for (int limite : LIMITES_ENUMERACION) {
+            for (PoliticaBusqueda politica : PoliticaBusqueda.values()) {
+                OptimizadorHorarios optimizador = instancia.crearOptimizador();
+                optimizador.setPoliticaBusqueda(politica);
+                List<OptimizadorHorarios.Solucion> soluciones = optimizador.enumerarOptimos(limite);
+                Set<List<Integer>> vistas = new HashSet<>();
+                String error = null;
+                for (OptimizadorHorarios.Solucion solucion : soluciones) {
+                    int real = instancia.costo(solucion.horario());
+                    if (solucion.conflictos() != optimo || real != optimo) {
+                        error = "costo " + solucion.conflictos() + " (real " + real + "), optimo " + optimo;
+                    } else if (!vistas.add(instancia.canonico(instancia.franjas(solucion.horario())))) {
+                        error = "horario repetido";
+                    }
+                }
+                int esperados = Math.min(limite, clases.size());
+                if (error == null && soluciones.size() != esperados) {
+                    error = soluciones.size() + " horarios, se esperaban " + esperados;
+                }
+                if (error != null) {
+                    fallos++;
+                    System.out.println("enumerarOptimos(" + limite + ") " + politica + ", " + descripcion + ": "
+                            + error);
+                }
+            }
+        }
+        return fallos;
+    }
+
+    /**
+     * Instancia aleatoria con su función objetivo evaluada directamente sobre
+     * los estudiantes, sin pasar por el grafo de conflictos.
+     */
+    private record Instancia(List<Curso> cursos, List<Estudiante> estudiantes, int numeroFranjas,
+            int pesoConflicto, int pesoContigua) {
+
+        OptimizadorHorarios crearOptimizador() {
+            OptimizadorHorarios optimizador = new OptimizadorHorarios(cursos, estudiantes, numeroFranjas);
+            optimizador.setPesosObjetivo(pesoConflicto, pesoContigua);
+            return optimizador;
+        }
+
+        int[] franjas(Map<Curso, Integer> horario) {
+            int[] franjas = new int[cursos.size()];
+            for (int i = 0; i < franjas.length; i++) {
+                franjas[i] = horario.get(cursos.get(i));
+            }
+            return franjas;
+        }
+
+        int costo(Map<Curso, Integer> horario) {
+            return costo(franjas(horario));
+        }
+
+        /**
+         * Costo de un horario (franja de cada curso, en el orden de la lista
+         * de cursos).
+         */
+        int costo(int[] franjas) {
+            int costo = 0;
+            for (Estudiante estudiante : estudiantes) {
+                List<Curso> inscritos = estudiante.cursos();
+                for (int a = 0; a < inscritos.size(); a++) {
+                    for (int b = a + 1; b < inscritos.size(); b++) {
+                        int distancia = Math.abs(franjas[cursos.indexOf(inscritos.get(a))]
+                                - franjas[cursos.indexOf(inscritos.get(b))]);
+                        if (distancia == 0) {
+                            costo += pesoConflicto;
+                        } else if (distancia == 1) {
+                            costo += pesoContigua;
+                        }
+                    }
+                }
+            }
+            return costo;
+        }
+
+        /**
+         * Forma canónica con la misma equivalencia que la enumeración: sin
+         * franjas contiguas, franjas renumeradas por orden de aparición; con
+         * ellas, el menor entre el horario y su inverso.
+         */
+        List<Integer> canonico(int[] franjas) {
+            int[] resultado = new int[franjas.length];
+            if (pesoContigua == 0) {
+                int[] nombre = new int[numeroFranjas];
+                Arrays.fill(nombre, -1);
+                int siguiente = 0;
+                for (int i = 0; i < franjas.length; i++) {
+                    if (nombre[franjas[i]] < 0) {
+                        nombre[franjas[i]] = siguiente++;
+                    }
+                    resultado[i] = nombre[franjas[i]];
+                }
+            } else {
+                for (int i = 0; i < franjas.length; i++) {
+                    resultado[i] = numeroFranjas - 1 - franjas[i];
+                }
+                if (Arrays.compare(resultado, franjas) > 0) {
+                    resultado = franjas;
+                }
+            }
+            return Arrays.stream(resultado).boxed().toList();
+        }
+    }
+}